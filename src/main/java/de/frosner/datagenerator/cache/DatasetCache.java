@@ -0,0 +1,250 @@
+package de.frosner.datagenerator.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFormat;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.SchemaFingerprint;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Cache of generated data sets in a local directory. A data set is addressed by a hash of everything determining its
+ * content: the features, their distributions and dependencies, the seed, the number of instances and the export
+ * format. Requesting the same data set again returns the file generated before instead of generating it once more.
+ * <p>
+ * Data sets are generated into a temporary file, forced onto the storage device and renamed to their final name, so a
+ * file in the cache is always complete. If the cache grows beyond its maximum size, the least recently used data sets
+ * are deleted. A data set larger than the maximum size is kept until the next one is published. The access order is
+ * restored from the modification times of the files when a cache is created, so only one cache instance should use a
+ * directory at a time.
+ */
+@ThreadSafe
+public final class DatasetCache {
+
+	private static final String KEY_VERSION = "2";
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private final File _directory;
+	private final long _maxSizeInBytes;
+	private final LinkedHashMap<String, Long> _sizesInAccessOrder = new LinkedHashMap<String, Long>(16, 0.75f, true);
+	private long _sizeInBytes = 0;
+
+	/**
+	 * Creates a new {@linkplain DatasetCache} in the specified directory, which is created if necessary. Data sets
+	 * already stored in the directory are used.
+	 *
+	 * @param directory
+	 *            to store the data sets in
+	 * @param maxSizeInBytes
+	 *            maximum total size of all data sets
+	 * @throws UncheckedIOException
+	 *             if the directory cannot be created
+	 */
+	public DatasetCache(@Nonnull File directory, long maxSizeInBytes) {
+		Check.notNull(directory, "directory");
+		Check.stateIsTrue(maxSizeInBytes > 0, "Maximum size must be > 0.");
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new UncheckedIOException(new IOException("Could not create cache directory " + directory));
+		}
+		_directory = directory;
+		_maxSizeInBytes = maxSizeInBytes;
+
+		File[] files = listDatasets();
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File first, File second) {
+				long difference = first.lastModified() - second.lastModified();
+				return (difference == 0) ? first.getName().compareTo(second.getName()) : (difference < 0 ? -1 : 1);
+			}
+		});
+		for (File file : files) {
+			_sizesInAccessOrder.put(file.getName(), file.length());
+			_sizeInBytes += file.length();
+		}
+	}
+
+	/**
+	 * Returns the file containing the specified data set, generating it if it is not cached yet.
+	 *
+	 * @param featureDefinitionGraph
+	 *            defining the features to generate
+	 * @param numberOfInstances
+	 *            to generate
+	 * @param seed
+	 *            of the generation
+	 * @param format
+	 *            of the file
+	 * @return file containing the data set, which must not be modified
+	 * @throws UncheckedIOException
+	 *             if the data set cannot be written
+	 */
+	public File get(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances, long seed,
+			@Nonnull ExportFormat format) {
+		File cached = getIfPresent(featureDefinitionGraph, numberOfInstances, seed, format);
+		if (cached != null) {
+			return cached;
+		}
+		return publish(featureDefinitionGraph, numberOfInstances, seed, format);
+	}
+
+	/**
+	 * Returns the file containing the specified data set if it is cached.
+	 *
+	 * @param featureDefinitionGraph
+	 *            defining the features to generate
+	 * @param numberOfInstances
+	 *            to generate
+	 * @param seed
+	 *            of the generation
+	 * @param format
+	 *            of the file
+	 * @return file containing the data set, which must not be modified, or {@code null} if it is not cached
+	 */
+	@CheckForNull
+	public File getIfPresent(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			long seed, @Nonnull ExportFormat format) {
+		File file = getFile(computeKey(featureDefinitionGraph, numberOfInstances, seed, format), format);
+		synchronized (this) {
+			Long size = _sizesInAccessOrder.get(file.getName());
+			if (size == null) {
+				return null;
+			}
+			if (!file.isFile()) {
+				_sizesInAccessOrder.remove(file.getName());
+				_sizeInBytes -= size;
+				return null;
+			}
+			file.setLastModified(System.currentTimeMillis());
+			return file;
+		}
+	}
+
+	/**
+	 * @return total size of all cached data sets
+	 */
+	public synchronized long getSizeInBytes() {
+		return _sizeInBytes;
+	}
+
+	/**
+	 * Computes the key of the specified data set from the {@linkplain SchemaFingerprint} of the feature definitions and
+	 * the remaining generation settings. The key only depends on the content of the data set, so equal feature
+	 * definitions built separately have the same key.
+	 *
+	 * @return hexadecimal SHA-256 hash identifying the data set
+	 */
+	@VisibleForTesting
+	static String computeKey(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			long seed, @Nonnull ExportFormat format) {
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		Check.notNull(format, "format");
+		MessageDigest digest = SchemaFingerprint.newDigest();
+		SchemaFingerprint.update(digest, KEY_VERSION);
+		SchemaFingerprint.update(digest, featureDefinitionGraph);
+		SchemaFingerprint.update(digest, Long.toString(numberOfInstances));
+		SchemaFingerprint.update(digest, Long.toString(seed));
+		SchemaFingerprint.update(digest, format.getDescription());
+		return SchemaFingerprint.toHexString(digest);
+	}
+
+	private File publish(FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances, long seed,
+			ExportFormat format) {
+		String key = computeKey(featureDefinitionGraph, numberOfInstances, seed, format);
+		File file = getFile(key, format);
+		File temporaryFile = null;
+		try {
+			temporaryFile = File.createTempFile(key + ".", TEMPORARY_FILE_SUFFIX, _directory);
+			ExportConnection connection = format.createExportConnection(new BufferedOutputStream(
+					new FileOutputStream(temporaryFile)), file.getPath());
+			try {
+				new DataGenerator(numberOfInstances, connection, featureDefinitionGraph, seed).generate();
+			} finally {
+				connection.close();
+			}
+			sync(temporaryFile);
+			if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+				throw new IOException("Could not rename " + temporaryFile + " to " + file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if (temporaryFile != null) {
+				temporaryFile.delete();
+			}
+		}
+
+		synchronized (this) {
+			Long replacedSize = _sizesInAccessOrder.put(file.getName(), file.length());
+			_sizeInBytes += file.length() - ((replacedSize == null) ? 0 : replacedSize);
+			evict(file.getName());
+		}
+		return file;
+	}
+
+	/**
+	 * Deletes the least recently used data sets until the cache fits into its maximum size, keeping the specified one.
+	 */
+	private void evict(String keep) {
+		Iterator<Map.Entry<String, Long>> leastRecentlyUsed = _sizesInAccessOrder.entrySet().iterator();
+		while (_sizeInBytes > _maxSizeInBytes && leastRecentlyUsed.hasNext()) {
+			Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+			if (entry.getKey().equals(keep)) {
+				continue;
+			}
+			File file = new File(_directory, entry.getKey());
+			if (file.delete() || !file.exists()) {
+				leastRecentlyUsed.remove();
+				_sizeInBytes -= entry.getValue();
+			}
+		}
+	}
+
+	private static void sync(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.getFD().sync();
+		} finally {
+			Closeables.closeQuietly(randomAccessFile);
+		}
+	}
+
+	private File getFile(String key, ExportFormat format) {
+		return new File(_directory, key + "." + format.getFileExtension());
+	}
+
+	private File[] listDatasets() {
+		File[] files = _directory.listFiles();
+		if (files == null) {
+			throw new UncheckedIOException(new IOException("Could not list cache directory " + _directory));
+		}
+		int numberOfDatasets = 0;
+		for (File file : files) {
+			if (file.isFile() && !file.getName().endsWith(TEMPORARY_FILE_SUFFIX)) {
+				files[numberOfDatasets++] = file;
+			}
+		}
+		return Arrays.copyOf(files, numberOfDatasets);
+	}
+
+}
@@ -0,0 +1,96 @@
+package de.frosner.datagenerator.distributed;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+
+import de.frosner.datagenerator.exceptions.DistributedGenerationException;
+
+/**
+ * Line based protocol between a {@linkplain GenerationCoordinator} and its {@linkplain GenerationWorker}s. Every
+ * message is a line starting with a command followed by arguments separated by single spaces. The last argument of a
+ * message may contain spaces.
+ *
+ * <pre>
+ * worker:      HELLO &lt;schema&gt;
+ * coordinator: JOB &lt;seed&gt; &lt;numberOfInstances&gt; &lt;heartbeatMillis&gt; | ERROR &lt;message&gt;
+ * worker:      LEASE
+ * coordinator: RANGE &lt;startId&gt; &lt;endId&gt; | DONE
+ * worker:      PROGRESS &lt;startId&gt; &lt;endId&gt; (every heartbeatMillis while generating the range)
+ * worker:      COMPLETE &lt;startId&gt; &lt;endId&gt; &lt;location&gt;
+ * </pre>
+ *
+ * Leasing and completing are repeated until the coordinator answers DONE. Messages may be sent from several threads.
+ */
+final class CoordinatorProtocol {
+
+	static final String HELLO = "HELLO";
+	static final String JOB = "JOB";
+	static final String ERROR = "ERROR";
+	static final String LEASE = "LEASE";
+	static final String RANGE = "RANGE";
+	static final String DONE = "DONE";
+	static final String PROGRESS = "PROGRESS";
+	static final String COMPLETE = "COMPLETE";
+
+	private static final String SEPARATOR = " ";
+	private static final Map<String, Integer> NUMBER_OF_ARGUMENTS = new ImmutableMap.Builder<String, Integer>()
+			.put(HELLO, 1).put(JOB, 3).put(LEASE, 0).put(RANGE, 2).put(DONE, 0).put(PROGRESS, 2).put(COMPLETE, 3)
+			.build();
+
+	private final BufferedReader _in;
+	private final Writer _out;
+
+	CoordinatorProtocol(Socket socket) throws IOException {
+		_in = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+		_out = new OutputStreamWriter(socket.getOutputStream(), Charsets.UTF_8);
+	}
+
+	synchronized void send(String command, Object... arguments) throws IOException {
+		StringBuilder message = new StringBuilder(command);
+		for (Object argument : arguments) {
+			message.append(SEPARATOR).append(argument);
+		}
+		_out.write(message.append('\n').toString());
+		_out.flush();
+	}
+
+	/**
+	 * Receives the next message and checks that it is one of the expected commands with the right number of arguments.
+	 *
+	 * @param expectedCommands
+	 *            of the message
+	 * @return command followed by the arguments, or null if the peer closed the connection
+	 * @throws DistributedGenerationException
+	 *             if the message is not expected, or if it is an error message
+	 */
+	String[] receive(String... expectedCommands) throws IOException {
+		String line = _in.readLine();
+		if (line == null) {
+			return null;
+		}
+		String command = line.split(SEPARATOR, 2)[0];
+		if (command.equals(ERROR)) {
+			throw new DistributedGenerationException("Rejected by peer: " + line.substring(ERROR.length()).trim());
+		}
+		for (String expectedCommand : expectedCommands) {
+			if (command.equals(expectedCommand)) {
+				int numberOfArguments = NUMBER_OF_ARGUMENTS.get(command);
+				String[] message = line.split(SEPARATOR, numberOfArguments + 1);
+				if (message.length != numberOfArguments + 1) {
+					throw new DistributedGenerationException("Malformed message: " + line);
+				}
+				return message;
+			}
+		}
+		throw new DistributedGenerationException("Unexpected message: " + line);
+	}
+
+}
@@ -0,0 +1,201 @@
+package de.frosner.datagenerator.distributed;
+
+import static de.frosner.datagenerator.util.PropertiesUtil.getRequiredProperty;
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+import de.frosner.datagenerator.util.PropertiesUtil;
+
+/**
+ * Immutable description of a data set generated by several {@linkplain GenerationWorker}s. It lists the shards written
+ * by the workers ordered by their first instance ID. The shards cover all instance IDs of the data set exactly once, so
+ * concatenating them in this order yields the data set.
+ */
+@Immutable
+public final class DatasetManifest {
+
+	private static final String NUMBER_OF_INSTANCES = "numberOfInstances";
+	private static final String SEED = "seed";
+	private static final String SCHEMA = "schema";
+	private static final String NUMBER_OF_SHARDS = "numberOfShards";
+	private static final String SHARD_PREFIX = "shard.";
+	private static final String START_ID = ".startId";
+	private static final String END_ID = ".endId";
+	private static final String LOCATION = ".location";
+
+	private final long _numberOfInstances;
+	private final long _seed;
+	private final String _schema;
+	private final List<Shard> _shards;
+
+	/**
+	 * Shard of a distributed data set containing the instances with IDs in [startId, endId).
+	 */
+	@Immutable
+	public static final class Shard {
+
+		private final long _startId;
+		private final long _endId;
+		private final String _location;
+
+		public Shard(long startId, long endId, @Nonnull String location) {
+			Check.stateIsTrue(startId >= 0 && startId < endId, "Shard must contain [startId, endId) with startId >= 0.");
+			_startId = startId;
+			_endId = endId;
+			_location = Check.notEmpty(location, "location");
+		}
+
+		public long getStartId() {
+			return _startId;
+		}
+
+		public long getEndId() {
+			return _endId;
+		}
+
+		public String getLocation() {
+			return _location;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof Shard) {
+				Shard shard = (Shard) o;
+				return shard._startId == _startId && shard._endId == _endId && shard._location.equals(_location);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (_startId ^ (_startId >>> 32));
+		}
+
+		@Override
+		public String toString() {
+			return "[" + _startId + ", " + _endId + ") -> " + _location;
+		}
+
+	}
+
+	/**
+	 * Creates a new {@linkplain DatasetManifest}.
+	 *
+	 * @param numberOfInstances
+	 *            of the data set
+	 * @param seed
+	 *            the data set was generated with
+	 * @param schema
+	 *            description of the feature definitions, see
+	 *            {@linkplain GenerationCheckpoint#describeSchema(de.frosner.datagenerator.generator.FeatureDefinitionGraph)}
+	 * @param shards
+	 *            ordered by their first instance ID, covering [0, numberOfInstances) without gaps or overlaps
+	 */
+	public DatasetManifest(long numberOfInstances, long seed, @Nonnull String schema, @Nonnull List<Shard> shards) {
+		Check.noNullElements(shards, "shards");
+		long nextId = 0;
+		for (Shard shard : shards) {
+			Check.stateIsTrue(shard.getStartId() == nextId, "Shard %s does not start at instance ID %d.", shard, nextId);
+			nextId = shard.getEndId();
+		}
+		Check.stateIsTrue(nextId == numberOfInstances, "Shards end at instance ID %d instead of %d.", nextId,
+				numberOfInstances);
+		_numberOfInstances = numberOfInstances;
+		_seed = seed;
+		_schema = Check.notNull(schema, "schema");
+		_shards = ImmutableList.copyOf(shards);
+	}
+
+	/**
+	 * Reads a manifest written by {@linkplain #writeTo(File)}.
+	 *
+	 * @param file
+	 *            to read from
+	 * @return manifest read
+	 * @throws UncheckedIOException
+	 *             if the file cannot be read
+	 */
+	public static DatasetManifest readFrom(@Nonnull File file) {
+		Properties properties = PropertiesUtil.load(file);
+		int numberOfShards = Integer.parseInt(getRequiredProperty(properties, NUMBER_OF_SHARDS));
+		List<Shard> shards = Lists.newArrayListWithCapacity(numberOfShards);
+		for (int i = 0; i < numberOfShards; i++) {
+			shards.add(new Shard(Long.parseLong(getRequiredProperty(properties, SHARD_PREFIX + i + START_ID)), Long
+					.parseLong(getRequiredProperty(properties, SHARD_PREFIX + i + END_ID)), getRequiredProperty(
+					properties, SHARD_PREFIX + i + LOCATION)));
+		}
+		return new DatasetManifest(Long.parseLong(getRequiredProperty(properties, NUMBER_OF_INSTANCES)),
+				Long.parseLong(getRequiredProperty(properties, SEED)), getRequiredProperty(properties, SCHEMA), shards);
+	}
+
+	/**
+	 * Writes the manifest atomically to the specified file, so readers either see the complete manifest or none.
+	 *
+	 * @param file
+	 *            to write to
+	 * @throws UncheckedIOException
+	 *             if the file cannot be written
+	 */
+	public void writeTo(@Nonnull File file) {
+		Properties properties = new Properties();
+		properties.setProperty(NUMBER_OF_INSTANCES, Long.toString(_numberOfInstances));
+		properties.setProperty(SEED, Long.toString(_seed));
+		properties.setProperty(SCHEMA, _schema);
+		properties.setProperty(NUMBER_OF_SHARDS, Integer.toString(_shards.size()));
+		for (int i = 0; i < _shards.size(); i++) {
+			properties.setProperty(SHARD_PREFIX + i + START_ID, Long.toString(_shards.get(i).getStartId()));
+			properties.setProperty(SHARD_PREFIX + i + END_ID, Long.toString(_shards.get(i).getEndId()));
+			properties.setProperty(SHARD_PREFIX + i + LOCATION, _shards.get(i).getLocation());
+		}
+		PropertiesUtil.storeAtomically(properties, file, DatasetManifest.class.getSimpleName());
+	}
+
+	public long getNumberOfInstances() {
+		return _numberOfInstances;
+	}
+
+	public long getSeed() {
+		return _seed;
+	}
+
+	public String getSchema() {
+		return _schema;
+	}
+
+	public List<Shard> getShards() {
+		return _shards;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof DatasetManifest) {
+			DatasetManifest manifest = (DatasetManifest) o;
+			return manifest._numberOfInstances == _numberOfInstances && manifest._seed == _seed
+					&& manifest._schema.equals(_schema) && manifest._shards.equals(_shards);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (_numberOfInstances ^ (_numberOfInstances >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "[" + _numberOfInstances + " instances in " + _shards.size() + " shards, seed = " + _seed + "]";
+	}
+
+}
@@ -0,0 +1,366 @@
+package de.frosner.datagenerator.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.exceptions.DistributedGenerationException;
+import de.frosner.datagenerator.exceptions.MethodNotCallableTwiceException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+import de.frosner.datagenerator.util.RangeUtil;
+
+/**
+ * Coordinates the deterministic generation of a data set by several {@linkplain GenerationWorker}s connecting over TCP.
+ * The instance IDs are partitioned into leases of a fixed size which are handed out to the workers on request. Every
+ * worker generates its leased ranges into shards of its own and reports the location of each shard on completion.
+ * <p>
+ * While generating a lease, workers report their progress at a third of the lease timeout. If a worker disconnects or
+ * stays silent for the lease timeout, its lease is handed to the next worker asking for one. A slow worker therefore
+ * keeps its lease as long as it is alive, however long the lease takes to generate. Generation is deterministic, so a
+ * range generated twice yields identical shards. As soon as all ranges have been completed, a
+ * {@linkplain DatasetManifest} listing the shards is written.
+ * <p>
+ * Workers must use the same feature definitions as the coordinator. This is checked by comparing the schema
+ * descriptions, which cover the distribution parameters, when a worker connects.
+ */
+public final class GenerationCoordinator {
+
+	public static final int DEFAULT_LEASE_SIZE = 100000;
+	public static final int DEFAULT_LEASE_TIMEOUT_MILLIS = 60 * 1000;
+
+	private static final int HEARTBEATS_PER_LEASE_TIMEOUT = 3;
+
+	private static final Comparator<DatasetManifest.Shard> SHARD_ORDER = new Comparator<DatasetManifest.Shard>() {
+		@Override
+		public int compare(DatasetManifest.Shard first, DatasetManifest.Shard second) {
+			return (first.getStartId() < second.getStartId()) ? -1 : ((first.getStartId() == second.getStartId()) ? 0
+					: 1);
+		}
+	};
+
+	private final int _port;
+	private final String _schema;
+	private final long _numberOfInstances;
+	private final long _seed;
+	private final int _leaseSize;
+	private final int _leaseTimeoutMillis;
+	private final File _manifestFile;
+
+	private ServerSocket _serverSocket;
+	private ExecutorService _executor;
+	private final Set<Socket> _workerSockets = Sets.newHashSet();
+
+	// guarded by this
+	private long _nextStartId = 0;
+	private final Queue<long[]> _expiredLeases = new LinkedList<long[]>();
+	private final Map<Long, DatasetManifest.Shard> _completedShards = Maps.newHashMap();
+	private long _numberOfCompletedInstances = 0;
+	private int _numberOfExpiredLeases = 0;
+	private DatasetManifest _manifest;
+	private boolean _isStopped = false;
+
+	/**
+	 * Creates a new {@linkplain GenerationCoordinator} listening on an arbitrary free port using the default lease size
+	 * and timeout.
+	 *
+	 * @param featureDefinitionGraph
+	 *            of the data set
+	 * @param numberOfInstances
+	 *            to generate
+	 * @param seed
+	 *            of the deterministic generation
+	 * @param manifestFile
+	 *            to write the {@linkplain DatasetManifest} to
+	 */
+	public GenerationCoordinator(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			long seed, @Nonnull File manifestFile) {
+		this(0, featureDefinitionGraph, numberOfInstances, seed, DEFAULT_LEASE_SIZE, DEFAULT_LEASE_TIMEOUT_MILLIS,
+				manifestFile);
+	}
+
+	/**
+	 * Creates a new {@linkplain GenerationCoordinator}.
+	 *
+	 * @param port
+	 *            to listen on, 0 for an arbitrary free port
+	 * @param featureDefinitionGraph
+	 *            of the data set
+	 * @param numberOfInstances
+	 *            to generate
+	 * @param seed
+	 *            of the deterministic generation
+	 * @param leaseSize
+	 *            maximum number of instance IDs leased to a worker at once
+	 * @param leaseTimeoutMillis
+	 *            time a worker may stay silent before its lease is handed to another worker, at least 3 ms so that
+	 *            workers can report their progress in between
+	 * @param manifestFile
+	 *            to write the {@linkplain DatasetManifest} to
+	 */
+	public GenerationCoordinator(int port, @Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			long numberOfInstances, long seed, int leaseSize, int leaseTimeoutMillis, @Nonnull File manifestFile) {
+		Check.stateIsTrue(port >= 0, "Port must be >= 0.");
+		Check.stateIsTrue(numberOfInstances > 0, "Number of instances to generate must be > 0.");
+		Check.stateIsTrue(leaseSize > 0, "Lease size must be > 0.");
+		Check.stateIsTrue(leaseTimeoutMillis >= HEARTBEATS_PER_LEASE_TIMEOUT, "Lease timeout must be >= %s ms.",
+				HEARTBEATS_PER_LEASE_TIMEOUT);
+		_port = port;
+		_schema = GenerationCheckpoint.describeSchema(featureDefinitionGraph);
+		_numberOfInstances = numberOfInstances;
+		_seed = seed;
+		_leaseSize = leaseSize;
+		_leaseTimeoutMillis = leaseTimeoutMillis;
+		_manifestFile = Check.notNull(manifestFile, "manifestFile");
+	}
+
+	/**
+	 * Starts listening for workers.
+	 *
+	 * @throws MethodNotCallableTwiceException
+	 *             if the coordinator has already been started
+	 * @throws UncheckedIOException
+	 *             if the port cannot be bound
+	 */
+	public synchronized void start() {
+		if (_serverSocket != null) {
+			throw new MethodNotCallableTwiceException();
+		}
+		try {
+			_serverSocket = new ServerSocket(_port);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		_executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("generation-coordinator-%d")
+				.setDaemon(true).build());
+		_executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				acceptWorkers();
+			}
+		});
+	}
+
+	/**
+	 * @return port the coordinator is listening on
+	 */
+	public synchronized int getPort() {
+		Check.stateIsTrue(_serverSocket != null, "Coordinator has not been started.");
+		return _serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Waits until all leases have been completed and the manifest has been written.
+	 *
+	 * @param timeout
+	 *            maximum time to wait
+	 * @param unit
+	 *            of the timeout
+	 * @return manifest written, or null if the timeout elapsed or the coordinator was stopped before
+	 */
+	@CheckForNull
+	public synchronized DatasetManifest awaitCompletion(long timeout, @Nonnull TimeUnit unit)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		long remaining = unit.toNanos(timeout);
+		while (_manifest == null && !_isStopped && remaining > 0) {
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			remaining = deadline - System.nanoTime();
+		}
+		return _manifest;
+	}
+
+	/**
+	 * @return number of instances whose leases have been completed
+	 */
+	public synchronized long getNumberOfCompletedInstances() {
+		return _numberOfCompletedInstances;
+	}
+
+	/**
+	 * @return number of leases that have been handed to another worker because their worker failed
+	 */
+	public synchronized int getNumberOfExpiredLeases() {
+		return _numberOfExpiredLeases;
+	}
+
+	/**
+	 * Stops listening and disconnects all workers. Workers still connected are told nothing; their leases are lost.
+	 */
+	public void stop() {
+		synchronized (this) {
+			_isStopped = true;
+			notifyAll();
+			if (_serverSocket == null) {
+				return;
+			}
+			_executor.shutdownNow();
+			Closeables.closeQuietly(_serverSocket);
+		}
+		synchronized (_workerSockets) {
+			for (Socket socket : _workerSockets) {
+				Closeables.closeQuietly(socket);
+			}
+		}
+	}
+
+	private void acceptWorkers() {
+		while (true) {
+			final Socket socket;
+			try {
+				socket = _serverSocket.accept();
+			} catch (IOException e) {
+				// closed by stop()
+				return;
+			}
+			try {
+				_executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						serveWorker(socket);
+					}
+				});
+			} catch (RuntimeException e) {
+				Closeables.closeQuietly(socket);
+				return;
+			}
+		}
+	}
+
+	private void serveWorker(Socket socket) {
+		synchronized (_workerSockets) {
+			_workerSockets.add(socket);
+		}
+		long[] lease = null;
+		try {
+			socket.setSoTimeout(_leaseTimeoutMillis);
+			CoordinatorProtocol protocol = new CoordinatorProtocol(socket);
+			String[] hello = protocol.receive(CoordinatorProtocol.HELLO);
+			if (hello == null) {
+				return;
+			}
+			if (!hello[1].equals(_schema)) {
+				protocol.send(CoordinatorProtocol.ERROR, "Worker features " + hello[1] + " differ from " + _schema);
+				return;
+			}
+			protocol.send(CoordinatorProtocol.JOB, _seed, _numberOfInstances, _leaseTimeoutMillis
+					/ HEARTBEATS_PER_LEASE_TIMEOUT);
+
+			while (true) {
+				String[] message = protocol.receive(CoordinatorProtocol.LEASE, CoordinatorProtocol.PROGRESS,
+						CoordinatorProtocol.COMPLETE);
+				if (message == null) {
+					return;
+				}
+				if (message[0].equals(CoordinatorProtocol.PROGRESS)) {
+					checkLeased(lease, message);
+				} else if (message[0].equals(CoordinatorProtocol.LEASE)) {
+					Check.stateIsTrue(lease == null, "Worker requested a lease before completing its last one.");
+					lease = acquireLease();
+					if (lease == null) {
+						protocol.send(CoordinatorProtocol.DONE);
+						return;
+					}
+					protocol.send(CoordinatorProtocol.RANGE, lease[0], lease[1]);
+				} else {
+					checkLeased(lease, message);
+					completeLease(new DatasetManifest.Shard(lease[0], lease[1], message[3]));
+					lease = null;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			// worker disconnected or timed out, its lease expires below
+		} catch (RuntimeException e) {
+			// worker violated the protocol, its lease expires below
+		} finally {
+			if (lease != null) {
+				expireLease(lease);
+			}
+			synchronized (_workerSockets) {
+				_workerSockets.remove(socket);
+			}
+			Closeables.closeQuietly(socket);
+		}
+	}
+
+	private static void checkLeased(long[] lease, String[] message) {
+		if (lease == null || Long.parseLong(message[1]) != lease[0] || Long.parseLong(message[2]) != lease[1]) {
+			throw new DistributedGenerationException("Worker reported a range it has not leased.");
+		}
+	}
+
+	/**
+	 * Returns the next lease, preferring expired leases. If all leases are held by other workers, waits until one of
+	 * them expires or all have been completed.
+	 *
+	 * @return [startId, endId) of the lease, or null if all leases have been completed
+	 */
+	private synchronized long[] acquireLease() throws InterruptedException {
+		while (!_isStopped) {
+			if (!_expiredLeases.isEmpty()) {
+				return _expiredLeases.poll();
+			}
+			if (_nextStartId < _numberOfInstances) {
+				long startId = _nextStartId;
+				_nextStartId = RangeUtil.endOfRange(startId, _leaseSize, _numberOfInstances);
+				return new long[] { startId, _nextStartId };
+			}
+			if (_numberOfCompletedInstances == _numberOfInstances) {
+				return null;
+			}
+			wait();
+		}
+		return null;
+	}
+
+	private synchronized void expireLease(long[] lease) {
+		_expiredLeases.add(lease);
+		_numberOfExpiredLeases++;
+		notifyAll();
+	}
+
+	/**
+	 * Records the completed shard. The manifest is written before the last shard is recorded, so if writing fails, the
+	 * lease expires and is completed again by another worker.
+	 */
+	private synchronized void completeLease(DatasetManifest.Shard shard) {
+		long numberOfCompletedInstances = _numberOfCompletedInstances + shard.getEndId() - shard.getStartId();
+		if (numberOfCompletedInstances == _numberOfInstances) {
+			List<DatasetManifest.Shard> shards = Lists.newArrayList(_completedShards.values());
+			shards.add(shard);
+			Collections.sort(shards, SHARD_ORDER);
+			DatasetManifest manifest = new DatasetManifest(_numberOfInstances, _seed, _schema, shards);
+			manifest.writeTo(_manifestFile);
+			_manifest = manifest;
+		}
+		_completedShards.put(shard.getStartId(), shard);
+		_numberOfCompletedInstances = numberOfCompletedInstances;
+		notifyAll();
+	}
+
+}
@@ -0,0 +1,184 @@
+package de.frosner.datagenerator.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.exceptions.DistributedGenerationException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.CsvFileExportConfiguration;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+
+/**
+ * Connects to a {@linkplain GenerationCoordinator} and generates the ranges of instance IDs leased from it until all
+ * ranges have been leased. Every range is generated into a CSV shard of its own in the output directory. A shard is
+ * written to a temporary file which is renamed when the range is complete, so shards of failed workers are never
+ * mistaken for complete ones.
+ * <p>
+ * While a range is being generated, a background thread reports the progress to the coordinator at the heartbeat
+ * interval it requested, so that the lease of a worker slowly generating a large range does not expire.
+ */
+public final class GenerationWorker {
+
+	private static final String SHARD_FILE_FORMAT = "part-%019d-%019d.csv";
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private final String _host;
+	private final int _port;
+	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final File _outputDirectory;
+	private final ExportInstanceIds _isExportingInstanceIds;
+	private final ExportFeatureNames _isExportingFeatureNames;
+
+	/**
+	 * Creates a new {@linkplain GenerationWorker}.
+	 *
+	 * @param host
+	 *            of the coordinator
+	 * @param port
+	 *            of the coordinator
+	 * @param featureDefinitionGraph
+	 *            of the data set, equal to the one of the coordinator
+	 * @param outputDirectory
+	 *            to write the shards to
+	 * @param isExportingInstanceIds
+	 * @param isExportingFeatureNames
+	 */
+	public GenerationWorker(@Nonnull String host, int port, @Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			@Nonnull File outputDirectory, ExportInstanceIds isExportingInstanceIds,
+			ExportFeatureNames isExportingFeatureNames) {
+		_host = Check.notEmpty(host, "host");
+		_port = port;
+		_featureDefinitionGraph = Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		_outputDirectory = Check.notNull(outputDirectory, "outputDirectory");
+		_isExportingInstanceIds = isExportingInstanceIds;
+		_isExportingFeatureNames = isExportingFeatureNames;
+	}
+
+	/**
+	 * Generates leased ranges until the coordinator has no more ranges to lease.
+	 *
+	 * @return number of ranges generated
+	 * @throws UncheckedIOException
+	 *             if the connection to the coordinator fails or a shard cannot be written
+	 * @throws DistributedGenerationException
+	 *             if the coordinator rejects the worker
+	 */
+	public int run() {
+		Socket socket = null;
+		ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setNameFormat("generation-worker-heartbeat-%d").setDaemon(true).build());
+		try {
+			socket = new Socket(_host, _port);
+			CoordinatorProtocol protocol = new CoordinatorProtocol(socket);
+			protocol.send(CoordinatorProtocol.HELLO, GenerationCheckpoint.describeSchema(_featureDefinitionGraph));
+			String[] job = checkReceived(protocol.receive(CoordinatorProtocol.JOB));
+			long seed = Long.parseLong(job[1]);
+			long numberOfInstances = Long.parseLong(job[2]);
+			long heartbeatMillis = Long.parseLong(job[3]);
+
+			int numberOfGeneratedRanges = 0;
+			while (true) {
+				protocol.send(CoordinatorProtocol.LEASE);
+				String[] lease = checkReceived(protocol.receive(CoordinatorProtocol.RANGE, CoordinatorProtocol.DONE));
+				if (lease[0].equals(CoordinatorProtocol.DONE)) {
+					return numberOfGeneratedRanges;
+				}
+				long startId = Long.parseLong(lease[1]);
+				long endId = Long.parseLong(lease[2]);
+				ProgressReport progressReport = new ProgressReport(protocol, startId, endId);
+				ScheduledFuture<?> progress = heartbeat.scheduleAtFixedRate(progressReport, heartbeatMillis,
+						heartbeatMillis, TimeUnit.MILLISECONDS);
+				File shard;
+				try {
+					shard = generateShard(numberOfInstances, seed, startId, endId);
+				} finally {
+					progress.cancel(false);
+					progressReport.stop();
+				}
+				protocol.send(CoordinatorProtocol.COMPLETE, startId, endId, shard.getAbsolutePath());
+				numberOfGeneratedRanges++;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			heartbeat.shutdownNow();
+			Closeables.closeQuietly(socket);
+		}
+	}
+
+	private File generateShard(long numberOfInstances, long seed, long startId, long endId) throws IOException {
+		File shard = new File(_outputDirectory, String.format(SHARD_FILE_FORMAT, startId, endId));
+		File temporaryShard = new File(shard.getPath() + TEMPORARY_FILE_SUFFIX);
+		ExportConnection out = new CsvFileExportConfiguration(temporaryShard, _isExportingInstanceIds,
+				_isExportingFeatureNames).createExportConnection();
+		try {
+			new DataGenerator(numberOfInstances, out, _featureDefinitionGraph, seed).generate(startId, endId - startId);
+		} finally {
+			out.close();
+		}
+		if (!temporaryShard.renameTo(shard) && !(shard.delete() && temporaryShard.renameTo(shard))) {
+			throw new IOException("Could not rename " + temporaryShard + " to " + shard);
+		}
+		return shard;
+	}
+
+	/**
+	 * Reports the progress of a range until it is stopped. No report is sent after {@linkplain #stop()} returned, so
+	 * reports never follow the completion of the range.
+	 */
+	private static final class ProgressReport implements Runnable {
+
+		private final CoordinatorProtocol _protocol;
+		private final long _startId;
+		private final long _endId;
+		private boolean _isStopped = false;
+
+		ProgressReport(CoordinatorProtocol protocol, long startId, long endId) {
+			_protocol = protocol;
+			_startId = startId;
+			_endId = endId;
+		}
+
+		@Override
+		public synchronized void run() {
+			if (_isStopped) {
+				return;
+			}
+			try {
+				_protocol.send(CoordinatorProtocol.PROGRESS, _startId, _endId);
+			} catch (IOException e) {
+				// the connection is lost, which the generating thread notices when completing the range
+			}
+		}
+
+		synchronized void stop() {
+			_isStopped = true;
+		}
+
+	}
+
+	private static String[] checkReceived(String[] message) {
+		if (message == null) {
+			throw new DistributedGenerationException("Coordinator closed the connection.");
+		}
+		return message;
+	}
+
+}
@@ -0,0 +1,78 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.exceptions.IllegalProbabilityArgumentException;
+import de.frosner.datagenerator.util.StatisticsUtil;
+
+/**
+ * Alias table of a discrete probability distribution built with Vose's method. Building the table takes linear time,
+ * drawing a sample takes constant time independent of the number of values.
+ */
+@Immutable
+final class AliasTable {
+
+	private final double[] _probabilities;
+	private final int[] _aliases;
+
+	/**
+	 * @throws IllegalProbabilityArgumentException
+	 *             if the probabilities do not sum up to 1
+	 */
+	AliasTable(List<Double> probabilities) {
+		StatisticsUtil.cumulateProbabilities(probabilities);
+		int size = probabilities.size();
+		_probabilities = new double[size];
+		_aliases = new int[size];
+
+		double[] scaled = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int numberOfSmall = 0;
+		int numberOfLarge = 0;
+		for (int i = 0; i < size; i++) {
+			double probability = probabilities.get(i);
+			Check.stateIsTrue(probability >= 0, IllegalProbabilityArgumentException.class);
+			scaled[i] = probability * size;
+			if (scaled[i] < 1) {
+				small[numberOfSmall++] = i;
+			} else {
+				large[numberOfLarge++] = i;
+			}
+		}
+		while (numberOfSmall > 0 && numberOfLarge > 0) {
+			int less = small[--numberOfSmall];
+			int more = large[--numberOfLarge];
+			_probabilities[less] = scaled[less];
+			_aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if (scaled[more] < 1) {
+				small[numberOfSmall++] = more;
+			} else {
+				large[numberOfLarge++] = more;
+			}
+		}
+		// remaining columns are only off by rounding errors
+		while (numberOfLarge > 0) {
+			_probabilities[large[--numberOfLarge]] = 1;
+		}
+		while (numberOfSmall > 0) {
+			_probabilities[small[--numberOfSmall]] = 1;
+		}
+	}
+
+	int sample(Random random) {
+		int column = random.nextInt(_probabilities.length);
+		return (random.nextDouble() < _probabilities[column]) ? column : _aliases[column];
+	}
+
+	int size() {
+		return _probabilities.length;
+	}
+
+}
@@ -1,8 +1,6 @@
 package de.frosner.datagenerator.distributions;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Random;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
@@ -16,7 +14,6 @@ import com.google.common.collect.Sets;
 import de.frosner.datagenerator.exceptions.IllegalProbabilityArgumentException;
 import de.frosner.datagenerator.features.DiscreteFeatureValue;
 import de.frosner.datagenerator.features.FeatureValue;
-import de.frosner.datagenerator.util.VisibleForTesting;
 
 /**
  * Representation of a Bernoulli distribution. It samples {@linkplain DiscreteFeatureValue}s of 0 or 1 depending on the
@@ -31,7 +28,7 @@ public class BernoulliDistribution implements DiscreteDistribution {
 	private static final String TYPE = "Bernoulli";
 
 	private final Parameter<Double> _p;
-	private final Random _random;
+	private final PerThreadRandom _random;
 
 	/**
 	 * Construct a {@linkplain BernoulliDistribution} with the given success probability.
@@ -43,7 +40,7 @@ public class BernoulliDistribution implements DiscreteDistribution {
 		Check.notNull(p);
 
 		_p = p;
-		_random = new Random();
+		_random = new PerThreadRandom();
 	}
 
 	@Override
@@ -51,7 +48,7 @@ public class BernoulliDistribution implements DiscreteDistribution {
 		double pValue = _p.getParameter();
 		Check.stateIsTrue(pValue >= 0 && pValue <= 1, IllegalProbabilityArgumentException.class);
 
-		double randomNumber = _random.nextDouble();
+		double randomNumber = _random.get().nextDouble();
 		return (Double.compare(randomNumber, pValue) < 0) ? HEADS : TAILS;
 	}
 
@@ -62,7 +59,11 @@ public class BernoulliDistribution implements DiscreteDistribution {
 
 	@Override
 	public String getParameterDescription() {
-		return "p = " + _p.getParameter();
+		return "p = " + _p;
+	}
+
+	public Parameter<Double> getP() {
+		return _p;
 	}
 
 	@Override
@@ -72,12 +73,9 @@ public class BernoulliDistribution implements DiscreteDistribution {
 
 	@Override
 	public Collection<VariableParameter<?>> getDependentParameters() {
-		if (_p instanceof VariableParameter<?>) {
-			Collection<VariableParameter<?>> result = Lists.newArrayList();
-			result.add((VariableParameter<?>) _p);
-			return result;
-		}
-		return Collections.emptyList();
+		Collection<VariableParameter<?>> result = Lists.newArrayList();
+		result.addAll(ConditionalTableParameter.getVariableParameters(_p));
+		return result;
 	}
 
 	@Override
@@ -95,9 +93,9 @@ public class BernoulliDistribution implements DiscreteDistribution {
 
 	}
 
-	@VisibleForTesting
-	void setSeed(long seed) {
-		_random.setSeed(seed);
+	@Override
+	public void setSeed(long seed) {
+		_random.get().setSeed(seed);
 	}
 
 }
@@ -1,42 +1,76 @@
 package de.frosner.datagenerator.distributions;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import net.sf.qualitycheck.Check;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
+import de.frosner.datagenerator.exceptions.IllegalProbabilityArgumentException;
 import de.frosner.datagenerator.features.DiscreteFeatureValue;
 import de.frosner.datagenerator.features.FeatureValue;
 import de.frosner.datagenerator.util.StatisticsUtil;
-import de.frosner.datagenerator.util.VisibleForTesting;
 
 @Immutable
 public final class CategorialDistribution implements DiscreteDistribution {
 
 	private static final String TYPE = "Categorial";
 
-	private final Parameter<List<Double>> _probabilities;
-	private final Random _random;
+	private static final Function<List<Double>, AliasTable> TO_ALIAS_TABLE = new Function<List<Double>, AliasTable>() {
+		@Override
+		public AliasTable apply(List<Double> probabilities) {
+			return new AliasTable(probabilities);
+		}
+	};
 
+	private final Parameter<List<Double>> _probabilities;
+	private final Parameter<AliasTable> _aliasTables;
+	private final PerThreadRandom _random;
+
+	/**
+	 * Constructs a {@linkplain CategorialDistribution} with the specified probabilities. If they are fixed or given by
+	 * a {@linkplain ConditionalTableParameter}, alias tables are built once so sampling takes constant time.
+	 *
+	 * @param probabilities
+	 *            of the values 0, 1, 2, ...
+	 */
 	public CategorialDistribution(@Nonnull Parameter<List<Double>> probabilities) {
 		Check.notNull(probabilities, "probabilities");
 
 		_probabilities = probabilities;
-		_random = new Random();
+		_aliasTables = createAliasTables(probabilities);
+		_random = new PerThreadRandom();
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Parameter<AliasTable> createAliasTables(Parameter<List<Double>> probabilities) {
+		try {
+			if (probabilities instanceof FixedParameter<?>) {
+				return new FixedParameter<AliasTable>(TO_ALIAS_TABLE.apply(probabilities.getParameter()));
+			} else if (probabilities instanceof ConditionalTableParameter<?>) {
+				return ((ConditionalTableParameter<List<Double>>) probabilities).transform(TO_ALIAS_TABLE);
+			}
+		} catch (IllegalProbabilityArgumentException e) {
+			// invalid probabilities are reported when sampling
+		}
+		return null;
 	}
 
 	@Override
 	public FeatureValue sample() {
-		double randomValue = _random.nextDouble();
+		if (_aliasTables != null) {
+			return new DiscreteFeatureValue(_aliasTables.getParameter().sample(_random.get()));
+		}
+		double randomValue = _random.get().nextDouble();
 		int featureValue = 0;
 		List<Double> cumulativeProbabilities = StatisticsUtil.cumulateProbabilities(_probabilities.getParameter());
 		for (double threshold : cumulativeProbabilities) {
@@ -58,10 +92,22 @@ public final class CategorialDistribution implements DiscreteDistribution {
 		return "p = " + _probabilities;
 	}
 
+	public Parameter<List<Double>> getProbabilities() {
+		return _probabilities;
+	}
+
 	@Override
+	@SuppressWarnings("unchecked")
 	public Set<FeatureValue> getPossibleValues() {
 		Set<FeatureValue> possibleValues = Sets.newHashSet();
-		for (int i = 0; i < _probabilities.getParameter().size(); i++) {
+		int numberOfValues;
+		if (_probabilities instanceof ConditionalTableParameter<?>) {
+			ConditionalTableParameter<List<Double>> table = (ConditionalTableParameter<List<Double>>) _probabilities;
+			numberOfValues = table.getValue(new int[table.getNumberOfParents()]).size();
+		} else {
+			numberOfValues = _probabilities.getParameter().size();
+		}
+		for (int i = 0; i < numberOfValues; i++) {
 			possibleValues.add(new DiscreteFeatureValue(i));
 		}
 		return possibleValues;
@@ -69,12 +115,9 @@ public final class CategorialDistribution implements DiscreteDistribution {
 
 	@Override
 	public Collection<VariableParameter<?>> getDependentParameters() {
-		if (_probabilities instanceof VariableParameter<?>) {
-			Collection<VariableParameter<?>> result = Lists.newArrayList();
-			result.add((VariableParameter<?>) _probabilities);
-			return result;
-		}
-		return Collections.emptyList();
+		Collection<VariableParameter<?>> result = Lists.newArrayList();
+		result.addAll(ConditionalTableParameter.getVariableParameters(_probabilities));
+		return result;
 	}
 
 	@Override
@@ -91,9 +134,9 @@ public final class CategorialDistribution implements DiscreteDistribution {
 		}
 	}
 
-	@VisibleForTesting
-	void setSeed(long seed) {
-		_random.setSeed(seed);
+	@Override
+	public void setSeed(long seed) {
+		_random.get().setSeed(seed);
 	}
 
 }
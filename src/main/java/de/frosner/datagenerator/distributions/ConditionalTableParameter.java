@@ -0,0 +1,226 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+
+import de.frosner.datagenerator.exceptions.FeatureValueCannotBeMappedException;
+import de.frosner.datagenerator.exceptions.VariableParameterNotSetException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Parameter conditioned on several discrete parent features, like a conditional probability table of a Bayesian
+ * network. The parameter values of all combinations of parent values are stored in a flat array. A combination is
+ * located by interpreting the parent values as the digits of a mixed radix number, the first parent being the most
+ * significant digit. Looking up a parameter therefore neither hashes nor boxes anything.
+ * <p>
+ * The table takes part in the {@linkplain de.frosner.datagenerator.generator.FeatureDefinitionGraph} through one
+ * {@linkplain VariableParameter} per parent, returned by {@linkplain #getParentParameters()}. Each of them receives the
+ * value of its parent and stores it as a digit. The parameter can be read once all digits have been set.
+ *
+ * @param <T>
+ *            type of the parameter
+ */
+public final class ConditionalTableParameter<T> extends Parameter<T> {
+
+	private final List<ParentParameter> _parentParameters;
+	private final int[] _cardinalities;
+	private final int[] _strides;
+	private final Object[] _values;
+	private final ThreadLocal<int[]> _digits;
+
+	/**
+	 * Parameter receiving the value of one parent feature of a {@linkplain ConditionalTableParameter}.
+	 */
+	public static final class ParentParameter extends VariableParameter<Integer> {
+
+		private final ThreadLocal<int[]> _digits;
+		private final int _position;
+		private final int _cardinality;
+
+		private ParentParameter(FeatureDefinition parent, ThreadLocal<int[]> digits, int position, int cardinality) {
+			super(parent);
+			_digits = digits;
+			_position = position;
+			_cardinality = cardinality;
+		}
+
+		@Override
+		public void updateParameter(FeatureValue value) {
+			Check.instanceOf(DiscreteFeatureValue.class, value, "value");
+			int digit = ((DiscreteFeatureValue) value).getIntValue();
+			if (digit < 0 || digit >= _cardinality) {
+				throw new FeatureValueCannotBeMappedException(value);
+			}
+			_digits.get()[_position] = digit;
+		}
+
+	}
+
+	/**
+	 * Constructs a new {@linkplain ConditionalTableParameter}. The values are ordered by the combination of parent
+	 * values, the last parent varying fastest. For parents A with two and B with three values the order is (A=0, B=0),
+	 * (A=0, B=1), (A=0, B=2), (A=1, B=0) and so on.
+	 *
+	 * @param parents
+	 *            discrete features the parameter is conditioned on
+	 * @param cardinalities
+	 *            number of values of each parent, which are expected to be 0, 1, ..., cardinality - 1
+	 * @param values
+	 *            of the parameter for every combination of parent values
+	 */
+	public ConditionalTableParameter(@Nonnull List<FeatureDefinition> parents, @Nonnull int[] cardinalities,
+			@Nonnull List<T> values) {
+		Check.noNullElements(parents, "parents");
+		Check.notNull(cardinalities, "cardinalities");
+		Check.noNullElements(values, "values");
+		Check.stateIsTrue(!parents.isEmpty(), "At least one parent is required.");
+		Check.stateIsTrue(parents.size() == cardinalities.length, "Every parent needs a cardinality.");
+
+		_cardinalities = cardinalities.clone();
+		_strides = new int[cardinalities.length];
+		long size = 1;
+		for (int i = cardinalities.length - 1; i >= 0; i--) {
+			Check.stateIsTrue(cardinalities[i] > 0, "Cardinalities must be > 0.");
+			_strides[i] = (int) size;
+			size *= cardinalities[i];
+			Check.stateIsTrue(size <= Integer.MAX_VALUE, "Table has too many entries.");
+		}
+		Check.stateIsTrue(values.size() == size, "Table needs " + size + " values but got " + values.size() + ".");
+		_values = values.toArray();
+		_digits = new ThreadLocal<int[]>() {
+			@Override
+			protected int[] initialValue() {
+				int[] digits = new int[_cardinalities.length];
+				Arrays.fill(digits, -1);
+				return digits;
+			}
+		};
+
+		ImmutableList.Builder<ParentParameter> parentParameters = ImmutableList.builder();
+		for (int i = 0; i < parents.size(); i++) {
+			parentParameters.add(new ParentParameter(parents.get(i), _digits, i, cardinalities[i]));
+		}
+		_parentParameters = parentParameters.build();
+	}
+
+	private ConditionalTableParameter(ConditionalTableParameter<?> table, Object[] values) {
+		_parentParameters = table._parentParameters;
+		_cardinalities = table._cardinalities;
+		_strides = table._strides;
+		_digits = table._digits;
+		_values = values;
+	}
+
+	/**
+	 * Returns a table holding the transformed values of this table. Both tables share their parent parameters, so the
+	 * transformed table can be read instead of this one without adding dependencies to the graph. Reading either table
+	 * resets the parent values of both.
+	 *
+	 * @param function
+	 *            transforming each value once
+	 * @return table of transformed values
+	 */
+	@SuppressWarnings("unchecked")
+	public <U> ConditionalTableParameter<U> transform(@Nonnull Function<? super T, ? extends U> function) {
+		Check.notNull(function, "function");
+		Object[] values = new Object[_values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Check.notNull(function.apply((T) _values[i]), "function result");
+		}
+		return new ConditionalTableParameter<U>(this, values);
+	}
+
+	/**
+	 * Returns one {@linkplain VariableParameter} per parent, in the order of the parents. Each of them has to be added
+	 * as a dependency of its parent to the graph.
+	 *
+	 * @return parameters receiving the parent values
+	 */
+	public List<ParentParameter> getParentParameters() {
+		return _parentParameters;
+	}
+
+	/**
+	 * Returns the value of the table for the specified combination of parent values.
+	 *
+	 * @param parentValues
+	 *            value of each parent
+	 * @return table value
+	 */
+	@SuppressWarnings("unchecked")
+	public T getValue(int... parentValues) {
+		Check.stateIsTrue(parentValues.length == _cardinalities.length, "Every parent needs a value.");
+		int index = 0;
+		for (int i = 0; i < parentValues.length; i++) {
+			Check.stateIsTrue(parentValues[i] >= 0 && parentValues[i] < _cardinalities[i],
+					"Parent value out of range.");
+			index += parentValues[i] * _strides[i];
+		}
+		return (T) _values[index];
+	}
+
+	public int getNumberOfParents() {
+		return _cardinalities.length;
+	}
+
+	/**
+	 * @return number of combinations of parent values, i.e. number of values of the table
+	 */
+	public int getNumberOfRows() {
+		return _values.length;
+	}
+
+	/**
+	 * Returns the parameter for the parent values received in the current thread and resets them.
+	 *
+	 * @throws VariableParameterNotSetException
+	 *             if not all parent values have been received
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T getParameter() {
+		int[] digits = _digits.get();
+		int index = 0;
+		for (int i = 0; i < digits.length; i++) {
+			if (digits[i] < 0) {
+				throw new VariableParameterNotSetException();
+			}
+			index += digits[i] * _strides[i];
+		}
+		Arrays.fill(digits, -1);
+		return (T) _values[index];
+	}
+
+	@Override
+	public String toString() {
+		return "Table" + Arrays.toString(_cardinalities) + " " + Arrays.asList(_values);
+	}
+
+	/**
+	 * Returns the {@linkplain VariableParameter}s the specified parameter depends on. These are the parameter itself if
+	 * it is variable, the parent parameters if it is a {@linkplain ConditionalTableParameter}, and none otherwise.
+	 *
+	 * @param parameter
+	 *            to get the dependencies of
+	 * @return variable parameters the specified parameter depends on
+	 */
+	static List<? extends VariableParameter<?>> getVariableParameters(Parameter<?> parameter) {
+		if (parameter instanceof VariableParameter<?>) {
+			return Collections.singletonList((VariableParameter<?>) parameter);
+		} else if (parameter instanceof ConditionalTableParameter<?>) {
+			return ((ConditionalTableParameter<?>) parameter).getParentParameters();
+		}
+		return Collections.emptyList();
+	}
+
+}
@@ -23,7 +23,7 @@ public class ContinuousVariableParameter extends VariableParameter<Double> {
 	@Override
 	public void updateParameter(FeatureValue value) {
 		Check.instanceOf(ContinuousFeatureValue.class, value, "value");
-		_parameter = ((ContinuousFeatureValue) value).getDoubleValue();
+		setParameter(((ContinuousFeatureValue) value).getDoubleValue());
 	}
 
 }
@@ -0,0 +1,63 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.UnmodifiableIterator;
+
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Unmodifiable set of the {@linkplain DiscreteFeatureValue}s 0, 1, ..., size - 1. Values are created while iterating, so
+ * the set takes constant memory regardless of its size.
+ */
+@Immutable
+final class DiscreteFeatureValueRange extends AbstractSet<FeatureValue> {
+
+	private final int _size;
+
+	DiscreteFeatureValueRange(int size) {
+		_size = size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof DiscreteFeatureValue) {
+			int value = ((DiscreteFeatureValue) o).getIntValue();
+			return value >= 0 && value < _size;
+		}
+		return false;
+	}
+
+	@Override
+	public Iterator<FeatureValue> iterator() {
+		return new UnmodifiableIterator<FeatureValue>() {
+
+			private int _next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return _next < _size;
+			}
+
+			@Override
+			public FeatureValue next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return new DiscreteFeatureValue(_next++);
+			}
+
+		};
+	}
+
+	@Override
+	public int size() {
+		return _size;
+	}
+
+}
@@ -15,7 +15,10 @@ import de.frosner.datagenerator.features.FeatureValue;
 
 public class DiscreteVariableParameter<T> extends VariableParameter<T> {
 
+	private static final int MAX_DENSE_VALUE = 1 << 10;
+
 	private final Map<DiscreteFeatureValue, T> _featureValueParameterMapping;
+	private final Object[] _denseMapping;
 
 	/**
 	 * Constructs a new {@linkplain DiscreteVariableParameter} with the specified probabilities conditioned on the
@@ -30,16 +33,54 @@ public class DiscreteVariableParameter<T> extends VariableParameter<T> {
 			@Nonnull FeatureDefinition featureDefinition) {
 		super(featureDefinition);
 		_featureValueParameterMapping = Maps.newHashMap(Check.notNull(featureValueParameterMapping));
+		_denseMapping = createDenseMapping(_featureValueParameterMapping);
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public void updateParameter(FeatureValue value) {
 		Check.instanceOf(DiscreteFeatureValue.class, value, "value");
-		if (!_featureValueParameterMapping.containsKey(value)) {
+		T parameter;
+		if (_denseMapping != null) {
+			int index = ((DiscreteFeatureValue) value).getIntValue();
+			parameter = (index >= 0 && index < _denseMapping.length) ? (T) _denseMapping[index] : null;
+		} else {
+			parameter = _featureValueParameterMapping.get(value);
+		}
+		if (parameter == null) {
 			throw new FeatureValueCannotBeMappedException(value);
 		}
 
-		_parameter = _featureValueParameterMapping.get(value);
+		setParameter(parameter);
+	}
+
+	@Override
+	public String toString() {
+		Map<Integer, T> sortedMapping = Maps.newTreeMap();
+		for (Map.Entry<DiscreteFeatureValue, T> entry : _featureValueParameterMapping.entrySet()) {
+			sortedMapping.put(entry.getKey().getIntValue(), entry.getValue());
+		}
+		return super.toString() + " " + sortedMapping;
+	}
+
+	/**
+	 * Creates an array indexed by the feature value if all values are small and non-negative, so parameters can be
+	 * looked up without hashing.
+	 */
+	private static Object[] createDenseMapping(Map<DiscreteFeatureValue, ?> mapping) {
+		int maxValue = -1;
+		for (Map.Entry<DiscreteFeatureValue, ?> entry : mapping.entrySet()) {
+			int value = entry.getKey().getIntValue();
+			if (value < 0 || value >= MAX_DENSE_VALUE || entry.getValue() == null) {
+				return null;
+			}
+			maxValue = Math.max(maxValue, value);
+		}
+		Object[] denseMapping = new Object[maxValue + 1];
+		for (Map.Entry<DiscreteFeatureValue, ?> entry : mapping.entrySet()) {
+			denseMapping[entry.getKey().getIntValue()] = entry.getValue();
+		}
+		return denseMapping;
 	}
 
 }
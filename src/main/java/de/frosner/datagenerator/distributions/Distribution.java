@@ -46,4 +46,13 @@ public interface Distribution {
 	 */
 	Collection<VariableParameter<?>> getDependentParameters();
 
+	/**
+	 * Resets the random number generator of the distribution using the specified seed. Subsequent samples only depend
+	 * on the seed and the parameters, which makes it possible to reproduce any part of a generated data set.
+	 * 
+	 * @param seed
+	 *            of the random number generator
+	 */
+	void setSeed(long seed);
+
 }
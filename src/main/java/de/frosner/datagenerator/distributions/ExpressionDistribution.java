@@ -0,0 +1,220 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import de.frosner.datagenerator.exceptions.FeatureValueCannotBeMappedException;
+import de.frosner.datagenerator.exceptions.IllegalExpressionException;
+import de.frosner.datagenerator.exceptions.VariableParameterNotSetException;
+import de.frosner.datagenerator.expressions.Expression;
+import de.frosner.datagenerator.expressions.ExpressionParser;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Distribution of a feature derived from other features by an expression of the {@linkplain ExpressionParser}, like
+ * {@code price * quantity} or {@code sigmoid(2 * x1 - x3) > uniform()}. The expression refers to its input features by
+ * name. Values of discrete inputs are used as numbers. The expression is parsed once when the distribution is created.
+ * <p>
+ * Every input feature updates one {@linkplain VariableParameter} returned by {@linkplain #getInputParameters()}, so the
+ * derived feature takes part in the dependency ordering of the
+ * {@linkplain de.frosner.datagenerator.generator.FeatureDefinitionGraph} like any other conditioned feature. The
+ * expression is evaluated once all inputs have been set. Random numbers of the expression are drawn from the random
+ * number generator of the distribution.
+ */
+@Immutable
+public final class ExpressionDistribution implements ContinuousDistribution {
+
+	private static final String TYPE = "Expression";
+
+	private final String _expressionText;
+	private final Expression _expression;
+	private final List<FeatureDefinition> _inputs;
+	private final List<InputParameter> _inputParameters;
+	private final ThreadLocal<Inputs> _inputValues;
+	private final PerThreadRandom _random;
+
+	/**
+	 * Values of the inputs set in the current thread.
+	 */
+	private static final class Inputs {
+
+		private final double[] _values;
+		private final boolean[] _isSet;
+
+		private Inputs(int numberOfInputs) {
+			_values = new double[numberOfInputs];
+			_isSet = new boolean[numberOfInputs];
+		}
+
+	}
+
+	/**
+	 * Parameter receiving the value of one input feature of an {@linkplain ExpressionDistribution}.
+	 */
+	public static final class InputParameter extends VariableParameter<Double> {
+
+		private final ThreadLocal<Inputs> _inputValues;
+		private final int _position;
+
+		private InputParameter(FeatureDefinition input, ThreadLocal<Inputs> inputValues, int position) {
+			super(input);
+			_inputValues = inputValues;
+			_position = position;
+		}
+
+		@Override
+		public void updateParameter(FeatureValue value) {
+			Inputs inputs = _inputValues.get();
+			inputs._values[_position] = toDouble(value);
+			inputs._isSet[_position] = true;
+		}
+
+	}
+
+	/**
+	 * Creates a new {@linkplain ExpressionDistribution}.
+	 *
+	 * @param expression
+	 *            computing the feature value
+	 * @param inputs
+	 *            features the expression refers to by their names, which must be unique
+	 * @throws IllegalExpressionException
+	 *             if the expression cannot be parsed or refers to unknown features
+	 */
+	public ExpressionDistribution(@Nonnull String expression, @Nonnull List<FeatureDefinition> inputs) {
+		Check.notNull(expression, "expression");
+		Check.noNullElements(inputs, "inputs");
+		List<String> inputNames = Lists.newArrayList();
+		for (FeatureDefinition input : inputs) {
+			inputNames.add(input.getName());
+		}
+		Check.stateIsTrue(Sets.newHashSet(inputNames).size() == inputNames.size(), "Input names must be unique.");
+
+		_expressionText = expression;
+		_expression = ExpressionParser.parse(expression, inputNames);
+		_inputs = ImmutableList.copyOf(inputs);
+		final int numberOfInputs = inputs.size();
+		_inputValues = new ThreadLocal<Inputs>() {
+			@Override
+			protected Inputs initialValue() {
+				return new Inputs(numberOfInputs);
+			}
+		};
+		ImmutableList.Builder<InputParameter> inputParameters = ImmutableList.builder();
+		for (int i = 0; i < numberOfInputs; i++) {
+			inputParameters.add(new InputParameter(inputs.get(i), _inputValues, i));
+		}
+		_inputParameters = inputParameters.build();
+		_random = new PerThreadRandom();
+	}
+
+	/**
+	 * Converts the value of an input feature to the number the expression works with.
+	 *
+	 * @param value
+	 *            of an input feature
+	 * @return value as number
+	 * @throws FeatureValueCannotBeMappedException
+	 *             if the value is neither continuous nor discrete
+	 */
+	public static double toDouble(FeatureValue value) {
+		if (value instanceof ContinuousFeatureValue) {
+			return ((ContinuousFeatureValue) value).getDoubleValue();
+		} else if (value instanceof DiscreteFeatureValue) {
+			return ((DiscreteFeatureValue) value).getIntValue();
+		}
+		throw new FeatureValueCannotBeMappedException(value);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		_random.get().setSeed(seed);
+	}
+
+	@Override
+	public FeatureValue sample() {
+		Inputs inputs = _inputValues.get();
+		for (boolean isSet : inputs._isSet) {
+			if (!isSet) {
+				throw new VariableParameterNotSetException();
+			}
+		}
+		Arrays.fill(inputs._isSet, false);
+		return new ContinuousFeatureValue(_expression.evaluate(inputs._values, _random.get()));
+	}
+
+	/**
+	 * @return compiled expression, which refers to the inputs by their position
+	 */
+	public Expression getExpression() {
+		return _expression;
+	}
+
+	public List<FeatureDefinition> getInputs() {
+		return _inputs;
+	}
+
+	/**
+	 * @return parameters to be updated by the input features, in the order of the inputs
+	 */
+	public List<InputParameter> getInputParameters() {
+		return _inputParameters;
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public String getParameterDescription() {
+		return "f = " + _expressionText;
+	}
+
+	@Override
+	public Interval getPossibleValueInterval() {
+		return Interval.UNBOUNDED;
+	}
+
+	@Override
+	public Collection<VariableParameter<?>> getDependentParameters() {
+		Collection<VariableParameter<?>> result = Lists.newArrayList();
+		result.addAll(_inputParameters);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return ExpressionDistribution.class.getSimpleName() + " (" + getParameterDescription() + ")";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof ExpressionDistribution) {
+			ExpressionDistribution expressionDistribution = (ExpressionDistribution) o;
+			return expressionDistribution._expressionText.equals(_expressionText)
+					&& expressionDistribution._inputs.equals(_inputs);
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return _expressionText.hashCode() * 31 + _inputs.hashCode();
+	}
+
+}
@@ -1,7 +1,6 @@
 package de.frosner.datagenerator.distributions;
 
 import java.util.Collection;
-import java.util.Random;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -13,7 +12,6 @@ import com.google.common.collect.Lists;
 import de.frosner.datagenerator.exceptions.IllegalSigmaParameterArgumentException;
 import de.frosner.datagenerator.features.ContinuousFeatureValue;
 import de.frosner.datagenerator.features.FeatureValue;
-import de.frosner.datagenerator.util.VisibleForTesting;
 
 /**
  * Representation of a Gaussian distribution. It samples {@linkplain ContinuousFeatureValue}s around the given mean with
@@ -24,7 +22,7 @@ public final class GaussianDistribution implements ContinuousDistribution {
 
 	private static final String TYPE = "Gaussian";
 
-	private final Random _generator;
+	private final PerThreadRandom _generator;
 	private final Parameter<Double> _mean;
 	private final Parameter<Double> _sigma;
 
@@ -37,12 +35,12 @@ public final class GaussianDistribution implements ContinuousDistribution {
 	public GaussianDistribution(@Nonnull Parameter<Double> mean, @Nonnull Parameter<Double> sigma) {
 		_mean = Check.notNull(mean, "mean");
 		_sigma = Check.notNull(sigma, "sigma");
-		_generator = new Random();
+		_generator = new PerThreadRandom();
 	}
 
-	@VisibleForTesting
-	void setSeed(long seed) {
-		_generator.setSeed(seed);
+	@Override
+	public void setSeed(long seed) {
+		_generator.get().setSeed(seed);
 	}
 
 	@Override
@@ -51,7 +49,7 @@ public final class GaussianDistribution implements ContinuousDistribution {
 		double sigma = _sigma.getParameter();
 		Check.stateIsTrue(sigma > 0, IllegalSigmaParameterArgumentException.class);
 
-		return new ContinuousFeatureValue(_generator.nextGaussian() * sigma + mean);
+		return new ContinuousFeatureValue(_generator.get().nextGaussian() * sigma + mean);
 	}
 
 	@Override
@@ -64,6 +62,14 @@ public final class GaussianDistribution implements ContinuousDistribution {
 		return "Mean = " + _mean + ", Sigma = " + _sigma;
 	}
 
+	public Parameter<Double> getMean() {
+		return _mean;
+	}
+
+	public Parameter<Double> getSigma() {
+		return _sigma;
+	}
+
 	@Override
 	public Interval getPossibleValueInterval() {
 		return Interval.UNBOUNDED;
@@ -72,12 +78,8 @@ public final class GaussianDistribution implements ContinuousDistribution {
 	@Override
 	public Collection<VariableParameter<?>> getDependentParameters() {
 		Collection<VariableParameter<?>> result = Lists.newArrayList();
-		if (_mean instanceof VariableParameter<?>) {
-			result.add((VariableParameter<?>) _mean);
-		}
-		if (_sigma instanceof VariableParameter<?>) {
-			result.add((VariableParameter<?>) _sigma);
-		}
+		result.addAll(ConditionalTableParameter.getVariableParameters(_mean));
+		result.addAll(ConditionalTableParameter.getVariableParameters(_sigma));
 		return result;
 	}
 
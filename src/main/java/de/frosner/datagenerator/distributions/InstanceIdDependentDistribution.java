@@ -0,0 +1,17 @@
+package de.frosner.datagenerator.distributions;
+
+/**
+ * {@linkplain Distribution} whose samples depend on the ID of the instance being sampled. The ID is set before every
+ * sample in the sampling thread, so a distribution can be shared by concurrent generations.
+ */
+public interface InstanceIdDependentDistribution extends Distribution {
+
+	/**
+	 * Sets the ID of the instance the next call of {@linkplain #sample()} in the current thread samples for.
+	 *
+	 * @param instanceId
+	 *            of the instance to sample
+	 */
+	void setInstanceId(long instanceId);
+
+}
@@ -0,0 +1,17 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.Random;
+
+/**
+ * Random number generator confined to the calling thread. Distributions use it so that a single
+ * {@linkplain Distribution} instance can be sampled by many threads concurrently, each one seeding and advancing its own
+ * generator.
+ */
+final class PerThreadRandom extends ThreadLocal<Random> {
+
+	@Override
+	protected Random initialValue() {
+		return new Random();
+	}
+
+}
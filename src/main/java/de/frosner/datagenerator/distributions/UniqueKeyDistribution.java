@@ -0,0 +1,206 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.exceptions.KeySpaceExhaustedException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.util.SeedUtil;
+
+/**
+ * Distribution of unique keys. The ID of every instance is mapped to a key in 0, 1, ..., key space size - 1 through a
+ * keyed permutation, so keys are unique across the whole data set but not sequential. Uniqueness needs neither memory
+ * of issued keys nor coordination between threads generating different ID ranges.
+ * <p>
+ * The permutation is a balanced Feistel network over the smallest even number of bits covering the key space. Values
+ * outside the key space are encrypted again (cycle walking) until they fall into it, which keeps the mapping bijective
+ * and takes less than four rounds on average.
+ * <p>
+ * Keys are sampled as {@linkplain DiscreteFeatureValue}s, which hold an int, so the key space is limited to
+ * {@linkplain Integer#MAX_VALUE} keys. A unique key feature therefore supports data sets of at most about 2.1 billion
+ * instances, larger ones throw a {@linkplain KeySpaceExhaustedException} for the instance IDs beyond the key space.
+ */
+@Immutable
+public final class UniqueKeyDistribution implements DiscreteDistribution, InstanceIdDependentDistribution {
+
+	private static final String TYPE = "UniqueKey";
+	private static final int NUMBER_OF_ROUNDS = 4;
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final int _keySpaceSize;
+	private final long _key;
+	private final int _halfBits;
+	private final long _halfMask;
+	private final long[] _roundKeys;
+	private final ThreadLocal<long[]> _instanceId = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[] { -1 };
+		}
+	};
+
+	/**
+	 * Constructs a {@linkplain UniqueKeyDistribution} permuting instance IDs into the specified key space.
+	 *
+	 * @param keySpaceSize
+	 *            number of possible keys, which must not be smaller than the number of instances and is at most
+	 *            {@linkplain Integer#MAX_VALUE}
+	 * @param key
+	 *            selecting the permutation
+	 */
+	public UniqueKeyDistribution(int keySpaceSize, long key) {
+		Check.stateIsTrue(keySpaceSize > 0, "Key space size must be > 0.");
+		_keySpaceSize = keySpaceSize;
+		_key = key;
+
+		int bits = Long.SIZE - Long.numberOfLeadingZeros(keySpaceSize - 1L);
+		_halfBits = Math.max(1, (bits + 1) / 2);
+		_halfMask = (1L << _halfBits) - 1;
+		_roundKeys = new long[NUMBER_OF_ROUNDS];
+		for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+			_roundKeys[round] = SeedUtil.mix(key + (round + 1) * GOLDEN_GAMMA);
+		}
+	}
+
+	@Override
+	public void setInstanceId(long instanceId) {
+		_instanceId.get()[0] = instanceId;
+	}
+
+	/**
+	 * @throws KeySpaceExhaustedException
+	 *             if the instance ID is not smaller than the key space size
+	 */
+	@Override
+	public FeatureValue sample() {
+		long[] instanceId = _instanceId.get();
+		Check.stateIsTrue(instanceId[0] >= 0, "Instance ID has not been set.");
+		int key = getKey(instanceId[0]);
+		instanceId[0] = -1;
+		return new DiscreteFeatureValue(key);
+	}
+
+	/**
+	 * Returns the key of the specified instance ID.
+	 *
+	 * @param instanceId
+	 *            to map
+	 * @return unique key of the ID
+	 * @throws KeySpaceExhaustedException
+	 *             if the instance ID is not smaller than the key space size
+	 */
+	public int getKey(long instanceId) {
+		if (instanceId < 0 || instanceId >= _keySpaceSize) {
+			throw new KeySpaceExhaustedException(instanceId, _keySpaceSize);
+		}
+		long value = instanceId;
+		do {
+			value = encrypt(value);
+		} while (value >= _keySpaceSize);
+		return (int) value;
+	}
+
+	/**
+	 * Returns the instance ID a key was assigned to.
+	 *
+	 * @param key
+	 *            in the key space
+	 * @return instance ID having the specified key
+	 */
+	public int getInstanceId(int key) {
+		Check.stateIsTrue(key >= 0 && key < _keySpaceSize, "Key must be in the key space.");
+		long value = key;
+		do {
+			value = decrypt(value);
+		} while (value >= _keySpaceSize);
+		return (int) value;
+	}
+
+	private long encrypt(long value) {
+		long left = value >>> _halfBits;
+		long right = value & _halfMask;
+		for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+			long next = left ^ roundFunction(right, round);
+			left = right;
+			right = next;
+		}
+		return (left << _halfBits) | right;
+	}
+
+	private long decrypt(long value) {
+		long left = value >>> _halfBits;
+		long right = value & _halfMask;
+		for (int round = NUMBER_OF_ROUNDS - 1; round >= 0; round--) {
+			long previous = right ^ roundFunction(left, round);
+			right = left;
+			left = previous;
+		}
+		return (left << _halfBits) | right;
+	}
+
+	private long roundFunction(long half, int round) {
+		return SeedUtil.mix(half ^ _roundKeys[round]) & _halfMask;
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public String getParameterDescription() {
+		return "Key space = " + _keySpaceSize + ", Key = " + _key;
+	}
+
+	public int getKeySpaceSize() {
+		return _keySpaceSize;
+	}
+
+	@Override
+	public Set<FeatureValue> getPossibleValues() {
+		return new DiscreteFeatureValueRange(_keySpaceSize);
+	}
+
+	@Override
+	public Collection<VariableParameter<?>> getDependentParameters() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Does nothing, as keys only depend on the instance IDs.
+	 */
+	@Override
+	public void setSeed(long seed) {
+	}
+
+	@Override
+	public String toString() {
+		return UniqueKeyDistribution.class.getSimpleName() + " (" + getParameterDescription() + ")";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + _keySpaceSize;
+		result = prime * result + (int) (_key ^ (_key >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof UniqueKeyDistribution) {
+			UniqueKeyDistribution uniqueKeyDistribution = (UniqueKeyDistribution) o;
+			return uniqueKeyDistribution._keySpaceSize == _keySpaceSize && uniqueKeyDistribution._key == _key;
+		} else {
+			return false;
+		}
+	}
+
+}
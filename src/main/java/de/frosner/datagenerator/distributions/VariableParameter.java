@@ -11,7 +11,7 @@ public abstract class VariableParameter<T> extends Parameter<T> {
 
 	public static final String KEY = "Conditioned";
 
-	protected T _parameter;
+	private final ThreadLocal<T> _parameter = new ThreadLocal<T>();
 	private FeatureDefinition _featureDefinitionConditionedOn;
 
 	/**
@@ -26,6 +26,17 @@ public abstract class VariableParameter<T> extends Parameter<T> {
 
 	public abstract void updateParameter(FeatureValue value);
 
+	/**
+	 * Sets the parameter value for the next call of {@linkplain #getParameter()} in the current thread. Values are
+	 * confined to the thread that set them, so a parameter can be shared by concurrent generations.
+	 * 
+	 * @param parameter
+	 *            value to set
+	 */
+	protected void setParameter(T parameter) {
+		_parameter.set(parameter);
+	}
+
 	/**
 	 * @return the {@linkplain FeatureDefinition} the parameter belongs to.
 	 */
@@ -35,12 +46,17 @@ public abstract class VariableParameter<T> extends Parameter<T> {
 
 	@Override
 	public T getParameter() {
-		if (_parameter == null) {
+		T parameter = _parameter.get();
+		if (parameter == null) {
 			throw new VariableParameterNotSetException();
 		}
-		T parameter = _parameter;
-		_parameter = null;
+		_parameter.remove();
 		return parameter;
 	}
 
+	@Override
+	public String toString() {
+		return KEY + " on " + _featureDefinitionConditionedOn.getName();
+	}
+
 }
@@ -0,0 +1,213 @@
+package de.frosner.datagenerator.distributions;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalZipfParameterArgumentException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Representation of a Zipf (discrete power law) distribution. It samples {@linkplain DiscreteFeatureValue}s 0, 1, ...,
+ * n - 1, where the probability of value k is proportional to 1 / (k + 1)^s for the exponent s.
+ * <p>
+ * Sampling uses the rejection-inversion method of Hoermann and Derflinger, which takes constant expected time and
+ * memory independent of the number of values, so distributions over millions of values need no probability lists.
+ */
+@Immutable
+public final class ZipfDistribution implements DiscreteDistribution {
+
+	private static final String TYPE = "Zipf";
+
+	private final Parameter<Integer> _numberOfValues;
+	private final Parameter<Double> _exponent;
+	private final RejectionInversionSampler _fixedSampler;
+	private final PerThreadRandom _random;
+
+	/**
+	 * Constructs a {@linkplain ZipfDistribution} with the given number of values and exponent.
+	 *
+	 * @param numberOfValues
+	 *            that can be sampled
+	 * @param exponent
+	 *            of the power law, higher values giving more skew
+	 */
+	public ZipfDistribution(@Nonnull Parameter<Integer> numberOfValues, @Nonnull Parameter<Double> exponent) {
+		_numberOfValues = Check.notNull(numberOfValues, "numberOfValues");
+		_exponent = Check.notNull(exponent, "exponent");
+		_random = new PerThreadRandom();
+		if (numberOfValues instanceof FixedParameter<?> && exponent instanceof FixedParameter<?>
+				&& isValid(numberOfValues.getParameter(), exponent.getParameter())) {
+			_fixedSampler = new RejectionInversionSampler(numberOfValues.getParameter(), exponent.getParameter());
+		} else {
+			_fixedSampler = null;
+		}
+	}
+
+	@Override
+	public FeatureValue sample() {
+		RejectionInversionSampler sampler = _fixedSampler;
+		if (sampler == null) {
+			int numberOfValues = _numberOfValues.getParameter();
+			double exponent = _exponent.getParameter();
+			Check.stateIsTrue(isValid(numberOfValues, exponent), IllegalZipfParameterArgumentException.class);
+			sampler = new RejectionInversionSampler(numberOfValues, exponent);
+		}
+		return new DiscreteFeatureValue(sampler.sample(_random.get()) - 1);
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public String getParameterDescription() {
+		return "n = " + _numberOfValues + ", s = " + _exponent;
+	}
+
+	public Parameter<Integer> getNumberOfValues() {
+		return _numberOfValues;
+	}
+
+	public Parameter<Double> getExponent() {
+		return _exponent;
+	}
+
+	/**
+	 * Returns a view of the values 0, ..., n - 1 that does not hold the values in memory.
+	 */
+	@Override
+	public Set<FeatureValue> getPossibleValues() {
+		return new DiscreteFeatureValueRange(_numberOfValues.getParameter());
+	}
+
+	@Override
+	public Collection<VariableParameter<?>> getDependentParameters() {
+		Collection<VariableParameter<?>> result = Lists.newArrayList();
+		result.addAll(ConditionalTableParameter.getVariableParameters(_numberOfValues));
+		result.addAll(ConditionalTableParameter.getVariableParameters(_exponent));
+		return result;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		_random.get().setSeed(seed);
+	}
+
+	@Override
+	public String toString() {
+		return ZipfDistribution.class.getSimpleName() + " (" + getParameterDescription() + ")";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + _numberOfValues.hashCode();
+		result = prime * result + _exponent.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof ZipfDistribution) {
+			ZipfDistribution zipfDistribution = (ZipfDistribution) o;
+			return zipfDistribution._numberOfValues.equals(_numberOfValues)
+					&& zipfDistribution._exponent.equals(_exponent);
+		} else {
+			return false;
+		}
+	}
+
+	private static boolean isValid(Integer numberOfValues, Double exponent) {
+		return numberOfValues != null && numberOfValues > 0 && exponent != null && exponent > 0;
+	}
+
+	/**
+	 * Rejection-inversion sampler of ranks 1, ..., n as described in W. Hoermann and G. Derflinger, "Rejection-inversion
+	 * to generate variates from monotone discrete distributions", ACM TOMACS 6(3), 1996. The continuous hat function
+	 * h(x) = x^-s is inverted and samples are accepted by comparing with the probability of the nearest rank.
+	 */
+	@Immutable
+	private static final class RejectionInversionSampler {
+
+		private final int _numberOfValues;
+		private final double _exponent;
+		private final double _hIntegralX1;
+		private final double _hIntegralNumberOfValues;
+		private final double _s;
+
+		private RejectionInversionSampler(int numberOfValues, double exponent) {
+			_numberOfValues = numberOfValues;
+			_exponent = exponent;
+			_hIntegralX1 = hIntegral(1.5) - 1;
+			_hIntegralNumberOfValues = hIntegral(numberOfValues + 0.5);
+			_s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+		}
+
+		private int sample(Random random) {
+			while (true) {
+				double u = _hIntegralNumberOfValues + random.nextDouble() * (_hIntegralX1 - _hIntegralNumberOfValues);
+				double x = hIntegralInverse(u);
+				int k = (int) (x + 0.5);
+				if (k < 1) {
+					k = 1;
+				} else if (k > _numberOfValues) {
+					k = _numberOfValues;
+				}
+				if (k - x <= _s || u >= hIntegral(k + 0.5) - h(k)) {
+					return k;
+				}
+			}
+		}
+
+		private double h(double x) {
+			return Math.exp(-_exponent * Math.log(x));
+		}
+
+		private double hIntegral(double x) {
+			double logX = Math.log(x);
+			return expm1Ratio((1 - _exponent) * logX) * logX;
+		}
+
+		private double hIntegralInverse(double x) {
+			double t = x * (1 - _exponent);
+			if (t < -1) {
+				// limit rounding errors close to the pole
+				t = -1;
+			}
+			return Math.exp(log1pRatio(t) * x);
+		}
+
+		/**
+		 * @return log(1 + x) / x, continued to 1 at x = 0
+		 */
+		private static double log1pRatio(double x) {
+			if (Math.abs(x) > 1e-8) {
+				return Math.log1p(x) / x;
+			}
+			return 1 - x * (0.5 - x * (1 / 3d - 0.25 * x));
+		}
+
+		/**
+		 * @return (exp(x) - 1) / x, continued to 1 at x = 0
+		 */
+		private static double expm1Ratio(double x) {
+			if (Math.abs(x) > 1e-8) {
+				return Math.expm1(x) / x;
+			}
+			return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+		}
+
+	}
+
+}
@@ -0,0 +1,17 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that a coordinator or worker of a distributed generation received a message
+ * violating the protocol or was rejected by its peer.
+ */
+public class DistributedGenerationException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public DistributedGenerationException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,19 @@
+package de.frosner.datagenerator.exceptions;
+
+import java.io.IOException;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that the process reading an exported stream, e.g. from a pipe, has closed
+ * its end. Further instances cannot be delivered, so the generation should stop.
+ */
+public class ExportReaderClosedException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public ExportReaderClosedException(String exportLocation, IOException cause) {
+		super("Reader of " + exportLocation + " closed the stream.", cause);
+	}
+
+}
@@ -0,0 +1,16 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that a CSV file cannot be imported because it is malformed.
+ */
+public final class IllegalCsvFormatException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public IllegalCsvFormatException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,16 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that an expression cannot be parsed or refers to unknown features.
+ */
+public final class IllegalExpressionException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public IllegalExpressionException(String expression, int position, String message) {
+		super(message + " at position " + position + " of expression: " + expression);
+	}
+
+}
@@ -0,0 +1,21 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that a Bayesian network description cannot be imported because it is
+ * malformed or inconsistent.
+ */
+public final class IllegalNetworkFormatException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public IllegalNetworkFormatException(String message) {
+		super(message);
+	}
+
+	public IllegalNetworkFormatException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,13 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+public class IllegalZipfParameterArgumentException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public IllegalZipfParameterArgumentException() {
+		super("Zipf distribution number of values and exponent must be positive.");
+	}
+
+}
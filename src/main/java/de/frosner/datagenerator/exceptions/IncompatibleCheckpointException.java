@@ -0,0 +1,18 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that a generation cannot be resumed from a checkpoint because the checkpoint
+ * was recorded with different feature definitions.
+ */
+public class IncompatibleCheckpointException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public IncompatibleCheckpointException(String checkpointSchema, String currentSchema) {
+		super("Checkpoint was recorded for features " + checkpointSchema + " but current features are "
+				+ currentSchema + ".");
+	}
+
+}
@@ -0,0 +1,17 @@
+package de.frosner.datagenerator.exceptions;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * {@linkplain RuntimeException} indicating that a unique key cannot be assigned to an instance because the key space is
+ * smaller than the number of instances.
+ */
+public class KeySpaceExhaustedException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public KeySpaceExhaustedException(long instanceId, long keySpaceSize) {
+		super("Instance " + instanceId + " exceeds the key space of " + keySpaceSize + " unique keys.");
+	}
+
+}
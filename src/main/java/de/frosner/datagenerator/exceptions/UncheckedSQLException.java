@@ -0,0 +1,18 @@
+package de.frosner.datagenerator.exceptions;
+
+import java.sql.SQLException;
+
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * This is a {@linkplain SQLException} wrapped into a {@linkplain RuntimeException}.
+ */
+public final class UncheckedSQLException extends RuntimeException {
+
+	private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+	public UncheckedSQLException(java.sql.SQLException e) {
+		super(e);
+	}
+
+}
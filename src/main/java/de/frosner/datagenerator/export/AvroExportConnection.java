@@ -0,0 +1,238 @@
+package de.frosner.datagenerator.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Sets;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+import de.frosner.datagenerator.util.SeedUtil;
+
+/**
+ * Connection for exporting generated data as Avro object container file to a given {@linkplain OutputStream}. The
+ * schema is a record with a long field for the instance ID, an int field for every feature of a
+ * {@linkplain DiscreteDistribution} and a double field for all other features. It is written into the file header, so
+ * the file is self-describing.
+ * <p>
+ * Feature names not being valid Avro names are adjusted by replacing invalid characters with underscores. Instances
+ * are encoded directly into blocks of up to {@value #BLOCK_SIZE} bytes, without compression.
+ */
+public final class AvroExportConnection extends ExportConnection {
+
+	static final int BLOCK_SIZE = 64 * 1024;
+
+	private static final byte[] MAGIC = new byte[] { 'O', 'b', 'j', 1 };
+	private static final String SCHEMA_KEY = "avro.schema";
+	private static final String CODEC_KEY = "avro.codec";
+	private static final String NULL_CODEC = "null";
+	private static final String RECORD_NAME = "Instance";
+	private static final String ID_FIELD = "ID";
+	private static final int SYNC_MARKER_LENGTH = 16;
+
+	private final OutputStream _out;
+	private final EncodedOutput _block = new EncodedOutput(BLOCK_SIZE);
+	private final EncodedOutput _blockHeader = new EncodedOutput(20);
+	private final boolean _exportInstanceIds;
+	private final String _exportLocation;
+	private boolean[] _isDiscrete;
+	private byte[] _syncMarker;
+	private int _numberOfInstancesInBlock = 0;
+
+	/**
+	 * Creates a new {@linkplain AvroExportConnection} exporting to the specified {@linkplain OutputStream}. The
+	 * specified location is used to display log and error messages.
+	 *
+	 * @param outputStream
+	 *            to export to
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 * @param location
+	 *            textual representation of the export location
+	 */
+	public AvroExportConnection(OutputStream outputStream, ExportInstanceIds exportInstanceIds, String location) {
+		_out = outputStream;
+		_exportInstanceIds = exportInstanceIds.toBoolean();
+		_exportLocation = location;
+	}
+
+	/**
+	 * Creates a new {@linkplain AvroExportConnection} exporting to the specified {@linkplain OutputStream}.
+	 *
+	 * @param outputStream
+	 *            to export to
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 */
+	public AvroExportConnection(OutputStream outputStream, ExportInstanceIds exportInstanceIds) {
+		this(outputStream, exportInstanceIds, outputStream.toString());
+	}
+
+	/**
+	 * Writes the file header containing the schema.
+	 *
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		String schema = createSchema(featureDefinitions);
+		_isDiscrete = new boolean[featureDefinitions.getNumberOfFeatures()];
+		int index = 0;
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			_isDiscrete[index++] = featureDefinition.getDistribution() instanceof DiscreteDistribution;
+		}
+		_syncMarker = createSyncMarker(schema);
+
+		EncodedOutput header = new EncodedOutput(schema.length() + 64);
+		header.write(MAGIC);
+		header.writeZigZag(2);
+		writeBytes(header, SCHEMA_KEY.getBytes(Charsets.UTF_8));
+		writeBytes(header, schema.getBytes(Charsets.UTF_8));
+		writeBytes(header, CODEC_KEY.getBytes(Charsets.UTF_8));
+		writeBytes(header, NULL_CODEC.getBytes(Charsets.UTF_8));
+		header.writeZigZag(0);
+		header.write(_syncMarker);
+		try {
+			header.writeTo(_out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		if (_exportInstanceIds) {
+			_block.writeZigZag(instance.getId());
+		}
+		int index = 0;
+		for (FeatureValue value : instance) {
+			if (_isDiscrete[index++]) {
+				_block.writeZigZag(((DiscreteFeatureValue) value).getIntValue());
+			} else {
+				_block.writeLittleEndian(((ContinuousFeatureValue) value).getDoubleValue());
+			}
+		}
+		_numberOfInstancesInBlock++;
+		if (_block.size() >= BLOCK_SIZE) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	public void close() {
+		if (_numberOfInstancesInBlock > 0) {
+			writeBlock();
+		}
+		try {
+			_out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public String getExportLocation() {
+		return _exportLocation;
+	}
+
+	private void writeBlock() {
+		_blockHeader.reset();
+		_blockHeader.writeZigZag(_numberOfInstancesInBlock);
+		_blockHeader.writeZigZag(_block.size());
+		try {
+			_blockHeader.writeTo(_out);
+			_block.writeTo(_out);
+			_out.write(_syncMarker);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		_block.reset();
+		_numberOfInstancesInBlock = 0;
+	}
+
+	private String createSchema(FeatureDefinitionGraph featureDefinitions) {
+		Set<String> names = Sets.newHashSet();
+		StringBuilder schema = new StringBuilder("{\"type\":\"record\",\"name\":\"" + RECORD_NAME + "\",\"fields\":[");
+		if (_exportInstanceIds) {
+			appendField(schema, uniqueName(ID_FIELD, names), "long");
+		}
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			String type = (featureDefinition.getDistribution() instanceof DiscreteDistribution) ? "int" : "double";
+			appendField(schema, uniqueName(toAvroName(featureDefinition.getName()), names), type);
+		}
+		return schema.append("]}").toString();
+	}
+
+	private static void appendField(StringBuilder schema, String name, String type) {
+		if (schema.charAt(schema.length() - 1) == '}') {
+			schema.append(',');
+		}
+		schema.append("{\"name\":\"").append(name).append("\",\"type\":\"").append(type).append("\"}");
+	}
+
+	/**
+	 * Avro names must start with [A-Za-z_] and contain only [A-Za-z0-9_].
+	 */
+	static String toAvroName(String name) {
+		StringBuilder avroName = new StringBuilder(name.length() + 1);
+		if (name.isEmpty() || !isAvroNameStart(name.charAt(0))) {
+			avroName.append('_');
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			avroName.append((isAvroNameStart(c) || (c >= '0' && c <= '9')) ? c : '_');
+		}
+		return avroName.toString();
+	}
+
+	private static boolean isAvroNameStart(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '_';
+	}
+
+	private static String uniqueName(String name, Set<String> names) {
+		String uniqueName = name;
+		for (int i = 1; !names.add(uniqueName); i++) {
+			uniqueName = name + "_" + i;
+		}
+		return uniqueName;
+	}
+
+	/**
+	 * Derives the sync marker from the schema, so exporting the same data twice yields identical files.
+	 */
+	private static byte[] createSyncMarker(String schema) {
+		byte[] syncMarker = new byte[SYNC_MARKER_LENGTH];
+		long bits = SeedUtil.mix(schema.hashCode());
+		for (int i = 0; i < SYNC_MARKER_LENGTH; i++) {
+			if (i == SYNC_MARKER_LENGTH / 2) {
+				bits = SeedUtil.mix(bits);
+			}
+			syncMarker[i] = (byte) bits;
+			bits >>>= 8;
+		}
+		return syncMarker;
+	}
+
+	private static void writeBytes(EncodedOutput output, byte[] bytes) {
+		output.writeZigZag(bytes.length);
+		output.write(bytes);
+	}
+
+}
@@ -1,11 +1,14 @@
 package de.frosner.datagenerator.export;
 
 import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.Iterator;
 
+import com.google.common.io.CountingOutputStream;
+
 import de.frosner.datagenerator.exceptions.UncheckedIOException;
 import de.frosner.datagenerator.features.FeatureDefinition;
 import de.frosner.datagenerator.features.FeatureValue;
@@ -15,10 +18,16 @@ import de.frosner.datagenerator.generator.Instance;
 /**
  * Connection for exporting generated data in comma separated value (CSV) format to a given {@linkplain OutputStream}.
  * Optionally a textual representation of the export location can be specified to make error messages readable.
+ * <p>
+ * The connection counts the bytes written, so it can report its durable position on {@linkplain #sync()}. Data is only
+ * forced onto the storage device if the connection exports to a {@linkplain FileOutputStream}.
  */
-public final class CsvExportConnection extends ExportConnection {
+public final class CsvExportConnection extends ExportConnection implements DurableExportConnection {
 
 	private final BufferedWriter _out;
+	private final CountingOutputStream _countingStream;
+	private final FileOutputStream _fileOutputStream;
+	private final long _startOffset;
 	private final boolean _exportFeatureNames;
 	private final boolean _exportInstanceIds;
 	private final String _exportLocation;
@@ -38,10 +47,22 @@ public final class CsvExportConnection extends ExportConnection {
 	 */
 	public CsvExportConnection(OutputStream outputStream, ExportFeatureNames exportFeatureNames,
 			ExportInstanceIds exportInstanceIds, String location) {
-		_out = new BufferedWriter(new OutputStreamWriter(outputStream));
-		_exportFeatureNames = exportFeatureNames.toBoolean();
+		this(outputStream, exportFeatureNames, exportInstanceIds, location, 0);
+	}
+
+	/**
+	 * Creates a new {@linkplain CsvExportConnection} continuing an export at the specified byte offset. The specified
+	 * stream must already be positioned there. Feature names are not exported again if the offset is positive.
+	 */
+	CsvExportConnection(OutputStream outputStream, ExportFeatureNames exportFeatureNames,
+			ExportInstanceIds exportInstanceIds, String location, long startOffset) {
+		_countingStream = new CountingOutputStream(outputStream);
+		_fileOutputStream = (outputStream instanceof FileOutputStream) ? (FileOutputStream) outputStream : null;
+		_out = new BufferedWriter(new OutputStreamWriter(_countingStream));
+		_exportFeatureNames = exportFeatureNames.toBoolean() && startOffset == 0;
 		_exportInstanceIds = exportInstanceIds.toBoolean();
 		_exportLocation = location;
+		_startOffset = startOffset;
 	}
 
 	/**
@@ -121,6 +142,23 @@ public final class CsvExportConnection extends ExportConnection {
 		}
 	}
 
+	/**
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	public long sync() {
+		try {
+			_out.flush();
+			if (_fileOutputStream != null) {
+				_fileOutputStream.getFD().sync();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return _startOffset + _countingStream.getCount();
+	}
+
 	@Override
 	public String getExportLocation() {
 		return _exportLocation;
@@ -3,16 +3,23 @@ package de.frosner.datagenerator.export;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 
 import javax.annotation.Nonnull;
 
 import net.sf.qualitycheck.Check;
+
+import com.google.common.io.Closeables;
+
 import de.frosner.datagenerator.exceptions.UncheckedFileNotFoundException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
 
 /**
  * {@linkplain ExportConfiguration} for a {@linkplain CsvExportConnection}.
  */
-public final class CsvFileExportConfiguration implements ExportConfiguration {
+public final class CsvFileExportConfiguration implements ResumableExportConfiguration {
+
+	private static final String CHECKPOINT_FILE_SUFFIX = ".checkpoint";
 
 	private final File _file;
 	private final ExportInstanceIds _isExportingInstanceIds;
@@ -75,4 +82,46 @@ public final class CsvFileExportConfiguration implements ExportConfiguration {
 		}
 	}
 
+	/**
+	 * Returns a file next to the export file having the same name plus the suffix {@value #CHECKPOINT_FILE_SUFFIX}.
+	 */
+	@Override
+	public File getCheckpointFile() {
+		return new File(_file.getPath() + CHECKPOINT_FILE_SUFFIX);
+	}
+
+	/**
+	 * @throws UncheckedFileNotFoundException
+	 *             if the underlying {@linkplain FileOutputStream} throws a {@linkplain FileNotFoundException}.
+	 * @throws UncheckedIOException
+	 *             if the export file cannot be truncated to the specified offset.
+	 **/
+	@Override
+	public ExportConnection resumeExportConnection(long byteOffset) {
+		Check.stateIsTrue(byteOffset >= 0, "Byte offset must be >= 0.");
+		FileOutputStream outputStream;
+		try {
+			outputStream = new FileOutputStream(_file, true);
+		} catch (FileNotFoundException e) {
+			throw new UncheckedFileNotFoundException(e);
+		}
+		long fileSize;
+		try {
+			fileSize = outputStream.getChannel().size();
+			if (fileSize >= byteOffset) {
+				outputStream.getChannel().truncate(byteOffset);
+			}
+		} catch (IOException e) {
+			Closeables.closeQuietly(outputStream);
+			throw new UncheckedIOException(e);
+		}
+		if (fileSize < byteOffset) {
+			Closeables.closeQuietly(outputStream);
+		}
+		Check.stateIsTrue(fileSize >= byteOffset, "Export file " + _file + " is shorter than the checkpoint offset "
+				+ byteOffset + ".");
+		return new CsvExportConnection(outputStream, _isExportingFeatureNames, _isExportingInstanceIds,
+				_file.getAbsolutePath(), byteOffset);
+	}
+
 }
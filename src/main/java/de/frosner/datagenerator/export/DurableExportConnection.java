@@ -0,0 +1,16 @@
+package de.frosner.datagenerator.export;
+
+/**
+ * Capability of an {@linkplain ExportConnection} to make all exported instances durable. Generation services use it to
+ * record checkpoints from which an interrupted generation can be resumed.
+ */
+public interface DurableExportConnection {
+
+	/**
+	 * Flushes all buffers and forces the exported data onto the storage device.
+	 * 
+	 * @return number of bytes durably written to the export location
+	 */
+	long sync();
+
+}
@@ -0,0 +1,115 @@
+package de.frosner.datagenerator.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer for export connections encoding instances themselves. Numbers are encoded directly into the
+ * buffer, so exporting an instance creates no intermediate strings apart from the textual form of doubles.
+ */
+final class EncodedOutput {
+
+	private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+	private byte[] _buffer;
+	private int _size = 0;
+
+	EncodedOutput(int initialCapacity) {
+		_buffer = new byte[initialCapacity];
+	}
+
+	void write(int b) {
+		ensureCapacity(1);
+		_buffer[_size++] = (byte) b;
+	}
+
+	void write(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, _buffer, _size, bytes.length);
+		_size += bytes.length;
+	}
+
+	/**
+	 * Writes a string consisting of ASCII characters only, one byte per character.
+	 */
+	void writeAscii(String ascii) {
+		ensureCapacity(ascii.length());
+		for (int i = 0; i < ascii.length(); i++) {
+			_buffer[_size++] = (byte) ascii.charAt(i);
+		}
+	}
+
+	/**
+	 * Writes the decimal representation of the specified value as ASCII characters.
+	 */
+	void writeDecimal(long value) {
+		if (value == Long.MIN_VALUE) {
+			write(MIN_LONG);
+			return;
+		}
+		ensureCapacity(20);
+		if (value < 0) {
+			_buffer[_size++] = '-';
+			value = -value;
+		}
+		int end = _size + numberOfDigits(value);
+		for (int position = end - 1; position >= _size; position--) {
+			_buffer[position] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		_size = end;
+	}
+
+	/**
+	 * Writes the specified value as variable length zig-zag encoded integer, as used by Avro for int and long values.
+	 */
+	void writeZigZag(long value) {
+		ensureCapacity(10);
+		long encoded = (value << 1) ^ (value >> 63);
+		while ((encoded & ~0x7FL) != 0) {
+			_buffer[_size++] = (byte) ((encoded & 0x7F) | 0x80);
+			encoded >>>= 7;
+		}
+		_buffer[_size++] = (byte) encoded;
+	}
+
+	/**
+	 * Writes the IEEE 754 bits of the specified value in little endian byte order.
+	 */
+	void writeLittleEndian(double value) {
+		ensureCapacity(8);
+		long bits = Double.doubleToLongBits(value);
+		for (int i = 0; i < 8; i++) {
+			_buffer[_size++] = (byte) bits;
+			bits >>>= 8;
+		}
+	}
+
+	int size() {
+		return _size;
+	}
+
+	void writeTo(OutputStream out) throws IOException {
+		out.write(_buffer, 0, _size);
+	}
+
+	void reset() {
+		_size = 0;
+	}
+
+	private void ensureCapacity(int numberOfBytes) {
+		if (_size + numberOfBytes > _buffer.length) {
+			_buffer = Arrays.copyOf(_buffer, Math.max(_buffer.length * 2, _size + numberOfBytes));
+		}
+	}
+
+	private static int numberOfDigits(long nonNegativeValue) {
+		int numberOfDigits = 1;
+		for (long bound = 10; bound <= nonNegativeValue && numberOfDigits < 19; bound *= 10) {
+			numberOfDigits++;
+		}
+		return numberOfDigits;
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.frosner.datagenerator.export;
+
+import java.io.OutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+/**
+ * Immutable format of an export to an {@linkplain OutputStream}, including its options. Two formats with equal
+ * descriptions produce equal output for equal instances.
+ */
+@Immutable
+public abstract class ExportFormat {
+
+	private final String _description;
+	private final String _fileExtension;
+	private final String _contentType;
+
+	private ExportFormat(String description, String fileExtension, String contentType) {
+		_description = description;
+		_fileExtension = fileExtension;
+		_contentType = contentType;
+	}
+
+	/**
+	 * Creates the CSV format of the {@linkplain CsvExportConnection}.
+	 *
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 * @param exportFeatureNames
+	 *            should feature names also be exported?
+	 * @return CSV format
+	 */
+	public static ExportFormat csv(@Nonnull final ExportInstanceIds exportInstanceIds,
+			@Nonnull final ExportFeatureNames exportFeatureNames) {
+		Check.notNull(exportInstanceIds, "exportInstanceIds");
+		Check.notNull(exportFeatureNames, "exportFeatureNames");
+		return new ExportFormat("csv;ids=" + exportInstanceIds.toBoolean() + ";names=" + exportFeatureNames.toBoolean(),
+				"csv", "text/csv") {
+			@Override
+			public ExportConnection createExportConnection(OutputStream out, String location) {
+				return new CsvExportConnection(out, exportFeatureNames, exportInstanceIds, location);
+			}
+		};
+	}
+
+	/**
+	 * Creates the JSON Lines format of the {@linkplain JsonLinesExportConnection}.
+	 *
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 * @return JSON Lines format
+	 */
+	public static ExportFormat jsonLines(@Nonnull final ExportInstanceIds exportInstanceIds) {
+		Check.notNull(exportInstanceIds, "exportInstanceIds");
+		return new ExportFormat("jsonl;ids=" + exportInstanceIds.toBoolean(), "jsonl", "application/x-ndjson") {
+			@Override
+			public ExportConnection createExportConnection(OutputStream out, String location) {
+				return new JsonLinesExportConnection(out, exportInstanceIds, location);
+			}
+		};
+	}
+
+	/**
+	 * Creates the Avro object container format of the {@linkplain AvroExportConnection}.
+	 *
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 * @return Avro format
+	 */
+	public static ExportFormat avro(@Nonnull final ExportInstanceIds exportInstanceIds) {
+		Check.notNull(exportInstanceIds, "exportInstanceIds");
+		return new ExportFormat("avro;ids=" + exportInstanceIds.toBoolean(), "avro", "avro/binary") {
+			@Override
+			public ExportConnection createExportConnection(OutputStream out, String location) {
+				return new AvroExportConnection(out, exportInstanceIds, location);
+			}
+		};
+	}
+
+	/**
+	 * Creates a connection exporting in this format to the specified stream. Closing the connection closes the stream.
+	 *
+	 * @param out
+	 *            to export to
+	 * @param location
+	 *            textual representation of the export location
+	 * @return connection created
+	 */
+	public abstract ExportConnection createExportConnection(@Nonnull OutputStream out, String location);
+
+	/**
+	 * @return stable description of the format and its options
+	 */
+	public String getDescription() {
+		return _description;
+	}
+
+	/**
+	 * @return file extension of the format, without leading dot
+	 */
+	public String getFileExtension() {
+		return _fileExtension;
+	}
+
+	/**
+	 * @return MIME type of the format, e.g. for HTTP responses
+	 */
+	public String getContentType() {
+		return _contentType;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return (o instanceof ExportFormat) && ((ExportFormat) o)._description.equals(_description);
+	}
+
+	@Override
+	public int hashCode() {
+		return _description.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return _description;
+	}
+
+}
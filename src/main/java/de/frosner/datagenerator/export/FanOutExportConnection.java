@@ -0,0 +1,233 @@
+package de.frosner.datagenerator.export;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.exceptions.IllegalNonPositiveNumberArgumentException;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Connection forwarding instances to several downstream connections, each written by a background thread of its own.
+ * Instances are collected into one batch per downstream connection. Full batches are handed over to the writer of the
+ * connection through a bounded queue, so a slow connection only blocks generation once its queue is full. Meta data is
+ * exported to all downstream connections by the calling thread.
+ * <p>
+ * If a downstream connection fails, the failure is thrown by the next call exporting an instance or closing this
+ * connection. All downstream connections are closed by {@linkplain #close()} in any case.
+ */
+abstract class FanOutExportConnection extends ExportConnection {
+
+	static final int DEFAULT_BATCH_SIZE = 1024;
+	static final int DEFAULT_QUEUED_BATCHES = 4;
+
+	private static final List<Instance> END_OF_EXPORT = Collections.emptyList();
+
+	private final List<ExportConnection> _sinks;
+	private final List<SinkWriter> _writers;
+	private final int _batchSize;
+	private final AtomicReference<RuntimeException> _failure = new AtomicReference<RuntimeException>();
+	private boolean _closed = false;
+
+	FanOutExportConnection(List<ExportConnection> sinks, int batchSize, int queuedBatches) {
+		Check.noNullElements(sinks, "sinks");
+		Check.stateIsTrue(!sinks.isEmpty(), "There must be at least one downstream connection.");
+		if (batchSize <= 0) {
+			throw new IllegalNonPositiveNumberArgumentException(batchSize);
+		}
+		if (queuedBatches <= 0) {
+			throw new IllegalNonPositiveNumberArgumentException(queuedBatches);
+		}
+		_sinks = ImmutableList.copyOf(sinks);
+		_batchSize = batchSize;
+		_writers = Lists.newArrayListWithCapacity(sinks.size());
+		ExecutorService executor = Executors.newFixedThreadPool(sinks.size(), new ThreadFactoryBuilder().setNameFormat(
+				"fan-out-export-%d").setDaemon(true).build());
+		for (ExportConnection sink : _sinks) {
+			SinkWriter writer = new SinkWriter(sink, queuedBatches);
+			_writers.add(writer);
+			executor.execute(writer);
+		}
+		executor.shutdown();
+	}
+
+	List<ExportConnection> getSinks() {
+		return _sinks;
+	}
+
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		for (ExportConnection sink : _sinks) {
+			sink.exportMetaData(featureDefinitions);
+		}
+	}
+
+	/**
+	 * Adds the instance to the batch of the downstream connection at the specified index.
+	 *
+	 * @throws RuntimeException
+	 *             thrown by a downstream connection before
+	 */
+	final void forward(int sinkIndex, Instance instance) {
+		throwFailure();
+		SinkWriter writer = _writers.get(sinkIndex);
+		writer._batch.add(instance);
+		if (writer._batch.size() == _batchSize) {
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Hands the last batches over to the writers, waits for them to finish and closes all downstream connections.
+	 *
+	 * @throws RuntimeException
+	 *             thrown by a downstream connection
+	 */
+	@Override
+	public void close() {
+		if (_closed) {
+			return;
+		}
+		_closed = true;
+		for (SinkWriter writer : _writers) {
+			if (!writer._batch.isEmpty()) {
+				writer.flush();
+			}
+			writer.put(END_OF_EXPORT);
+		}
+		boolean interrupted = false;
+		for (SinkWriter writer : _writers) {
+			while (true) {
+				try {
+					writer._finished.take();
+					break;
+				} catch (InterruptedException e) {
+					// downstream connections must be closed before returning, so handle the interrupt afterwards
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		throwFailure();
+	}
+
+	/**
+	 * @return export locations of all downstream connections
+	 */
+	@Override
+	public String getExportLocation() {
+		StringBuilder locations = new StringBuilder();
+		for (ExportConnection sink : _sinks) {
+			if (locations.length() > 0) {
+				locations.append(", ");
+			}
+			locations.append(sink.getExportLocation());
+		}
+		return locations.toString();
+	}
+
+	private void throwFailure() {
+		RuntimeException failure = _failure.get();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Exports the batches of one downstream connection and closes it at the end of the export. After a failure, the
+	 * remaining batches are discarded so the generating thread never blocks on a dead writer.
+	 */
+	private final class SinkWriter implements Runnable {
+
+		private final ExportConnection _sink;
+		private final BlockingQueue<List<Instance>> _queue;
+		private final BlockingQueue<Boolean> _finished = new ArrayBlockingQueue<Boolean>(1);
+		private List<Instance> _batch;
+
+		private SinkWriter(ExportConnection sink, int queuedBatches) {
+			_sink = sink;
+			_queue = new ArrayBlockingQueue<List<Instance>>(queuedBatches);
+			_batch = Lists.newArrayListWithCapacity(_batchSize);
+		}
+
+		private void flush() {
+			List<Instance> batch = _batch;
+			_batch = Lists.newArrayListWithCapacity(_batchSize);
+			put(batch);
+		}
+
+		private void put(List<Instance> batch) {
+			boolean interrupted = false;
+			try {
+				while (true) {
+					try {
+						_queue.put(batch);
+						return;
+					} catch (InterruptedException e) {
+						// batches are always taken by the writer, so finish waiting and handle the interrupt afterwards
+						interrupted = true;
+					}
+				}
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				List<Instance> batch;
+				while ((batch = take()) != END_OF_EXPORT) {
+					if (_failure.get() == null) {
+						export(batch);
+					}
+				}
+				try {
+					_sink.close();
+				} catch (RuntimeException e) {
+					_failure.compareAndSet(null, e);
+				}
+			} finally {
+				_finished.add(Boolean.TRUE);
+			}
+		}
+
+		private void export(List<Instance> batch) {
+			try {
+				for (Instance instance : batch) {
+					_sink.exportInstance(instance);
+				}
+			} catch (RuntimeException e) {
+				_failure.compareAndSet(null, e);
+			}
+		}
+
+		private List<Instance> take() {
+			while (true) {
+				try {
+					return _queue.take();
+				} catch (InterruptedException e) {
+					// writer threads are only stopped by the end of the export
+					continue;
+				}
+			}
+		}
+
+	}
+
+}
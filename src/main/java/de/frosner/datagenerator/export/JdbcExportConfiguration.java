@@ -0,0 +1,168 @@
+package de.frosner.datagenerator.export;
+
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.exceptions.UncheckedSQLException;
+
+/**
+ * {@linkplain ExportConfiguration} for a {@linkplain JdbcExportConnection}.
+ */
+public final class JdbcExportConfiguration implements ExportConfiguration {
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+	public static final int DEFAULT_NUMBER_OF_CONNECTIONS = 1;
+
+	private final String _url;
+	private final Properties _connectionProperties;
+	private final String _tableName;
+	private final ExportInstanceIds _isExportingInstanceIds;
+	private final int _batchSize;
+	private final int _commitInterval;
+	private final int _numberOfConnections;
+
+	/**
+	 * Builder for building {@linkplain JdbcExportConfiguration}s.
+	 */
+	public static final class JdbcExportConfigurationBuilder {
+
+		private final String _url;
+		private final String _tableName;
+		private Properties _connectionProperties = new Properties();
+		private ExportInstanceIds _isExportingInstanceIds = ExportInstanceIds.NO;
+		private int _batchSize = DEFAULT_BATCH_SIZE;
+		private int _commitInterval = DEFAULT_COMMIT_INTERVAL;
+		private int _numberOfConnections = DEFAULT_NUMBER_OF_CONNECTIONS;
+
+		/**
+		 * Creates a new builder for a configuration exporting into the specified table of the database with the
+		 * specified JDBC URL.
+		 *
+		 * @param url
+		 *            JDBC URL of the database
+		 * @param tableName
+		 *            of the table to create and fill
+		 */
+		public JdbcExportConfigurationBuilder(@Nonnull String url, @Nonnull String tableName) {
+			_url = Check.notEmpty(url, "url");
+			_tableName = Check.notEmpty(tableName, "tableName");
+		}
+
+		/**
+		 * Sets the properties passed to the driver when connecting, e.g. user and password.
+		 *
+		 * @param connectionProperties
+		 *            to pass to the driver
+		 * @return builder using the specified properties
+		 */
+		public JdbcExportConfigurationBuilder connectionProperties(@Nonnull Properties connectionProperties) {
+			_connectionProperties = Check.notNull(connectionProperties, "connectionProperties");
+			return this;
+		}
+
+		public JdbcExportConfigurationBuilder exportInstanceIds(@Nonnull ExportInstanceIds isExportingInstanceIds) {
+			_isExportingInstanceIds = Check.notNull(isExportingInstanceIds, "isExportingInstanceIds");
+			return this;
+		}
+
+		/**
+		 * Sets the number of rows sent to the database in one JDBC batch.
+		 *
+		 * @param batchSize
+		 *            number of rows per batch
+		 * @return builder using the specified batch size
+		 */
+		public JdbcExportConfigurationBuilder batchSize(int batchSize) {
+			Check.stateIsTrue(batchSize > 0, "Batch size must be > 0.");
+			_batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the number of rows after which each connection commits its transaction. The interval is rounded up to
+		 * whole batches.
+		 *
+		 * @param commitInterval
+		 *            number of rows per transaction
+		 * @return builder using the specified commit interval
+		 */
+		public JdbcExportConfigurationBuilder commitInterval(int commitInterval) {
+			Check.stateIsTrue(commitInterval > 0, "Commit interval must be > 0.");
+			_commitInterval = commitInterval;
+			return this;
+		}
+
+		/**
+		 * Sets the number of connections inserting batches in parallel. Each batch covers a disjoint range of instance
+		 * IDs.
+		 *
+		 * @param numberOfConnections
+		 *            inserting in parallel
+		 * @return builder using the specified number of connections
+		 */
+		public JdbcExportConfigurationBuilder numberOfConnections(int numberOfConnections) {
+			Check.stateIsTrue(numberOfConnections > 0, "Number of connections must be > 0.");
+			_numberOfConnections = numberOfConnections;
+			return this;
+		}
+
+		public JdbcExportConfiguration build() {
+			return new JdbcExportConfiguration(this);
+		}
+
+	}
+
+	public static JdbcExportConfigurationBuilder builder(@Nonnull String url, @Nonnull String tableName) {
+		return new JdbcExportConfigurationBuilder(url, tableName);
+	}
+
+	private JdbcExportConfiguration(JdbcExportConfigurationBuilder builder) {
+		_url = builder._url;
+		_connectionProperties = new Properties();
+		_connectionProperties.putAll(builder._connectionProperties);
+		_tableName = builder._tableName;
+		_isExportingInstanceIds = builder._isExportingInstanceIds;
+		_batchSize = builder._batchSize;
+		_commitInterval = builder._commitInterval;
+		_numberOfConnections = builder._numberOfConnections;
+	}
+
+	public String getUrl() {
+		return _url;
+	}
+
+	public String getTableName() {
+		return _tableName;
+	}
+
+	public boolean isExportingInstanceIds() {
+		return _isExportingInstanceIds.toBoolean();
+	}
+
+	public int getBatchSize() {
+		return _batchSize;
+	}
+
+	public int getCommitInterval() {
+		return _commitInterval;
+	}
+
+	public int getNumberOfConnections() {
+		return _numberOfConnections;
+	}
+
+	/**
+	 * @throws UncheckedSQLException
+	 *             if a connection to the database cannot be established.
+	 **/
+	@Override
+	public ExportConnection createExportConnection() {
+		return new JdbcExportConnection(_url, _connectionProperties, _tableName, _isExportingInstanceIds, _batchSize,
+				_commitInterval, _numberOfConnections);
+	}
+
+}
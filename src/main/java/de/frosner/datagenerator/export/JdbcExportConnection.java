@@ -0,0 +1,298 @@
+package de.frosner.datagenerator.export;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.exceptions.UncheckedSQLException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Connection for exporting generated data into a table of a relational database using JDBC. The table is created from
+ * the feature definitions, having an <code>INTEGER</code> column for every discrete and a
+ * <code>DOUBLE PRECISION</code> column for every continuous feature.
+ * <p>
+ * Instances are inserted in prepared statement batches and committed in intervals. If more than one connection is
+ * configured, every full batch, covering a disjoint range of instance IDs, is inserted by the next idle connection in a
+ * background thread while the following batch is generated. Generation blocks while all connections are busy.
+ * Parallel connections require a database locking rows rather than whole tables on insert.
+ */
+public final class JdbcExportConnection extends ExportConnection {
+
+	private final String _url;
+	private final String _tableName;
+	private final boolean _exportInstanceIds;
+	private final int _batchSize;
+	private final int _commitInterval;
+	private final List<BatchWriter> _writers;
+	private final BlockingQueue<BatchWriter> _idleWriters;
+	private final ExecutorService _executor;
+	private final AtomicReference<SQLException> _failure = new AtomicReference<SQLException>();
+	private List<Instance> _batch;
+	private boolean _closed = false;
+
+	/**
+	 * @throws UncheckedSQLException
+	 *             if a connection to the database cannot be established.
+	 */
+	JdbcExportConnection(String url, Properties connectionProperties, String tableName,
+			ExportInstanceIds exportInstanceIds, int batchSize, int commitInterval, int numberOfConnections) {
+		_url = url;
+		_tableName = tableName;
+		_exportInstanceIds = exportInstanceIds.toBoolean();
+		_batchSize = batchSize;
+		_commitInterval = commitInterval;
+		_batch = Lists.newArrayListWithCapacity(batchSize);
+
+		_writers = Lists.newArrayListWithCapacity(numberOfConnections);
+		try {
+			for (int i = 0; i < numberOfConnections; i++) {
+				Connection connection = DriverManager.getConnection(url, connectionProperties);
+				connection.setAutoCommit(false);
+				_writers.add(new BatchWriter(connection));
+			}
+		} catch (SQLException e) {
+			closeWriters();
+			throw new UncheckedSQLException(e);
+		}
+		_idleWriters = new ArrayBlockingQueue<BatchWriter>(numberOfConnections, false, _writers);
+		_executor = (numberOfConnections > 1) ? Executors.newFixedThreadPool(numberOfConnections,
+				new ThreadFactoryBuilder().setNameFormat("jdbc-export-%d").setDaemon(true).build()) : null;
+	}
+
+	/**
+	 * @throws UncheckedSQLException
+	 *             if the table cannot be created.
+	 */
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		try {
+			Connection connection = _writers.get(0)._connection;
+			String quote = connection.getMetaData().getIdentifierQuoteString().trim();
+			StringBuilder columns = new StringBuilder();
+			StringBuilder definitions = new StringBuilder();
+			StringBuilder placeholders = new StringBuilder();
+			if (_exportInstanceIds) {
+				appendColumn(quote(quote, "ID"), "BIGINT", columns, definitions, placeholders);
+			}
+			for (FeatureDefinition featureDefinition : featureDefinitions) {
+				String type = (featureDefinition.getDistribution() instanceof DiscreteDistribution) ? "INTEGER"
+						: "DOUBLE PRECISION";
+				appendColumn(quote(quote, featureDefinition.getName()), type, columns, definitions, placeholders);
+			}
+			String table = quote(quote, _tableName);
+
+			Statement statement = connection.createStatement();
+			try {
+				statement.execute("CREATE TABLE " + table + " (" + definitions + ")");
+			} finally {
+				statement.close();
+			}
+			connection.commit();
+
+			String insert = "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")";
+			for (BatchWriter writer : _writers) {
+				writer._insert = writer._connection.prepareStatement(insert);
+			}
+		} catch (SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+	}
+
+	/**
+	 * @throws UncheckedSQLException
+	 *             if inserting this or a previous batch failed.
+	 */
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		throwFailure();
+		_batch.add(instance);
+		if (_batch.size() == _batchSize) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Inserts the last batch, waits for all connections to finish and commits their transactions.
+	 *
+	 * @throws UncheckedSQLException
+	 *             if inserting or committing failed.
+	 */
+	@Override
+	public void close() {
+		if (_closed) {
+			return;
+		}
+		_closed = true;
+		try {
+			if (!_batch.isEmpty() && _failure.get() == null) {
+				flushBatch();
+			}
+			for (int i = 0; i < _writers.size(); i++) {
+				takeIdleWriter();
+			}
+		} finally {
+			if (_executor != null) {
+				_executor.shutdown();
+			}
+			closeWriters();
+		}
+		throwFailure();
+	}
+
+	@Override
+	public String getExportLocation() {
+		return _url + " (" + _tableName + ")";
+	}
+
+	private void flushBatch() {
+		final List<Instance> batch = _batch;
+		_batch = Lists.newArrayListWithCapacity(_batchSize);
+		final BatchWriter writer = takeIdleWriter();
+		if (_executor == null) {
+			writer.writeAndRelease(batch);
+		} else {
+			_executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					writer.writeAndRelease(batch);
+				}
+			});
+		}
+	}
+
+	private BatchWriter takeIdleWriter() {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return _idleWriters.take();
+				} catch (InterruptedException e) {
+					// batches are short, so finish waiting and let the caller handle the interrupt afterwards
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void closeWriters() {
+		for (BatchWriter writer : _writers) {
+			try {
+				writer.close(_failure.get() == null);
+			} catch (SQLException e) {
+				_failure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	private void throwFailure() {
+		SQLException failure = _failure.get();
+		if (failure != null) {
+			throw new UncheckedSQLException(failure);
+		}
+	}
+
+	private static String quote(String quote, String identifier) {
+		return quote + identifier.replace(quote, quote + quote) + quote;
+	}
+
+	private static void appendColumn(String name, String type, StringBuilder columns, StringBuilder definitions,
+			StringBuilder placeholders) {
+		if (columns.length() > 0) {
+			columns.append(", ");
+			definitions.append(", ");
+			placeholders.append(", ");
+		}
+		columns.append(name);
+		definitions.append(name).append(' ').append(type);
+		placeholders.append('?');
+	}
+
+	/**
+	 * Inserts batches through one database connection. A writer is used by one thread at a time.
+	 */
+	private final class BatchWriter {
+
+		private final Connection _connection;
+		private PreparedStatement _insert;
+		private int _uncommittedRows = 0;
+
+		private BatchWriter(Connection connection) {
+			_connection = connection;
+		}
+
+		private void writeAndRelease(List<Instance> batch) {
+			try {
+				if (_failure.get() == null) {
+					write(batch);
+				}
+			} catch (SQLException e) {
+				_failure.compareAndSet(null, e);
+			} finally {
+				_idleWriters.add(this);
+			}
+		}
+
+		private void write(List<Instance> batch) throws SQLException {
+			for (Instance instance : batch) {
+				int parameterIndex = 1;
+				if (_exportInstanceIds) {
+					_insert.setLong(parameterIndex++, instance.getId());
+				}
+				for (FeatureValue value : instance) {
+					if (value instanceof DiscreteFeatureValue) {
+						_insert.setInt(parameterIndex++, ((DiscreteFeatureValue) value).getIntValue());
+					} else {
+						_insert.setDouble(parameterIndex++, ((ContinuousFeatureValue) value).getDoubleValue());
+					}
+				}
+				_insert.addBatch();
+			}
+			_insert.executeBatch();
+			_uncommittedRows += batch.size();
+			if (_uncommittedRows >= _commitInterval) {
+				_connection.commit();
+				_uncommittedRows = 0;
+			}
+		}
+
+		private void close(boolean commit) throws SQLException {
+			try {
+				if (commit) {
+					_connection.commit();
+				} else {
+					_connection.rollback();
+				}
+				if (_insert != null) {
+					_insert.close();
+				}
+			} finally {
+				_connection.close();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+package de.frosner.datagenerator.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Connection for exporting generated data as JSON Lines, one JSON object per instance, to a given
+ * {@linkplain OutputStream}. Features of {@linkplain DiscreteDistribution}s are exported as integers, all others as
+ * floating point numbers. Non-finite floating point numbers are exported as null, as JSON cannot represent them.
+ * <p>
+ * The field names are encoded once when the meta data is exported, so instances are encoded without building strings.
+ */
+public final class JsonLinesExportConnection extends ExportConnection {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final byte[] ID_FIELD = "{\"ID\":".getBytes(Charsets.UTF_8);
+	private static final byte[] NULL = "null".getBytes(Charsets.UTF_8);
+	private static final byte[] END_OF_OBJECT = "}\n".getBytes(Charsets.UTF_8);
+
+	private final OutputStream _out;
+	private final EncodedOutput _buffer = new EncodedOutput(BUFFER_SIZE);
+	private final boolean _exportInstanceIds;
+	private final String _exportLocation;
+	private byte[][] _fieldPrefixes;
+	private boolean[] _isDiscrete;
+
+	/**
+	 * Creates a new {@linkplain JsonLinesExportConnection} exporting to the specified {@linkplain OutputStream}. The
+	 * specified location is used to display log and error messages.
+	 *
+	 * @param outputStream
+	 *            to export to
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 * @param location
+	 *            textual representation of the export location
+	 */
+	public JsonLinesExportConnection(OutputStream outputStream, ExportInstanceIds exportInstanceIds, String location) {
+		_out = outputStream;
+		_exportInstanceIds = exportInstanceIds.toBoolean();
+		_exportLocation = location;
+	}
+
+	/**
+	 * Creates a new {@linkplain JsonLinesExportConnection} exporting to the specified {@linkplain OutputStream}.
+	 *
+	 * @param outputStream
+	 *            to export to
+	 * @param exportInstanceIds
+	 *            should instances have their ID exported as well?
+	 */
+	public JsonLinesExportConnection(OutputStream outputStream, ExportInstanceIds exportInstanceIds) {
+		this(outputStream, exportInstanceIds, outputStream.toString());
+	}
+
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		List<byte[]> fieldPrefixes = Lists.newArrayList();
+		List<Boolean> isDiscrete = Lists.newArrayList();
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			String separator = (fieldPrefixes.isEmpty() && !_exportInstanceIds) ? "{" : ",";
+			fieldPrefixes.add((separator + quote(featureDefinition.getName()) + ":").getBytes(Charsets.UTF_8));
+			isDiscrete.add(featureDefinition.getDistribution() instanceof DiscreteDistribution);
+		}
+		_fieldPrefixes = fieldPrefixes.toArray(new byte[fieldPrefixes.size()][]);
+		_isDiscrete = new boolean[isDiscrete.size()];
+		for (int i = 0; i < _isDiscrete.length; i++) {
+			_isDiscrete[i] = isDiscrete.get(i);
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		if (_exportInstanceIds) {
+			_buffer.write(ID_FIELD);
+			_buffer.writeDecimal(instance.getId());
+		}
+		int index = 0;
+		for (FeatureValue value : instance) {
+			_buffer.write(_fieldPrefixes[index]);
+			if (_isDiscrete[index]) {
+				_buffer.writeDecimal(((DiscreteFeatureValue) value).getIntValue());
+			} else {
+				double doubleValue = ((ContinuousFeatureValue) value).getDoubleValue();
+				if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+					_buffer.write(NULL);
+				} else {
+					_buffer.writeAscii(Double.toString(doubleValue));
+				}
+			}
+			index++;
+		}
+		_buffer.write(END_OF_OBJECT);
+		if (_buffer.size() >= BUFFER_SIZE) {
+			flushBuffer();
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException
+	 *             if the underlying export {@linkplain OutputStream} throws an {@linkplain IOException}.
+	 */
+	@Override
+	public void close() {
+		flushBuffer();
+		try {
+			_out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public String getExportLocation() {
+		return _exportLocation;
+	}
+
+	private void flushBuffer() {
+		try {
+			_buffer.writeTo(_out);
+			_buffer.reset();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns the specified string as JSON string literal.
+	 */
+	static String quote(String string) {
+		StringBuilder quoted = new StringBuilder(string.length() + 2).append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < 0x20) {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+}
@@ -0,0 +1,227 @@
+package de.frosner.datagenerator.export;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Immutable data set stored column by column in direct memory by an {@linkplain OffHeapExportConnection}. Every feature
+ * of a {@linkplain DiscreteDistribution} is stored as int column, all other features as double column. Columns are
+ * split into segments, so data sets may be larger than a single buffer, and only a few objects per segment are kept on
+ * the heap.
+ * <p>
+ * Instances can be read by their ID, columns can be scanned through read-only buffers and slices of instance IDs can
+ * be taken. Neither column buffers nor slices copy any data. The memory is released when the data set and all its
+ * slices and buffers have become unreachable. All methods may be called from several threads at the same time.
+ */
+@Immutable
+public final class OffHeapDataset {
+
+	private static final int INT_WIDTH = 4;
+	private static final int DOUBLE_WIDTH = 8;
+
+	private final List<String> _featureNames;
+	private final boolean[] _isDiscrete;
+	private final ByteBuffer[][] _segments;
+	private final int _segmentShift;
+	private final long _firstInstanceId;
+	private final long _firstRow;
+	private final long _numberOfInstances;
+
+	OffHeapDataset(List<String> featureNames, boolean[] isDiscrete, ByteBuffer[][] segments, int segmentShift,
+			long firstInstanceId, long firstRow, long numberOfInstances) {
+		_featureNames = ImmutableList.copyOf(featureNames);
+		_isDiscrete = isDiscrete;
+		_segments = segments;
+		_segmentShift = segmentShift;
+		_firstInstanceId = firstInstanceId;
+		_firstRow = firstRow;
+		_numberOfInstances = numberOfInstances;
+	}
+
+	public long getNumberOfInstances() {
+		return _numberOfInstances;
+	}
+
+	/**
+	 * @return ID of the first instance, the IDs of all other instances follow consecutively
+	 */
+	public long getFirstInstanceId() {
+		return _firstInstanceId;
+	}
+
+	public List<String> getFeatureNames() {
+		return _featureNames;
+	}
+
+	public int getNumberOfFeatures() {
+		return _featureNames.size();
+	}
+
+	/**
+	 * @param featureName
+	 *            of the column
+	 * @return index of the column of the first feature with the specified name
+	 */
+	public int getColumn(@Nonnull String featureName) {
+		int column = _featureNames.indexOf(featureName);
+		Check.stateIsTrue(column >= 0, "Unknown feature: %s", featureName);
+		return column;
+	}
+
+	/**
+	 * @return whether the column is an int column, otherwise it is a double column
+	 */
+	public boolean isDiscrete(int column) {
+		checkColumn(column);
+		return _isDiscrete[column];
+	}
+
+	public int getInt(long instanceId, int column) {
+		checkColumn(column, true);
+		long row = getRow(instanceId);
+		return getSegment(column, row).getInt(getOffsetInSegment(row) * INT_WIDTH);
+	}
+
+	public double getDouble(long instanceId, int column) {
+		checkColumn(column, false);
+		long row = getRow(instanceId);
+		return getSegment(column, row).getDouble(getOffsetInSegment(row) * DOUBLE_WIDTH);
+	}
+
+	/**
+	 * Creates the {@linkplain Instance} with the specified ID from the stored feature values.
+	 *
+	 * @param instanceId
+	 *            of the instance
+	 * @return instance read
+	 */
+	public Instance getInstance(long instanceId) {
+		long row = getRow(instanceId);
+		int offsetInSegment = getOffsetInSegment(row);
+		Instance.InstanceBuilder builder = Instance.builder(instanceId);
+		for (int column = 0; column < _isDiscrete.length; column++) {
+			ByteBuffer segment = getSegment(column, row);
+			if (_isDiscrete[column]) {
+				builder.addFeatureValue(new DiscreteFeatureValue(segment.getInt(offsetInSegment * INT_WIDTH)));
+			} else {
+				builder.addFeatureValue(new ContinuousFeatureValue(segment.getDouble(offsetInSegment * DOUBLE_WIDTH)));
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns read-only views of an int column, one per segment, in the order of the instance IDs. Scanning the views
+	 * reads the stored values in place.
+	 *
+	 * @param column
+	 *            index of the column
+	 * @return views covering all instances of the data set
+	 */
+	public List<IntBuffer> getIntColumn(int column) {
+		checkColumn(column, true);
+		List<IntBuffer> views = Lists.newArrayList();
+		for (ByteBuffer view : getColumnViews(column, INT_WIDTH)) {
+			views.add(view.asIntBuffer());
+		}
+		return views;
+	}
+
+	/**
+	 * Returns read-only views of a double column, one per segment, in the order of the instance IDs. Scanning the
+	 * views reads the stored values in place.
+	 *
+	 * @param column
+	 *            index of the column
+	 * @return views covering all instances of the data set
+	 */
+	public List<DoubleBuffer> getDoubleColumn(int column) {
+		checkColumn(column, false);
+		List<DoubleBuffer> views = Lists.newArrayList();
+		for (ByteBuffer view : getColumnViews(column, DOUBLE_WIDTH)) {
+			views.add(view.asDoubleBuffer());
+		}
+		return views;
+	}
+
+	/**
+	 * Returns the instances having IDs from the specified start ID (inclusive) to the specified end ID (exclusive). The
+	 * slice shares the memory of this data set.
+	 *
+	 * @param startId
+	 *            of the first instance
+	 * @param endId
+	 *            of the instance after the last one
+	 * @return slice of this data set
+	 */
+	public OffHeapDataset slice(long startId, long endId) {
+		long endOfDataset = _firstInstanceId + _numberOfInstances;
+		Check.stateIsTrue(_firstInstanceId <= startId && startId <= endId && endId <= endOfDataset,
+				"Slice must lie within [%d, %d).", _firstInstanceId, endOfDataset);
+		return new OffHeapDataset(_featureNames, _isDiscrete, _segments, _segmentShift, startId, _firstRow
+				+ (startId - _firstInstanceId), endId - startId);
+	}
+
+	private List<ByteBuffer> getColumnViews(int column, int width) {
+		List<ByteBuffer> views = Lists.newArrayList();
+		long row = _firstRow;
+		long endRow = _firstRow + _numberOfInstances;
+		while (row < endRow) {
+			int offsetInSegment = getOffsetInSegment(row);
+			int length = (int) Math.min((1 << _segmentShift) - offsetInSegment, endRow - row);
+			ByteBuffer view = getSegment(column, row).duplicate();
+			view.limit((offsetInSegment + length) * width);
+			view.position(offsetInSegment * width);
+			views.add(view.slice().order(ByteOrder.nativeOrder()));
+			row += length;
+		}
+		return views;
+	}
+
+	private long getRow(long instanceId) {
+		Check.stateIsTrue(instanceId >= _firstInstanceId && instanceId - _firstInstanceId < _numberOfInstances,
+				"Instance ID %d is not in the data set.", instanceId);
+		return _firstRow + (instanceId - _firstInstanceId);
+	}
+
+	private ByteBuffer getSegment(int column, long row) {
+		return _segments[column][(int) (row >>> _segmentShift)];
+	}
+
+	private int getOffsetInSegment(long row) {
+		return (int) (row & ((1 << _segmentShift) - 1));
+	}
+
+	private void checkColumn(int column) {
+		Check.stateIsTrue(column >= 0 && column < _isDiscrete.length, "Column %d does not exist.", column);
+	}
+
+	private void checkColumn(int column, boolean discrete) {
+		checkColumn(column);
+		Check.stateIsTrue(_isDiscrete[column] == discrete, "Column %d is not of type %s.", column,
+				discrete ? "int" : "double");
+	}
+
+	@Override
+	public String toString() {
+		return "[" + _numberOfInstances + " instances starting at ID " + _firstInstanceId + ", features = "
+				+ _featureNames + "]";
+	}
+
+}
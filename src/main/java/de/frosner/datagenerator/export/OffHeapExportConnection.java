@@ -0,0 +1,159 @@
+package de.frosner.datagenerator.export;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Connection for exporting generated data into direct memory outside of the Java heap, e.g. to generate a test fixture
+ * once and query it many times without writing files. After the connection has been closed, the data is available as
+ * {@linkplain OffHeapDataset}.
+ * <p>
+ * Instances must be exported in the order of consecutive IDs, as generated by the
+ * {@linkplain de.frosner.datagenerator.generator.DataGenerator}. Every column is stored in segments of
+ * 2<sup>{@value #DEFAULT_SEGMENT_SHIFT}</sup> values. The last segment grows by doubling, so small data sets do not
+ * reserve whole segments.
+ */
+public final class OffHeapExportConnection extends ExportConnection {
+
+	static final int DEFAULT_SEGMENT_SHIFT = 20;
+
+	private static final int INITIAL_SEGMENT_CAPACITY = 1024;
+	private static final String EXPORT_LOCATION = "Off-heap memory";
+
+	private final int _segmentShift;
+	private final List<String> _featureNames = Lists.newArrayList();
+	private boolean[] _isDiscrete;
+	private List<List<ByteBuffer>> _columns;
+	private int _segmentCapacity = 0;
+	private long _firstInstanceId = 0;
+	private long _numberOfInstances = 0;
+	private OffHeapDataset _dataset;
+
+	/**
+	 * Creates a new {@linkplain OffHeapExportConnection}.
+	 */
+	public OffHeapExportConnection() {
+		this(DEFAULT_SEGMENT_SHIFT);
+	}
+
+	OffHeapExportConnection(int segmentShift) {
+		Check.stateIsTrue(segmentShift > 0 && segmentShift <= 27, "Segment shift must be in [1, 27].");
+		_segmentShift = segmentShift;
+	}
+
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		_isDiscrete = new boolean[featureDefinitions.getNumberOfFeatures()];
+		_columns = Lists.newArrayListWithCapacity(_isDiscrete.length);
+		int column = 0;
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			_featureNames.add(featureDefinition.getName());
+			_isDiscrete[column++] = featureDefinition.getDistribution() instanceof DiscreteDistribution;
+			_columns.add(Lists.<ByteBuffer> newArrayList());
+		}
+	}
+
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		Check.stateIsTrue(_dataset == null, "Connection has already been closed.");
+		if (_numberOfInstances == 0) {
+			_firstInstanceId = instance.getId();
+		} else {
+			Check.stateIsTrue(instance.getId() == _firstInstanceId + _numberOfInstances,
+					"Instance IDs must be consecutive, expected %d but was %d.", _firstInstanceId + _numberOfInstances,
+					instance.getId());
+		}
+		int offsetInSegment = (int) (_numberOfInstances & ((1 << _segmentShift) - 1));
+		if (offsetInSegment == 0) {
+			_segmentCapacity = Math.min(INITIAL_SEGMENT_CAPACITY, 1 << _segmentShift);
+			for (int column = 0; column < _isDiscrete.length; column++) {
+				_columns.get(column).add(allocate(_segmentCapacity * getWidth(column)));
+			}
+		} else if (offsetInSegment == _segmentCapacity) {
+			_segmentCapacity *= 2;
+			for (int column = 0; column < _isDiscrete.length; column++) {
+				growLastSegment(_columns.get(column), _segmentCapacity * getWidth(column));
+			}
+		}
+
+		int column = 0;
+		for (FeatureValue value : instance) {
+			List<ByteBuffer> segments = _columns.get(column);
+			ByteBuffer segment = segments.get(segments.size() - 1);
+			if (_isDiscrete[column]) {
+				segment.putInt(offsetInSegment * 4, ((DiscreteFeatureValue) value).getIntValue());
+			} else {
+				segment.putDouble(offsetInSegment * 8, ((ContinuousFeatureValue) value).getDoubleValue());
+			}
+			column++;
+		}
+		_numberOfInstances++;
+	}
+
+	/**
+	 * Makes the exported instances available as {@linkplain OffHeapDataset}. No more instances can be exported
+	 * afterwards.
+	 */
+	@Override
+	public void close() {
+		if (_dataset != null) {
+			return;
+		}
+		int numberOfColumns = (_isDiscrete == null) ? 0 : _isDiscrete.length;
+		ByteBuffer[][] segments = new ByteBuffer[numberOfColumns][];
+		for (int column = 0; column < numberOfColumns; column++) {
+			List<ByteBuffer> columnSegments = _columns.get(column);
+			segments[column] = new ByteBuffer[columnSegments.size()];
+			for (int i = 0; i < segments[column].length; i++) {
+				segments[column][i] = columnSegments.get(i).asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+			}
+		}
+		_dataset = new OffHeapDataset(_featureNames, (_isDiscrete == null) ? new boolean[0] : _isDiscrete, segments,
+				_segmentShift, _firstInstanceId, 0, _numberOfInstances);
+		_columns = null;
+	}
+
+	/**
+	 * @return exported data set
+	 */
+	public OffHeapDataset getDataset() {
+		Check.stateIsTrue(_dataset != null, "Data set is available after the connection has been closed.");
+		return _dataset;
+	}
+
+	@Override
+	public String getExportLocation() {
+		return EXPORT_LOCATION;
+	}
+
+	private int getWidth(int column) {
+		return _isDiscrete[column] ? 4 : 8;
+	}
+
+	private static ByteBuffer allocate(int numberOfBytes) {
+		return ByteBuffer.allocateDirect(numberOfBytes).order(ByteOrder.nativeOrder());
+	}
+
+	private static void growLastSegment(List<ByteBuffer> segments, int numberOfBytes) {
+		ByteBuffer segment = segments.get(segments.size() - 1);
+		ByteBuffer grown = allocate(numberOfBytes);
+		segment.clear();
+		grown.put(segment);
+		grown.clear();
+		segments.set(segments.size() - 1, grown);
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.frosner.datagenerator.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.exceptions.ExportReaderClosedException;
+import de.frosner.datagenerator.exceptions.UncheckedFileNotFoundException;
+
+/**
+ * {@linkplain ExportConfiguration} for a {@linkplain CsvExportConnection} streaming into another process, either
+ * through the standard output or through a named pipe (FIFO). Data is written in large blocks to keep the number of
+ * system calls low. If the reading process closes its end, the connection throws an
+ * {@linkplain ExportReaderClosedException} on the next write so the generation can stop immediately.
+ */
+public final class PipeExportConfiguration implements ExportConfiguration {
+
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	private static final String STANDARD_OUTPUT = "<stdout>";
+
+	private final File _pipe;
+	private final ExportInstanceIds _isExportingInstanceIds;
+	private final ExportFeatureNames _isExportingFeatureNames;
+	private final int _bufferSize;
+
+	/**
+	 * Creates a {@linkplain PipeExportConfiguration} writing to the standard output of this process.
+	 *
+	 * @param isExportingInstanceIds
+	 * @param isExportingFeatureNames
+	 * @return configuration for the standard output
+	 */
+	public static PipeExportConfiguration standardOutput(ExportInstanceIds isExportingInstanceIds,
+			ExportFeatureNames isExportingFeatureNames) {
+		return new PipeExportConfiguration(null, isExportingInstanceIds, isExportingFeatureNames, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a {@linkplain PipeExportConfiguration} writing to the specified named pipe. Opening the connection blocks
+	 * until a process opens the pipe for reading.
+	 *
+	 * @param pipe
+	 *            to write to
+	 * @param isExportingInstanceIds
+	 * @param isExportingFeatureNames
+	 * @return configuration for the named pipe
+	 */
+	public static PipeExportConfiguration namedPipe(@Nonnull File pipe, ExportInstanceIds isExportingInstanceIds,
+			ExportFeatureNames isExportingFeatureNames) {
+		Check.notNull(pipe, "pipe");
+		return new PipeExportConfiguration(pipe, isExportingInstanceIds, isExportingFeatureNames, DEFAULT_BUFFER_SIZE);
+	}
+
+	private PipeExportConfiguration(File pipe, ExportInstanceIds isExportingInstanceIds,
+			ExportFeatureNames isExportingFeatureNames, int bufferSize) {
+		_pipe = pipe;
+		_isExportingInstanceIds = isExportingInstanceIds;
+		_isExportingFeatureNames = isExportingFeatureNames;
+		_bufferSize = bufferSize;
+	}
+
+	/**
+	 * Returns a copy of this configuration using the specified size of the write buffer.
+	 *
+	 * @param bufferSize
+	 *            in bytes
+	 * @return configuration using the specified buffer size
+	 */
+	public PipeExportConfiguration withBufferSize(int bufferSize) {
+		Check.stateIsTrue(bufferSize > 0, "Buffer size must be > 0.");
+		return new PipeExportConfiguration(_pipe, _isExportingInstanceIds, _isExportingFeatureNames, bufferSize);
+	}
+
+	public boolean isStandardOutput() {
+		return _pipe == null;
+	}
+
+	public int getBufferSize() {
+		return _bufferSize;
+	}
+
+	/**
+	 * @throws UncheckedFileNotFoundException
+	 *             if the named pipe cannot be opened.
+	 **/
+	@Override
+	public ExportConnection createExportConnection() {
+		PipeOutputStream pipeStream;
+		String location;
+		if (isStandardOutput()) {
+			location = STANDARD_OUTPUT;
+			// the standard output is written directly, as System.out would swallow errors of a closed reader
+			pipeStream = new PipeOutputStream(new FileOutputStream(FileDescriptor.out), false, location);
+		} else {
+			location = _pipe.getAbsolutePath();
+			try {
+				pipeStream = new PipeOutputStream(new FileOutputStream(_pipe), true, location);
+			} catch (FileNotFoundException e) {
+				throw new UncheckedFileNotFoundException(e);
+			}
+		}
+		return new CsvExportConnection(new BufferedOutputStream(pipeStream, _bufferSize), _isExportingFeatureNames,
+				_isExportingInstanceIds, location);
+	}
+
+}
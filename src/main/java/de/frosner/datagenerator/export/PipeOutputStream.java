@@ -0,0 +1,85 @@
+package de.frosner.datagenerator.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.exceptions.ExportReaderClosedException;
+
+/**
+ * {@linkplain OutputStream} writing to a pipe. A failing write means that the reading process has gone away, so it is
+ * reported as an {@linkplain ExportReaderClosedException} once. Afterwards all data is discarded, allowing the export
+ * connection to be closed without further errors.
+ */
+final class PipeOutputStream extends OutputStream {
+
+	private final OutputStream _out;
+	private final boolean _closeTarget;
+	private final String _location;
+	private boolean _readerClosed = false;
+
+	/**
+	 * @param out
+	 *            pipe to write to
+	 * @param closeTarget
+	 *            whether closing this stream also closes the pipe
+	 * @param location
+	 *            textual representation of the pipe for error messages
+	 */
+	PipeOutputStream(OutputStream out, boolean closeTarget, String location) {
+		_out = out;
+		_closeTarget = closeTarget;
+		_location = location;
+	}
+
+	@Override
+	public void write(int b) {
+		if (!_readerClosed) {
+			try {
+				_out.write(b);
+			} catch (IOException e) {
+				throw readerClosed(e);
+			}
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		if (!_readerClosed) {
+			try {
+				_out.write(b, off, len);
+			} catch (IOException e) {
+				throw readerClosed(e);
+			}
+		}
+	}
+
+	@Override
+	public void flush() {
+		if (!_readerClosed) {
+			try {
+				_out.flush();
+			} catch (IOException e) {
+				throw readerClosed(e);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			flush();
+		} finally {
+			if (_closeTarget) {
+				Closeables.closeQuietly(_out);
+			}
+		}
+	}
+
+	private ExportReaderClosedException readerClosed(IOException cause) {
+		_readerClosed = true;
+		return new ExportReaderClosedException(_location, cause);
+	}
+
+}
@@ -0,0 +1,30 @@
+package de.frosner.datagenerator.export;
+
+import java.io.File;
+
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+
+/**
+ * {@linkplain ExportConfiguration} whose connections are {@linkplain DurableExportConnection}s and can be reopened at a
+ * previously synchronized position.
+ */
+public interface ResumableExportConfiguration extends ExportConfiguration {
+
+	/**
+	 * Returns the file used to store {@linkplain GenerationCheckpoint}s of the export.
+	 * 
+	 * @return checkpoint file
+	 */
+	public File getCheckpointFile();
+
+	/**
+	 * Reopens the export location, discards everything written after the specified byte offset and creates an
+	 * {@linkplain ExportConnection} appending to it. Meta data is not exported again.
+	 * 
+	 * @param byteOffset
+	 *            returned by {@linkplain DurableExportConnection#sync()} before
+	 * @return {@linkplain ExportConnection} created
+	 */
+	public ExportConnection resumeExportConnection(long byteOffset);
+
+}
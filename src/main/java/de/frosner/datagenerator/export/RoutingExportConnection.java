@@ -0,0 +1,143 @@
+package de.frosner.datagenerator.export;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+import de.frosner.datagenerator.util.SeedUtil;
+
+/**
+ * Connection splitting the instances between several downstream connections, like a training and a test set, so a
+ * single generation pass feeds all of them. Every instance is exported to exactly one downstream connection, chosen
+ * either by ratio or by a predicate on the value of a feature. Every downstream connection is written by a thread of
+ * its own.
+ */
+public final class RoutingExportConnection extends FanOutExportConnection {
+
+	private final Router _router;
+
+	/**
+	 * Chooses the downstream connection of every instance.
+	 */
+	private abstract static class Router {
+
+		void prepare(FeatureDefinitionGraph featureDefinitions) {
+		}
+
+		abstract int route(Instance instance);
+
+	}
+
+	private RoutingExportConnection(List<ExportConnection> sinks, Router router) {
+		super(sinks, DEFAULT_BATCH_SIZE, DEFAULT_QUEUED_BATCHES);
+		_router = router;
+	}
+
+	/**
+	 * Creates a connection exporting every instance to one of the specified connections, chosen with a probability
+	 * proportional to its ratio. The choice only depends on the instance ID, so generating the same instances again
+	 * splits them the same way.
+	 *
+	 * @param ratios
+	 *            non-negative ratios of the instances exported to the connection at the same index, which need not sum
+	 *            up to 1
+	 * @param sinks
+	 *            to split the instances between
+	 * @return routing connection
+	 */
+	public static RoutingExportConnection byRatio(@Nonnull List<Double> ratios, @Nonnull List<ExportConnection> sinks) {
+		Check.noNullElements(ratios, "ratios");
+		Check.stateIsTrue(ratios.size() == Check.notNull(sinks, "sinks").size(),
+				"There must be one ratio for every downstream connection.");
+		double sum = 0;
+		for (double ratio : ratios) {
+			Check.stateIsTrue(ratio >= 0, "Ratios must not be negative.");
+			sum += ratio;
+		}
+		Check.stateIsTrue(sum > 0, "Ratios must not all be zero.");
+
+		final double[] thresholds = new double[ratios.size()];
+		double cumulativeRatio = 0;
+		for (int i = 0; i < thresholds.length; i++) {
+			cumulativeRatio += ratios.get(i);
+			thresholds[i] = cumulativeRatio / sum;
+		}
+		return new RoutingExportConnection(sinks, new Router() {
+			@Override
+			int route(Instance instance) {
+				double position = (SeedUtil.mix(instance.getId()) >>> 11) * 0x1.0p-53;
+				for (int i = 0; i < thresholds.length - 1; i++) {
+					if (position < thresholds[i]) {
+						return i;
+					}
+				}
+				return thresholds.length - 1;
+			}
+		});
+	}
+
+	/**
+	 * Creates a connection exporting the instances whose value of the specified feature satisfies the predicate to one
+	 * connection and all other instances to another one.
+	 *
+	 * @param featureName
+	 *            name of the feature to test
+	 * @param predicate
+	 *            on the value of the feature
+	 * @param matching
+	 *            connection of the instances satisfying the predicate
+	 * @param others
+	 *            connection of all other instances
+	 * @return routing connection
+	 */
+	public static RoutingExportConnection byPredicate(@Nonnull final String featureName,
+			@Nonnull final Predicate<? super FeatureValue> predicate, @Nonnull ExportConnection matching,
+			@Nonnull ExportConnection others) {
+		Check.notNull(featureName, "featureName");
+		Check.notNull(predicate, "predicate");
+		return new RoutingExportConnection(Lists.newArrayList(matching, others), new Router() {
+
+			private int _featureIndex;
+
+			@Override
+			void prepare(FeatureDefinitionGraph featureDefinitions) {
+				int index = 0;
+				for (FeatureDefinition featureDefinition : featureDefinitions) {
+					if (featureDefinition.getName().equals(featureName)) {
+						_featureIndex = index;
+						return;
+					}
+					index++;
+				}
+				Check.stateIsTrue(false, "Unknown feature: %s", featureName);
+			}
+
+			@Override
+			int route(Instance instance) {
+				return predicate.apply(instance.getFeatureValue(_featureIndex)) ? 0 : 1;
+			}
+
+		});
+	}
+
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		_router.prepare(featureDefinitions);
+		super.exportMetaDataStrategy(featureDefinitions);
+	}
+
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		forward(_router.route(instance), instance);
+	}
+
+}
@@ -0,0 +1,31 @@
+package de.frosner.datagenerator.export;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+/**
+ * {@linkplain ExportConfiguration} attaching a {@linkplain StatisticsExportConnection} to the connection of another
+ * configuration.
+ */
+public final class StatisticsExportConfiguration implements ExportConfiguration {
+
+	private final ExportConfiguration _delegate;
+
+	/**
+	 * Creates a {@linkplain StatisticsExportConfiguration} computing statistics of all instances exported by a
+	 * connection of the specified configuration.
+	 *
+	 * @param delegate
+	 *            configuration of the connection to export to
+	 */
+	public StatisticsExportConfiguration(@Nonnull ExportConfiguration delegate) {
+		_delegate = Check.notNull(delegate, "delegate");
+	}
+
+	@Override
+	public ExportConnection createExportConnection() {
+		return new StatisticsExportConnection(_delegate.createExportConnection());
+	}
+
+}
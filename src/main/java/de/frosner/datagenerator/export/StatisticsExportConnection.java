@@ -0,0 +1,104 @@
+package de.frosner.datagenerator.export;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+import de.frosner.datagenerator.exceptions.IllegalMethodCallSequenceException;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+import de.frosner.datagenerator.statistics.DatasetStatistics;
+
+/**
+ * Connection forwarding all instances to another {@linkplain ExportConnection} while computing
+ * {@linkplain DatasetStatistics} of them. Every exporting thread accumulates its own statistics, which are merged when
+ * the connection is closed. The merged statistics can then be compared against the theoretical ones using
+ * {@linkplain #getReport()}.
+ */
+public final class StatisticsExportConnection extends ExportConnection {
+
+	private final ExportConnection _delegate;
+	private final List<DatasetStatistics> _threadStatistics = new CopyOnWriteArrayList<DatasetStatistics>();
+	private final ThreadLocal<DatasetStatistics> _statistics = new ThreadLocal<DatasetStatistics>() {
+		@Override
+		protected DatasetStatistics initialValue() {
+			DatasetStatistics statistics = new DatasetStatistics(_featureDefinitions);
+			_threadStatistics.add(statistics);
+			return statistics;
+		}
+	};
+	private volatile FeatureDefinitionGraph _featureDefinitions;
+	private DatasetStatistics _mergedStatistics;
+
+	/**
+	 * Creates a new {@linkplain StatisticsExportConnection} exporting to the specified connection.
+	 *
+	 * @param delegate
+	 *            to export all instances to
+	 */
+	public StatisticsExportConnection(@Nonnull ExportConnection delegate) {
+		_delegate = Check.notNull(delegate, "delegate");
+	}
+
+	@Override
+	protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		_featureDefinitions = featureDefinitions;
+		_delegate.exportMetaData(featureDefinitions);
+	}
+
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		Check.stateIsTrue(_featureDefinitions != null, IllegalMethodCallSequenceException.class);
+		_statistics.get().add(instance);
+		_delegate.exportInstance(instance);
+	}
+
+	/**
+	 * Closes the underlying connection and merges the statistics of all exporting threads.
+	 */
+	@Override
+	public void close() {
+		try {
+			_delegate.close();
+		} finally {
+			if (_mergedStatistics == null && _featureDefinitions != null) {
+				DatasetStatistics merged = new DatasetStatistics(_featureDefinitions);
+				for (DatasetStatistics statistics : _threadStatistics) {
+					merged.merge(statistics);
+				}
+				_mergedStatistics = merged;
+			}
+		}
+	}
+
+	/**
+	 * Returns the statistics of all exported instances.
+	 *
+	 * @return merged statistics
+	 * @throws IllegalMethodCallSequenceException
+	 *             if the connection has not been closed or no meta data has been exported
+	 */
+	public DatasetStatistics getStatistics() {
+		Check.stateIsTrue(_mergedStatistics != null, IllegalMethodCallSequenceException.class);
+		return _mergedStatistics;
+	}
+
+	/**
+	 * Describes the statistics of every feature, compared against the theoretical statistics of its distribution.
+	 *
+	 * @return report of the statistics
+	 * @throws IllegalMethodCallSequenceException
+	 *             if the connection has not been closed or no meta data has been exported
+	 */
+	public String getReport() {
+		return getStatistics().createReport();
+	}
+
+	@Override
+	public String getExportLocation() {
+		return _delegate.getExportLocation();
+	}
+
+}
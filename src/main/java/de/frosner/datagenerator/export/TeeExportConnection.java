@@ -0,0 +1,48 @@
+package de.frosner.datagenerator.export;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * Connection exporting every instance to all of several downstream connections, like a CSV file and a binary copy of
+ * the same data, so a single generation pass feeds all of them. Every downstream connection is written by a thread of
+ * its own.
+ */
+public final class TeeExportConnection extends FanOutExportConnection {
+
+	/**
+	 * Creates a new {@linkplain TeeExportConnection} exporting to the specified connections.
+	 *
+	 * @param sinks
+	 *            to export all instances to
+	 */
+	public TeeExportConnection(@Nonnull ExportConnection... sinks) {
+		this(Arrays.asList(sinks), DEFAULT_BATCH_SIZE, DEFAULT_QUEUED_BATCHES);
+	}
+
+	/**
+	 * Creates a new {@linkplain TeeExportConnection} exporting to the specified connections.
+	 *
+	 * @param sinks
+	 *            to export all instances to
+	 * @param batchSize
+	 *            number of instances handed over to the writer of a downstream connection at once
+	 * @param queuedBatches
+	 *            maximum number of batches waiting for the writer of a downstream connection
+	 */
+	public TeeExportConnection(@Nonnull List<ExportConnection> sinks, int batchSize, int queuedBatches) {
+		super(sinks, batchSize, queuedBatches);
+	}
+
+	@Override
+	protected void exportInstanceStrategy(Instance instance) {
+		for (int i = 0; i < getSinks().size(); i++) {
+			forward(i, instance);
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package de.frosner.datagenerator.expressions;
+
+/**
+ * Functions of two arguments, which are always both evaluated, the left one first. Comparisons return 1 if they hold
+ * and 0 otherwise. Each function can write itself as Java source code computing exactly the same result.
+ */
+enum BinaryFunction {
+
+	ADD("+", "(%s + %s)") {
+		@Override
+		double apply(double x, double y) {
+			return x + y;
+		}
+	},
+	SUBTRACT("-", "(%s - %s)") {
+		@Override
+		double apply(double x, double y) {
+			return x - y;
+		}
+	},
+	MULTIPLY("*", "(%s * %s)") {
+		@Override
+		double apply(double x, double y) {
+			return x * y;
+		}
+	},
+	DIVIDE("/", "(%s / %s)") {
+		@Override
+		double apply(double x, double y) {
+			return x / y;
+		}
+	},
+	REMAINDER("%", "(%s %% %s)") {
+		@Override
+		double apply(double x, double y) {
+			return x % y;
+		}
+	},
+	POWER("^", "StrictMath.pow(%s, %s)") {
+		@Override
+		double apply(double x, double y) {
+			return StrictMath.pow(x, y);
+		}
+	},
+	LESS("<", "((%s < %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x < y) ? 1.0 : 0.0;
+		}
+	},
+	LESS_OR_EQUAL("<=", "((%s <= %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x <= y) ? 1.0 : 0.0;
+		}
+	},
+	GREATER(">", "((%s > %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x > y) ? 1.0 : 0.0;
+		}
+	},
+	GREATER_OR_EQUAL(">=", "((%s >= %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x >= y) ? 1.0 : 0.0;
+		}
+	},
+	EQUAL("==", "((%s == %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x == y) ? 1.0 : 0.0;
+		}
+	},
+	NOT_EQUAL("!=", "((%s != %s) ? 1.0 : 0.0)") {
+		@Override
+		double apply(double x, double y) {
+			return (x != y) ? 1.0 : 0.0;
+		}
+	},
+	MIN("min", "StrictMath.min(%s, %s)") {
+		@Override
+		double apply(double x, double y) {
+			return StrictMath.min(x, y);
+		}
+	},
+	MAX("max", "StrictMath.max(%s, %s)") {
+		@Override
+		double apply(double x, double y) {
+			return StrictMath.max(x, y);
+		}
+	},
+	POW("pow", "StrictMath.pow(%s, %s)") {
+		@Override
+		double apply(double x, double y) {
+			return StrictMath.pow(x, y);
+		}
+	};
+
+	private final String _symbol;
+	private final String _sourceTemplate;
+
+	private BinaryFunction(String symbol, String sourceTemplate) {
+		_symbol = symbol;
+		_sourceTemplate = sourceTemplate;
+	}
+
+	abstract double apply(double x, double y);
+
+	String getSymbol() {
+		return _symbol;
+	}
+
+	String toSource(String x, String y) {
+		return String.format(_sourceTemplate, x, y);
+	}
+
+}
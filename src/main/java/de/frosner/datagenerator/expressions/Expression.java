@@ -0,0 +1,301 @@
+package de.frosner.datagenerator.expressions;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable arithmetic expression parsed by the {@linkplain ExpressionParser}. Variables are referred to by their index
+ * and all values are doubles. Boolean results are represented by 1 and 0, and every value other than 0 is true.
+ * <p>
+ * Parsing compiles the expression into a tree of specialized nodes: variables are resolved to their index, functions
+ * to the node computing them and subexpressions without variables and random numbers are folded into constants. The
+ * expression can also be written as Java source code computing the same results, which the fused sampler compiles to
+ * bytecode.
+ */
+@Immutable
+public abstract class Expression {
+
+	private Expression() {
+	}
+
+	/**
+	 * Evaluates the expression.
+	 *
+	 * @param variables
+	 *            values of the variables
+	 * @param random
+	 *            number generator for the random numbers of the expression
+	 * @return value of the expression
+	 */
+	public abstract double evaluate(@Nonnull double[] variables, @Nonnull Random random);
+
+	/**
+	 * Writes the expression as Java expression of type double. Random numbers are drawn in the same order as by
+	 * {@linkplain #evaluate(double[], Random)}, so both compute the same result.
+	 *
+	 * @param variables
+	 *            Java expressions of the values of the variables
+	 * @param random
+	 *            Java expression of the random number generator
+	 * @return Java source code of the expression
+	 */
+	public abstract String toSource(@Nonnull String[] variables, @Nonnull String random);
+
+	boolean isConstant() {
+		return false;
+	}
+
+	static Expression constant(double value) {
+		return new Constant(value);
+	}
+
+	static Expression variable(int index) {
+		return new Variable(index);
+	}
+
+	static Expression uniform() {
+		return new Uniform();
+	}
+
+	static Expression gaussian() {
+		return new Gaussian();
+	}
+
+	static Expression apply(UnaryFunction function, Expression x) {
+		Expression expression = new UnaryOperation(function, x);
+		return x.isConstant() ? fold(expression) : expression;
+	}
+
+	static Expression apply(BinaryFunction function, Expression x, Expression y) {
+		Expression expression = new BinaryOperation(function, x, y);
+		return (x.isConstant() && y.isConstant()) ? fold(expression) : expression;
+	}
+
+	static Expression and(Expression x, Expression y) {
+		Expression expression = new And(x, y);
+		return (x.isConstant() && y.isConstant()) ? fold(expression) : expression;
+	}
+
+	static Expression or(Expression x, Expression y) {
+		Expression expression = new Or(x, y);
+		return (x.isConstant() && y.isConstant()) ? fold(expression) : expression;
+	}
+
+	static Expression conditional(Expression condition, Expression x, Expression y) {
+		Expression expression = new Conditional(condition, x, y);
+		return (condition.isConstant() && x.isConstant() && y.isConstant()) ? fold(expression) : expression;
+	}
+
+	private static Expression fold(Expression expression) {
+		return new Constant(expression.evaluate(new double[0], null));
+	}
+
+	private static final class Constant extends Expression {
+
+		private final double _value;
+
+		private Constant(double value) {
+			_value = value;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return _value;
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			if (Double.isNaN(_value)) {
+				return "Double.NaN";
+			} else if (Double.isInfinite(_value)) {
+				return (_value > 0) ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+			}
+			return "(" + Double.toString(_value) + ")";
+		}
+
+		@Override
+		boolean isConstant() {
+			return true;
+		}
+
+	}
+
+	private static final class Variable extends Expression {
+
+		private final int _index;
+
+		private Variable(int index) {
+			_index = index;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return variables[_index];
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return variables[_index];
+		}
+
+	}
+
+	private static final class Uniform extends Expression {
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return random.nextDouble();
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return random + ".nextDouble()";
+		}
+
+	}
+
+	private static final class Gaussian extends Expression {
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return random.nextGaussian();
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return random + ".nextGaussian()";
+		}
+
+	}
+
+	private static final class UnaryOperation extends Expression {
+
+		private final UnaryFunction _function;
+		private final Expression _x;
+
+		private UnaryOperation(UnaryFunction function, Expression x) {
+			_function = function;
+			_x = x;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return _function.apply(_x.evaluate(variables, random));
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return _function.toSource(_x.toSource(variables, random));
+		}
+
+	}
+
+	private static final class BinaryOperation extends Expression {
+
+		private final BinaryFunction _function;
+		private final Expression _x;
+		private final Expression _y;
+
+		private BinaryOperation(BinaryFunction function, Expression x, Expression y) {
+			_function = function;
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			double x = _x.evaluate(variables, random);
+			return _function.apply(x, _y.evaluate(variables, random));
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return _function.toSource(_x.toSource(variables, random), _y.toSource(variables, random));
+		}
+
+	}
+
+	/**
+	 * Logical and, which only evaluates its right side if the left side is true.
+	 */
+	private static final class And extends Expression {
+
+		private final Expression _x;
+		private final Expression _y;
+
+		private And(Expression x, Expression y) {
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return (_x.evaluate(variables, random) != 0 && _y.evaluate(variables, random) != 0) ? 1.0 : 0.0;
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return "((" + _x.toSource(variables, random) + " != 0 && " + _y.toSource(variables, random)
+					+ " != 0) ? 1.0 : 0.0)";
+		}
+
+	}
+
+	/**
+	 * Logical or, which only evaluates its right side if the left side is false.
+	 */
+	private static final class Or extends Expression {
+
+		private final Expression _x;
+		private final Expression _y;
+
+		private Or(Expression x, Expression y) {
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return (_x.evaluate(variables, random) != 0 || _y.evaluate(variables, random) != 0) ? 1.0 : 0.0;
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return "((" + _x.toSource(variables, random) + " != 0 || " + _y.toSource(variables, random)
+					+ " != 0) ? 1.0 : 0.0)";
+		}
+
+	}
+
+	/**
+	 * Conditional expression, which only evaluates the selected alternative.
+	 */
+	private static final class Conditional extends Expression {
+
+		private final Expression _condition;
+		private final Expression _x;
+		private final Expression _y;
+
+		private Conditional(Expression condition, Expression x, Expression y) {
+			_condition = condition;
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public double evaluate(double[] variables, Random random) {
+			return (_condition.evaluate(variables, random) != 0) ? _x.evaluate(variables, random) : _y.evaluate(
+					variables, random);
+		}
+
+		@Override
+		public String toSource(String[] variables, String random) {
+			return "((" + _condition.toSource(variables, random) + " != 0) ? " + _x.toSource(variables, random)
+					+ " : " + _y.toSource(variables, random) + ")";
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+package de.frosner.datagenerator.expressions;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalExpressionException;
+
+/**
+ * Parser of arithmetic expressions over named variables. The grammar, from lowest to highest precedence, is:
+ *
+ * <pre>
+ * expression := and ('||' and)*
+ * and        := comparison ('&amp;&amp;' comparison)*
+ * comparison := sum (('&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '==' | '!=') sum)?
+ * sum        := product (('+' | '-') product)*
+ * product    := unary (('*' | '/' | '%') unary)*
+ * unary      := ('-' | '!') unary | power
+ * power      := primary ('^' unary)?
+ * primary    := number | variable | function '(' arguments ')' | '(' expression ')'
+ * </pre>
+ *
+ * Variables are identifiers like {@code x1} or any name quoted in backticks like {@code `Body height`}. The functions
+ * are {@code abs, sqrt, exp, log, floor, ceil, sigmoid} of one argument, {@code min, max, pow} of two arguments,
+ * {@code if(condition, then, else)} and {@code uniform()} and {@code gaussian()} drawing a uniform random number in
+ * [0, 1) and a standard normal random number.
+ */
+public final class ExpressionParser {
+
+	private static final String IF = "if";
+	private static final String UNIFORM = "uniform";
+	private static final String GAUSSIAN = "gaussian";
+
+	private final String _expression;
+	private final List<String> _variableNames;
+	private int _position = 0;
+
+	private ExpressionParser(String expression, List<String> variableNames) {
+		_expression = expression;
+		_variableNames = variableNames;
+	}
+
+	/**
+	 * Parses the specified expression.
+	 *
+	 * @param expression
+	 *            to parse
+	 * @param variableNames
+	 *            names of the variables, a variable is referred to by its index in this list
+	 * @return parsed expression
+	 * @throws IllegalExpressionException
+	 *             if the expression is malformed or refers to unknown variables or functions
+	 */
+	public static Expression parse(@Nonnull String expression, @Nonnull List<String> variableNames) {
+		Check.notNull(expression, "expression");
+		Check.noNullElements(variableNames, "variableNames");
+		ExpressionParser parser = new ExpressionParser(expression, variableNames);
+		Expression parsed = parser.parseOr();
+		parser.skipWhitespace();
+		if (parser._position < expression.length()) {
+			throw parser.error("Unexpected '" + expression.charAt(parser._position) + "'");
+		}
+		return parsed;
+	}
+
+	private Expression parseOr() {
+		Expression expression = parseAnd();
+		while (accept("||")) {
+			expression = Expression.or(expression, parseAnd());
+		}
+		return expression;
+	}
+
+	private Expression parseAnd() {
+		Expression expression = parseComparison();
+		while (accept("&&")) {
+			expression = Expression.and(expression, parseComparison());
+		}
+		return expression;
+	}
+
+	private Expression parseComparison() {
+		Expression expression = parseSum();
+		for (BinaryFunction comparison : new BinaryFunction[] { BinaryFunction.LESS_OR_EQUAL,
+				BinaryFunction.GREATER_OR_EQUAL, BinaryFunction.EQUAL, BinaryFunction.NOT_EQUAL, BinaryFunction.LESS,
+				BinaryFunction.GREATER }) {
+			if (accept(comparison.getSymbol())) {
+				return Expression.apply(comparison, expression, parseSum());
+			}
+		}
+		return expression;
+	}
+
+	private Expression parseSum() {
+		Expression expression = parseProduct();
+		while (true) {
+			if (accept("+")) {
+				expression = Expression.apply(BinaryFunction.ADD, expression, parseProduct());
+			} else if (accept("-")) {
+				expression = Expression.apply(BinaryFunction.SUBTRACT, expression, parseProduct());
+			} else {
+				return expression;
+			}
+		}
+	}
+
+	private Expression parseProduct() {
+		Expression expression = parseUnary();
+		while (true) {
+			if (accept("*")) {
+				expression = Expression.apply(BinaryFunction.MULTIPLY, expression, parseUnary());
+			} else if (accept("/")) {
+				expression = Expression.apply(BinaryFunction.DIVIDE, expression, parseUnary());
+			} else if (accept("%")) {
+				expression = Expression.apply(BinaryFunction.REMAINDER, expression, parseUnary());
+			} else {
+				return expression;
+			}
+		}
+	}
+
+	private Expression parseUnary() {
+		if (accept("-")) {
+			return Expression.apply(UnaryFunction.NEGATE, parseUnary());
+		} else if (peek('!') && !lookingAt("!=")) {
+			_position++;
+			return Expression.apply(UnaryFunction.NOT, parseUnary());
+		}
+		return parsePower();
+	}
+
+	private Expression parsePower() {
+		Expression base = parsePrimary();
+		if (accept("^")) {
+			return Expression.apply(BinaryFunction.POWER, base, parseUnary());
+		}
+		return base;
+	}
+
+	private Expression parsePrimary() {
+		skipWhitespace();
+		if (_position >= _expression.length()) {
+			throw error("Unexpected end");
+		}
+		char next = _expression.charAt(_position);
+		if (accept("(")) {
+			Expression expression = parseOr();
+			expect(")");
+			return expression;
+		} else if (Character.isDigit(next) || next == '.') {
+			return parseNumber();
+		} else if (next == '`') {
+			return parseQuotedVariable();
+		} else if (Character.isLetter(next) || next == '_') {
+			return parseIdentifier();
+		}
+		throw error("Unexpected '" + next + "'");
+	}
+
+	private Expression parseNumber() {
+		int start = _position;
+		while (_position < _expression.length() && isNumberCharacter(_position)) {
+			_position++;
+		}
+		try {
+			return Expression.constant(Double.parseDouble(_expression.substring(start, _position)));
+		} catch (NumberFormatException e) {
+			_position = start;
+			throw error("Malformed number");
+		}
+	}
+
+	private boolean isNumberCharacter(int position) {
+		char c = _expression.charAt(position);
+		if (Character.isDigit(c) || c == '.' || c == 'e' || c == 'E') {
+			return true;
+		}
+		char previous = _expression.charAt(position - 1);
+		return (c == '+' || c == '-') && (previous == 'e' || previous == 'E');
+	}
+
+	private Expression parseQuotedVariable() {
+		int start = _position;
+		int end = _expression.indexOf('`', start + 1);
+		if (end < 0) {
+			throw error("Unterminated quoted name");
+		}
+		_position = end + 1;
+		return resolveVariable(_expression.substring(start + 1, end), start);
+	}
+
+	private Expression parseIdentifier() {
+		int start = _position;
+		while (_position < _expression.length()
+				&& (Character.isLetterOrDigit(_expression.charAt(_position)) || _expression.charAt(_position) == '_')) {
+			_position++;
+		}
+		String name = _expression.substring(start, _position);
+		if (!accept("(")) {
+			return resolveVariable(name, start);
+		}
+
+		List<Expression> arguments = Lists.newArrayList();
+		if (!accept(")")) {
+			do {
+				arguments.add(parseOr());
+			} while (accept(","));
+			expect(")");
+		}
+		return applyFunction(name, arguments, start);
+	}
+
+	private Expression applyFunction(String name, List<Expression> arguments, int position) {
+		if (name.equals(UNIFORM) && arguments.isEmpty()) {
+			return Expression.uniform();
+		} else if (name.equals(GAUSSIAN) && arguments.isEmpty()) {
+			return Expression.gaussian();
+		} else if (name.equals(IF) && arguments.size() == 3) {
+			return Expression.conditional(arguments.get(0), arguments.get(1), arguments.get(2));
+		}
+		for (UnaryFunction function : UnaryFunction.values()) {
+			if (function.getSymbol().equals(name) && arguments.size() == 1) {
+				return Expression.apply(function, arguments.get(0));
+			}
+		}
+		for (BinaryFunction function : BinaryFunction.values()) {
+			if (function.getSymbol().equals(name) && arguments.size() == 2) {
+				return Expression.apply(function, arguments.get(0), arguments.get(1));
+			}
+		}
+		_position = position;
+		throw error("Unknown function " + name + " of " + arguments.size() + " arguments");
+	}
+
+	private Expression resolveVariable(String name, int position) {
+		int index = _variableNames.indexOf(name);
+		if (index < 0) {
+			_position = position;
+			throw error("Unknown variable " + name);
+		}
+		return Expression.variable(index);
+	}
+
+	private void expect(String token) {
+		if (!accept(token)) {
+			throw error("Expected '" + token + "'");
+		}
+	}
+
+	private boolean accept(String token) {
+		if (lookingAt(token)) {
+			_position += token.length();
+			return true;
+		}
+		return false;
+	}
+
+	private boolean lookingAt(String token) {
+		skipWhitespace();
+		return _expression.startsWith(token, _position);
+	}
+
+	private boolean peek(char c) {
+		skipWhitespace();
+		return _position < _expression.length() && _expression.charAt(_position) == c;
+	}
+
+	private void skipWhitespace() {
+		while (_position < _expression.length() && Character.isWhitespace(_expression.charAt(_position))) {
+			_position++;
+		}
+	}
+
+	private IllegalExpressionException error(String message) {
+		return new IllegalExpressionException(_expression, _position, message);
+	}
+
+}
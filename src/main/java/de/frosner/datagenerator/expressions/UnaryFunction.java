@@ -0,0 +1,82 @@
+package de.frosner.datagenerator.expressions;
+
+/**
+ * Functions of one argument. Each function computes its result and can write itself as Java source code computing
+ * exactly the same result. {@linkplain StrictMath} is used, so results do not depend on the platform.
+ */
+enum UnaryFunction {
+
+	NEGATE("-", "(-%s)") {
+		@Override
+		double apply(double x) {
+			return -x;
+		}
+	},
+	NOT("!", "((%s != 0) ? 0.0 : 1.0)") {
+		@Override
+		double apply(double x) {
+			return (x != 0) ? 0.0 : 1.0;
+		}
+	},
+	ABS("abs", "StrictMath.abs(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.abs(x);
+		}
+	},
+	SQRT("sqrt", "StrictMath.sqrt(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.sqrt(x);
+		}
+	},
+	EXP("exp", "StrictMath.exp(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.exp(x);
+		}
+	},
+	LOG("log", "StrictMath.log(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.log(x);
+		}
+	},
+	FLOOR("floor", "StrictMath.floor(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.floor(x);
+		}
+	},
+	CEIL("ceil", "StrictMath.ceil(%s)") {
+		@Override
+		double apply(double x) {
+			return StrictMath.ceil(x);
+		}
+	},
+	SIGMOID("sigmoid", "(1.0 / (1.0 + StrictMath.exp(-%s)))") {
+		@Override
+		double apply(double x) {
+			return 1.0 / (1.0 + StrictMath.exp(-x));
+		}
+	};
+
+	private final String _symbol;
+	private final String _sourceTemplate;
+
+	private UnaryFunction(String symbol, String sourceTemplate) {
+		_symbol = symbol;
+		_sourceTemplate = sourceTemplate;
+	}
+
+	abstract double apply(double x);
+
+	String getSymbol() {
+		return _symbol;
+	}
+
+	String toSource(String x) {
+		return String.format(_sourceTemplate, x);
+	}
+
+}
@@ -25,6 +25,10 @@ public final class DiscreteFeatureValue implements FeatureValue {
 		return _value;
 	}
 
+	public int getIntValue() {
+		return _value;
+	}
+
 	@Override
 	public String getValueAsString() {
 		return Integer.toString(_value);
@@ -1,26 +1,27 @@
 package de.frosner.datagenerator.generator;
 
-import java.util.List;
-
 import javax.annotation.Nonnull;
 
 import net.sf.qualitycheck.Check;
 import net.sf.qualitycheck.exception.IllegalEmptyArgumentException;
-import de.frosner.datagenerator.distributions.VariableParameter;
 import de.frosner.datagenerator.export.ExportConnection;
 import de.frosner.datagenerator.features.FeatureDefinition;
-import de.frosner.datagenerator.features.FeatureValue;
-import de.frosner.datagenerator.generator.Instance.InstanceBuilder;
+import de.frosner.datagenerator.util.RangeUtil;
 
 /**
  * Class for sampling a sequence of {@linkplain Instance}s having the specified {@linkplain FeatureDefinition}s. Sampled
  * instances will be exported to the specified {@linkplain ExportConnection}.
+ * <p>
+ * If a seed is specified, the distributions are reseeded for every feature value sampled, depending only on the seed,
+ * the instance ID and the position of the feature. Generating the same range twice will then produce identical
+ * instances, no matter which ranges have been generated before.
  */
 public final class DataGenerator {
 
-	private final int _numberOfInstances;
+	private final long _numberOfInstances;
 	private final ExportConnection _out;
 	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final InstanceSampler _sampler;
 	private boolean _metaDataExported = false;
 
 	/**
@@ -34,10 +35,55 @@ public final class DataGenerator {
 	 * @param featureDefinitionGraph
 	 *            that contain the information for sampling the feature values of the instances
 	 */
-	public DataGenerator(int numberOfInstances, @Nonnull ExportConnection exportConnection,
+	public DataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
 			@Nonnull FeatureDefinitionGraph featureDefinitionGraph) {
+		this(numberOfInstances, exportConnection, featureDefinitionGraph, false, 0, SamplerBackend.INTERPRETED);
+	}
+
+	/**
+	 * Constructs a new deterministic {@linkplain DataGenerator}. Every generated instance only depends on the specified
+	 * seed and its ID.
+	 * 
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the generated instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 */
+	public DataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long seed) {
+		this(numberOfInstances, exportConnection, featureDefinitionGraph, true, seed, SamplerBackend.INTERPRETED);
+	}
+
+	/**
+	 * Constructs a new deterministic {@linkplain DataGenerator} sampling with the specified backend. Every generated
+	 * instance only depends on the specified seed and its ID, regardless of the backend.
+	 * 
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the generated instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @param backend
+	 *            sampling the instances
+	 */
+	public DataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long seed, @Nonnull SamplerBackend backend) {
+		this(numberOfInstances, exportConnection, featureDefinitionGraph, true, seed, backend);
+	}
+
+	private DataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, boolean isSeeded, long seed,
+			@Nonnull SamplerBackend backend) {
 		Check.stateIsTrue(numberOfInstances > 0, "Number of instances to generate must be > 0.");
 		Check.notNull(exportConnection);
+		Check.notNull(backend, "backend");
 		if (featureDefinitionGraph.isEmpty()) {
 			throw new IllegalEmptyArgumentException("featureDefinitionGraph");
 		}
@@ -45,6 +91,7 @@ public final class DataGenerator {
 		_numberOfInstances = numberOfInstances;
 		_out = exportConnection;
 		_featureDefinitionGraph = featureDefinitionGraph;
+		_sampler = new InstanceSampler(featureDefinitionGraph, isSeeded, seed, backend);
 	}
 
 	/**
@@ -66,28 +113,16 @@ public final class DataGenerator {
 	 * @param range
 	 *            of the instance IDs from the specified offset
 	 */
-	public void generate(int offset, int range) {
+	public void generate(long offset, long range) {
+		Check.stateIsTrue(offset >= 0 && range >= 0, "Offset and range must be >= 0.");
 		if (!_metaDataExported) {
 			_metaDataExported = true;
 			_out.exportMetaData(_featureDefinitionGraph);
 		}
 
-		for (int i = offset; i < Math.min(offset + range, _numberOfInstances); i++) {
-			InstanceBuilder instanceBuilder = Instance.builder(i);
-			for (FeatureDefinition featureDefinition : _featureDefinitionGraph) {
-				FeatureValue sample = featureDefinition.getDistribution().sample();
-				updateDependentParameters(featureDefinition, sample);
-				instanceBuilder.addFeatureValue(sample);
-			}
-			_out.exportInstance(instanceBuilder.build());
-		}
-	}
-
-	private void updateDependentParameters(FeatureDefinition featureDefinition, FeatureValue value) {
-		List<VariableParameter<?>> dependentParameters = _featureDefinitionGraph
-				.getDependentParameters(featureDefinition);
-		for (VariableParameter<?> parameter : dependentParameters) {
-			parameter.updateParameter(value);
+		long endId = RangeUtil.endOfRange(offset, range, _numberOfInstances);
+		for (long i = offset; i < endId; i++) {
+			_out.exportInstance(_sampler.sample(i));
 		}
 	}
 
@@ -44,16 +44,41 @@ public class FeatureDefinitionGraph implements Iterable<FeatureDefinition> {
 		for (FeatureDefinition featureDefinition : featureDefinitions) {
 			graph.addFeatureDefinition(featureDefinition);
 		}
+		// dependencies of a sorted list cannot form cycles or change the order, so they are added directly
+		boolean isSorted = isTopologicallySorted(featureDefinitions);
 		for (FeatureDefinition featureDefinition : featureDefinitions) {
 			for (VariableParameter<?> parameter : featureDefinition.getDependentParameters()) {
-				graph.addFeatureDefinitionParameterDependency(parameter.getFeatureDefinitionConditionedOn(), featureDefinition,
-						parameter);
+				if (isSorted) {
+					graph._adjacentNodes.get(parameter.getFeatureDefinitionConditionedOn()).add(
+							new FeatureDefinitionParameterPair(featureDefinition, parameter));
+				} else {
+					graph.addFeatureDefinitionParameterDependency(parameter.getFeatureDefinitionConditionedOn(),
+							featureDefinition, parameter);
+				}
 			}
 		}
 
 		return graph;
 	}
 
+	private static boolean isTopologicallySorted(List<FeatureDefinition> featureDefinitions) {
+		Map<FeatureDefinition, Integer> positions = Maps.newHashMap();
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			if (!positions.containsKey(featureDefinition)) {
+				positions.put(featureDefinition, positions.size());
+			}
+		}
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			for (VariableParameter<?> parameter : featureDefinition.getDependentParameters()) {
+				Integer parentPosition = positions.get(parameter.getFeatureDefinitionConditionedOn());
+				if (parentPosition == null || parentPosition >= positions.get(featureDefinition)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	public boolean addFeatureDefinition(FeatureDefinition featureDefinition) {
 		Check.notNull(featureDefinition, "featureDefinition");
 		if (_adjacentNodes.containsKey(featureDefinition)) {
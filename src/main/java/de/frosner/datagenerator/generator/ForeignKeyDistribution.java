@@ -0,0 +1,92 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.distributions.VariableParameter;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Distribution of the foreign key column of a child table. The {@linkplain RelationalDataGenerator} sets the ID of the
+ * parent row before sampling each child row, and sampling returns it.
+ * <p>
+ * Foreign keys are {@linkplain DiscreteFeatureValue}s, which hold an int, so only parent rows with IDs up to
+ * {@linkplain Integer#MAX_VALUE} can be referenced.
+ */
+@Immutable
+final class ForeignKeyDistribution implements DiscreteDistribution {
+
+	private static final String TYPE = "ForeignKey";
+
+	private final String _parentTableName;
+	private final ThreadLocal<int[]> _parentId = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[] { -1 };
+		}
+	};
+
+	ForeignKeyDistribution(String parentTableName) {
+		_parentTableName = parentTableName;
+	}
+
+	/**
+	 * @throws IllegalStateOfArgumentException
+	 *             if the parent ID is larger than {@linkplain Integer#MAX_VALUE}
+	 */
+	void setParentId(long parentId) {
+		Check.stateIsTrue(parentId <= Integer.MAX_VALUE, "Parent ID %s of %s is too large to be a foreign key.",
+				parentId, _parentTableName);
+		_parentId.get()[0] = (int) parentId;
+	}
+
+	@Override
+	public FeatureValue sample() {
+		int[] parentId = _parentId.get();
+		Check.stateIsTrue(parentId[0] >= 0, "Parent ID has not been set.");
+		FeatureValue value = new DiscreteFeatureValue(parentId[0]);
+		parentId[0] = -1;
+		return value;
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public String getParameterDescription() {
+		return "References " + _parentTableName;
+	}
+
+	/**
+	 * Returns an empty set, as the parent IDs are not known before the parent table has been generated.
+	 */
+	@Override
+	public Set<FeatureValue> getPossibleValues() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public Collection<VariableParameter<?>> getDependentParameters() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void setSeed(long seed) {
+	}
+
+	@Override
+	public String toString() {
+		return ForeignKeyDistribution.class.getSimpleName() + " (" + getParameterDescription() + ")";
+	}
+
+}
@@ -0,0 +1,83 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Sampler of the {@linkplain Instance}s of one {@linkplain FeatureDefinitionGraph}, generated as a class of its own by
+ * the {@linkplain SamplerBackend#FUSED fused sampler backend}. The generated class samples all features in straight
+ * line code: fixed parameters become constants, the values of simple distributions are computed in place and
+ * dependent parameters are wired directly where possible. All other distributions and parameters are called through
+ * fields of their concrete type.
+ * <p>
+ * Seeded samplers produce the same instances as the interpreted sampler with the same seed. Samplers can be used by
+ * several threads at the same time.
+ */
+public abstract class FusedSampler {
+
+	private final int _numberOfFeatures;
+	private final long _seed;
+	private final ThreadLocal<Random> _random = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+	};
+
+	protected FusedSampler(int numberOfFeatures, long seed) {
+		_numberOfFeatures = numberOfFeatures;
+		_seed = seed;
+	}
+
+	/**
+	 * Samples the feature values of the instance with the specified ID.
+	 *
+	 * @param instanceId
+	 *            of the instance to sample
+	 * @param row
+	 *            to store the feature values in, in the order of the features
+	 */
+	public abstract void fillRow(long instanceId, @Nonnull FeatureValue[] row);
+
+	/**
+	 * Samples the feature values of consecutive instances.
+	 *
+	 * @param firstInstanceId
+	 *            of the instance sampled into the first row
+	 * @param rows
+	 *            to store the feature values in
+	 */
+	public abstract void fillBatch(long firstInstanceId, @Nonnull FeatureValue[][] rows);
+
+	/**
+	 * Samples the instance with the specified ID.
+	 *
+	 * @param instanceId
+	 *            of the instance to sample
+	 * @return instance sampled
+	 */
+	public Instance sample(long instanceId) {
+		FeatureValue[] row = new FeatureValue[_numberOfFeatures];
+		fillRow(instanceId, row);
+		return new Instance(instanceId, row);
+	}
+
+	public int getNumberOfFeatures() {
+		return _numberOfFeatures;
+	}
+
+	protected final long getSeed() {
+		return _seed;
+	}
+
+	/**
+	 * @return random number generator of the current thread for features sampled in place
+	 */
+	protected final Random getRandom() {
+		return _random.get();
+	}
+
+}
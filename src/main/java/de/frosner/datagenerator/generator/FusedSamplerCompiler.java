@@ -0,0 +1,454 @@
+package de.frosner.datagenerator.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.Distribution;
+import de.frosner.datagenerator.distributions.ExpressionDistribution;
+import de.frosner.datagenerator.distributions.ExpressionDistribution.InputParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.InstanceIdDependentDistribution;
+import de.frosner.datagenerator.distributions.Parameter;
+import de.frosner.datagenerator.distributions.VariableParameter;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.util.ApplicationMetaData;
+
+/**
+ * Generates the source code of a {@linkplain FusedSampler} for a {@linkplain FeatureDefinitionGraph}, compiles it with
+ * the Java compiler of the running JDK and loads it through a class loader of its own. Nothing refers to a generated
+ * class except its samplers and the cache, so classes evicted from the cache are unloaded once their samplers are gone.
+ * <p>
+ * The source code only depends on the types, fixed parameters and expressions of the distributions, not on the names
+ * of the features. It is the key of the cache, so equal graphs built separately share their class.
+ */
+final class FusedSamplerCompiler {
+
+	private static final String SIMPLE_CLASS_NAME = "GeneratedFusedSampler";
+	private static final String CLASS_NAME = FusedSampler.class.getPackage().getName() + "." + SIMPLE_CLASS_NAME;
+	private static final int MAX_CACHED_CLASSES = 64;
+
+	private static final Map<String, Class<? extends FusedSampler>> CLASSES = new ClassCache();
+
+	private FusedSamplerCompiler() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Creates a {@linkplain FusedSampler} for the specified graph, compiling its class if it is not cached.
+	 *
+	 * @param featureDefinitionGraph
+	 *            to sample the instances of
+	 * @param isSeeded
+	 *            whether the distributions are reseeded for every feature value
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @return sampler created or {@code null} if no Java compiler is available
+	 */
+	@CheckForNull
+	static FusedSampler compile(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, boolean isSeeded, long seed) {
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		SourceBuilder source = new SourceBuilder(featureDefinitionGraph, isSeeded);
+		String code = source.build();
+
+		Class<? extends FusedSampler> samplerClass;
+		synchronized (CLASSES) {
+			if (CLASSES.containsKey(code)) {
+				samplerClass = CLASSES.get(code);
+			} else {
+				samplerClass = compileSource(code);
+				CLASSES.put(code, samplerClass);
+			}
+		}
+		if (samplerClass == null) {
+			return null;
+		}
+		try {
+			return samplerClass.getConstructor(Object[].class, long.class).newInstance(source.getConstants(), seed);
+		} catch (Exception e) {
+			throw new IllegalStateException("Generated sampler cannot be instantiated.", e);
+		}
+	}
+
+	@CheckForNull
+	private static Class<? extends FusedSampler> compileSource(final String code) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			return null;
+		}
+		final Map<String, ByteArrayOutputStream> classFiles = Maps.newHashMap();
+		StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+		JavaFileManager fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+			@Override
+			public JavaFileObject getJavaFileForOutput(Location location, final String className, Kind kind,
+					FileObject sibling) {
+				return new SimpleJavaFileObject(toUri(className, kind), kind) {
+					@Override
+					public OutputStream openOutputStream() {
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						classFiles.put(className, out);
+						return out;
+					}
+				};
+			}
+		};
+		JavaFileObject sourceFile = new SimpleJavaFileObject(toUri(CLASS_NAME, Kind.SOURCE), Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+		List<String> options = Lists.newArrayList("-classpath", getClassPath(), "-g:source,lines", "-nowarn");
+		boolean compiled;
+		try {
+			compiled = compiler.getTask(null, fileManager, new DiagnosticCollector<JavaFileObject>(), options, null,
+					Collections.singletonList(sourceFile)).call();
+		} finally {
+			Closeables.closeQuietly(fileManager);
+		}
+		if (!compiled || !classFiles.containsKey(CLASS_NAME)) {
+			return null;
+		}
+		byte[] classFile = classFiles.get(CLASS_NAME).toByteArray();
+		return new GeneratedClassLoader().define(CLASS_NAME, classFile).asSubclass(FusedSampler.class);
+	}
+
+	private static URI toUri(String className, Kind kind) {
+		return URI.create("memory:///" + className.replace('.', '/') + kind.extension);
+	}
+
+	/**
+	 * Returns the class path of the running application, including the location of this library, which may have been
+	 * loaded by another class loader than the application class loader.
+	 */
+	private static String getClassPath() {
+		String classPath = System.getProperty("java.class.path");
+		CodeSource codeSource = FusedSampler.class.getProtectionDomain().getCodeSource();
+		if (codeSource != null && codeSource.getLocation() != null) {
+			try {
+				classPath = new File(codeSource.getLocation().toURI()).getPath() + File.pathSeparator + classPath;
+			} catch (URISyntaxException e) {
+				// fall back to the class path of the application
+			}
+		}
+		return classPath;
+	}
+
+	/**
+	 * Least recently used generated classes by their source code. Sources which could not be compiled are mapped to
+	 * {@code null}.
+	 */
+	private static final class ClassCache extends LinkedHashMap<String, Class<? extends FusedSampler>> {
+
+		private static final long serialVersionUID = ApplicationMetaData.SERIAL_VERSION_UID;
+
+		private ClassCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Class<? extends FusedSampler>> eldest) {
+			return size() > MAX_CACHED_CLASSES;
+		}
+
+	}
+
+	/**
+	 * Class loader of exactly one generated class.
+	 */
+	private static final class GeneratedClassLoader extends ClassLoader {
+
+		private GeneratedClassLoader() {
+			super(FusedSampler.class.getClassLoader());
+		}
+
+		private Class<?> define(String className, byte[] classFile) {
+			return defineClass(className, classFile, 0, classFile.length);
+		}
+
+	}
+
+	/**
+	 * Writes the source code of the sampler of a graph and collects the objects the generated code refers to. The
+	 * features are planned first, because parameters wired directly into a distribution sampled later must not be
+	 * updated when their feature is sampled.
+	 */
+	private static final class SourceBuilder {
+
+		private final FeatureDefinitionGraph _featureDefinitionGraph;
+		private final boolean _isSeeded;
+		private final List<Object> _constants = Lists.newArrayList();
+		private final StringBuilder _fields = new StringBuilder();
+		private final StringBuilder _assignments = new StringBuilder();
+		private final Map<FeatureDefinition, Integer> _indices = Maps.newHashMap();
+		private final Map<FeatureDefinition, String> _doubleValues = Maps.newHashMap();
+		private final Set<VariableParameter<?>> _wiredParameters = Collections
+				.newSetFromMap(new IdentityHashMap<VariableParameter<?>, Boolean>());
+		private boolean _usesRandom = false;
+
+		private SourceBuilder(FeatureDefinitionGraph featureDefinitionGraph, boolean isSeeded) {
+			_featureDefinitionGraph = featureDefinitionGraph;
+			_isSeeded = isSeeded;
+		}
+
+		private Object[] getConstants() {
+			return _constants.toArray();
+		}
+
+		private String build() {
+			List<String> samplingCode = Lists.newArrayList();
+			int featureIndex = 0;
+			for (FeatureDefinition featureDefinition : _featureDefinitionGraph) {
+				String code = sampleInPlace(featureIndex, featureDefinition);
+				samplingCode.add((code != null) ? code : sampleByCall(featureIndex, featureDefinition));
+				_indices.put(featureDefinition, featureIndex);
+				featureIndex++;
+			}
+
+			StringBuilder fillRow = new StringBuilder();
+			if (_usesRandom) {
+				fillRow.append("\t\tRandom random = getRandom();\n");
+			}
+			if (_isSeeded) {
+				fillRow.append("\t\tlong seed = getSeed();\n");
+			}
+			featureIndex = 0;
+			for (FeatureDefinition featureDefinition : _featureDefinitionGraph) {
+				fillRow.append("\n\t\t// feature ").append(featureIndex).append('\n');
+				fillRow.append(samplingCode.get(featureIndex));
+				for (VariableParameter<?> parameter : _featureDefinitionGraph.getDependentParameters(featureDefinition)) {
+					if (!_wiredParameters.contains(parameter)) {
+						fillRow.append("\t\t").append(addConstant(parameter, VariableParameter.class))
+								.append(".updateParameter(f").append(featureIndex).append(");\n");
+					}
+				}
+				fillRow.append("\t\trow[").append(featureIndex).append("] = f").append(featureIndex).append(";\n");
+				featureIndex++;
+			}
+
+			StringBuilder source = new StringBuilder();
+			source.append("package ").append(FusedSampler.class.getPackage().getName()).append(";\n\n");
+			source.append("import java.util.Random;\n\n");
+			source.append("import de.frosner.datagenerator.distributions.BernoulliDistribution;\n");
+			source.append("import de.frosner.datagenerator.distributions.InstanceIdDependentDistribution;\n");
+			source.append("import de.frosner.datagenerator.exceptions.IllegalSigmaParameterArgumentException;\n");
+			source.append("import de.frosner.datagenerator.features.ContinuousFeatureValue;\n");
+			source.append("import de.frosner.datagenerator.features.FeatureValue;\n");
+			source.append("import de.frosner.datagenerator.util.SeedUtil;\n\n");
+			source.append("public final class ").append(SIMPLE_CLASS_NAME).append(" extends FusedSampler {\n\n");
+			source.append(_fields).append('\n');
+			source.append("\tpublic ").append(SIMPLE_CLASS_NAME).append("(Object[] constants, long seed) {\n");
+			source.append("\t\tsuper(").append(featureIndex).append(", seed);\n");
+			source.append(_assignments);
+			source.append("\t}\n\n");
+			source.append("\t@Override\n");
+			source.append("\tpublic void fillRow(long instanceId, FeatureValue[] row) {\n");
+			source.append(fillRow);
+			source.append("\t}\n\n");
+			source.append("\t@Override\n");
+			source.append("\tpublic void fillBatch(long firstInstanceId, FeatureValue[][] rows) {\n");
+			source.append("\t\tfor (int i = 0; i < rows.length; i++) {\n");
+			source.append("\t\t\tfillRow(firstInstanceId + i, rows[i]);\n");
+			source.append("\t\t}\n");
+			source.append("\t}\n\n");
+			source.append("}\n");
+			return source.toString();
+		}
+
+		/**
+		 * Returns the code computing the value of the feature in place, or {@code null} if its distribution has to be
+		 * called. Gaussian distributions with fixed parameters or means and sigmas conditioned on features computed in
+		 * place, Bernoulli distributions with a fixed probability and expressions are computed in place.
+		 */
+		@CheckForNull
+		private String sampleInPlace(int featureIndex, FeatureDefinition featureDefinition) {
+			Distribution distribution = featureDefinition.getDistribution();
+			String seed = _isSeeded ? "\t\trandom.setSeed(SeedUtil.deriveSeed(seed, instanceId, " + featureIndex
+					+ "));\n" : "";
+			if (distribution.getClass() == GaussianDistribution.class) {
+				GaussianDistribution gaussian = (GaussianDistribution) distribution;
+				String mean = getDoubleExpression(gaussian.getMean(), featureDefinition);
+				String sigma = getDoubleExpression(gaussian.getSigma(), featureDefinition);
+				Double fixedSigma = getFixedDouble(gaussian.getSigma());
+				if (mean == null || sigma == null || (fixedSigma != null && !(fixedSigma > 0))) {
+					return null;
+				}
+				wireParameter(gaussian.getMean());
+				wireParameter(gaussian.getSigma());
+				_usesRandom = true;
+				String value = "x" + featureIndex;
+				_doubleValues.put(featureDefinition, value);
+				StringBuilder code = new StringBuilder(seed);
+				if (fixedSigma == null) {
+					code.append("\t\tif (!(").append(sigma).append(" > 0)) {\n");
+					code.append("\t\t\tthrow new IllegalSigmaParameterArgumentException();\n");
+					code.append("\t\t}\n");
+				}
+				code.append("\t\tdouble ").append(value).append(" = random.nextGaussian() * ").append(sigma)
+						.append(" + ").append(mean).append(";\n");
+				code.append("\t\tFeatureValue f").append(featureIndex).append(" = new ContinuousFeatureValue(")
+						.append(value).append(");\n");
+				return code.toString();
+			} else if (distribution.getClass() == ExpressionDistribution.class) {
+				List<InputParameter> inputParameters = ((ExpressionDistribution) distribution).getInputParameters();
+				String[] inputs = new String[inputParameters.size()];
+				for (int i = 0; i < inputs.length; i++) {
+					FeatureDefinition input = inputParameters.get(i).getFeatureDefinitionConditionedOn();
+					if (!isUpdatedBy(input, inputParameters.get(i))) {
+						return null;
+					}
+					inputs[i] = _doubleValues.containsKey(input) ? _doubleValues.get(input)
+							: ExpressionDistribution.class.getName() + ".toDouble(f" + _indices.get(input) + ")";
+				}
+				for (InputParameter inputParameter : inputParameters) {
+					wireParameter(inputParameter);
+				}
+				_usesRandom = true;
+				String value = "x" + featureIndex;
+				_doubleValues.put(featureDefinition, value);
+				return seed + "\t\tdouble " + value + " = "
+						+ ((ExpressionDistribution) distribution).getExpression().toSource(inputs, "random") + ";\n"
+						+ "\t\tFeatureValue f" + featureIndex + " = new ContinuousFeatureValue(" + value + ");\n";
+			} else if (distribution.getClass() == BernoulliDistribution.class) {
+				Double p = getFixedDouble(((BernoulliDistribution) distribution).getP());
+				if (p == null || !(p >= 0 && p <= 1)) {
+					return null;
+				}
+				_usesRandom = true;
+				return seed + "\t\tFeatureValue f" + featureIndex + " = (Double.compare(random.nextDouble(), "
+						+ toLiteral(p) + ") < 0) ? BernoulliDistribution.HEADS : BernoulliDistribution.TAILS;\n";
+			}
+			return null;
+		}
+
+		private String sampleByCall(int featureIndex, FeatureDefinition featureDefinition) {
+			Distribution distribution = featureDefinition.getDistribution();
+			String field = addConstant(distribution, Distribution.class);
+			StringBuilder code = new StringBuilder();
+			if (_isSeeded) {
+				code.append("\t\t").append(field).append(".setSeed(SeedUtil.deriveSeed(seed, instanceId, ")
+						.append(featureIndex).append("));\n");
+			}
+			if (distribution instanceof InstanceIdDependentDistribution) {
+				code.append("\t\t((InstanceIdDependentDistribution) ").append(field)
+						.append(").setInstanceId(instanceId);\n");
+			}
+			code.append("\t\tFeatureValue f").append(featureIndex).append(" = ").append(field).append(".sample();\n");
+			return code.toString();
+		}
+
+		/**
+		 * Returns an expression of a fixed double parameter or of a parameter conditioned on a feature computed in
+		 * place, or {@code null} if the parameter has to be read at runtime.
+		 */
+		@CheckForNull
+		private String getDoubleExpression(Parameter<?> parameter, FeatureDefinition featureDefinition) {
+			Double fixed = getFixedDouble(parameter);
+			if (fixed != null) {
+				return toLiteral(fixed);
+			}
+			if (parameter.getClass() == ContinuousVariableParameter.class) {
+				FeatureDefinition parent = ((VariableParameter<?>) parameter).getFeatureDefinitionConditionedOn();
+				String value = _doubleValues.get(parent);
+				if (value != null && isUpdatedBy(parent, parameter)) {
+					return value;
+				}
+			}
+			return null;
+		}
+
+		private boolean isUpdatedBy(FeatureDefinition parent, Parameter<?> parameter) {
+			for (VariableParameter<?> dependentParameter : _featureDefinitionGraph.getDependentParameters(parent)) {
+				if (dependentParameter == parameter) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void wireParameter(Parameter<?> parameter) {
+			if (parameter instanceof VariableParameter<?>) {
+				_wiredParameters.add((VariableParameter<?>) parameter);
+			}
+		}
+
+		@CheckForNull
+		private static Double getFixedDouble(Parameter<?> parameter) {
+			if (parameter.getClass() == FixedParameter.class) {
+				Object value = parameter.getParameter();
+				if (value instanceof Double && !((Double) value).isNaN() && !((Double) value).isInfinite()) {
+					return (Double) value;
+				}
+			}
+			return null;
+		}
+
+		private static String toLiteral(double value) {
+			return "(" + Double.toString(value) + ")";
+		}
+
+		/**
+		 * Adds a field of the most specific accessible type referring to the specified object.
+		 *
+		 * @return name of the field
+		 */
+		private String addConstant(Object constant, Class<?> fallbackType) {
+			int index = _constants.size();
+			_constants.add(constant);
+			String field = "_c" + index;
+			String type = getAccessibleTypeName(constant.getClass(), fallbackType);
+			_fields.append("\tprivate final ").append(type).append(' ').append(field).append(";\n");
+			_assignments.append("\t\t").append(field).append(" = (").append(type).append(") constants[").append(index)
+					.append("];\n");
+			return field;
+		}
+
+		/**
+		 * Returns the name of the specified type if the generated class can refer to it. The generated class is
+		 * loaded by another class loader, so it only has access to public types.
+		 */
+		private static String getAccessibleTypeName(Class<?> type, Class<?> fallbackType) {
+			for (Class<?> enclosing = type; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+				if (!Modifier.isPublic(enclosing.getModifiers()) || enclosing.isAnonymousClass()
+						|| enclosing.isLocalClass()) {
+					return fallbackType.getName();
+				}
+			}
+			return type.getCanonicalName();
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+import net.sf.qualitycheck.exception.IllegalEmptyArgumentException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.UnmodifiableIterator;
+
+import de.frosner.datagenerator.export.ExportConnection;
+
+/**
+ * Lazy view of the {@linkplain Instance}s of a {@linkplain FeatureDefinitionGraph} having IDs in a given range. In
+ * contrast to the {@linkplain DataGenerator}, which pushes instances into an {@linkplain ExportConnection}, instances
+ * are only sampled when they are pulled from an iterator. Consumers stopping early do not pay for the rest of the range.
+ * <p>
+ * The range can be split into disjoint parts which can be iterated by different threads in parallel. If the view is
+ * seeded, every instance only depends on the seed and its ID, so iterating the parts yields the same instances as
+ * iterating the whole range. Without a seed, every iteration samples new instances.
+ */
+@Immutable
+public final class GeneratedInstances implements Iterable<Instance> {
+
+	private final InstanceSampler _sampler;
+	private final long _startId;
+	private final long _endId;
+
+	/**
+	 * Creates a lazy view of the specified number of instances, starting with ID 0.
+	 *
+	 * @param featureDefinitionGraph
+	 *            to sample the instances of
+	 * @param numberOfInstances
+	 *            in the view
+	 * @return lazy view of the instances
+	 */
+	public static GeneratedInstances of(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances) {
+		return create(featureDefinitionGraph, numberOfInstances, false, 0, SamplerBackend.INTERPRETED);
+	}
+
+	/**
+	 * Creates a lazy view of the specified number of deterministic instances, starting with ID 0.
+	 *
+	 * @param featureDefinitionGraph
+	 *            to sample the instances of
+	 * @param numberOfInstances
+	 *            in the view
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @return lazy view of the instances
+	 */
+	public static GeneratedInstances of(@Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			long numberOfInstances, long seed) {
+		return create(featureDefinitionGraph, numberOfInstances, true, seed, SamplerBackend.INTERPRETED);
+	}
+
+	/**
+	 * Creates a lazy view of the specified number of deterministic instances sampled by the specified backend,
+	 * starting with ID 0.
+	 *
+	 * @param featureDefinitionGraph
+	 *            to sample the instances of
+	 * @param numberOfInstances
+	 *            in the view
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @param backend
+	 *            sampling the instances
+	 * @return lazy view of the instances
+	 */
+	public static GeneratedInstances of(@Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			long numberOfInstances, long seed, @Nonnull SamplerBackend backend) {
+		return create(featureDefinitionGraph, numberOfInstances, true, seed, backend);
+	}
+
+	private static GeneratedInstances create(FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			boolean isSeeded, long seed, SamplerBackend backend) {
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		Check.notNull(backend, "backend");
+		if (featureDefinitionGraph.isEmpty()) {
+			throw new IllegalEmptyArgumentException("featureDefinitionGraph");
+		}
+		Check.stateIsTrue(numberOfInstances >= 0, "Number of instances must be >= 0.");
+		return new GeneratedInstances(new InstanceSampler(featureDefinitionGraph, isSeeded, seed, backend), 0,
+				numberOfInstances);
+	}
+
+	private GeneratedInstances(InstanceSampler sampler, long startId, long endId) {
+		_sampler = sampler;
+		_startId = startId;
+		_endId = endId;
+	}
+
+	/**
+	 * Returns a view of the instances having IDs from the specified start ID (inclusive) to the specified end ID
+	 * (exclusive). The range must lie within the range of this view.
+	 *
+	 * @param startId
+	 *            of the first instance
+	 * @param endId
+	 *            of the instance after the last one
+	 * @return lazy view of the sub range
+	 */
+	public GeneratedInstances subRange(long startId, long endId) {
+		Check.stateIsTrue(_startId <= startId && startId <= endId && endId <= _endId,
+				"Sub range must lie within [%d, %d).", _startId, _endId);
+		return new GeneratedInstances(_sampler, startId, endId);
+	}
+
+	/**
+	 * Splits the range of this view into at most the specified number of disjoint, consecutive parts of almost equal
+	 * size. Empty parts are omitted.
+	 *
+	 * @param numberOfParts
+	 *            to split into
+	 * @return parts in the order of their IDs
+	 */
+	public List<GeneratedInstances> split(int numberOfParts) {
+		Check.stateIsTrue(numberOfParts > 0, "Number of parts must be > 0.");
+		long size = size();
+		List<GeneratedInstances> parts = Lists.newArrayListWithCapacity((int) Math.min(numberOfParts, size));
+		long start = _startId;
+		for (int i = 0; i < numberOfParts; i++) {
+			long partSize = size / numberOfParts + ((i < size % numberOfParts) ? 1 : 0);
+			if (partSize > 0) {
+				parts.add(new GeneratedInstances(_sampler, start, start + partSize));
+				start += partSize;
+			}
+		}
+		return parts;
+	}
+
+	public long getStartId() {
+		return _startId;
+	}
+
+	public long getEndId() {
+		return _endId;
+	}
+
+	public long size() {
+		return _endId - _startId;
+	}
+
+	/**
+	 * Returns an iterator sampling the next instance on every call of {@linkplain Iterator#next()}. The iterator must
+	 * only be used by a single thread.
+	 */
+	@Override
+	public Iterator<Instance> iterator() {
+		return new UnmodifiableIterator<Instance>() {
+
+			private long _nextId = _startId;
+
+			@Override
+			public boolean hasNext() {
+				return _nextId < _endId;
+			}
+
+			@Override
+			public Instance next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return _sampler.sample(_nextId++);
+			}
+
+		};
+	}
+
+}
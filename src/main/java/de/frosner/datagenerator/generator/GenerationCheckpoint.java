@@ -0,0 +1,170 @@
+package de.frosner.datagenerator.generator;
+
+import static de.frosner.datagenerator.util.PropertiesUtil.getRequiredProperty;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.DurableExportConnection;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.util.PropertiesUtil;
+
+/**
+ * Immutable record of the durable progress of a deterministic generation. It contains everything needed to resume the
+ * generation: the seed, the total number of instances, the ID of the first instance not yet durably exported and the
+ * corresponding byte offset of the export location as returned by {@linkplain DurableExportConnection#sync()}.
+ * <p>
+ * A description of the feature definitions is stored as well, so that a generation is not resumed with a different
+ * schema or with different distribution parameters.
+ */
+@Immutable
+public final class GenerationCheckpoint {
+
+	private static final String NUMBER_OF_INSTANCES = "numberOfInstances";
+	private static final String NEXT_INSTANCE_ID = "nextInstanceId";
+	private static final String BYTE_OFFSET = "byteOffset";
+	private static final String SEED = "seed";
+	private static final String SCHEMA = "schema";
+
+	private final long _numberOfInstances;
+	private final long _nextInstanceId;
+	private final long _byteOffset;
+	private final long _seed;
+	private final String _schema;
+
+	/**
+	 * Creates a new {@linkplain GenerationCheckpoint}.
+	 * 
+	 * @param numberOfInstances
+	 *            to be generated in total
+	 * @param nextInstanceId
+	 *            ID of the first instance that has not been durably exported
+	 * @param byteOffset
+	 *            of the export location up to which all data is durable
+	 * @param seed
+	 *            of the deterministic generation
+	 * @param schema
+	 *            description of the feature definitions, see {@linkplain #describeSchema(FeatureDefinitionGraph)}
+	 */
+	public GenerationCheckpoint(long numberOfInstances, long nextInstanceId, long byteOffset, long seed,
+			@Nonnull String schema) {
+		Check.stateIsTrue(nextInstanceId >= 0 && nextInstanceId <= numberOfInstances,
+				"Next instance ID must be within [0, numberOfInstances].");
+		Check.stateIsTrue(byteOffset >= 0, "Byte offset must be >= 0.");
+		_numberOfInstances = numberOfInstances;
+		_nextInstanceId = nextInstanceId;
+		_byteOffset = byteOffset;
+		_seed = seed;
+		_schema = Check.notNull(schema, "schema");
+	}
+
+	/**
+	 * Returns a description of the specified feature definitions in generation order. It lists the names and
+	 * distribution types, followed by their {@linkplain SchemaFingerprint}, which covers the distribution parameters
+	 * and the features each distribution depends on. Feature definitions generating different data therefore have
+	 * different descriptions, while the description stays short and on a single line.
+	 * 
+	 * @param featureDefinitions
+	 *            to describe
+	 * @return schema description
+	 */
+	public static String describeSchema(@Nonnull FeatureDefinitionGraph featureDefinitions) {
+		Check.notNull(featureDefinitions, "featureDefinitions");
+		StringBuilder schema = new StringBuilder();
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			if (schema.length() > 0) {
+				schema.append(",");
+			}
+			schema.append(featureDefinition.getName()).append(":")
+					.append(featureDefinition.getDistribution().getType());
+		}
+		MessageDigest digest = SchemaFingerprint.newDigest();
+		SchemaFingerprint.update(digest, featureDefinitions);
+		return schema.append("#").append(SchemaFingerprint.toHexString(digest)).toString();
+	}
+
+	/**
+	 * Reads a checkpoint written by {@linkplain #writeTo(File)}.
+	 * 
+	 * @param file
+	 *            to read from
+	 * @return checkpoint read
+	 * @throws UncheckedIOException
+	 *             if the file cannot be read
+	 */
+	public static GenerationCheckpoint readFrom(@Nonnull File file) {
+		Properties properties = PropertiesUtil.load(file);
+		return new GenerationCheckpoint(Long.parseLong(getRequiredProperty(properties, NUMBER_OF_INSTANCES)),
+				Long.parseLong(getRequiredProperty(properties, NEXT_INSTANCE_ID)), Long.parseLong(getRequiredProperty(
+						properties, BYTE_OFFSET)), Long.parseLong(getRequiredProperty(properties, SEED)),
+				getRequiredProperty(properties, SCHEMA));
+	}
+
+	/**
+	 * Writes the checkpoint atomically to the specified file. The checkpoint is written to a temporary file which is
+	 * forced onto the storage device and then renamed, so an existing checkpoint is never partially overwritten.
+	 * 
+	 * @param file
+	 *            to write to
+	 * @throws UncheckedIOException
+	 *             if the file cannot be written
+	 */
+	public void writeTo(@Nonnull File file) {
+		Properties properties = new Properties();
+		properties.setProperty(NUMBER_OF_INSTANCES, Long.toString(_numberOfInstances));
+		properties.setProperty(NEXT_INSTANCE_ID, Long.toString(_nextInstanceId));
+		properties.setProperty(BYTE_OFFSET, Long.toString(_byteOffset));
+		properties.setProperty(SEED, Long.toString(_seed));
+		properties.setProperty(SCHEMA, _schema);
+		PropertiesUtil.storeAtomically(properties, file, GenerationCheckpoint.class.getSimpleName());
+	}
+
+	public long getNumberOfInstances() {
+		return _numberOfInstances;
+	}
+
+	public long getNextInstanceId() {
+		return _nextInstanceId;
+	}
+
+	public long getByteOffset() {
+		return _byteOffset;
+	}
+
+	public long getSeed() {
+		return _seed;
+	}
+
+	public String getSchema() {
+		return _schema;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof GenerationCheckpoint) {
+			GenerationCheckpoint checkpoint = (GenerationCheckpoint) o;
+			return checkpoint._numberOfInstances == _numberOfInstances
+					&& checkpoint._nextInstanceId == _nextInstanceId && checkpoint._byteOffset == _byteOffset
+					&& checkpoint._seed == _seed && checkpoint._schema.equals(_schema);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (_nextInstanceId ^ (_nextInstanceId >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "[" + _nextInstanceId + "/" + _numberOfInstances + ", " + _byteOffset + " bytes, seed = " + _seed + "]";
+	}
+
+}
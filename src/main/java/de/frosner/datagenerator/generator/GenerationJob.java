@@ -0,0 +1,324 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.export.ExportConfiguration;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.util.RangeUtil;
+
+/**
+ * Handle of a job submitted to a {@linkplain GenerationScheduler}. It tells the status of the job and how many
+ * instances have been exported so far, and it can cancel the job. All methods may be called from any thread.
+ * <p>
+ * The instances of a job are sampled in chunks, possibly by several threads in parallel, and exported in the order of
+ * their IDs. The export connection is created when the first chunk is exported and closed before the job is done, so
+ * the export is complete as soon as the job has succeeded.
+ */
+public final class GenerationJob {
+
+	public enum Status {
+		QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+		public boolean isDone() {
+			return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+		}
+	}
+
+	private final long _id;
+	private final Object _lock;
+	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final GeneratedInstances _instances;
+	private final ExportConfiguration _exportConfiguration;
+	private final JobBudget _budget;
+	private final int _chunkSize;
+
+	/* All fields below are guarded by the lock, except for the connection, which is only used by the exporting thread */
+	private final Map<Long, Instance[]> _sampledChunks = Maps.newHashMap();
+	private Status _status = Status.QUEUED;
+	private boolean _cancelRequested = false;
+	private boolean _finishing = false;
+	private RuntimeException _failure;
+	private long _nextChunkId = 0;
+	private long _nextExportId = 0;
+	private long _numberOfBufferedInstances = 0;
+	private int _numberOfActiveThreads = 0;
+	private boolean _exporting = false;
+	private String _exportLocation;
+	private ExportConnection _exportConnection;
+
+	GenerationJob(long id, Object lock, FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			long seed, ExportConfiguration exportConfiguration, JobBudget budget, int chunkSize) {
+		_id = id;
+		_lock = lock;
+		_featureDefinitionGraph = featureDefinitionGraph;
+		_instances = GeneratedInstances.of(featureDefinitionGraph, numberOfInstances, seed);
+		_exportConfiguration = exportConfiguration;
+		_budget = budget;
+		_chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return ID of the job, unique within its scheduler
+	 */
+	public long getId() {
+		return _id;
+	}
+
+	public long getNumberOfInstances() {
+		return _instances.size();
+	}
+
+	public JobBudget getBudget() {
+		return _budget;
+	}
+
+	public Status getStatus() {
+		synchronized (_lock) {
+			return _status;
+		}
+	}
+
+	public long getNumberOfExportedInstances() {
+		synchronized (_lock) {
+			return _nextExportId;
+		}
+	}
+
+	/**
+	 * @return location of the export or null if the export has not started yet
+	 */
+	@CheckForNull
+	public String getExportLocation() {
+		synchronized (_lock) {
+			return _exportLocation;
+		}
+	}
+
+	/**
+	 * @return exception the job failed with or null if it has not failed
+	 */
+	@CheckForNull
+	public RuntimeException getFailure() {
+		synchronized (_lock) {
+			return _failure;
+		}
+	}
+
+	/**
+	 * Cancels the job. Chunks being sampled are finished, but no further instances are exported. The export connection
+	 * is closed, so the instances exported so far are kept.
+	 *
+	 * @return false if the job was already done
+	 */
+	public boolean cancel() {
+		Status status;
+		synchronized (_lock) {
+			if (_status.isDone() || _finishing) {
+				return false;
+			}
+			_cancelRequested = true;
+			status = beginFinishIfIdle();
+		}
+		finish(status);
+		return true;
+	}
+
+	/**
+	 * Waits until the job is done or the timeout elapses.
+	 *
+	 * @param timeout
+	 *            to wait at most
+	 * @param unit
+	 *            of the timeout
+	 * @return status of the job, which is not done if the timeout elapsed
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+	public Status awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (_lock) {
+			long remainingNanos = deadline - System.nanoTime();
+			while (!_status.isDone() && remainingNanos > 0) {
+				TimeUnit.NANOSECONDS.timedWait(_lock, remainingNanos);
+				remainingNanos = deadline - System.nanoTime();
+			}
+			return _status;
+		}
+	}
+
+	/**
+	 * Must be called holding the lock.
+	 */
+	boolean hasChunksLeft() {
+		return !_cancelRequested && _failure == null && _nextChunkId < _instances.size();
+	}
+
+	/**
+	 * Reserves the next chunk for the calling thread if the budget of the job allows it. Must be called holding the
+	 * lock.
+	 *
+	 * @return start and end ID of the chunk or null if no chunk may be sampled now
+	 */
+	@CheckForNull
+	long[] reserveChunk() {
+		if (!hasChunksLeft() || _numberOfActiveThreads >= _budget.getMaxThreads()) {
+			return null;
+		}
+		long endId = RangeUtil.endOfRange(_nextChunkId, _chunkSize, _instances.size());
+		long chunkSize = endId - _nextChunkId;
+		if (_numberOfBufferedInstances > 0
+				&& chunkSize > _budget.getMaxBufferedInstances() - _numberOfBufferedInstances) {
+			return null;
+		}
+		long[] chunk = new long[] { _nextChunkId, endId };
+		_nextChunkId = endId;
+		_numberOfBufferedInstances += chunkSize;
+		_numberOfActiveThreads++;
+		_status = Status.RUNNING;
+		return chunk;
+	}
+
+	/**
+	 * Samples a chunk reserved by {@linkplain #reserveChunk()} and exports all chunks that are due, unless another
+	 * thread is exporting already. Must be called without holding the lock.
+	 */
+	void run(long startId, long endId) {
+		boolean exporting = false;
+		Status status;
+		try {
+			Instance[] chunk = sample(startId, endId);
+			synchronized (_lock) {
+				_sampledChunks.put(startId, chunk);
+				exporting = !_exporting;
+				_exporting = true;
+			}
+			if (exporting) {
+				exportSampledChunks();
+			}
+		} catch (RuntimeException e) {
+			synchronized (_lock) {
+				if (_failure == null) {
+					_failure = e;
+				}
+				if (exporting) {
+					_exporting = false;
+				}
+			}
+		} finally {
+			synchronized (_lock) {
+				_numberOfActiveThreads--;
+				status = beginFinishIfIdle();
+				_lock.notifyAll();
+			}
+		}
+		finish(status);
+	}
+
+	private Instance[] sample(long startId, long endId) {
+		Instance[] chunk = new Instance[(int) (endId - startId)];
+		Iterator<Instance> instances = _instances.subRange(startId, endId).iterator();
+		for (int i = 0; i < chunk.length; i++) {
+			chunk[i] = instances.next();
+		}
+		return chunk;
+	}
+
+	/**
+	 * Exports the sampled chunks in the order of their IDs until the next chunk has not been sampled yet. Handing over
+	 * the export role happens atomically with the check for the next chunk, so no chunk is left behind.
+	 */
+	private void exportSampledChunks() {
+		while (true) {
+			Instance[] chunk;
+			synchronized (_lock) {
+				chunk = (_cancelRequested || _failure != null) ? null : _sampledChunks.remove(_nextExportId);
+				if (chunk == null) {
+					_exporting = false;
+					return;
+				}
+			}
+			if (_exportConnection == null) {
+				_exportConnection = _exportConfiguration.createExportConnection();
+				synchronized (_lock) {
+					_exportLocation = _exportConnection.getExportLocation();
+				}
+				_exportConnection.exportMetaData(_featureDefinitionGraph);
+			}
+			for (Instance instance : chunk) {
+				_exportConnection.exportInstance(instance);
+			}
+			synchronized (_lock) {
+				_nextExportId += chunk.length;
+				_numberOfBufferedInstances -= chunk.length;
+				_lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Decides the final status if no thread is working on the job anymore and the job is complete, cancelled or has
+	 * failed. Must be called holding the lock.
+	 *
+	 * @return final status or null if the job is not to be finished by the calling thread
+	 */
+	@CheckForNull
+	private Status beginFinishIfIdle() {
+		if (_finishing || _numberOfActiveThreads > 0) {
+			return null;
+		}
+		Status status;
+		if (_nextExportId == _instances.size()) {
+			status = Status.SUCCEEDED;
+		} else if (_failure != null) {
+			status = Status.FAILED;
+		} else if (_cancelRequested) {
+			status = Status.CANCELLED;
+		} else {
+			return null;
+		}
+		_finishing = true;
+		_sampledChunks.clear();
+		_numberOfBufferedInstances = 0;
+		return status;
+	}
+
+	/**
+	 * Closes the export connection and publishes the final status. Must be called without holding the lock.
+	 */
+	private void finish(@CheckForNull Status status) {
+		if (status == null) {
+			return;
+		}
+		RuntimeException failure = null;
+		if (_exportConnection != null) {
+			try {
+				_exportConnection.close();
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+		synchronized (_lock) {
+			if (failure != null && _failure == null) {
+				_failure = failure;
+				status = Status.FAILED;
+			}
+			_status = status;
+			_lock.notifyAll();
+		}
+	}
+
+	@Override
+	public String toString() {
+		synchronized (_lock) {
+			return "[job " + _id + ": " + _status + ", " + _nextExportId + " of " + _instances.size()
+					+ " instances exported]";
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.export.ExportConfiguration;
+
+/**
+ * Runs many generation jobs concurrently on a bounded pool of threads. Every job has a feature definition graph and an
+ * {@linkplain ExportConfiguration} of its own and is tracked by the {@linkplain GenerationJob} returned on submission.
+ * <p>
+ * Jobs are split into chunks of instances. Threads take the chunks of the jobs in round robin order, so every job gets
+ * an equal share of the threads and a large job does not hold up the jobs submitted after it. The
+ * {@linkplain JobBudget} of a job limits how many threads work on it at the same time and how many instances it may
+ * buffer, as chunks sampled in parallel are exported in the order of their IDs.
+ * <p>
+ * Jobs are seeded, so the instances of a job do not depend on how its chunks were scheduled.
+ */
+public final class GenerationScheduler {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private final int _chunkSize;
+	private final ExecutorService _workers;
+	private final LinkedList<GenerationJob> _runQueue = Lists.newLinkedList();
+	private final List<GenerationJob> _jobs = Lists.newArrayList();
+	private long _nextJobId = 0;
+	private boolean _shutdown = false;
+
+	/**
+	 * Creates a new {@linkplain GenerationScheduler} splitting jobs into chunks of {@value #DEFAULT_CHUNK_SIZE}
+	 * instances.
+	 *
+	 * @param numberOfThreads
+	 *            shared by all jobs
+	 */
+	public GenerationScheduler(int numberOfThreads) {
+		this(numberOfThreads, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new {@linkplain GenerationScheduler}.
+	 *
+	 * @param numberOfThreads
+	 *            shared by all jobs
+	 * @param chunkSize
+	 *            number of instances sampled by a thread before it moves on to the next job
+	 */
+	public GenerationScheduler(int numberOfThreads, int chunkSize) {
+		Check.stateIsTrue(numberOfThreads > 0, "Number of threads must be > 0.");
+		Check.stateIsTrue(chunkSize > 0, "Chunk size must be > 0.");
+		_chunkSize = chunkSize;
+		_workers = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactoryBuilder().setDaemon(true)
+				.setNameFormat("generation-scheduler-%d").build());
+		for (int i = 0; i < numberOfThreads; i++) {
+			_workers.execute(new Worker());
+		}
+	}
+
+	/**
+	 * Submits a job with a random seed.
+	 *
+	 * @see #submit(FeatureDefinitionGraph, long, long, ExportConfiguration, JobBudget)
+	 */
+	public GenerationJob submit(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			@Nonnull ExportConfiguration exportConfiguration, @Nonnull JobBudget budget) {
+		return submit(featureDefinitionGraph, numberOfInstances, new Random().nextLong(), exportConfiguration, budget);
+	}
+
+	/**
+	 * Submits a job generating the specified number of instances to an export connection created from the specified
+	 * configuration. The feature definition graph must not be modified until the job is done.
+	 *
+	 * @param featureDefinitionGraph
+	 *            to sample the instances of
+	 * @param numberOfInstances
+	 *            to be generated, > 0
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @param exportConfiguration
+	 *            to create the export connection from
+	 * @param budget
+	 *            of the job
+	 * @return handle of the job
+	 */
+	public GenerationJob submit(@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long numberOfInstances,
+			long seed, @Nonnull ExportConfiguration exportConfiguration, @Nonnull JobBudget budget) {
+		Check.stateIsTrue(numberOfInstances > 0, "Number of instances must be > 0.");
+		Check.notNull(exportConfiguration, "exportConfiguration");
+		Check.notNull(budget, "budget");
+		synchronized (this) {
+			Check.stateIsTrue(!_shutdown, "Scheduler has been shut down.");
+			GenerationJob job = new GenerationJob(_nextJobId++, this, featureDefinitionGraph, numberOfInstances, seed,
+					exportConfiguration, budget, _chunkSize);
+			_jobs.add(job);
+			_runQueue.addLast(job);
+			notifyAll();
+			return job;
+		}
+	}
+
+	/**
+	 * @return all jobs submitted and not removed by {@linkplain #removeDoneJobs()}, in the order of submission
+	 */
+	public synchronized List<GenerationJob> getJobs() {
+		return ImmutableList.copyOf(_jobs);
+	}
+
+	/**
+	 * Forgets all jobs that are done, so they are no longer returned by {@linkplain #getJobs()}.
+	 */
+	public synchronized void removeDoneJobs() {
+		for (int i = _jobs.size() - 1; i >= 0; i--) {
+			if (_jobs.get(i).getStatus().isDone()) {
+				_jobs.remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Cancels all jobs and stops the threads as soon as they have finished their current chunks. No jobs can be
+	 * submitted afterwards.
+	 */
+	public void shutdown() {
+		List<GenerationJob> jobs;
+		synchronized (this) {
+			_shutdown = true;
+			jobs = ImmutableList.copyOf(_jobs);
+			notifyAll();
+		}
+		for (GenerationJob job : jobs) {
+			job.cancel();
+		}
+		_workers.shutdown();
+	}
+
+	/**
+	 * Waits until all threads have stopped after {@linkplain #shutdown()}.
+	 *
+	 * @return false if the timeout elapsed before
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return _workers.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Takes the next chunk in round robin order. Jobs without chunks left leave the queue, jobs whose budget is
+	 * exhausted keep their place. Must be called holding the lock.
+	 */
+	private GenerationJob takeNextChunk(long[] chunk) {
+		for (int i = _runQueue.size(); i > 0; i--) {
+			GenerationJob job = _runQueue.removeFirst();
+			if (!job.hasChunksLeft()) {
+				continue;
+			}
+			_runQueue.addLast(job);
+			long[] reserved = job.reserveChunk();
+			if (reserved != null) {
+				chunk[0] = reserved[0];
+				chunk[1] = reserved[1];
+				return job;
+			}
+		}
+		return null;
+	}
+
+	private final class Worker implements Runnable {
+
+		@Override
+		public void run() {
+			long[] chunk = new long[2];
+			while (true) {
+				GenerationJob job;
+				synchronized (GenerationScheduler.this) {
+					while ((job = takeNextChunk(chunk)) == null) {
+						if (_shutdown) {
+							return;
+						}
+						try {
+							GenerationScheduler.this.wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+				}
+				job.run(chunk[0], chunk[1]);
+			}
+		}
+
+	}
+
+}
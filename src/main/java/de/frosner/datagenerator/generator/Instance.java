@@ -26,7 +26,7 @@ import de.frosner.datagenerator.features.FeatureValue;
 @Immutable
 public final class Instance implements Iterable<FeatureValue> {
 
-	private final int _id;
+	private final long _id;
 	private final List<FeatureValue> _values;
 
 	/**
@@ -34,7 +34,7 @@ public final class Instance implements Iterable<FeatureValue> {
 	 */
 	public static final class InstanceBuilder {
 
-		private final int _id;
+		private final long _id;
 		private final List<FeatureValue> _values;
 
 		/**
@@ -43,7 +43,7 @@ public final class Instance implements Iterable<FeatureValue> {
 		 * @param id
 		 *            of the instance built
 		 */
-		public InstanceBuilder(int id) {
+		public InstanceBuilder(long id) {
 			_id = id;
 			_values = Lists.newArrayList();
 		}
@@ -71,7 +71,7 @@ public final class Instance implements Iterable<FeatureValue> {
 
 	}
 
-	public static InstanceBuilder builder(int instanceId) {
+	public static InstanceBuilder builder(long instanceId) {
 		return new InstanceBuilder(instanceId);
 	}
 
@@ -82,7 +82,7 @@ public final class Instance implements Iterable<FeatureValue> {
 	 * @param id
 	 * @param values
 	 */
-	public Instance(int id, @Nonnull List<FeatureValue> features) {
+	public Instance(long id, @Nonnull List<FeatureValue> features) {
 		this(id, features.toArray(new FeatureValue[0]));
 	}
 
@@ -93,7 +93,7 @@ public final class Instance implements Iterable<FeatureValue> {
 	 * @param id
 	 * @param values
 	 */
-	public Instance(int id, @Nonnull FeatureValue... values) {
+	public Instance(long id, @Nonnull FeatureValue... values) {
 		Check.noNullElements(values, "All feature values must not be null.");
 		_values = ImmutableList.copyOf(values);
 		_id = id;
@@ -117,7 +117,7 @@ public final class Instance implements Iterable<FeatureValue> {
 	 * 
 	 * @return instance ID
 	 */
-	public int getId() {
+	public long getId() {
 		return _id;
 	}
 
@@ -133,7 +133,7 @@ public final class Instance implements Iterable<FeatureValue> {
 
 	@Override
 	public int hashCode() {
-		return _id;
+		return (int) (_id ^ (_id >>> 32));
 	}
 
 	@Override
@@ -0,0 +1,75 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.List;
+
+import de.frosner.datagenerator.distributions.Distribution;
+import de.frosner.datagenerator.distributions.InstanceIdDependentDistribution;
+import de.frosner.datagenerator.distributions.VariableParameter;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.Instance.InstanceBuilder;
+import de.frosner.datagenerator.util.SeedUtil;
+
+/**
+ * Samples single {@linkplain Instance}s of a {@linkplain FeatureDefinitionGraph}, updating the dependent parameters
+ * after every feature value. Sampling an instance leaves no state behind, so instances can be sampled in any order.
+ * <p>
+ * With the {@linkplain SamplerBackend#FUSED fused backend}, instances are sampled by a {@linkplain FusedSampler}
+ * generated for the graph, if it can be compiled.
+ */
+final class InstanceSampler {
+
+	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final boolean _isSeeded;
+	private final long _seed;
+	private final FusedSampler _fusedSampler;
+
+	InstanceSampler(FeatureDefinitionGraph featureDefinitionGraph, boolean isSeeded, long seed) {
+		this(featureDefinitionGraph, isSeeded, seed, SamplerBackend.INTERPRETED);
+	}
+
+	InstanceSampler(FeatureDefinitionGraph featureDefinitionGraph, boolean isSeeded, long seed, SamplerBackend backend) {
+		_featureDefinitionGraph = featureDefinitionGraph;
+		_isSeeded = isSeeded;
+		_seed = seed;
+		_fusedSampler = (backend == SamplerBackend.FUSED) ? FusedSamplerCompiler.compile(featureDefinitionGraph,
+				isSeeded, seed) : null;
+	}
+
+	/**
+	 * @return whether instances are sampled by a {@linkplain FusedSampler}
+	 */
+	boolean isFused() {
+		return _fusedSampler != null;
+	}
+
+	Instance sample(long instanceId) {
+		if (_fusedSampler != null) {
+			return _fusedSampler.sample(instanceId);
+		}
+		InstanceBuilder instanceBuilder = Instance.builder(instanceId);
+		int featureIndex = 0;
+		for (FeatureDefinition featureDefinition : _featureDefinitionGraph) {
+			Distribution distribution = featureDefinition.getDistribution();
+			if (_isSeeded) {
+				distribution.setSeed(SeedUtil.deriveSeed(_seed, instanceId, featureIndex++));
+			}
+			if (distribution instanceof InstanceIdDependentDistribution) {
+				((InstanceIdDependentDistribution) distribution).setInstanceId(instanceId);
+			}
+			FeatureValue sample = distribution.sample();
+			updateDependentParameters(featureDefinition, sample);
+			instanceBuilder.addFeatureValue(sample);
+		}
+		return instanceBuilder.build();
+	}
+
+	private void updateDependentParameters(FeatureDefinition featureDefinition, FeatureValue value) {
+		List<VariableParameter<?>> dependentParameters = _featureDefinitionGraph
+				.getDependentParameters(featureDefinition);
+		for (VariableParameter<?> parameter : dependentParameters) {
+			parameter.updateParameter(value);
+		}
+	}
+
+}
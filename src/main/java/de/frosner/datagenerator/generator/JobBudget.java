@@ -0,0 +1,65 @@
+package de.frosner.datagenerator.generator;
+
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+/**
+ * Immutable limits of the resources a single {@linkplain GenerationJob} may take from its
+ * {@linkplain GenerationScheduler}.
+ * <p>
+ * The memory held by a job is dominated by the instances sampled ahead of the export, so the memory budget is given as
+ * the maximum number of buffered instances. A job with a budget smaller than the chunk size of the scheduler still
+ * progresses, one chunk at a time.
+ */
+@Immutable
+public final class JobBudget {
+
+	public static final JobBudget UNLIMITED = new JobBudget(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+	private final int _maxThreads;
+	private final long _maxBufferedInstances;
+
+	/**
+	 * Creates a new {@linkplain JobBudget}.
+	 *
+	 * @param maxThreads
+	 *            number of scheduler threads working on the job at the same time, > 0
+	 * @param maxBufferedInstances
+	 *            number of instances sampled but not yet exported at the same time, > 0
+	 */
+	public JobBudget(int maxThreads, long maxBufferedInstances) {
+		Check.stateIsTrue(maxThreads > 0, "Maximum number of threads must be > 0.");
+		Check.stateIsTrue(maxBufferedInstances > 0, "Maximum number of buffered instances must be > 0.");
+		_maxThreads = maxThreads;
+		_maxBufferedInstances = maxBufferedInstances;
+	}
+
+	public int getMaxThreads() {
+		return _maxThreads;
+	}
+
+	public long getMaxBufferedInstances() {
+		return _maxBufferedInstances;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof JobBudget) {
+			JobBudget budget = (JobBudget) o;
+			return budget._maxThreads == _maxThreads && budget._maxBufferedInstances == _maxBufferedInstances;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * _maxThreads + (int) (_maxBufferedInstances ^ (_maxBufferedInstances >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "[max threads = " + _maxThreads + ", max buffered instances = " + _maxBufferedInstances + "]";
+	}
+
+}
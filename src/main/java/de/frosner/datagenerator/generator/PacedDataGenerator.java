@@ -0,0 +1,143 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import de.frosner.datagenerator.export.ExportConnection;
+
+/**
+ * Generates instances at the rate of a {@linkplain RateProfile} instead of as fast as possible, e.g. to drive load
+ * tests with a sustained event rate. Instances are sampled and exported by a {@linkplain DataGenerator}.
+ * <p>
+ * Whenever instances are due, all of them are exported in one batch, so short hiccups of the export connection are
+ * caught up without drifting from the schedule. Between batches, the generator parks until shortly before the next
+ * instance is due and spins for the rest of the time, which keeps the jitter well below a millisecond.
+ * <p>
+ * If the export connection cannot keep up, the generator exports as fast as possible and reports how many instances it
+ * is behind schedule.
+ */
+public final class PacedDataGenerator {
+
+	static final int MAX_BATCH_SIZE = 1000;
+
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final long _numberOfInstances;
+	private final DataGenerator _generator;
+	private final RateProfile _rateProfile;
+
+	private volatile long _startNanos;
+	private volatile long _numberOfGeneratedInstances;
+	private volatile long _lag;
+	private volatile long _maxLag;
+
+	/**
+	 * Constructs a new {@linkplain PacedDataGenerator}.
+	 *
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the generated instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param rateProfile
+	 *            to pace the generation with
+	 */
+	public PacedDataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, @Nonnull RateProfile rateProfile) {
+		this(numberOfInstances, new DataGenerator(numberOfInstances, exportConnection, featureDefinitionGraph),
+				rateProfile);
+	}
+
+	/**
+	 * Constructs a new deterministic {@linkplain PacedDataGenerator}. Every generated instance only depends on the
+	 * specified seed and its ID, not on the timing.
+	 *
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the generated instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param rateProfile
+	 *            to pace the generation with
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 */
+	public PacedDataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, @Nonnull RateProfile rateProfile, long seed) {
+		this(numberOfInstances, new DataGenerator(numberOfInstances, exportConnection, featureDefinitionGraph, seed),
+				rateProfile);
+	}
+
+	private PacedDataGenerator(long numberOfInstances, DataGenerator generator, RateProfile rateProfile) {
+		_numberOfInstances = numberOfInstances;
+		_generator = generator;
+		_rateProfile = Check.notNull(rateProfile, "rateProfile");
+	}
+
+	/**
+	 * Generates all instances paced by the rate profile. Returns early if the current thread is interrupted, leaving
+	 * the interrupt flag set.
+	 *
+	 * @return report of the generation
+	 */
+	public PacingReport generate() {
+		_startNanos = System.nanoTime();
+		long numberOfGeneratedInstances = 0;
+		while (numberOfGeneratedInstances < _numberOfInstances && !Thread.currentThread().isInterrupted()) {
+			long elapsedNanos = System.nanoTime() - _startNanos;
+			double dueInstances = _rateProfile.getNumberOfDueInstances(elapsedNanos);
+			long lag = (long) Math.min(dueInstances, _numberOfInstances) - numberOfGeneratedInstances;
+			_lag = Math.max(lag, 0);
+			if (lag > _maxLag) {
+				_maxLag = lag;
+			}
+			if (lag > 0) {
+				long batchSize = Math.min(lag, MAX_BATCH_SIZE);
+				_generator.generate(numberOfGeneratedInstances, batchSize);
+				numberOfGeneratedInstances += batchSize;
+				_numberOfGeneratedInstances = numberOfGeneratedInstances;
+			} else {
+				double rate = _rateProfile.getRate(elapsedNanos);
+				double secondsUntilDue = (numberOfGeneratedInstances + 1 - dueInstances) / rate;
+				awaitNanos(_startNanos + elapsedNanos
+						+ (long) Math.min(secondsUntilDue * NANOS_PER_SECOND, MAX_PARK_NANOS));
+			}
+		}
+		_lag = 0;
+		return getReport();
+	}
+
+	/**
+	 * Returns a report of the progress so far. This method may be called from other threads while generating.
+	 *
+	 * @return report of the generation
+	 */
+	public PacingReport getReport() {
+		long startNanos = _startNanos;
+		long elapsedNanos = (startNanos == 0) ? 0 : System.nanoTime() - startNanos;
+		return new PacingReport(_numberOfGeneratedInstances, elapsedNanos, _maxLag, _lag);
+	}
+
+	/**
+	 * Parks until shortly before the deadline and spins for the rest, as parking alone may overshoot by tens of
+	 * microseconds.
+	 */
+	private static void awaitNanos(long deadlineNanos) {
+		long remainingNanos = deadlineNanos - System.nanoTime();
+		if (remainingNanos > SPIN_NANOS) {
+			LockSupport.parkNanos(remainingNanos - SPIN_NANOS);
+		}
+		while (deadlineNanos - System.nanoTime() > 0 && !Thread.currentThread().isInterrupted()) {
+			Thread.yield();
+		}
+	}
+
+}
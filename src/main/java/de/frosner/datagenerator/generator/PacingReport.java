@@ -0,0 +1,66 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable summary of a paced generation by a {@linkplain PacedDataGenerator}.
+ */
+@Immutable
+public final class PacingReport {
+
+	private final long _numberOfInstances;
+	private final long _elapsedNanos;
+	private final long _maxLag;
+	private final long _lag;
+
+	PacingReport(long numberOfInstances, long elapsedNanos, long maxLag, long lag) {
+		_numberOfInstances = numberOfInstances;
+		_elapsedNanos = elapsedNanos;
+		_maxLag = maxLag;
+		_lag = lag;
+	}
+
+	/**
+	 * @return number of instances exported
+	 */
+	public long getNumberOfInstances() {
+		return _numberOfInstances;
+	}
+
+	public long getElapsedNanos() {
+		return _elapsedNanos;
+	}
+
+	/**
+	 * @return instances exported per second
+	 */
+	public double getAchievedRate() {
+		return (_elapsedNanos == 0) ? 0 : _numberOfInstances * (double) TimeUnit.SECONDS.toNanos(1) / _elapsedNanos;
+	}
+
+	/**
+	 * Returns the largest number of instances that were due but not yet exported. It stays close to 0 as long as the
+	 * export connection keeps up with the rate profile.
+	 *
+	 * @return maximum number of instances behind schedule
+	 */
+	public long getMaxLag() {
+		return _maxLag;
+	}
+
+	/**
+	 * @return number of instances behind schedule when the report was taken
+	 */
+	public long getLag() {
+		return _lag;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + _numberOfInstances + " instances in " + TimeUnit.NANOSECONDS.toMillis(_elapsedNanos) + " ms, "
+				+ String.format("%.1f", getAchievedRate()) + "/s, lag = " + _lag + ", max lag = " + _maxLag + "]";
+	}
+
+}
@@ -0,0 +1,164 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+/**
+ * Target rate of a {@linkplain PacedDataGenerator} over time. A profile defines how many instances should have been
+ * exported after a given time since the start of the generation. Integrating the rate exactly instead of summing up
+ * per batch rates keeps rounding errors from accumulating over long runs.
+ */
+@Immutable
+public abstract class RateProfile {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * Creates a profile with a constant rate.
+	 *
+	 * @param instancesPerSecond
+	 *            target rate, > 0
+	 * @return constant profile
+	 */
+	public static RateProfile constant(double instancesPerSecond) {
+		checkRate(instancesPerSecond);
+		return new Ramp(instancesPerSecond, instancesPerSecond, 1);
+	}
+
+	/**
+	 * Creates a profile increasing or decreasing the rate linearly from the start to the end rate over the specified
+	 * duration. Afterwards the end rate is kept.
+	 *
+	 * @param startInstancesPerSecond
+	 *            rate at the start, >= 0
+	 * @param endInstancesPerSecond
+	 *            rate after the ramp, > 0
+	 * @param durationMillis
+	 *            of the ramp, > 0
+	 * @return ramp profile
+	 */
+	public static RateProfile ramp(double startInstancesPerSecond, double endInstancesPerSecond, long durationMillis) {
+		Check.stateIsTrue(startInstancesPerSecond >= 0, "Start rate must be >= 0.");
+		checkRate(endInstancesPerSecond);
+		Check.stateIsTrue(durationMillis > 0, "Duration must be > 0.");
+		return new Ramp(startInstancesPerSecond, endInstancesPerSecond, TimeUnit.MILLISECONDS.toNanos(durationMillis));
+	}
+
+	/**
+	 * Creates a profile repeating periods starting with a burst at a high rate followed by a base rate.
+	 *
+	 * @param baseInstancesPerSecond
+	 *            rate between the bursts, >= 0
+	 * @param burstInstancesPerSecond
+	 *            rate during the bursts, > 0
+	 * @param periodMillis
+	 *            length of one period, > 0
+	 * @param burstMillis
+	 *            length of the burst at the start of each period, within (0, periodMillis]
+	 * @return burst profile
+	 */
+	public static RateProfile burst(double baseInstancesPerSecond, double burstInstancesPerSecond, long periodMillis,
+			long burstMillis) {
+		Check.stateIsTrue(baseInstancesPerSecond >= 0, "Base rate must be >= 0.");
+		checkRate(burstInstancesPerSecond);
+		Check.stateIsTrue(burstMillis > 0 && burstMillis <= periodMillis, "Burst must be within (0, period].");
+		return new Burst(baseInstancesPerSecond, burstInstancesPerSecond, TimeUnit.MILLISECONDS.toNanos(periodMillis),
+				TimeUnit.MILLISECONDS.toNanos(burstMillis));
+	}
+
+	private static void checkRate(double instancesPerSecond) {
+		Check.stateIsTrue(instancesPerSecond > 0 && !Double.isInfinite(instancesPerSecond),
+				"Rate must be > 0 and finite.");
+	}
+
+	/**
+	 * Returns the number of instances that should have been exported after the specified time.
+	 *
+	 * @param elapsedNanos
+	 *            since the start of the generation, >= 0
+	 * @return number of instances due, may be fractional
+	 */
+	public abstract double getNumberOfDueInstances(long elapsedNanos);
+
+	/**
+	 * Returns the target rate at the specified time.
+	 *
+	 * @param elapsedNanos
+	 *            since the start of the generation, >= 0
+	 * @return instances per second
+	 */
+	public abstract double getRate(long elapsedNanos);
+
+	private static final class Ramp extends RateProfile {
+
+		private final double _startRate;
+		private final double _endRate;
+		private final long _durationNanos;
+
+		private Ramp(double startRate, double endRate, long durationNanos) {
+			_startRate = startRate;
+			_endRate = endRate;
+			_durationNanos = durationNanos;
+		}
+
+		@Override
+		public double getNumberOfDueInstances(long elapsedNanos) {
+			double rampSeconds = Math.min(elapsedNanos, _durationNanos) / NANOS_PER_SECOND;
+			double slope = (_endRate - _startRate) / (_durationNanos / NANOS_PER_SECOND);
+			double dueDuringRamp = _startRate * rampSeconds + slope * rampSeconds * rampSeconds / 2;
+			return dueDuringRamp + _endRate * (Math.max(elapsedNanos - _durationNanos, 0) / NANOS_PER_SECOND);
+		}
+
+		@Override
+		public double getRate(long elapsedNanos) {
+			if (elapsedNanos >= _durationNanos) {
+				return _endRate;
+			}
+			return _startRate + (_endRate - _startRate) * elapsedNanos / _durationNanos;
+		}
+
+		@Override
+		public String toString() {
+			return (_startRate == _endRate) ? "constant " + _endRate + "/s" : "ramp " + _startRate + "/s to "
+					+ _endRate + "/s";
+		}
+
+	}
+
+	private static final class Burst extends RateProfile {
+
+		private final double _baseRate;
+		private final double _burstRate;
+		private final long _periodNanos;
+		private final long _burstNanos;
+
+		private Burst(double baseRate, double burstRate, long periodNanos, long burstNanos) {
+			_baseRate = baseRate;
+			_burstRate = burstRate;
+			_periodNanos = periodNanos;
+			_burstNanos = burstNanos;
+		}
+
+		@Override
+		public double getNumberOfDueInstances(long elapsedNanos) {
+			long burstNanos = (elapsedNanos / _periodNanos) * _burstNanos
+					+ Math.min(elapsedNanos % _periodNanos, _burstNanos);
+			return (_baseRate * (elapsedNanos - burstNanos) + _burstRate * burstNanos) / NANOS_PER_SECOND;
+		}
+
+		@Override
+		public double getRate(long elapsedNanos) {
+			return (elapsedNanos % _periodNanos < _burstNanos) ? _burstRate : _baseRate;
+		}
+
+		@Override
+		public String toString() {
+			return "burst " + _burstRate + "/s every " + _periodNanos + " ns, " + _baseRate + "/s otherwise";
+		}
+
+	}
+
+}
@@ -0,0 +1,260 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.util.RangeUtil;
+import de.frosner.datagenerator.util.SeedUtil;
+
+/**
+ * Generates the tables of a relational schema, each into its own {@linkplain ExportConnection}. Every table is
+ * generated by its own thread. Root tables are generated in ranges of IDs; as soon as a range has been exported, it is
+ * handed to the child tables, which generate the child rows of these parents while the next range is generated. Only
+ * ranges of IDs are passed between the tables, so no table is held in memory. Bounded queues between the tables keep
+ * fast parents from running ahead of slow children.
+ * <p>
+ * Child rows are numbered consecutively per table in the order of their parents. Instance IDs are the primary keys of
+ * the rows, so the export connections should export them to make the foreign keys resolvable. The export connections
+ * are not closed.
+ * <p>
+ * Row counts and IDs are 64-bit values, but foreign keys are int-valued {@linkplain DiscreteFeatureValue}s, so only
+ * the first {@linkplain Integer#MAX_VALUE} + 1 rows of a parent table may have children.
+ * <p>
+ * If a seed is specified, every row and every fan out only depend on the seed, the table name and the ID of the row or
+ * parent row, so the whole schema is reproducible.
+ */
+public final class RelationalDataGenerator {
+
+	static final int GENERATION_RANGE = 1000;
+
+	private static final int QUEUE_CAPACITY = 16;
+	private static final long[] END_OF_RANGES = new long[0];
+	private static final int FAN_OUT_FEATURE_INDEX = -1;
+
+	private final Map<TableDefinition, ExportConnection> _tables;
+	private final boolean _isSeeded;
+	private final long _seed;
+	private final Map<TableDefinition, Long> _numberOfGeneratedRows = Maps.newConcurrentMap();
+
+	/**
+	 * Constructs a new {@linkplain RelationalDataGenerator}.
+	 *
+	 * @param tables
+	 *            to generate, including all parents, with the connections to export them to
+	 */
+	public RelationalDataGenerator(@Nonnull Map<TableDefinition, ExportConnection> tables) {
+		this(tables, false, 0);
+	}
+
+	/**
+	 * Constructs a new deterministic {@linkplain RelationalDataGenerator}.
+	 *
+	 * @param tables
+	 *            to generate, including all parents, with the connections to export them to
+	 * @param seed
+	 *            to derive the seeds of the tables from
+	 */
+	public RelationalDataGenerator(@Nonnull Map<TableDefinition, ExportConnection> tables, long seed) {
+		this(tables, true, seed);
+	}
+
+	private RelationalDataGenerator(Map<TableDefinition, ExportConnection> tables, boolean isSeeded, long seed) {
+		Check.notEmpty(tables, "tables");
+		for (TableDefinition table : tables.keySet()) {
+			Check.notNull(tables.get(table), "exportConnection");
+			Check.stateIsTrue(table.isRoot() || tables.containsKey(table.getParent()),
+					"Parent of table %s is missing.", table.getName());
+		}
+		_tables = ImmutableMap.copyOf(tables);
+		_isSeeded = isSeeded;
+		_seed = seed;
+	}
+
+	/**
+	 * Generates all tables and waits until they have been exported. If the generation of a table fails, the generation
+	 * of all other tables is cancelled and the failure is rethrown. Returns early if the current thread is interrupted,
+	 * leaving the interrupt flag set and the tables partially generated. In any case all table threads have stopped
+	 * exporting when this method returns, so the export connections may be closed right away.
+	 *
+	 * @return {@code true} if all tables have been generated, {@code false} if the generation has been interrupted
+	 */
+	public boolean generate() {
+		Map<TableDefinition, TableGeneration> generations = Maps.newLinkedHashMap();
+		for (Map.Entry<TableDefinition, ExportConnection> table : _tables.entrySet()) {
+			generations.put(table.getKey(), new TableGeneration(table.getKey(), table.getValue()));
+		}
+		for (TableGeneration generation : generations.values()) {
+			if (!generation._table.isRoot()) {
+				generations.get(generation._table.getParent())._children.add(generation);
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(generations.size(), new ThreadFactoryBuilder()
+				.setNameFormat("table-generation-%d").setDaemon(true).build());
+		CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
+		try {
+			for (TableGeneration generation : generations.values()) {
+				completionService.submit(generation);
+			}
+			for (int i = 0; i < generations.size(); i++) {
+				completionService.take().get();
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	/**
+	 * Waits until all threads of the executor have stopped, even if the current thread is interrupted. The interrupt
+	 * flag is restored afterwards.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = Thread.interrupted();
+		try {
+			while (true) {
+				try {
+					if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+						return;
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of rows generated for the specified table.
+	 *
+	 * @param table
+	 *            to get the number of rows of
+	 * @return number of rows, 0 if the table has not been generated yet
+	 */
+	public long getNumberOfGeneratedRows(@Nonnull TableDefinition table) {
+		Long numberOfRows = _numberOfGeneratedRows.get(Check.notNull(table, "table"));
+		return (numberOfRows == null) ? 0 : numberOfRows;
+	}
+
+	/**
+	 * Generates one table. Root tables generate their ranges of IDs directly, child tables generate the children of
+	 * the parent ranges they receive. Every generated range is passed on to the child tables.
+	 */
+	private final class TableGeneration implements Callable<Void> {
+
+		private final TableDefinition _table;
+		private final ExportConnection _out;
+		private final InstanceSampler _sampler;
+		private final long _tableSeed;
+		private final BlockingQueue<long[]> _parentRanges;
+		private final List<TableGeneration> _children = Lists.newArrayList();
+		private long _nextId = 0;
+
+		private TableGeneration(TableDefinition table, ExportConnection out) {
+			_table = table;
+			_out = out;
+			_tableSeed = SeedUtil.deriveSeed(_seed, table.getName().hashCode(), 0);
+			_sampler = new InstanceSampler(table.getFeatureDefinitionGraph(), _isSeeded, _tableSeed);
+			_parentRanges = table.isRoot() ? null : new ArrayBlockingQueue<long[]>(QUEUE_CAPACITY);
+		}
+
+		@Override
+		public Void call() throws InterruptedException {
+			_out.exportMetaData(_table.getFeatureDefinitionGraph());
+			if (_table.isRoot()) {
+				while (_nextId < _table.getNumberOfRows()) {
+					checkInterrupted();
+					long startId = _nextId;
+					long endId = RangeUtil.endOfRange(startId, GENERATION_RANGE, _table.getNumberOfRows());
+					while (_nextId < endId) {
+						_out.exportInstance(_sampler.sample(_nextId++));
+					}
+					passOn(new long[] { startId, endId });
+				}
+			} else {
+				long[] parentRange = _parentRanges.take();
+				while (parentRange != END_OF_RANGES) {
+					long startId = _nextId;
+					for (long parentId = parentRange[0]; parentId < parentRange[1]; parentId++) {
+						checkInterrupted();
+						generateChildren(parentId);
+					}
+					if (_nextId > startId) {
+						passOn(new long[] { startId, _nextId });
+					}
+					parentRange = _parentRanges.take();
+				}
+			}
+			_numberOfGeneratedRows.put(_table, _nextId);
+			passOn(END_OF_RANGES);
+			return null;
+		}
+
+		private void generateChildren(long parentId) {
+			if (_isSeeded) {
+				_table.getFanOut().setSeed(SeedUtil.deriveSeed(_tableSeed, parentId, FAN_OUT_FEATURE_INDEX));
+			}
+			FeatureValue fanOut = _table.getFanOut().sample();
+			Check.instanceOf(DiscreteFeatureValue.class, fanOut, "fanOut");
+			int numberOfChildren = ((DiscreteFeatureValue) fanOut).getIntValue();
+			Check.stateIsTrue(numberOfChildren >= 0, "Fan out must be >= 0 but was %d.", numberOfChildren);
+			Check.stateIsTrue(numberOfChildren <= Long.MAX_VALUE - _nextId, "Table %s has too many rows.",
+					_table.getName());
+			for (int i = 0; i < numberOfChildren; i++) {
+				_table.getForeignKey().setParentId(parentId);
+				_out.exportInstance(_sampler.sample(_nextId++));
+			}
+		}
+
+		/**
+		 * Stops the generation once it has been cancelled, even if no child table blocks on a full queue.
+		 */
+		private void checkInterrupted() throws InterruptedException {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedException();
+			}
+		}
+
+		private void passOn(long[] range) throws InterruptedException {
+			for (TableGeneration child : _children) {
+				child._parentRanges.put(range);
+			}
+		}
+
+	}
+
+}
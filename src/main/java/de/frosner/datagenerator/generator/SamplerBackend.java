@@ -0,0 +1,19 @@
+package de.frosner.datagenerator.generator;
+
+/**
+ * Implementation sampling the {@linkplain Instance}s of a {@linkplain FeatureDefinitionGraph}.
+ */
+public enum SamplerBackend {
+
+	/**
+	 * Walks the graph for every instance, calling the distributions and updating the dependent parameters.
+	 */
+	INTERPRETED,
+
+	/**
+	 * Generates and compiles a {@linkplain FusedSampler} for the graph. Classes are cached, so graphs of equal features
+	 * are compiled once. If no Java compiler is available at runtime, the interpreted backend is used instead.
+	 */
+	FUSED;
+
+}
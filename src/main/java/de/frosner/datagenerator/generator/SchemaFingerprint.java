@@ -0,0 +1,93 @@
+package de.frosner.datagenerator.generator;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.base.Charsets;
+
+import de.frosner.datagenerator.distributions.Distribution;
+import de.frosner.datagenerator.distributions.VariableParameter;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+/**
+ * SHA-256 fingerprints of feature definitions. A fingerprint covers everything determining the generated data: the
+ * names of the features in generation order, their distribution types and parameters, and the features each
+ * distribution depends on. Feature definitions built separately but equally have the same fingerprint.
+ */
+public final class SchemaFingerprint {
+
+	private SchemaFingerprint() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return new SHA-256 digest
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Adds the fingerprint of the specified feature definitions to the digest.
+	 *
+	 * @param digest
+	 *            to update
+	 * @param featureDefinitions
+	 *            to add
+	 */
+	public static void update(@Nonnull MessageDigest digest, @Nonnull FeatureDefinitionGraph featureDefinitions) {
+		Check.notNull(digest, "digest");
+		Check.notNull(featureDefinitions, "featureDefinitions");
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			Distribution distribution = featureDefinition.getDistribution();
+			update(digest, featureDefinition.getName());
+			update(digest, distribution.getClass().getName());
+			update(digest, distribution.getParameterDescription());
+			Collection<VariableParameter<?>> parameters = distribution.getDependentParameters();
+			update(digest, Integer.toString(parameters.size()));
+			for (VariableParameter<?> parameter : parameters) {
+				update(digest, parameter.getFeatureDefinitionConditionedOn().getName());
+			}
+		}
+	}
+
+	/**
+	 * Adds a length prefixed string to the digest, so the boundaries between strings are part of the hash.
+	 *
+	 * @param digest
+	 *            to update
+	 * @param value
+	 *            to add
+	 */
+	public static void update(@Nonnull MessageDigest digest, @Nonnull String value) {
+		byte[] bytes = value.getBytes(Charsets.UTF_8);
+		digest.update(Integer.toString(bytes.length).getBytes(Charsets.UTF_8));
+		digest.update((byte) ':');
+		digest.update(bytes);
+	}
+
+	/**
+	 * Completes the digest and returns the hash.
+	 *
+	 * @param digest
+	 *            to complete
+	 * @return hexadecimal hash
+	 */
+	public static String toHexString(@Nonnull MessageDigest digest) {
+		StringBuilder hash = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hash.toString();
+	}
+
+}
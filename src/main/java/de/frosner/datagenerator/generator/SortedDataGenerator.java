@@ -0,0 +1,477 @@
+package de.frosner.datagenerator.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.exceptions.IllegalNonPositiveNumberArgumentException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Generates deterministic instances and exports them sorted by the value of one feature instead of by their IDs, e.g.
+ * to cluster the data by a timestamp or a categorical key. Instances with equal values are exported in the order of
+ * their IDs, so the output only depends on the seed.
+ * <p>
+ * Data sets exceeding the memory budget are sorted externally: the instances are sampled in runs by several threads in
+ * parallel, every run is sorted in memory and spilled to a temporary file in a compact binary form, and the runs are
+ * merged into the export connection. If there are more runs than can be merged at once, groups of runs are merged into
+ * longer runs first. The memory budget is shared by the runs being sorted and by the read buffers of the merge. It is
+ * an estimate of the heap used by the instances, not a hard limit.
+ */
+public final class SortedDataGenerator {
+
+	static final long DEFAULT_MEMORY_BUDGET_IN_BYTES = 64L * 1024 * 1024;
+	static final int DEFAULT_MAX_FAN_IN = 64;
+
+	private static final int ESTIMATED_INSTANCE_SIZE_IN_BYTES = 64;
+	private static final int ESTIMATED_FEATURE_VALUE_SIZE_IN_BYTES = 32;
+	private static final int MIN_BUFFER_SIZE_IN_BYTES = 8 * 1024;
+	private static final int MAX_BUFFER_SIZE_IN_BYTES = 1024 * 1024;
+
+	private final GeneratedInstances _instances;
+	private final ExportConnection _out;
+	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final boolean[] _isDiscrete;
+	private final Comparator<Instance> _order;
+	private final long _memoryBudgetInBytes;
+	private final int _numberOfThreads;
+	private final File _temporaryDirectory;
+	private final int _maxFanIn;
+
+	/**
+	 * Constructs a new {@linkplain SortedDataGenerator} using a memory budget of 64 MiB, one thread per processor and
+	 * the default temporary directory.
+	 *
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the sorted instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @param sortFeatureName
+	 *            name of the feature to sort the instances by
+	 */
+	public SortedDataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long seed, @Nonnull String sortFeatureName) {
+		this(numberOfInstances, exportConnection, featureDefinitionGraph, seed, sortFeatureName,
+				DEFAULT_MEMORY_BUDGET_IN_BYTES, Runtime.getRuntime().availableProcessors(), null);
+	}
+
+	/**
+	 * Constructs a new {@linkplain SortedDataGenerator}.
+	 *
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConnection
+	 *            to export the sorted instances to
+	 * @param featureDefinitionGraph
+	 *            that contain the information for sampling the feature values of the instances
+	 * @param seed
+	 *            to derive the seeds of the distributions from
+	 * @param sortFeatureName
+	 *            name of the feature to sort the instances by
+	 * @param memoryBudgetInBytes
+	 *            estimated heap to be used for sorting
+	 * @param numberOfThreads
+	 *            sampling and sorting runs in parallel
+	 * @param temporaryDirectory
+	 *            to spill the sorted runs to or {@code null} for the default temporary directory
+	 */
+	public SortedDataGenerator(long numberOfInstances, @Nonnull ExportConnection exportConnection,
+			@Nonnull FeatureDefinitionGraph featureDefinitionGraph, long seed, @Nonnull String sortFeatureName,
+			long memoryBudgetInBytes, int numberOfThreads, @CheckForNull File temporaryDirectory) {
+		this(numberOfInstances, exportConnection, featureDefinitionGraph, seed, sortFeatureName, memoryBudgetInBytes,
+				numberOfThreads, temporaryDirectory, DEFAULT_MAX_FAN_IN);
+	}
+
+	@VisibleForTesting
+	SortedDataGenerator(long numberOfInstances, ExportConnection exportConnection,
+			FeatureDefinitionGraph featureDefinitionGraph, long seed, String sortFeatureName, long memoryBudgetInBytes,
+			int numberOfThreads, File temporaryDirectory, int maxFanIn) {
+		_out = Check.notNull(exportConnection, "exportConnection");
+		_instances = GeneratedInstances.of(featureDefinitionGraph, numberOfInstances, seed);
+		Check.notNull(sortFeatureName, "sortFeatureName");
+		if (memoryBudgetInBytes <= 0) {
+			throw new IllegalNonPositiveNumberArgumentException(memoryBudgetInBytes);
+		}
+		if (numberOfThreads <= 0) {
+			throw new IllegalNonPositiveNumberArgumentException(numberOfThreads);
+		}
+		Check.stateIsTrue(maxFanIn >= 2, "At least two runs must be merged at once.");
+
+		_featureDefinitionGraph = featureDefinitionGraph;
+		_isDiscrete = new boolean[featureDefinitionGraph.getNumberOfFeatures()];
+		int sortFeatureIndex = -1;
+		int index = 0;
+		for (FeatureDefinition featureDefinition : featureDefinitionGraph) {
+			_isDiscrete[index] = featureDefinition.getDistribution() instanceof DiscreteDistribution;
+			if (featureDefinition.getName().equals(sortFeatureName)) {
+				sortFeatureIndex = index;
+			}
+			index++;
+		}
+		Check.stateIsTrue(sortFeatureIndex >= 0, "Unknown feature: %s", sortFeatureName);
+		_order = new InstanceOrder(sortFeatureIndex);
+		_memoryBudgetInBytes = memoryBudgetInBytes;
+		_numberOfThreads = numberOfThreads;
+		_temporaryDirectory = temporaryDirectory;
+		_maxFanIn = maxFanIn;
+	}
+
+	/**
+	 * Samples all instances and exports them in sorted order. Returns early if the current thread is interrupted,
+	 * leaving the interrupt flag set. Temporary files are deleted in any case.
+	 *
+	 * @throws UncheckedIOException
+	 *             if spilling or reading a run fails
+	 */
+	public void generate() {
+		_out.exportMetaData(_featureDefinitionGraph);
+		long estimatedInstanceSize = ESTIMATED_INSTANCE_SIZE_IN_BYTES + ESTIMATED_FEATURE_VALUE_SIZE_IN_BYTES
+				* _isDiscrete.length;
+		if (_instances.size() <= _memoryBudgetInBytes / estimatedInstanceSize) {
+			for (Instance instance : sort(_instances)) {
+				_out.exportInstance(instance);
+			}
+			return;
+		}
+
+		long instancesPerRun = Math.max(1, _memoryBudgetInBytes / _numberOfThreads / estimatedInstanceSize);
+		List<Run> createdRuns = Collections.synchronizedList(Lists.<Run> newArrayList());
+		try {
+			mergeRuns(spillRuns(instancesPerRun, createdRuns), createdRuns);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			synchronized (createdRuns) {
+				for (Run run : createdRuns) {
+					run._file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Samples, sorts and spills all runs in parallel. Waits for all threads to finish before returning, so no run is
+	 * created afterwards.
+	 *
+	 * @return spilled runs
+	 */
+	private List<Run> spillRuns(long instancesPerRun, final List<Run> createdRuns) throws IOException,
+			InterruptedException {
+		int numberOfRuns = (int) ((_instances.size() + instancesPerRun - 1) / instancesPerRun);
+		ExecutorService executor = Executors.newFixedThreadPool(_numberOfThreads, new ThreadFactoryBuilder()
+				.setNameFormat("sorted-run-%d").setDaemon(true).build());
+		try {
+			List<Future<Run>> spilledRuns = Lists.newArrayListWithCapacity(numberOfRuns);
+			for (final GeneratedInstances part : _instances.split(numberOfRuns)) {
+				spilledRuns.add(executor.submit(new Callable<Run>() {
+					@Override
+					public Run call() throws IOException {
+						return spill(sort(part), createdRuns);
+					}
+				}));
+			}
+			List<Run> runs = Lists.newArrayListWithCapacity(numberOfRuns);
+			for (Future<Run> spilledRun : spilledRuns) {
+				runs.add(spilledRun.get());
+			}
+			return runs;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw (RuntimeException) e.getCause();
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				// runs being spilled must be known before deleting them, so handle the interrupt afterwards
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Merges groups of runs into longer runs until all remaining runs can be merged into the export connection at once.
+	 */
+	private void mergeRuns(List<Run> runs, List<Run> createdRuns) throws IOException {
+		List<Run> remainingRuns = runs;
+		while (remainingRuns.size() > _maxFanIn) {
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			List<Run> mergedRuns = Lists.newArrayList();
+			for (int i = 0; i < remainingRuns.size(); i += _maxFanIn) {
+				List<Run> group = remainingRuns.subList(i, Math.min(i + _maxFanIn, remainingRuns.size()));
+				Run mergedRun = createRun(createdRuns);
+				RunWriter writer = new RunWriter(mergedRun, getBufferSize(group.size() + 1));
+				try {
+					merge(group, writer);
+				} finally {
+					writer.close();
+				}
+				for (Run run : group) {
+					run._file.delete();
+				}
+				mergedRuns.add(mergedRun);
+			}
+			remainingRuns = mergedRuns;
+		}
+		merge(remainingRuns, null);
+	}
+
+	/**
+	 * Merges the runs into the specified writer or into the export connection if the writer is {@code null}.
+	 */
+	private void merge(List<Run> runs, @CheckForNull RunWriter writer) throws IOException {
+		int bufferSize = getBufferSize(runs.size() + ((writer == null) ? 0 : 1));
+		List<RunReader> readers = Lists.newArrayListWithCapacity(runs.size());
+		try {
+			PriorityQueue<RunReader> heads = new PriorityQueue<RunReader>(runs.size(), new Comparator<RunReader>() {
+				@Override
+				public int compare(RunReader reader1, RunReader reader2) {
+					return _order.compare(reader1._head, reader2._head);
+				}
+			});
+			for (Run run : runs) {
+				RunReader reader = new RunReader(run, bufferSize);
+				readers.add(reader);
+				if (reader.advance()) {
+					heads.add(reader);
+				}
+			}
+			while (!heads.isEmpty()) {
+				if (writer == null && Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				RunReader reader = heads.poll();
+				if (writer == null) {
+					_out.exportInstance(reader._head);
+				} else {
+					writer.write(reader._head);
+				}
+				if (reader.advance()) {
+					heads.add(reader);
+				}
+			}
+		} finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	private List<Instance> sort(GeneratedInstances instances) {
+		List<Instance> sortedInstances = Lists.newArrayListWithCapacity((int) instances.size());
+		for (Instance instance : instances) {
+			sortedInstances.add(instance);
+		}
+		Collections.sort(sortedInstances, _order);
+		return sortedInstances;
+	}
+
+	private Run spill(List<Instance> sortedInstances, List<Run> createdRuns) throws IOException {
+		Run run = createRun(createdRuns);
+		RunWriter writer = null;
+		try {
+			writer = new RunWriter(run, getBufferSize(_numberOfThreads));
+			for (Instance instance : sortedInstances) {
+				writer.write(instance);
+			}
+			writer.close();
+			return run;
+		} catch (IOException e) {
+			if (writer != null) {
+				writer.closeQuietly();
+			}
+			throw e;
+		}
+	}
+
+	private Run createRun(List<Run> createdRuns) throws IOException {
+		Run run = new Run(File.createTempFile("sorted-run-", ".bin", _temporaryDirectory));
+		createdRuns.add(run);
+		return run;
+	}
+
+	private int getBufferSize(int numberOfBuffers) {
+		long bufferSize = _memoryBudgetInBytes / numberOfBuffers;
+		return (int) Math.max(MIN_BUFFER_SIZE_IN_BYTES, Math.min(MAX_BUFFER_SIZE_IN_BYTES, bufferSize));
+	}
+
+	/**
+	 * Orders instances by the value of the sort feature and instances with equal values by their IDs.
+	 */
+	private static final class InstanceOrder implements Comparator<Instance> {
+
+		private final int _featureIndex;
+
+		private InstanceOrder(int featureIndex) {
+			_featureIndex = featureIndex;
+		}
+
+		@Override
+		public int compare(Instance instance1, Instance instance2) {
+			FeatureValue value1 = instance1.getFeatureValue(_featureIndex);
+			FeatureValue value2 = instance2.getFeatureValue(_featureIndex);
+			int comparison;
+			if (value1 instanceof DiscreteFeatureValue) {
+				int intValue1 = ((DiscreteFeatureValue) value1).getIntValue();
+				int intValue2 = ((DiscreteFeatureValue) value2).getIntValue();
+				comparison = (intValue1 < intValue2) ? -1 : ((intValue1 == intValue2) ? 0 : 1);
+			} else {
+				comparison = Double.compare(((ContinuousFeatureValue) value1).getDoubleValue(),
+						((ContinuousFeatureValue) value2).getDoubleValue());
+			}
+			if (comparison != 0) {
+				return comparison;
+			}
+			return (instance1.getId() < instance2.getId()) ? -1 : ((instance1.getId() == instance2.getId()) ? 0 : 1);
+		}
+
+	}
+
+	/**
+	 * Sorted run spilled to a temporary file. Every instance is stored as its ID followed by an int for every discrete
+	 * and a double for every continuous feature.
+	 */
+	private static final class Run {
+
+		private final File _file;
+		private long _numberOfInstances = 0;
+
+		private Run(File file) {
+			_file = file;
+		}
+
+	}
+
+	private final class RunWriter {
+
+		private final Run _run;
+		private final DataOutputStream _out;
+
+		private RunWriter(Run run, int bufferSize) throws IOException {
+			_run = run;
+			_out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run._file), bufferSize));
+		}
+
+		private void write(Instance instance) throws IOException {
+			_out.writeLong(instance.getId());
+			for (int i = 0; i < _isDiscrete.length; i++) {
+				if (_isDiscrete[i]) {
+					_out.writeInt(((DiscreteFeatureValue) instance.getFeatureValue(i)).getIntValue());
+				} else {
+					_out.writeDouble(((ContinuousFeatureValue) instance.getFeatureValue(i)).getDoubleValue());
+				}
+			}
+			_run._numberOfInstances++;
+		}
+
+		private void close() throws IOException {
+			_out.close();
+		}
+
+		private void closeQuietly() {
+			try {
+				_out.close();
+			} catch (IOException e) {
+				// the run is discarded anyway
+			}
+		}
+
+	}
+
+	private final class RunReader {
+
+		private final DataInputStream _in;
+		private long _remainingInstances;
+		private Instance _head;
+
+		private RunReader(Run run, int bufferSize) throws IOException {
+			_in = new DataInputStream(new BufferedInputStream(new FileInputStream(run._file), bufferSize));
+			_remainingInstances = run._numberOfInstances;
+		}
+
+		/**
+		 * Reads the next instance into the head.
+		 *
+		 * @return false if the run is exhausted
+		 */
+		private boolean advance() throws IOException {
+			if (_remainingInstances == 0) {
+				_head = null;
+				return false;
+			}
+			_remainingInstances--;
+			long id = _in.readLong();
+			FeatureValue[] values = new FeatureValue[_isDiscrete.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = _isDiscrete[i] ? new DiscreteFeatureValue(_in.readInt()) : new ContinuousFeatureValue(_in
+						.readDouble());
+			}
+			_head = new Instance(id, values);
+			return true;
+		}
+
+		private void close() {
+			try {
+				_in.close();
+			} catch (IOException e) {
+				// nothing has been written, so the data read is not affected
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+import net.sf.qualitycheck.exception.IllegalEmptyArgumentException;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+/**
+ * Table of a relational schema generated by the {@linkplain RelationalDataGenerator}. A root table has a fixed number
+ * of rows. A child table references a parent table: for every parent row, the number of child rows is sampled from a
+ * fan out distribution, and each child row gets a foreign key column holding the ID of its parent row.
+ * <p>
+ * The feature definitions of a table must not be shared with other tables.
+ */
+@Immutable
+public final class TableDefinition {
+
+	private final String _name;
+	private final FeatureDefinitionGraph _featureDefinitionGraph;
+	private final long _numberOfRows;
+	private final TableDefinition _parent;
+	private final DiscreteDistribution _fanOut;
+	private final ForeignKeyDistribution _foreignKey;
+
+	/**
+	 * Creates a table without parent.
+	 *
+	 * @param name
+	 *            of the table
+	 * @param featureDefinitionGraph
+	 *            defining the columns of the table
+	 * @param numberOfRows
+	 *            to generate
+	 * @return root table
+	 */
+	public static TableDefinition root(@Nonnull String name, @Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			long numberOfRows) {
+		Check.stateIsTrue(numberOfRows >= 0, "Number of rows must be >= 0.");
+		checkGraph(featureDefinitionGraph);
+		return new TableDefinition(Check.notEmpty(name, "name"), featureDefinitionGraph, numberOfRows, null, null,
+				null);
+	}
+
+	/**
+	 * Creates a table referencing the specified parent table. The foreign key column is added as first column.
+	 *
+	 * @param name
+	 *            of the table
+	 * @param featureDefinitionGraph
+	 *            defining the other columns of the table
+	 * @param parent
+	 *            table referenced by the rows of this table
+	 * @param foreignKeyName
+	 *            name of the column holding the ID of the parent row
+	 * @param fanOut
+	 *            distribution of the number of rows per parent row, sampling non-negative values
+	 * @return child table
+	 */
+	public static TableDefinition child(@Nonnull String name, @Nonnull FeatureDefinitionGraph featureDefinitionGraph,
+			@Nonnull TableDefinition parent, @Nonnull String foreignKeyName, @Nonnull DiscreteDistribution fanOut) {
+		Check.notNull(parent, "parent");
+		Check.notEmpty(foreignKeyName, "foreignKeyName");
+		Check.notNull(fanOut, "fanOut");
+		checkGraph(featureDefinitionGraph);
+
+		ForeignKeyDistribution foreignKey = new ForeignKeyDistribution(parent.getName());
+		List<FeatureDefinition> featureDefinitions = Lists.newArrayList();
+		featureDefinitions.add(new FeatureDefinition(foreignKeyName, foreignKey));
+		for (FeatureDefinition featureDefinition : featureDefinitionGraph) {
+			featureDefinitions.add(featureDefinition);
+		}
+		return new TableDefinition(Check.notEmpty(name, "name"),
+				FeatureDefinitionGraph.createFromList(featureDefinitions), 0, parent, fanOut, foreignKey);
+	}
+
+	private static void checkGraph(FeatureDefinitionGraph featureDefinitionGraph) {
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		if (featureDefinitionGraph.isEmpty()) {
+			throw new IllegalEmptyArgumentException("featureDefinitionGraph");
+		}
+	}
+
+	private TableDefinition(String name, FeatureDefinitionGraph featureDefinitionGraph, long numberOfRows,
+			TableDefinition parent, DiscreteDistribution fanOut, ForeignKeyDistribution foreignKey) {
+		_name = name;
+		_featureDefinitionGraph = featureDefinitionGraph;
+		_numberOfRows = numberOfRows;
+		_parent = parent;
+		_fanOut = fanOut;
+		_foreignKey = foreignKey;
+	}
+
+	public String getName() {
+		return _name;
+	}
+
+	/**
+	 * @return definitions of all columns, including the foreign key column of child tables
+	 */
+	public FeatureDefinitionGraph getFeatureDefinitionGraph() {
+		return _featureDefinitionGraph;
+	}
+
+	/**
+	 * @return number of rows of a root table, 0 for child tables
+	 */
+	public long getNumberOfRows() {
+		return _numberOfRows;
+	}
+
+	@Nullable
+	public TableDefinition getParent() {
+		return _parent;
+	}
+
+	public boolean isRoot() {
+		return _parent == null;
+	}
+
+	@Nullable
+	public DiscreteDistribution getFanOut() {
+		return _fanOut;
+	}
+
+	ForeignKeyDistribution getForeignKey() {
+		return _foreignKey;
+	}
+
+	@Override
+	public String toString() {
+		return _name;
+	}
+
+}
@@ -12,12 +12,12 @@ import de.frosner.datagenerator.gui.services.GenerationButtonsToggleManager;
  */
 public final class GenerateDataButtonWorker extends SwingWorker<Void, Void> {
 
-	private final int _numberOfInstances;
+	private final long _numberOfInstances;
 	private final ExportConfiguration _config;
 
 	/**
 	 * Creates a new {@linkplain GenerateDataButtonWorker} that will call
-	 * {@linkplain DataGeneratorService#generateData(int, ExportConfiguration)} to generate and export data with the
+	 * {@linkplain DataGeneratorService#generateData(long, ExportConfiguration)} to generate and export data with the
 	 * specified {@linkplain ExportConfiguration}.
 	 * 
 	 * @param numberOfInstances
@@ -25,7 +25,7 @@ public final class GenerateDataButtonWorker extends SwingWorker<Void, Void> {
 	 * @param configuration
 	 *            of the export connection
 	 */
-	public GenerateDataButtonWorker(int numberOfInstances, ExportConfiguration configuration) {
+	public GenerateDataButtonWorker(long numberOfInstances, ExportConfiguration configuration) {
 		_numberOfInstances = numberOfInstances;
 		_config = configuration;
 	}
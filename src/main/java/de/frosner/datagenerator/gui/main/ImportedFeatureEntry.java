@@ -0,0 +1,32 @@
+package de.frosner.datagenerator.gui.main;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+/**
+ * Entry of a feature definition imported from a file, whose distribution may not be expressible in the feature
+ * definition dialog.
+ */
+@Immutable
+public final class ImportedFeatureEntry extends FeatureDefinitionEntry {
+
+	public ImportedFeatureEntry(FeatureDefinition featureDefinition) {
+		super(featureDefinition);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof ImportedFeatureEntry) {
+			return ((ImportedFeatureEntry) o)._featureDefinition.equals(_featureDefinition);
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return _featureDefinition.hashCode();
+	}
+
+}
@@ -2,6 +2,7 @@ package de.frosner.datagenerator.gui.main;
 
 import static de.frosner.datagenerator.gui.verifiers.InputVerifier.isDouble;
 import static de.frosner.datagenerator.gui.verifiers.InputVerifier.isInteger;
+import static de.frosner.datagenerator.gui.verifiers.InputVerifier.isLong;
 import static de.frosner.datagenerator.gui.verifiers.InputVerifier.isName;
 import static de.frosner.datagenerator.gui.verifiers.InputVerifier.verifyComponent;
 
@@ -55,7 +56,6 @@ import javax.swing.filechooser.FileFilter;
 import net.sf.qualitycheck.Check;
 
 import org.jgraph.JGraph;
-import org.jgraph.graph.DefaultGraphCell;
 
 import com.google.common.collect.Lists;
 
@@ -73,12 +73,12 @@ import de.frosner.datagenerator.export.ExportFeatureNames;
 import de.frosner.datagenerator.export.ExportInstanceIds;
 import de.frosner.datagenerator.features.FeatureDefinition;
 import de.frosner.datagenerator.gui.main.GaussianFeatureEntry.MeanIsDependent;
-import de.frosner.datagenerator.gui.services.DataGeneratorService;
 import de.frosner.datagenerator.gui.services.FeatureDefinitionGraphVisualizationManager;
 import de.frosner.datagenerator.gui.services.FeatureParameterDependencySelectorManager;
 import de.frosner.datagenerator.gui.services.GenerationButtonsToggleManager;
 import de.frosner.datagenerator.gui.services.PreviewTableManager;
 import de.frosner.datagenerator.gui.services.ProgressBarManager;
+import de.frosner.datagenerator.gui.services.SchemaEditExecutor;
 import de.frosner.datagenerator.gui.services.TextAreaLogManager;
 import de.frosner.datagenerator.util.ApplicationMetaData;
 import de.frosner.datagenerator.util.VisibleForTesting;
@@ -178,6 +178,9 @@ public final class SwingMenu extends JFrame implements ActionListener {
 	private final JMenu _featuresMenu;
 	@VisibleForTesting
 	final JMenuItem _addFeatureMenuItem;
+	@VisibleForTesting
+	final JMenuItem _importNetworkMenuItem;
+	private final JFileChooser _importFileDialog;
 	private final JMenu _helpMenu;
 	private final JMenuItem _aboutMenuItem;
 
@@ -211,6 +214,10 @@ public final class SwingMenu extends JFrame implements ActionListener {
 		_addFeatureMenuItem = new JMenuItem("Add Feature");
 		_addFeatureMenuItem.addActionListener(this);
 		_featuresMenu.add(_addFeatureMenuItem);
+		_importNetworkMenuItem = new JMenuItem("Import Network");
+		_importNetworkMenuItem.addActionListener(this);
+		_importFileDialog = new JFileChooser();
+		_featuresMenu.add(_importNetworkMenuItem);
 
 		_helpMenu = new JMenu("Help");
 		_helpMenu.setMnemonic(KeyEvent.VK_O);
@@ -504,6 +511,11 @@ public final class SwingMenu extends JFrame implements ActionListener {
 		if (source.equals(_addFeatureButton) || source.equals(_addFeatureMenuItem)) {
 			_featureDefinitionDialog.setVisible(true);
 
+		} else if (source.equals(_importNetworkMenuItem)) {
+			if (_importFileDialog.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+				SchemaEditExecutor.INSTANCE.importNetwork(_importFileDialog.getSelectedFile());
+			}
+
 		} else if (source.equals(_distributionSelector)) {
 			updateCardLayoutedPanelBySelector(_distributionParametersPanel, _distributionSelector);
 			_featureDefinitionDialog.pack();
@@ -516,9 +528,9 @@ public final class SwingMenu extends JFrame implements ActionListener {
 
 		} else if (source.equals(_editFeatureButton)) {
 			final Object selectedCell = _featureGraph.getSelectionCell();
-			if (selectedCell != null) {
-				FeatureDefinitionEntry selectedEntry = FeatureDefinitionGraphVisualizationManager
-						.getFeatureDefinitionEntryByCell(selectedCell);
+			FeatureDefinitionEntry selectedEntry = (selectedCell == null) ? null
+					: FeatureDefinitionGraphVisualizationManager.getFeatureDefinitionEntryByCell(selectedCell);
+			if (selectedEntry != null) {
 				_featureDefinitionDialog.setFeatureToEdit(selectedEntry);
 				_featureNameField.setText(selectedEntry.getFeatureName());
 				if (selectedEntry instanceof BernoulliFeatureEntry) {
@@ -538,16 +550,11 @@ public final class SwingMenu extends JFrame implements ActionListener {
 			}
 
 		} else if (source.equals(_removeFeatureButton)) {
-			DefaultGraphCell selectedCell = (DefaultGraphCell) _featureGraph.getSelectionCell();
-			if (selectedCell != null) {
-				final FeatureDefinitionEntry selectedFeatureEntry = (FeatureDefinitionEntry) selectedCell
-						.getUserObject();
-				new Thread(new Runnable() {
-					@Override
-					public void run() {
-						DataGeneratorService.INSTANCE.removeFeatureDefinition(selectedFeatureEntry);
-					}
-				}).start();
+			Object selectedCell = _featureGraph.getSelectionCell();
+			final FeatureDefinitionEntry selectedFeatureEntry = (selectedCell == null) ? null
+					: FeatureDefinitionGraphVisualizationManager.getFeatureDefinitionEntryByCell(selectedCell);
+			if (selectedFeatureEntry != null) {
+				SchemaEditExecutor.INSTANCE.removeFeatureDefinition(selectedFeatureEntry);
 			}
 
 		} else if (source.equals(_exportFileButton)) {
@@ -557,11 +564,11 @@ public final class SwingMenu extends JFrame implements ActionListener {
 			}
 
 		} else if (source.equals(_generateDataButton) || source.equals(_generateDataMenuItem)) {
-			if (verifyComponent(_numberOfInstancesField, isInteger(_numberOfInstancesField.getText()).isPositive()
+			if (verifyComponent(_numberOfInstancesField, isLong(_numberOfInstancesField.getText()).isPositive()
 					.verify())
 					& verifyComponent(_featureGraph, _featureGraph.getModel().getRootCount() > 0)
 					& verifyComponent(_exportFileField, isName(_exportFileField.getText()).isFileName().verify())) {
-				final int numberOfInstances = Integer.parseInt(_numberOfInstancesField.getText());
+				final long numberOfInstances = Long.parseLong(_numberOfInstancesField.getText());
 				final File exportFile = _exportFileDialog.getSelectedFile();
 				final ExportInstanceIds exportInstanceIds = ExportInstanceIds.when(_exportInstanceIdsBox.isSelected());
 				final ExportFeatureNames exportFeatureNames = ExportFeatureNames.when(_exportFeatureNamesBox
@@ -649,20 +656,10 @@ public final class SwingMenu extends JFrame implements ActionListener {
 		}
 
 		if (_featureDefinitionDialog.isInEditMode()) {
-			new Thread(new Runnable() {
-				@Override
-				public void run() {
-					DataGeneratorService.INSTANCE.replaceFeatureDefinition(_featureDefinitionDialog.getFeatureToEdit(),
-							featureDefinitionEntry);
-				}
-			}).start();
+			SchemaEditExecutor.INSTANCE.replaceFeatureDefinition(_featureDefinitionDialog.getFeatureToEdit(),
+					featureDefinitionEntry);
 		} else {
-			new Thread(new Runnable() {
-				@Override
-				public void run() {
-					DataGeneratorService.INSTANCE.addFeatureDefinition(featureDefinitionEntry);
-				}
-			}).start();
+			SchemaEditExecutor.INSTANCE.addFeatureDefinition(featureDefinitionEntry);
 		}
 		verifyComponent(_featureGraph, true);
 	}
@@ -0,0 +1,159 @@
+package de.frosner.datagenerator.gui.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Collapsed view of a layered graph, keeping large graphs readable. Every layer is shown as a single
+ * {@linkplain LayerNode} except for at most one expanded layer, whose vertices are shown individually. Edges between
+ * vertices of different collapsed layers are merged into a single edge between their layer nodes, and edges between a
+ * collapsed layer and the expanded layer connect the layer node with the vertex. Like {@linkplain LayeredGraphLayout}
+ * it works on a plain snapshot of the graph and can be built outside of the event dispatch thread.
+ *
+ * @param <V>
+ *            vertex type
+ */
+final class CollapsedGraph<V> {
+
+	/**
+	 * Index of the expanded layer if all layers are collapsed.
+	 */
+	static final int NO_EXPANDED_LAYER = -1;
+
+	/**
+	 * Node standing for all vertices of a collapsed layer.
+	 */
+	@Immutable
+	static final class LayerNode {
+
+		private final int _layer;
+		private final int _numberOfVertices;
+
+		LayerNode(int layer, int numberOfVertices) {
+			_layer = layer;
+			_numberOfVertices = numberOfVertices;
+		}
+
+		int getLayer() {
+			return _layer;
+		}
+
+		int getNumberOfVertices() {
+			return _numberOfVertices;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof LayerNode) {
+				LayerNode node = (LayerNode) o;
+				return node._layer == _layer && node._numberOfVertices == _numberOfVertices;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + _layer;
+			result = prime * result + _numberOfVertices;
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return "Layer " + (_layer + 1) + " (" + _numberOfVertices + " features)";
+		}
+
+	}
+
+	private final List<Object> _nodes = Lists.newArrayList();
+	private final Map<Object, List<Object>> _children = Maps.newHashMap();
+
+	/**
+	 * Creates a new {@linkplain CollapsedGraph}.
+	 *
+	 * @param layers
+	 *            of the graph as computed by {@linkplain LayeredGraphLayout#computeLayers(List, Map)}
+	 * @param children
+	 *            of each vertex, vertices without children may be omitted
+	 * @param expandedLayer
+	 *            index of the layer to show individually or {@value #NO_EXPANDED_LAYER}
+	 */
+	CollapsedGraph(@Nonnull List<List<V>> layers, @Nonnull Map<V, List<V>> children, int expandedLayer) {
+		Check.notNull(layers, "layers");
+		Check.notNull(children, "children");
+		Check.stateIsTrue(expandedLayer >= NO_EXPANDED_LAYER && expandedLayer < layers.size(),
+				"Expanded layer %s must be a layer index or NO_EXPANDED_LAYER.", expandedLayer);
+
+		Map<V, Object> nodes = Maps.newHashMap();
+		for (int i = 0; i < layers.size(); i++) {
+			List<V> layer = layers.get(i);
+			if (i == expandedLayer) {
+				for (V vertex : layer) {
+					nodes.put(vertex, vertex);
+					_nodes.add(vertex);
+				}
+			} else if (!layer.isEmpty()) {
+				LayerNode node = new LayerNode(i, layer.size());
+				for (V vertex : layer) {
+					nodes.put(vertex, node);
+				}
+				_nodes.add(node);
+			}
+		}
+
+		Map<Object, Set<Object>> edges = Maps.newHashMap();
+		for (List<V> layer : layers) {
+			for (V vertex : layer) {
+				List<V> vertexChildren = children.get(vertex);
+				if (vertexChildren != null) {
+					for (V child : vertexChildren) {
+						addEdge(edges, nodes.get(vertex), nodes.get(child));
+					}
+				}
+			}
+		}
+		for (Map.Entry<Object, Set<Object>> edge : edges.entrySet()) {
+			_children.put(edge.getKey(), Lists.newArrayList(edge.getValue()));
+		}
+	}
+
+	private static void addEdge(Map<Object, Set<Object>> edges, Object from, Object to) {
+		if (from.equals(to)) {
+			return;
+		}
+		Set<Object> nodeChildren = edges.get(from);
+		if (nodeChildren == null) {
+			nodeChildren = Sets.newLinkedHashSet();
+			edges.put(from, nodeChildren);
+		}
+		nodeChildren.add(to);
+	}
+
+	/**
+	 * @return vertices of the expanded layer and nodes of the collapsed layers, ordered by layer
+	 */
+	List<Object> getNodes() {
+		return Collections.unmodifiableList(_nodes);
+	}
+
+	/**
+	 * @return children of each node having any
+	 */
+	Map<Object, List<Object>> getChildren() {
+		return Collections.unmodifiableMap(_children);
+	}
+
+}
@@ -1,36 +1,64 @@
 package de.frosner.datagenerator.gui.services;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nonnull;
 
 import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.exceptions.ExportReaderClosedException;
+import de.frosner.datagenerator.exceptions.IncompatibleCheckpointException;
 import de.frosner.datagenerator.exceptions.UncheckedFileNotFoundException;
 import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.DurableExportConnection;
 import de.frosner.datagenerator.export.ExportConfiguration;
 import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ResumableExportConfiguration;
+import de.frosner.datagenerator.export.StatisticsExportConnection;
+import de.frosner.datagenerator.distributions.VariableParameter;
 import de.frosner.datagenerator.features.FeatureDefinition;
 import de.frosner.datagenerator.generator.DataGenerator;
 import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+import de.frosner.datagenerator.generator.GenerationJob;
+import de.frosner.datagenerator.generator.GenerationScheduler;
+import de.frosner.datagenerator.generator.JobBudget;
 import de.frosner.datagenerator.gui.main.FeatureDefinitionEntry;
 import de.frosner.datagenerator.gui.main.GaussianFeatureEntry;
+import de.frosner.datagenerator.gui.main.ImportedFeatureEntry;
+import de.frosner.datagenerator.util.RangeUtil;
 import de.frosner.datagenerator.util.VisibleForTesting;
 
 /**
  * Service maintaining a list of {@linkplain FeatureDefinition}s. It can be used to generate data to an
  * {@linkplain ExportConnection}.
  * <p>
- * The feature definition list should be kept synchronized with the list in the UI.
+ * The feature definition list should be kept synchronized with the list in the UI. Edits made in the UI are applied
+ * in order by the {@linkplain SchemaEditExecutor}.
  */
 public final class DataGeneratorService {
 
 	public static final DataGeneratorService INSTANCE = new DataGeneratorService();
 
+	private static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 10000;
+
 	private final List<FeatureDefinition> _featureDefinitions = Collections
 			.synchronizedList(new ArrayList<FeatureDefinition>());
-	private boolean _generating = false;
+	private final AtomicBoolean _generating = new AtomicBoolean(false);
+	private long _checkpointIntervalMillis = DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+	private GenerationScheduler _scheduler;
+
+	// only accessed by the thread editing the feature definitions
+	private int _batchDepth = 0;
+	private boolean _previewOutdated = false;
 
 	@VisibleForTesting
 	DataGeneratorService() {
@@ -47,6 +75,7 @@ public final class DataGeneratorService {
 
 		_featureDefinitions.add(featureDefinitionEntry.getFeatureDefinition());
 		FeatureParameterDependencySelectorManager.addFeatureDefinitionEntry(featureDefinitionEntry);
+		FeatureDefinitionGraphVisualizationManager.beginBatchUpdate();
 		FeatureDefinitionGraphVisualizationManager.addVertex(featureDefinitionEntry);
 		// TODO FRosner: create FeatureDefinition#getDependencies to avoid instanceof-if here
 		if (featureDefinitionEntry instanceof GaussianFeatureEntry) {
@@ -56,8 +85,40 @@ public final class DataGeneratorService {
 						gaussianEntry);
 			}
 		}
+		FeatureDefinitionGraphVisualizationManager.endBatchUpdate();
 		TextAreaLogManager.info("Added Feature: " + featureDefinitionEntry.getFeatureName());
-		PreviewTableManager.generatePreview(FeatureDefinitionGraph.createFromList(_featureDefinitions));
+		updatePreview();
+	}
+
+	/**
+	 * Adds all feature definitions of an imported graph together with their dependencies. They are added as one batch,
+	 * so the preview is regenerated and the graph is laid out once for the whole import.
+	 * 
+	 * @param featureDefinitionGraph
+	 *            to add, e.g. imported from a Bayesian network
+	 */
+	public void importFeatureDefinitions(@Nonnull FeatureDefinitionGraph featureDefinitionGraph) {
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+
+		beginBatchUpdate();
+		try {
+			Map<FeatureDefinition, FeatureDefinitionEntry> entries = Maps.newHashMap();
+			for (FeatureDefinition featureDefinition : featureDefinitionGraph) {
+				FeatureDefinitionEntry entry = new ImportedFeatureEntry(featureDefinition);
+				entries.put(featureDefinition, entry);
+				_featureDefinitions.add(featureDefinition);
+				FeatureParameterDependencySelectorManager.addFeatureDefinitionEntry(entry);
+				FeatureDefinitionGraphVisualizationManager.addVertex(entry);
+				for (VariableParameter<?> parameter : featureDefinition.getDependentParameters()) {
+					FeatureDefinitionGraphVisualizationManager.addEdge(
+							entries.get(parameter.getFeatureDefinitionConditionedOn()), entry);
+				}
+			}
+			TextAreaLogManager.info("Imported " + entries.size() + " Features");
+			updatePreview();
+		} finally {
+			endBatchUpdate();
+		}
 	}
 
 	/**
@@ -82,7 +143,7 @@ public final class DataGeneratorService {
 		FeatureParameterDependencySelectorManager.removeFeatureDefinitionEntry(toReplace);
 		FeatureParameterDependencySelectorManager.addFeatureDefinitionEntry(newEntry);
 		FeatureDefinitionGraphVisualizationManager.replaceVertex(toReplace, newEntry);
-		PreviewTableManager.generatePreview(FeatureDefinitionGraph.createFromList(_featureDefinitions));
+		updatePreview();
 	}
 
 	/**
@@ -98,58 +159,226 @@ public final class DataGeneratorService {
 		TextAreaLogManager.info("Removed Feature: " + featureDefinitionEntry.getFeatureName());
 		FeatureParameterDependencySelectorManager.removeFeatureDefinitionEntry(featureDefinitionEntry);
 		FeatureDefinitionGraphVisualizationManager.removeVertex(featureDefinitionEntry);
-		PreviewTableManager.generatePreview(FeatureDefinitionGraph.createFromList(_featureDefinitions));
+		updatePreview();
+	}
+
+	/**
+	 * Starts a batch of edits of the feature definitions. The preview is not regenerated and the graph is not laid out
+	 * until the matching {@linkplain #endBatchUpdate()} is called. Batches may be nested.
+	 */
+	public void beginBatchUpdate() {
+		_batchDepth++;
+		FeatureDefinitionGraphVisualizationManager.beginBatchUpdate();
+	}
+
+	/**
+	 * Ends a batch of edits started by {@linkplain #beginBatchUpdate()}. The preview is regenerated once if this closes
+	 * the outermost batch and the feature definitions have been edited.
+	 */
+	public void endBatchUpdate() {
+		Check.stateIsTrue(_batchDepth > 0, "endBatchUpdate() called without beginBatchUpdate()");
+		_batchDepth--;
+		FeatureDefinitionGraphVisualizationManager.endBatchUpdate();
+		if (_batchDepth == 0 && _previewOutdated) {
+			_previewOutdated = false;
+			PreviewTableManager.generatePreview(createFeatureDefinitionGraph());
+		}
+	}
+
+	private void updatePreview() {
+		if (_batchDepth > 0) {
+			_previewOutdated = true;
+		} else {
+			PreviewTableManager.generatePreview(createFeatureDefinitionGraph());
+		}
 	}
 
 	/**
 	 * Generate and export a number of instances to an {@linkplain ExportConnection} as configured by the specified
 	 * {@linkplain ExportConfiguration}.
+	 * <p>
+	 * If the configuration is a {@linkplain ResumableExportConfiguration}, checkpoints are written periodically and when
+	 * the generation is aborted. The generation can then be continued by
+	 * {@linkplain #resumeData(ResumableExportConfiguration)}.
 	 * 
 	 * @param numberOfInstances
 	 *            to be generated
 	 * @param exportConfig
 	 *            containing everything needed to create an {@linkplain ExportConnection}.
 	 */
-	public void generateData(int numberOfInstances, @Nonnull ExportConfiguration exportConfig) {
+	public void generateData(long numberOfInstances, @Nonnull ExportConfiguration exportConfig) {
 		Check.notNull(exportConfig, "exportConfig");
-		if (!_generating) {
+		runGeneration(numberOfInstances, exportConfig, false);
+	}
+
+	/**
+	 * Resume a generation from the last checkpoint written by
+	 * {@linkplain #generateData(long, ExportConfiguration)}. The export location is truncated to the checkpoint and the
+	 * remaining instances are generated with the seed of the checkpoint, producing exactly the instances an
+	 * uninterrupted generation would have produced.
+	 * 
+	 * @param exportConfig
+	 *            the interrupted generation was using
+	 */
+	public void resumeData(@Nonnull ResumableExportConfiguration exportConfig) {
+		Check.notNull(exportConfig, "exportConfig");
+		runGeneration(0, exportConfig, true);
+	}
+
+	/**
+	 * Submits a job generating a number of instances of the current feature definitions to an
+	 * {@linkplain ExportConnection} as configured by the specified {@linkplain ExportConfiguration}. Later changes of
+	 * the feature definitions do not affect the job.
+	 * <p>
+	 * Unlike {@linkplain #generateData(long, ExportConfiguration)}, this method returns immediately and any number of
+	 * jobs may run at the same time. They share a pool of one thread per processor.
+	 * 
+	 * @param numberOfInstances
+	 *            to be generated
+	 * @param exportConfig
+	 *            containing everything needed to create an {@linkplain ExportConnection}
+	 * @param budget
+	 *            of threads and buffered instances of the job
+	 * @return handle of the job to query its status and results or to cancel it
+	 */
+	public GenerationJob submitGeneration(long numberOfInstances, @Nonnull ExportConfiguration exportConfig,
+			@Nonnull JobBudget budget) {
+		Check.notNull(exportConfig, "exportConfig");
+		Check.notNull(budget, "budget");
+		return getScheduler().submit(createFeatureDefinitionGraph(), numberOfInstances, exportConfig, budget);
+	}
+
+	/**
+	 * @return all jobs submitted by {@linkplain #submitGeneration(long, ExportConfiguration, JobBudget)}
+	 */
+	public List<GenerationJob> getGenerationJobs() {
+		return getScheduler().getJobs();
+	}
+
+	private synchronized GenerationScheduler getScheduler() {
+		if (_scheduler == null) {
+			_scheduler = new GenerationScheduler(Runtime.getRuntime().availableProcessors());
+		}
+		return _scheduler;
+	}
+
+	private FeatureDefinitionGraph createFeatureDefinitionGraph() {
+		synchronized (_featureDefinitions) {
+			return FeatureDefinitionGraph.createFromList(_featureDefinitions);
+		}
+	}
+
+	private void runGeneration(long numberOfInstances, ExportConfiguration exportConfig, boolean resume) {
+		if (_generating.compareAndSet(false, true)) {
 			try {
-				_generating = true;
-				boolean aborted = false;
-				ExportConnection exportConnection = exportConfig.createExportConnection();
-				DataGenerator generator = new DataGenerator(numberOfInstances, exportConnection, FeatureDefinitionGraph
-						.createFromList(_featureDefinitions));
-				TextAreaLogManager.info("Generating " + numberOfInstances + " instances");
-				int range = 1000;
-				ProgressBarManager.resetProgress();
-				ProgressBarManager.setProgressBarMaximumValue(Math.max(numberOfInstances / range, 1));
-				for (int offset = 0; offset < numberOfInstances; offset += range) {
-					generator.generate(offset, range);
-					ProgressBarManager.increaseProgress();
-					if (Thread.interrupted()) {
-						aborted = true;
-						break;
+				FeatureDefinitionGraph featureDefinitionGraph = createFeatureDefinitionGraph();
+				String schema = GenerationCheckpoint.describeSchema(featureDefinitionGraph);
+				GenerationCheckpoint start;
+				ExportConnection exportConnection;
+				if (resume) {
+					ResumableExportConfiguration resumableConfig = (ResumableExportConfiguration) exportConfig;
+					start = GenerationCheckpoint.readFrom(resumableConfig.getCheckpointFile());
+					if (!start.getSchema().equals(schema)) {
+						throw new IncompatibleCheckpointException(start.getSchema(), schema);
 					}
-				}
-				if (!aborted) {
-					TextAreaLogManager.info("Exported instances to " + exportConnection.getExportLocation());
+					exportConnection = resumableConfig.resumeExportConnection(start.getByteOffset());
+					TextAreaLogManager.info("Resuming generation of " + start.getNumberOfInstances()
+							+ " instances at instance " + start.getNextInstanceId());
 				} else {
-					TextAreaLogManager.warn("Generation aborted. Partial results written to "
-							+ exportConnection.getExportLocation());
+					start = new GenerationCheckpoint(numberOfInstances, 0, 0, new Random().nextLong(), schema);
+					exportConnection = exportConfig.createExportConnection();
+					TextAreaLogManager.info("Generating " + numberOfInstances + " instances");
 				}
-				exportConnection.close();
+				generate(start, featureDefinitionGraph, exportConnection, exportConfig);
 			} catch (UncheckedFileNotFoundException e) {
 				TextAreaLogManager.error("File not found: " + e.getMessage());
 			} catch (UncheckedIOException e) {
 				TextAreaLogManager.error("Writing to file failed: " + e.getMessage());
+			} catch (IncompatibleCheckpointException e) {
+				TextAreaLogManager.error(e.getMessage());
+			} catch (ExportReaderClosedException e) {
+				TextAreaLogManager.warn(e.getMessage());
 			} finally {
-				_generating = false;
+				_generating.set(false);
 			}
 		} else {
 			TextAreaLogManager.error("Generation already in progress");
 		}
 	}
 
+	private void generate(GenerationCheckpoint start, FeatureDefinitionGraph featureDefinitionGraph,
+			ExportConnection exportConnection, ExportConfiguration exportConfig) {
+		long numberOfInstances = start.getNumberOfInstances();
+		File checkpointFile = null;
+		if (exportConfig instanceof ResumableExportConfiguration
+				&& exportConnection instanceof DurableExportConnection) {
+			checkpointFile = ((ResumableExportConfiguration) exportConfig).getCheckpointFile();
+		}
+		boolean aborted = false;
+		GenerationCheckpoint checkpoint = start;
+		DataGenerator generator = new DataGenerator(numberOfInstances, exportConnection, featureDefinitionGraph,
+				start.getSeed());
+		int range = 1000;
+		ProgressBarManager.resetProgress();
+		ProgressBarManager.setProgressBarMaximumValue((int) Math.min(Math.max(numberOfInstances / range, 1),
+				Integer.MAX_VALUE));
+		ProgressBarManager.setProgress((int) Math.min(start.getNextInstanceId() / range, Integer.MAX_VALUE));
+		long nextCheckpointTime = System.currentTimeMillis() + _checkpointIntervalMillis;
+		long nextInstanceId = start.getNextInstanceId();
+		while (nextInstanceId < numberOfInstances) {
+			long offset = nextInstanceId;
+			try {
+				generator.generate(offset, range);
+			} catch (ExportReaderClosedException e) {
+				exportConnection.close();
+				TextAreaLogManager.warn("Generation stopped at instance " + offset + ". " + e.getMessage());
+				return;
+			}
+			ProgressBarManager.increaseProgress();
+			nextInstanceId = RangeUtil.endOfRange(offset, range, numberOfInstances);
+			boolean interrupted = Thread.interrupted();
+			if (checkpointFile != null && (interrupted || System.currentTimeMillis() >= nextCheckpointTime)) {
+				long byteOffset = ((DurableExportConnection) exportConnection).sync();
+				checkpoint = new GenerationCheckpoint(numberOfInstances, nextInstanceId, byteOffset, start.getSeed(),
+						start.getSchema());
+				checkpoint.writeTo(checkpointFile);
+				nextCheckpointTime = System.currentTimeMillis() + _checkpointIntervalMillis;
+			}
+			if (interrupted) {
+				aborted = true;
+				break;
+			}
+		}
+		exportConnection.close();
+		if (exportConnection instanceof StatisticsExportConnection && start.getNextInstanceId() < numberOfInstances) {
+			String report = ((StatisticsExportConnection) exportConnection).getReport();
+			if (start.getNextInstanceId() > 0) {
+				TextAreaLogManager.info("Statistics of the instances exported since resuming at instance "
+						+ start.getNextInstanceId() + " (earlier instances are not included):\n" + report);
+			} else {
+				TextAreaLogManager.info("Statistics of exported instances:\n" + report);
+			}
+		}
+		if (!aborted) {
+			TextAreaLogManager.info("Exported instances to " + exportConnection.getExportLocation());
+			if (checkpointFile != null) {
+				checkpointFile.delete();
+			}
+		} else if (checkpointFile != null) {
+			TextAreaLogManager.warn("Generation aborted. Partial results written to "
+					+ exportConnection.getExportLocation() + ". Generation can be resumed at instance "
+					+ checkpoint.getNextInstanceId());
+		} else {
+			TextAreaLogManager.warn("Generation aborted. Partial results written to "
+					+ exportConnection.getExportLocation());
+		}
+	}
+
+	@VisibleForTesting
+	void setCheckpointInterval(long checkpointIntervalMillis) {
+		_checkpointIntervalMillis = checkpointIntervalMillis;
+	}
+
 	@VisibleForTesting
 	List<FeatureDefinition> getFeatureDefinitions() {
 		return _featureDefinitions;
@@ -158,7 +387,15 @@ public final class DataGeneratorService {
 	@VisibleForTesting
 	public void reset() {
 		_featureDefinitions.clear();
-		_generating = false;
+		_generating.set(false);
+		_batchDepth = 0;
+		_previewOutdated = false;
+		synchronized (this) {
+			if (_scheduler != null) {
+				_scheduler.shutdown();
+				_scheduler = null;
+			}
+		}
 	}
 
 }
@@ -1,8 +1,17 @@
 package de.frosner.datagenerator.gui.services;
 
 import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Point;
 import java.awt.geom.Rectangle2D;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.SwingUtilities;
@@ -10,27 +19,68 @@ import javax.swing.SwingUtilities;
 import net.sf.qualitycheck.Check;
 
 import org.jgraph.JGraph;
+import org.jgraph.event.GraphSelectionEvent;
+import org.jgraph.event.GraphSelectionListener;
+import org.jgraph.graph.AttributeMap;
+import org.jgraph.graph.CellView;
+import org.jgraph.graph.ConnectionSet;
 import org.jgraph.graph.DefaultGraphCell;
+import org.jgraph.graph.DefaultGraphModel;
 import org.jgraph.graph.GraphConstants;
-import org.jgraph.layout.JGraphLayoutAlgorithm;
-import org.jgraph.layout.SugiyamaLayoutAlgorithm;
 import org.jgrapht.ListenableGraph;
 import org.jgrapht.ext.JGraphModelAdapter;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.ListenableDirectedGraph;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import de.frosner.datagenerator.gui.main.FeatureDefinitionEntry;
 import de.frosner.datagenerator.util.VisibleForTesting;
 
+/**
+ * Service managing the {@linkplain JGraph} visualizing the feature dependencies. All modifications are executed in the
+ * event dispatch thread. The layout is computed on a snapshot of the graph in a background thread and the resulting
+ * coordinates are applied in a single edit afterwards.
+ * <p>
+ * Many modifications can be grouped by {@linkplain #beginBatchUpdate()} and {@linkplain #endBatchUpdate()}, so that
+ * the graph is laid out only once after the whole batch has been applied, e.g. when a Bayesian network is imported.
+ * <p>
+ * Graphs of more than {@value #COLLAPSED_VIEW_THRESHOLD} features are shown as a {@linkplain CollapsedGraph} having a
+ * single node per layer. Selecting the node of a layer expands it and collapses the layer expanded before. The
+ * collapsed view is a separate graph model built from the snapshot, while the model of all features keeps being
+ * updated and is shown again once the graph gets small enough. If an expanded layer has more than
+ * {@value #GRID_LAYOUT_THRESHOLD} features, its features are placed in a grid.
+ */
 public class FeatureDefinitionGraphVisualizationManager {
 
-	private static final JGraphLayoutAlgorithm LAYOUT = new SugiyamaLayoutAlgorithm();
+	@VisibleForTesting
+	static final int COLLAPSED_VIEW_THRESHOLD = 150;
+	@VisibleForTesting
+	static final int GRID_LAYOUT_THRESHOLD = 150;
+
+	private static final int LABEL_PADDING = 8;
+	private static final LayeredGraphLayout<FeatureDefinitionEntry> LAYOUT = new LayeredGraphLayout<FeatureDefinitionEntry>(
+			GRID_LAYOUT_THRESHOLD);
+	private static final LayeredGraphLayout<Object> COLLAPSED_LAYOUT = new LayeredGraphLayout<Object>(
+			GRID_LAYOUT_THRESHOLD);
+	private static final ExecutorService LAYOUT_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("graph-layout-%d").setDaemon(true).build());
 
 	@VisibleForTesting
 	static ListenableGraph<FeatureDefinitionEntry, DefaultEdge> _featureGraphModel;
 	@VisibleForTesting
 	static JGraphModelAdapter<FeatureDefinitionEntry, DefaultEdge> _featureGraphModelAdapter;
-	private static JGraph _featureGraph;
+	@VisibleForTesting
+	static JGraph _featureGraph;
+
+	// only accessed in the event dispatch thread
+	private static int _batchDepth = 0;
+	private static long _layoutGeneration = 0;
+	private static int _expandedLayer = CollapsedGraph.NO_EXPANDED_LAYER;
+	@VisibleForTesting
+	static int _numberOfLayouts = 0;
 
 	private FeatureDefinitionGraphVisualizationManager() {
 		throw new UnsupportedOperationException();
@@ -42,6 +92,22 @@ public class FeatureDefinitionGraphVisualizationManager {
 		_featureGraphModel = new ListenableDirectedGraph<FeatureDefinitionEntry, DefaultEdge>(DefaultEdge.class);
 		_featureGraphModelAdapter = new JGraphModelAdapter<FeatureDefinitionEntry, DefaultEdge>(_featureGraphModel);
 		_featureGraph = new JGraph(_featureGraphModelAdapter);
+		_featureGraph.addGraphSelectionListener(new GraphSelectionListener() {
+			@Override
+			public void valueChanged(GraphSelectionEvent event) {
+				Object selectedCell = _featureGraph.getSelectionCell();
+				if (selectedCell != null) {
+					Object selectedValue = _featureGraph.getModel().getValue(selectedCell);
+					if (selectedValue instanceof CollapsedGraph.LayerNode) {
+						_expandedLayer = ((CollapsedGraph.LayerNode) selectedValue).getLayer();
+						requestLayout();
+					}
+				}
+			}
+		});
+		_batchDepth = 0;
+		_expandedLayer = CollapsedGraph.NO_EXPANDED_LAYER;
+		_numberOfLayouts = 0;
 		return _featureGraph;
 	}
 
@@ -51,6 +117,38 @@ public class FeatureDefinitionGraphVisualizationManager {
 		_featureGraph = null;
 	}
 
+	/**
+	 * Starts a batch of modifications. The graph will not be laid out until the matching
+	 * {@linkplain #endBatchUpdate()} is processed. Batches may be nested.
+	 */
+	public static void beginBatchUpdate() {
+		if (_featureGraph != null) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					_batchDepth++;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Ends a batch of modifications started by {@linkplain #beginBatchUpdate()}. The graph is laid out once if this
+	 * closes the outermost batch.
+	 */
+	public static void endBatchUpdate() {
+		if (_featureGraph != null) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					Check.stateIsTrue(_batchDepth > 0, "endBatchUpdate() called without beginBatchUpdate()");
+					_batchDepth--;
+					requestLayout();
+				}
+			});
+		}
+	}
+
 	public static void addVertex(@Nonnull final FeatureDefinitionEntry entry) {
 		Check.notNull(entry, "entry");
 		if (_featureGraph != null) {
@@ -59,7 +157,7 @@ public class FeatureDefinitionGraphVisualizationManager {
 				public void run() {
 					_featureGraphModel.addVertex(entry);
 					adjustLayout(entry, Color.GRAY);
-					JGraphLayoutAlgorithm.applyLayout(_featureGraph, _featureGraph.getRoots(), LAYOUT);
+					requestLayout();
 				}
 			});
 		}
@@ -73,7 +171,7 @@ public class FeatureDefinitionGraphVisualizationManager {
 				@Override
 				public void run() {
 					_featureGraphModel.addEdge(from, to);
-					JGraphLayoutAlgorithm.applyLayout(_featureGraph, _featureGraph.getRoots(), LAYOUT);
+					requestLayout();
 				}
 			});
 		}
@@ -91,7 +189,7 @@ public class FeatureDefinitionGraphVisualizationManager {
 					_featureGraphModel.removeVertex(toReplace);
 					_featureGraphModel.addVertex(newEntry);
 					adjustLayout(newEntry, Color.GRAY);
-					JGraphLayoutAlgorithm.applyLayout(_featureGraph, _featureGraph.getRoots(), LAYOUT);
+					requestLayout();
 				}
 			});
 		}
@@ -104,16 +202,176 @@ public class FeatureDefinitionGraphVisualizationManager {
 				@Override
 				public void run() {
 					_featureGraphModel.removeVertex(entry);
-					if (!_featureGraphModel.vertexSet().isEmpty()) {
-						JGraphLayoutAlgorithm.applyLayout(_featureGraph, _featureGraph.getRoots(), LAYOUT);
-					}
+					requestLayout();
 				}
 			});
 		}
 	}
 
+	/**
+	 * Returns the feature shown by the specified cell of the managed {@linkplain JGraph}, which may show the model of
+	 * all features or a collapsed view of it.
+	 *
+	 * @param selectedCell
+	 *            of the managed graph
+	 * @return feature shown by the cell or {@code null} if the cell is an edge or a collapsed layer
+	 */
+	@CheckForNull
 	public static FeatureDefinitionEntry getFeatureDefinitionEntryByCell(Object selectedCell) {
-		return (FeatureDefinitionEntry) _featureGraphModelAdapter.getValue(selectedCell);
+		Object value = _featureGraph.getModel().getValue(selectedCell);
+		return (value instanceof FeatureDefinitionEntry) ? (FeatureDefinitionEntry) value : null;
+	}
+
+	/**
+	 * Takes a snapshot of the current graph and lays it out in the background. Results of a layout that has been
+	 * overtaken by a newer one are discarded. Must be called in the event dispatch thread.
+	 */
+	private static void requestLayout() {
+		if (_batchDepth > 0 || _featureGraphModel.vertexSet().isEmpty()) {
+			return;
+		}
+		final long generation = ++_layoutGeneration;
+		_numberOfLayouts++;
+		final JGraph graph = _featureGraph;
+		final List<FeatureDefinitionEntry> vertices = Lists.newArrayList(_featureGraphModel.vertexSet());
+		final Map<FeatureDefinitionEntry, List<FeatureDefinitionEntry>> children = Maps.newHashMap();
+		for (DefaultEdge edge : _featureGraphModel.edgeSet()) {
+			FeatureDefinitionEntry source = _featureGraphModel.getEdgeSource(edge);
+			if (!children.containsKey(source)) {
+				children.put(source, Lists.<FeatureDefinitionEntry> newArrayList());
+			}
+			children.get(source).add(_featureGraphModel.getEdgeTarget(edge));
+		}
+		if (vertices.size() > COLLAPSED_VIEW_THRESHOLD) {
+			requestCollapsedLayout(generation, vertices, children);
+			return;
+		}
+		final Map<FeatureDefinitionEntry, Dimension> sizes = Maps.newHashMap();
+		for (FeatureDefinitionEntry vertex : vertices) {
+			Rectangle2D bounds = getVertexBounds(vertex);
+			sizes.put(vertex, new Dimension((int) Math.ceil(bounds.getWidth()), (int) Math.ceil(bounds.getHeight())));
+		}
+
+		LAYOUT_EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				final Map<FeatureDefinitionEntry, Point> positions = LAYOUT.computeLayout(vertices, children, sizes);
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						if (graph == _featureGraph && generation == _layoutGeneration) {
+							applyPositions(positions, sizes);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Builds the collapsed view of the snapshot in the background and shows it. The node sizes are derived from the
+	 * labels, as the cells of the collapsed view do not exist before.
+	 */
+	private static void requestCollapsedLayout(final long generation, final List<FeatureDefinitionEntry> vertices,
+			final Map<FeatureDefinitionEntry, List<FeatureDefinitionEntry>> children) {
+		final JGraph graph = _featureGraph;
+		final int expandedLayer = _expandedLayer;
+		final FontMetrics fontMetrics = graph.getFontMetrics(graph.getFont());
+
+		LAYOUT_EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				List<List<FeatureDefinitionEntry>> layers = LAYOUT.computeLayers(vertices, children);
+				// the expanded layer may have disappeared since it was selected
+				int layer = (expandedLayer < layers.size()) ? expandedLayer : CollapsedGraph.NO_EXPANDED_LAYER;
+				final CollapsedGraph<FeatureDefinitionEntry> collapsedGraph;
+				collapsedGraph = new CollapsedGraph<FeatureDefinitionEntry>(layers, children, layer);
+				final Map<Object, Dimension> sizes = Maps.newHashMap();
+				for (Object node : collapsedGraph.getNodes()) {
+					sizes.put(node, new Dimension(fontMetrics.stringWidth(node.toString()) + 2 * LABEL_PADDING,
+							fontMetrics.getHeight() + LABEL_PADDING));
+				}
+				final Map<Object, Point> positions = COLLAPSED_LAYOUT.computeLayout(collapsedGraph.getNodes(),
+						collapsedGraph.getChildren(), sizes);
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						if (graph == _featureGraph && generation == _layoutGeneration) {
+							showCollapsedGraph(collapsedGraph, positions, sizes);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private static void applyPositions(Map<FeatureDefinitionEntry, Point> positions,
+			Map<FeatureDefinitionEntry, Dimension> sizes) {
+		if (_featureGraph.getModel() != _featureGraphModelAdapter) {
+			_featureGraph.setModel(_featureGraphModelAdapter);
+			_expandedLayer = CollapsedGraph.NO_EXPANDED_LAYER;
+		}
+		Map<Object, Map<?, ?>> nestedAttributes = new Hashtable<Object, Map<?, ?>>();
+		for (Map.Entry<FeatureDefinitionEntry, Point> position : positions.entrySet()) {
+			DefaultGraphCell cell = _featureGraphModelAdapter.getVertexCell(position.getKey());
+			Dimension size = sizes.get(position.getKey());
+			AttributeMap attributes = new AttributeMap();
+			GraphConstants.setBounds(attributes, new Rectangle2D.Double(position.getValue().x, position.getValue().y,
+					size.width, size.height));
+			nestedAttributes.put(cell, attributes);
+		}
+		_featureGraph.getGraphLayoutCache().edit(nestedAttributes, null, null, null);
+	}
+
+	/**
+	 * Shows a new graph model containing the nodes and edges of the collapsed graph. Its cells look like the ones of
+	 * the model of all features, the nodes of collapsed layers being lighter.
+	 */
+	private static void showCollapsedGraph(CollapsedGraph<FeatureDefinitionEntry> collapsedGraph,
+			Map<Object, Point> positions, Map<Object, Dimension> sizes) {
+		Map<Object, AttributeMap> attributes = Maps.newHashMap();
+		Map<Object, DefaultGraphCell> cells = Maps.newHashMap();
+		List<Object> roots = Lists.newArrayList();
+		for (Object node : collapsedGraph.getNodes()) {
+			DefaultGraphCell cell = new DefaultGraphCell(node);
+			cell.addPort();
+			AttributeMap cellAttributes = (AttributeMap) _featureGraphModelAdapter.getDefaultVertexAttributes().clone();
+			Point position = positions.get(node);
+			Dimension size = sizes.get(node);
+			GraphConstants.setBounds(cellAttributes, new Rectangle2D.Double(position.x, position.y, size.width,
+					size.height));
+			GraphConstants.setAutoSize(cellAttributes, true);
+			GraphConstants.setBackground(cellAttributes,
+					(node instanceof CollapsedGraph.LayerNode) ? Color.LIGHT_GRAY : Color.GRAY);
+			GraphConstants.setOpaque(cellAttributes, true);
+			GraphConstants.setBorderColor(cellAttributes, Color.black);
+			attributes.put(cell, cellAttributes);
+			cells.put(node, cell);
+			roots.add(cell);
+		}
+		ConnectionSet connections = new ConnectionSet();
+		for (Map.Entry<Object, List<Object>> nodeChildren : collapsedGraph.getChildren().entrySet()) {
+			for (Object child : nodeChildren.getValue()) {
+				org.jgraph.graph.DefaultEdge edge = new org.jgraph.graph.DefaultEdge();
+				connections.connect(edge, cells.get(nodeChildren.getKey()).getChildAt(0), cells.get(child)
+						.getChildAt(0));
+				attributes.put(edge, (AttributeMap) _featureGraphModelAdapter.getDefaultEdgeAttributes().clone());
+				roots.add(edge);
+			}
+		}
+
+		DefaultGraphModel model = new DefaultGraphModel();
+		model.insert(roots.toArray(), attributes, connections, null, null);
+		_featureGraph.setModel(model);
+	}
+
+	private static Rectangle2D getVertexBounds(FeatureDefinitionEntry vertex) {
+		DefaultGraphCell cell = _featureGraphModelAdapter.getVertexCell(vertex);
+		CellView view = _featureGraph.getGraphLayoutCache().getMapping(cell, false);
+		if (view != null) {
+			return view.getBounds();
+		}
+		return GraphConstants.getBounds(cell.getAttributes());
 	}
 
 	private static void adjustLayout(FeatureDefinitionEntry feature, @Nullable Color bg) {
@@ -0,0 +1,267 @@
+package de.frosner.datagenerator.gui.services;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Layered (Sugiyama style) layout working on a plain snapshot of vertices, edges and vertex sizes. As it does not touch
+ * any Swing component it can be computed outside of the event dispatch thread.
+ * <p>
+ * Vertices are assigned to layers by their longest path from a root and the order within each layer is improved by a
+ * fixed number of barycenter sweeps. Graphs with more vertices than the grid threshold skip the crossing reduction
+ * and the vertices of each layer are placed in a grid of equally sized cells instead, keeping the layout time linear
+ * in the graph size. The layers can also be computed on their own, e.g. to build a {@linkplain CollapsedGraph}.
+ *
+ * @param <V>
+ *            vertex type
+ */
+final class LayeredGraphLayout<V> {
+
+	static final int MARGIN = 10;
+	static final int HORIZONTAL_SPACING = 30;
+	static final int VERTICAL_SPACING = 50;
+
+	private static final int CROSSING_REDUCTION_SWEEPS = 4;
+
+	private final int _gridThreshold;
+
+	/**
+	 * Creates a new {@linkplain LayeredGraphLayout} falling back to a grid per layer for graphs having more vertices
+	 * than the specified threshold.
+	 *
+	 * @param gridThreshold
+	 *            maximum number of vertices laid out with crossing reduction
+	 */
+	LayeredGraphLayout(int gridThreshold) {
+		Check.stateIsTrue(gridThreshold > 0, "Grid threshold must be > 0.");
+		_gridThreshold = gridThreshold;
+	}
+
+	/**
+	 * Computes the upper left corner of every vertex.
+	 *
+	 * @param vertices
+	 *            to lay out in their initial order
+	 * @param children
+	 *            of each vertex, vertices without children may be omitted
+	 * @param sizes
+	 *            of all vertices
+	 * @return position of every vertex
+	 */
+	Map<V, Point> computeLayout(@Nonnull List<V> vertices, @Nonnull Map<V, List<V>> children,
+			@Nonnull Map<V, Dimension> sizes) {
+		Check.notNull(vertices, "vertices");
+		Check.notNull(children, "children");
+		Check.notNull(sizes, "sizes");
+
+		List<List<V>> layers = computeLayers(vertices, children);
+		if (isGrid(vertices.size())) {
+			return placeGrid(layers, sizes);
+		}
+		reduceCrossings(layers, children, invert(vertices, children));
+		return placeLayers(layers, sizes);
+	}
+
+	boolean isGrid(int numberOfVertices) {
+		return numberOfVertices > _gridThreshold;
+	}
+
+	/**
+	 * Assigns every vertex to the layer of its longest path from a root. Vertices on a cycle are put on the first
+	 * layer.
+	 *
+	 * @param vertices
+	 *            to assign in their initial order
+	 * @param children
+	 *            of each vertex, vertices without children may be omitted
+	 * @return layers from the roots downwards, each containing its vertices in their initial order
+	 */
+	List<List<V>> computeLayers(@Nonnull List<V> vertices, @Nonnull Map<V, List<V>> children) {
+		Check.notNull(vertices, "vertices");
+		Check.notNull(children, "children");
+		Map<V, Integer> inDegrees = Maps.newHashMap();
+		for (V vertex : vertices) {
+			inDegrees.put(vertex, 0);
+		}
+		for (V vertex : vertices) {
+			for (V child : getNeighbours(children, vertex)) {
+				inDegrees.put(child, inDegrees.get(child) + 1);
+			}
+		}
+
+		LinkedList<V> queue = Lists.newLinkedList();
+		for (V vertex : vertices) {
+			if (inDegrees.get(vertex) == 0) {
+				queue.add(vertex);
+			}
+		}
+		Map<V, Integer> layerIndices = Maps.newHashMap();
+		int numberOfLayers = 1;
+		while (!queue.isEmpty()) {
+			V vertex = queue.removeFirst();
+			int layer = layerIndices.containsKey(vertex) ? layerIndices.get(vertex) : 0;
+			layerIndices.put(vertex, layer);
+			numberOfLayers = Math.max(numberOfLayers, layer + 1);
+			for (V child : getNeighbours(children, vertex)) {
+				Integer childLayer = layerIndices.get(child);
+				layerIndices.put(child, (childLayer == null) ? layer + 1 : Math.max(childLayer, layer + 1));
+				int inDegree = inDegrees.get(child) - 1;
+				inDegrees.put(child, inDegree);
+				if (inDegree == 0) {
+					queue.add(child);
+				}
+			}
+		}
+
+		List<List<V>> layers = Lists.newArrayList();
+		for (int i = 0; i < numberOfLayers; i++) {
+			layers.add(Lists.<V> newArrayList());
+		}
+		for (V vertex : vertices) {
+			Integer layer = layerIndices.get(vertex);
+			// vertices on a cycle are never released by the topological sort, so they are put on the first layer
+			layers.get((layer == null) ? 0 : layer).add(vertex);
+		}
+		return layers;
+	}
+
+	private void reduceCrossings(List<List<V>> layers, Map<V, List<V>> children, Map<V, List<V>> parents) {
+		final Map<V, Integer> positions = Maps.newHashMap();
+		for (List<V> layer : layers) {
+			updatePositions(layer, positions);
+		}
+		for (int sweep = 0; sweep < CROSSING_REDUCTION_SWEEPS; sweep++) {
+			for (int i = 1; i < layers.size(); i++) {
+				orderByBarycenter(layers.get(i), parents, positions);
+			}
+			for (int i = layers.size() - 2; i >= 0; i--) {
+				orderByBarycenter(layers.get(i), children, positions);
+			}
+		}
+	}
+
+	private void orderByBarycenter(List<V> layer, Map<V, List<V>> neighbours, Map<V, Integer> positions) {
+		final Map<V, Double> barycenters = Maps.newHashMap();
+		for (V vertex : layer) {
+			List<V> vertexNeighbours = getNeighbours(neighbours, vertex);
+			if (vertexNeighbours.isEmpty()) {
+				barycenters.put(vertex, positions.get(vertex).doubleValue());
+			} else {
+				double sum = 0;
+				for (V neighbour : vertexNeighbours) {
+					sum += positions.get(neighbour);
+				}
+				barycenters.put(vertex, sum / vertexNeighbours.size());
+			}
+		}
+		Collections.sort(layer, new Comparator<V>() {
+			@Override
+			public int compare(V v1, V v2) {
+				return Double.compare(barycenters.get(v1), barycenters.get(v2));
+			}
+		});
+		updatePositions(layer, positions);
+	}
+
+	private Map<V, Point> placeLayers(List<List<V>> layers, Map<V, Dimension> sizes) {
+		int maximumLayerWidth = 0;
+		for (List<V> layer : layers) {
+			maximumLayerWidth = Math.max(maximumLayerWidth, getLayerWidth(layer, sizes));
+		}
+
+		Map<V, Point> positions = Maps.newHashMap();
+		int y = MARGIN;
+		for (List<V> layer : layers) {
+			int x = MARGIN + (maximumLayerWidth - getLayerWidth(layer, sizes)) / 2;
+			int layerHeight = 0;
+			for (V vertex : layer) {
+				Dimension size = sizes.get(vertex);
+				positions.put(vertex, new Point(x, y));
+				x += size.width + HORIZONTAL_SPACING;
+				layerHeight = Math.max(layerHeight, size.height);
+			}
+			y += layerHeight + VERTICAL_SPACING;
+		}
+		return positions;
+	}
+
+	private Map<V, Point> placeGrid(List<List<V>> layers, Map<V, Dimension> sizes) {
+		int cellWidth = 0;
+		int cellHeight = 0;
+		int numberOfVertices = 0;
+		for (List<V> layer : layers) {
+			for (V vertex : layer) {
+				cellWidth = Math.max(cellWidth, sizes.get(vertex).width);
+				cellHeight = Math.max(cellHeight, sizes.get(vertex).height);
+				numberOfVertices++;
+			}
+		}
+		int columns = Math.max(1, (int) Math.ceil(Math.sqrt(numberOfVertices)));
+
+		Map<V, Point> positions = Maps.newHashMap();
+		int y = MARGIN;
+		for (List<V> layer : layers) {
+			int column = 0;
+			for (V vertex : layer) {
+				if (column == columns) {
+					column = 0;
+					y += cellHeight + HORIZONTAL_SPACING / 2;
+				}
+				positions.put(vertex, new Point(MARGIN + column * (cellWidth + HORIZONTAL_SPACING / 2), y));
+				column++;
+			}
+			if (!layer.isEmpty()) {
+				y += cellHeight + VERTICAL_SPACING;
+			}
+		}
+		return positions;
+	}
+
+	private int getLayerWidth(List<V> layer, Map<V, Dimension> sizes) {
+		int width = 0;
+		for (V vertex : layer) {
+			width += sizes.get(vertex).width;
+		}
+		return width + Math.max(0, layer.size() - 1) * HORIZONTAL_SPACING;
+	}
+
+	private static <V> void updatePositions(List<V> layer, Map<V, Integer> positions) {
+		int position = 0;
+		for (V vertex : layer) {
+			positions.put(vertex, position++);
+		}
+	}
+
+	private static <V> Map<V, List<V>> invert(List<V> vertices, Map<V, List<V>> children) {
+		Map<V, List<V>> parents = Maps.newHashMap();
+		for (V vertex : vertices) {
+			for (V child : getNeighbours(children, vertex)) {
+				List<V> childParents = parents.get(child);
+				if (childParents == null) {
+					childParents = Lists.newArrayList();
+					parents.put(child, childParents);
+				}
+				childParents.add(vertex);
+			}
+		}
+		return parents;
+	}
+
+	private static <V> List<V> getNeighbours(Map<V, List<V>> neighbours, V vertex) {
+		List<V> vertexNeighbours = neighbours.get(vertex);
+		return (vertexNeighbours == null) ? Collections.<V> emptyList() : vertexNeighbours;
+	}
+
+}
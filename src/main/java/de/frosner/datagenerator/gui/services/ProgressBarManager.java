@@ -66,6 +66,23 @@ public final class ProgressBarManager {
 		}
 	}
 
+	/**
+	 * Set the value of the progress bar.
+	 * 
+	 * @param value
+	 *            of progress bar
+	 */
+	public static void setProgress(final int value) {
+		if (_progressBar != null) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					_progressBar.setValue(Math.min(value, _progressBar.getMaximum()));
+				}
+			});
+		}
+	}
+
 	/**
 	 * Reset progress of the progress bar.
 	 */
@@ -0,0 +1,191 @@
+package de.frosner.datagenerator.gui.services;
+
+import java.io.File;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.gui.main.FeatureDefinitionEntry;
+import de.frosner.datagenerator.importer.BayesianNetworkImporter;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Applies edits of the feature definitions made in the UI to the {@linkplain DataGeneratorService} in a single
+ * background thread. Edits are applied in the order they were submitted and never block the event dispatch thread.
+ * <p>
+ * Edits submitted within a short time of each other are applied as one batch of the service, so the preview is
+ * regenerated and the graph is laid out once per burst of edits instead of once per edit.
+ */
+public final class SchemaEditExecutor {
+
+	@VisibleForTesting
+	static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+	@VisibleForTesting
+	static final long MAX_BATCH_MILLIS = 1000;
+
+	private static final long MAX_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(MAX_BATCH_MILLIS);
+
+	/**
+	 * Marks the end of the submitted edits, see {@linkplain #shutdown()}.
+	 */
+	private static final Runnable SHUTDOWN = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	public static final SchemaEditExecutor INSTANCE = new SchemaEditExecutor(DataGeneratorService.INSTANCE,
+			DEFAULT_DEBOUNCE_MILLIS);
+
+	private final DataGeneratorService _service;
+	private final long _debounceNanos;
+	private final BlockingQueue<Runnable> _edits = new LinkedBlockingQueue<Runnable>();
+	private final Thread _thread;
+	private volatile boolean _shutdown = false;
+
+	@VisibleForTesting
+	SchemaEditExecutor(@Nonnull DataGeneratorService service, long debounceMillis) {
+		_service = Check.notNull(service, "service");
+		_debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+		_thread = new ThreadFactoryBuilder().setNameFormat("schema-edit-%d").setDaemon(true).build()
+				.newThread(new Runnable() {
+					@Override
+					public void run() {
+						applyEdits();
+					}
+				});
+		_thread.start();
+	}
+
+	/**
+	 * Submits {@linkplain DataGeneratorService#addFeatureDefinition(FeatureDefinitionEntry)}.
+	 */
+	public void addFeatureDefinition(@Nonnull final FeatureDefinitionEntry featureDefinitionEntry) {
+		Check.notNull(featureDefinitionEntry, "featureDefinitionEntry");
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				_service.addFeatureDefinition(featureDefinitionEntry);
+			}
+		});
+	}
+
+	/**
+	 * Submits {@linkplain DataGeneratorService#replaceFeatureDefinition(FeatureDefinitionEntry, FeatureDefinitionEntry)}.
+	 */
+	public void replaceFeatureDefinition(@Nonnull final FeatureDefinitionEntry toReplace,
+			@Nonnull final FeatureDefinitionEntry newEntry) {
+		Check.notNull(toReplace, "toReplace");
+		Check.notNull(newEntry, "newEntry");
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				_service.replaceFeatureDefinition(toReplace, newEntry);
+			}
+		});
+	}
+
+	/**
+	 * Submits {@linkplain DataGeneratorService#removeFeatureDefinition(FeatureDefinitionEntry)}.
+	 */
+	public void removeFeatureDefinition(@Nonnull final FeatureDefinitionEntry featureDefinitionEntry) {
+		Check.notNull(featureDefinitionEntry, "featureDefinitionEntry");
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				_service.removeFeatureDefinition(featureDefinitionEntry);
+			}
+		});
+	}
+
+	/**
+	 * Submits importing a Bayesian network by {@linkplain BayesianNetworkImporter#importFile(File)} and adding its
+	 * features by {@linkplain DataGeneratorService#importFeatureDefinitions(FeatureDefinitionGraph)}.
+	 */
+	public void importNetwork(@Nonnull final File file) {
+		Check.notNull(file, "file");
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				_service.importFeatureDefinitions(BayesianNetworkImporter.importFile(file));
+			}
+		});
+	}
+
+	/**
+	 * Applies all edits submitted so far, ends their batch and stops the background thread. Blocks until the thread has
+	 * stopped. No more edits can be submitted afterwards. Calling this method again only waits for the thread.
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the edits to be applied
+	 */
+	public void shutdown() throws InterruptedException {
+		if (!_shutdown) {
+			_shutdown = true;
+			_edits.add(SHUTDOWN);
+		}
+		_thread.join();
+	}
+
+	@VisibleForTesting
+	boolean isTerminated() {
+		return !_thread.isAlive();
+	}
+
+	@VisibleForTesting
+	void submit(Runnable edit) {
+		Check.stateIsTrue(!_shutdown, "Schema edit executor has been shut down.");
+		_edits.add(edit);
+	}
+
+	/**
+	 * Waits for the first edit of a burst and applies it together with all edits following within the debounce time
+	 * of their predecessor. A burst is cut after {@value #MAX_BATCH_MILLIS} ms, so the preview is not held back
+	 * forever by a steady stream of edits. Stops after the burst containing {@linkplain #SHUTDOWN}.
+	 */
+	private void applyEdits() {
+		try {
+			Runnable edit = _edits.take();
+			while (edit != SHUTDOWN) {
+				long batchDeadline = System.nanoTime() + MAX_BATCH_NANOS;
+				_service.beginBatchUpdate();
+				try {
+					while (edit != null && edit != SHUTDOWN) {
+						apply(edit);
+						long remainingNanos = batchDeadline - System.nanoTime();
+						edit = (remainingNanos > 0) ? _edits.poll(Math.min(_debounceNanos, remainingNanos),
+								TimeUnit.NANOSECONDS) : null;
+					}
+				} finally {
+					apply(new Runnable() {
+						@Override
+						public void run() {
+							_service.endBatchUpdate();
+						}
+					});
+				}
+				if (edit != SHUTDOWN) {
+					edit = _edits.take();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void apply(Runnable edit) {
+		try {
+			edit.run();
+		} catch (RuntimeException e) {
+			TextAreaLogManager.error("Editing features failed: " + e.getMessage());
+		}
+	}
+
+}
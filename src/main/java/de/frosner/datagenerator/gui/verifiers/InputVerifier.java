@@ -91,6 +91,20 @@ public abstract class InputVerifier {
 		}
 	}
 
+	/**
+	 * Verifies whether the specified input text can be parsed to a {@linkplain Long}.
+	 * 
+	 * @param input
+	 *            to verify
+	 */
+	public static LongVerifier isLong(String input) {
+		try {
+			return new LongVerifier(Long.parseLong(input));
+		} catch (NumberFormatException e) {
+			return LongVerifier.NO_LONG;
+		}
+	}
+
 	/**
 	 * Verifies whether the specified input text can be parsed to a {@linkplain Double} that is not infinite or NaN.
 	 * 
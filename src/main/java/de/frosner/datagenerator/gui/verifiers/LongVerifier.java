@@ -0,0 +1,25 @@
+package de.frosner.datagenerator.gui.verifiers;
+
+public final class LongVerifier extends InputVerifier {
+
+	private long _long;
+
+	public final static LongVerifier NO_LONG = new LongVerifier(false);
+
+	private LongVerifier(boolean isVerified) {
+		super(isVerified);
+	}
+
+	public LongVerifier(long l) {
+		super(true);
+		_long = l;
+	}
+
+	public LongVerifier isPositive() {
+		if (_verified) {
+			_verified = _long > 0;
+		}
+		return this;
+	}
+
+}
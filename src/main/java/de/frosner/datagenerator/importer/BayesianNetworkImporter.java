@@ -0,0 +1,114 @@
+package de.frosner.datagenerator.importer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.exceptions.IllegalNetworkFormatException;
+import de.frosner.datagenerator.exceptions.UncheckedFileNotFoundException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+
+/**
+ * Imports discrete Bayesian networks from the interchange formats BIF 0.15 and XMLBIF 0.3 into a
+ * {@linkplain FeatureDefinitionGraph}. Every variable becomes a feature with a {@linkplain CategorialDistribution},
+ * whose values are the indices of the states in the order they are declared. Variables with parents get a
+ * {@linkplain ConditionalTableParameter} holding their conditional probability table.
+ * <p>
+ * Rows of the tables are normalized to sum up to 1 and turned into alias tables once, so sampling a variable takes
+ * constant time regardless of the number of its states and parent configurations.
+ */
+public final class BayesianNetworkImporter {
+
+	private BayesianNetworkImporter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Imports a network in BIF format.
+	 *
+	 * @param reader
+	 *            to read the network from
+	 * @return graph of the network
+	 * @throws IllegalNetworkFormatException
+	 *             if the network cannot be parsed or is inconsistent
+	 * @throws UncheckedIOException
+	 *             if reading fails
+	 */
+	public static FeatureDefinitionGraph importBif(@Nonnull Reader reader) {
+		Check.notNull(reader, "reader");
+		try {
+			return BifParser.parse(reader).toGraph();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Imports a network in XMLBIF format.
+	 *
+	 * @param input
+	 *            to read the network from
+	 * @return graph of the network
+	 * @throws IllegalNetworkFormatException
+	 *             if the network cannot be parsed or is inconsistent
+	 */
+	public static FeatureDefinitionGraph importXmlBif(@Nonnull InputStream input) {
+		Check.notNull(input, "input");
+		try {
+			return XmlBifParser.parse(input).toGraph();
+		} catch (XMLStreamException e) {
+			throw new IllegalNetworkFormatException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Imports a network from a file. Files ending with <code>.xml</code> or <code>.xmlbif</code> are read as XMLBIF,
+	 * all others as BIF.
+	 *
+	 * @param file
+	 *            to import
+	 * @return graph of the network
+	 * @throws IllegalNetworkFormatException
+	 *             if the network cannot be parsed or is inconsistent
+	 * @throws UncheckedFileNotFoundException
+	 *             if the file does not exist
+	 * @throws UncheckedIOException
+	 *             if reading fails
+	 */
+	public static FeatureDefinitionGraph importFile(@Nonnull File file) {
+		Check.notNull(file, "file");
+		InputStream input;
+		try {
+			input = new BufferedInputStream(new FileInputStream(file));
+		} catch (FileNotFoundException e) {
+			throw new UncheckedFileNotFoundException(e);
+		}
+		try {
+			String name = file.getName().toLowerCase();
+			if (name.endsWith(".xml") || name.endsWith(".xmlbif")) {
+				return importXmlBif(input);
+			} else {
+				return importBif(new InputStreamReader(input, Charsets.UTF_8));
+			}
+		} finally {
+			Closeables.closeQuietly(input);
+		}
+	}
+
+}
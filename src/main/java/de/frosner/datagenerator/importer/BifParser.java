@@ -0,0 +1,322 @@
+package de.frosner.datagenerator.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Doubles;
+
+import de.frosner.datagenerator.exceptions.IllegalNetworkFormatException;
+
+/**
+ * Parser of the Bayesian network interchange format BIF 0.15. Only discrete variables are supported. Probabilities are
+ * given either as rows for single parent configurations, as <code>default</code> row or as complete
+ * <code>table</code>, in which the variable itself varies slowest and its last parent fastest.
+ */
+final class BifParser {
+
+	private static final String SEPARATORS = "{}()[];,|";
+
+	private final char[] _input;
+	private int _position = 0;
+	private int _line = 1;
+	private String _token;
+
+	private BifParser(char[] input) {
+		_input = input;
+	}
+
+	static NetworkDefinition parse(Reader reader) throws IOException {
+		StringBuilder input = new StringBuilder();
+		char[] buffer = new char[1 << 16];
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			input.append(buffer, 0, read);
+		}
+		char[] chars = new char[input.length()];
+		input.getChars(0, chars.length, chars, 0);
+		return new BifParser(chars).parseNetwork();
+	}
+
+	private NetworkDefinition parseNetwork() {
+		NetworkDefinition network = new NetworkDefinition();
+		next();
+		while (_token != null) {
+			if (_token.equals("network")) {
+				next();
+				while (!isToken("{")) {
+					next();
+				}
+				skipBlock();
+			} else if (_token.equals("variable")) {
+				parseVariable(network);
+			} else if (_token.equals("probability")) {
+				parseProbability(network);
+			} else {
+				throw error("Unexpected '" + _token + "'");
+			}
+		}
+		return network;
+	}
+
+	private void parseVariable(NetworkDefinition network) {
+		String name = nextWord();
+		expect("{");
+		List<String> states = null;
+		next();
+		while (!isToken("}")) {
+			if (isToken("type")) {
+				if (!nextWord().equals("discrete")) {
+					throw error("Variable '" + name + "' is not discrete");
+				}
+				expect("[");
+				int numberOfStates = parseInt(nextWord());
+				expect("]");
+				expect("{");
+				states = Lists.newArrayListWithCapacity(numberOfStates);
+				next();
+				while (!isToken("}")) {
+					if (!isToken(",")) {
+						states.add(word());
+					}
+					next();
+				}
+				if (states.size() != numberOfStates) {
+					throw error("Variable '" + name + "' declares " + numberOfStates + " states but lists "
+							+ states.size());
+				}
+				expect(";");
+				next();
+			} else {
+				skipStatement();
+			}
+		}
+		if (states == null) {
+			throw error("Variable '" + name + "' has no type");
+		}
+		network.addVariable(name, states);
+		next();
+	}
+
+	private void parseProbability(NetworkDefinition network) {
+		expect("(");
+		String variable = nextWord();
+		List<String> parents = Lists.newArrayList();
+		next();
+		while (!isToken(")")) {
+			if (!isToken("|") && !isToken(",")) {
+				parents.add(word());
+			}
+			next();
+		}
+		expect("{");
+
+		int numberOfStates = network.getNumberOfStates(variable);
+		int[] cardinalities = new int[parents.size()];
+		int numberOfRows = 1;
+		for (int i = 0; i < cardinalities.length; i++) {
+			cardinalities[i] = network.getNumberOfStates(parents.get(i));
+			numberOfRows *= cardinalities[i];
+		}
+		double[] table = new double[numberOfRows * numberOfStates];
+		boolean[] isRowSet = new boolean[numberOfRows];
+		double[] defaultRow = null;
+
+		next();
+		while (!isToken("}")) {
+			if (isToken("table")) {
+				double[] values = parseNumbers(table.length);
+				// the variable itself varies slowest in BIF tables but fastest in the canonical order
+				for (int state = 0; state < numberOfStates; state++) {
+					for (int row = 0; row < numberOfRows; row++) {
+						table[row * numberOfStates + state] = values[state * numberOfRows + row];
+					}
+				}
+				Arrays.fill(isRowSet, true);
+			} else if (isToken("default")) {
+				defaultRow = parseNumbers(numberOfStates);
+			} else if (isToken("(")) {
+				int row = 0;
+				for (int i = 0; i < cardinalities.length; i++) {
+					next();
+					if (isToken(",")) {
+						next();
+					}
+					row = row * cardinalities[i] + network.getStateIndex(parents.get(i), word());
+				}
+				expect(")");
+				System.arraycopy(parseNumbers(numberOfStates), 0, table, row * numberOfStates, numberOfStates);
+				isRowSet[row] = true;
+			} else {
+				skipStatement();
+				continue;
+			}
+			next();
+		}
+		for (int row = 0; row < numberOfRows; row++) {
+			if (!isRowSet[row]) {
+				if (defaultRow == null) {
+					throw error("Probabilities of '" + variable + "' are incomplete");
+				}
+				System.arraycopy(defaultRow, 0, table, row * numberOfStates, numberOfStates);
+			}
+		}
+		network.setTable(variable, parents, table);
+		next();
+	}
+
+	/**
+	 * Parses the specified number of comma or whitespace separated numbers up to the terminating semicolon.
+	 */
+	private double[] parseNumbers(int count) {
+		List<Double> values = Lists.newArrayListWithCapacity(count);
+		next();
+		while (!isToken(";")) {
+			if (!isToken(",")) {
+				values.add(parseDouble(word()));
+			}
+			next();
+		}
+		if (values.size() != count) {
+			throw error("Expected " + count + " probabilities but got " + values.size());
+		}
+		return Doubles.toArray(values);
+	}
+
+	private void skipStatement() {
+		while (!isToken(";")) {
+			if (isToken("{")) {
+				skipBlock();
+				return;
+			}
+			next();
+		}
+		next();
+	}
+
+	/**
+	 * Skips a block starting at the current opening brace, leaving the token after the closing brace.
+	 */
+	private void skipBlock() {
+		int depth = 0;
+		do {
+			if (isToken("{")) {
+				depth++;
+			} else if (isToken("}")) {
+				depth--;
+			}
+			next();
+		} while (depth > 0);
+	}
+
+	private boolean isToken(String token) {
+		if (_token == null) {
+			throw error("Unexpected end of input");
+		}
+		return _token.equals(token);
+	}
+
+	private void expect(String token) {
+		next();
+		if (!isToken(token)) {
+			throw error("Expected '" + token + "' but got '" + _token + "'");
+		}
+	}
+
+	private String nextWord() {
+		next();
+		return word();
+	}
+
+	private String word() {
+		if (_token == null || (_token.length() == 1 && SEPARATORS.indexOf(_token.charAt(0)) >= 0)) {
+			throw error("Expected a name but got '" + _token + "'");
+		}
+		return _token;
+	}
+
+	private int parseInt(String token) {
+		try {
+			return Integer.parseInt(token);
+		} catch (NumberFormatException e) {
+			throw error("Expected an integer but got '" + token + "'");
+		}
+	}
+
+	private double parseDouble(String token) {
+		try {
+			return Double.parseDouble(token);
+		} catch (NumberFormatException e) {
+			throw error("Expected a number but got '" + token + "'");
+		}
+	}
+
+	private IllegalNetworkFormatException error(String message) {
+		return new IllegalNetworkFormatException(message + " in line " + _line + ".");
+	}
+
+	/**
+	 * Reads the next token, which is a separator, a quoted string or a word. Comments are skipped. At the end of the
+	 * input the token is <code>null</code>.
+	 */
+	private void next() {
+		skipWhitespaceAndComments();
+		if (_position >= _input.length) {
+			_token = null;
+			return;
+		}
+		char c = _input[_position];
+		if (SEPARATORS.indexOf(c) >= 0) {
+			_position++;
+			_token = String.valueOf(c);
+		} else if (c == '"') {
+			int start = ++_position;
+			while (_position < _input.length && _input[_position] != '"') {
+				if (_input[_position] == '\n') {
+					_line++;
+				}
+				_position++;
+			}
+			_token = new String(_input, start, _position - start);
+			_position++;
+		} else {
+			int start = _position;
+			while (_position < _input.length && !Character.isWhitespace(_input[_position])
+					&& SEPARATORS.indexOf(_input[_position]) < 0 && _input[_position] != '"') {
+				_position++;
+			}
+			_token = new String(_input, start, _position - start);
+		}
+	}
+
+	private void skipWhitespaceAndComments() {
+		while (_position < _input.length) {
+			char c = _input[_position];
+			if (c == '\n') {
+				_line++;
+				_position++;
+			} else if (Character.isWhitespace(c)) {
+				_position++;
+			} else if (c == '/' && _position + 1 < _input.length && _input[_position + 1] == '/') {
+				while (_position < _input.length && _input[_position] != '\n') {
+					_position++;
+				}
+			} else if (c == '/' && _position + 1 < _input.length && _input[_position + 1] == '*') {
+				_position += 2;
+				while (_position < _input.length
+						&& !(_input[_position] == '*' && _position + 1 < _input.length && _input[_position + 1] == '/')) {
+					if (_input[_position] == '\n') {
+						_line++;
+					}
+					_position++;
+				}
+				_position += 2;
+			} else {
+				return;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,186 @@
+package de.frosner.datagenerator.importer;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.statistics.Moments;
+
+/**
+ * Statistics of the values of one CSV column, accumulated in a single pass to infer the type of the column and to
+ * estimate the parameters of its distribution. Every parsing thread accumulates its own statistics, which are merged
+ * afterwards.
+ * <p>
+ * Empty fields are counted as missing values. Distinct values are only counted up to {@value #MAX_CATEGORIES}, more are
+ * not considered categorial.
+ */
+final class ColumnStatistics {
+
+	static final int MAX_CATEGORIES = 32;
+
+	enum Type {
+		BERNOULLI, CATEGORIAL, GAUSSIAN, UNSUPPORTED
+	}
+
+	private static final int MAX_INTEGER_DIGITS = 9;
+
+	private final Moments _moments = new Moments();
+	private long _numberOfValues = 0;
+	private long _numberOfMissingValues = 0;
+	private boolean _isNumeric = true;
+	private boolean _isInteger = true;
+	private Map<String, long[]> _categoryCounts = Maps.newHashMap();
+
+	void add(String value) {
+		if (value.isEmpty()) {
+			_numberOfMissingValues++;
+			return;
+		}
+		_numberOfValues++;
+		if (_isNumeric) {
+			addNumber(value);
+		}
+		if (_categoryCounts != null) {
+			long[] count = _categoryCounts.get(value);
+			if (count == null) {
+				if (_categoryCounts.size() == MAX_CATEGORIES) {
+					_categoryCounts = null;
+					return;
+				}
+				count = new long[1];
+				_categoryCounts.put(value, count);
+			}
+			count[0]++;
+		}
+	}
+
+	private void addNumber(String value) {
+		if (_isInteger && isInteger(value)) {
+			_moments.add(Integer.parseInt(value));
+			return;
+		}
+		_isInteger = false;
+		try {
+			double number = Double.parseDouble(value);
+			if (Double.isNaN(number) || Double.isInfinite(number)) {
+				_isNumeric = false;
+			} else {
+				_moments.add(number);
+			}
+		} catch (NumberFormatException e) {
+			_isNumeric = false;
+		}
+	}
+
+	/**
+	 * Adds the values accumulated by the specified statistics to these ones.
+	 *
+	 * @param other
+	 *            to merge into these statistics
+	 */
+	void merge(ColumnStatistics other) {
+		_moments.merge(other._moments);
+		_numberOfValues += other._numberOfValues;
+		_numberOfMissingValues += other._numberOfMissingValues;
+		_isNumeric &= other._isNumeric;
+		_isInteger &= other._isInteger;
+		if (_categoryCounts == null || other._categoryCounts == null) {
+			_categoryCounts = null;
+			return;
+		}
+		for (Map.Entry<String, long[]> entry : other._categoryCounts.entrySet()) {
+			long[] count = _categoryCounts.get(entry.getKey());
+			if (count == null) {
+				_categoryCounts.put(entry.getKey(), entry.getValue().clone());
+			} else {
+				count[0] += entry.getValue()[0];
+			}
+		}
+		if (_categoryCounts.size() > MAX_CATEGORIES) {
+			_categoryCounts = null;
+		}
+	}
+
+	/**
+	 * Infers the type of the column. Columns of the integers 0 and 1 are Bernoulli distributed. Columns of few distinct
+	 * integers or of few distinct texts are categorial. All other numeric columns are Gaussian distributed. Columns of
+	 * many distinct texts or without any value are not supported.
+	 *
+	 * @return inferred type
+	 */
+	Type getType() {
+		if (getNumberOfValues() == 0) {
+			return Type.UNSUPPORTED;
+		} else if (_isInteger && _categoryCounts != null) {
+			for (String label : _categoryCounts.keySet()) {
+				if (!label.equals("0") && !label.equals("1")) {
+					return Type.CATEGORIAL;
+				}
+			}
+			return Type.BERNOULLI;
+		} else if (_isNumeric) {
+			return Type.GAUSSIAN;
+		}
+		return (_categoryCounts != null) ? Type.CATEGORIAL : Type.UNSUPPORTED;
+	}
+
+	long getNumberOfValues() {
+		return _numberOfValues;
+	}
+
+	long getNumberOfMissingValues() {
+		return _numberOfMissingValues;
+	}
+
+	Moments getMoments() {
+		return _moments;
+	}
+
+	/**
+	 * Returns the distinct values of a categorial column, in numeric order if all of them are integers and in
+	 * lexicographic order otherwise. Categorial features take the indices of the values in this list.
+	 *
+	 * @return sorted distinct values
+	 */
+	List<String> getCategories() {
+		List<String> categories = Lists.newArrayList(_categoryCounts.keySet());
+		if (_isInteger) {
+			Collections.sort(categories, new Comparator<String>() {
+				@Override
+				public int compare(String category1, String category2) {
+					return Integer.valueOf(category1).compareTo(Integer.valueOf(category2));
+				}
+			});
+		} else {
+			Collections.sort(categories);
+		}
+		return categories;
+	}
+
+	long getCount(String category) {
+		long[] count = _categoryCounts.get(category);
+		return (count == null) ? 0 : count[0];
+	}
+
+	/**
+	 * Tells whether the value is a decimal integer small enough to be parsed as int without overflow.
+	 */
+	private static boolean isInteger(String value) {
+		int start = (value.charAt(0) == '-') ? 1 : 0;
+		int numberOfDigits = value.length() - start;
+		if (numberOfDigits == 0 || numberOfDigits > MAX_INTEGER_DIGITS) {
+			return false;
+		}
+		for (int i = start; i < value.length(); i++) {
+			if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
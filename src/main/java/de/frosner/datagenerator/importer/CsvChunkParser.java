@@ -0,0 +1,154 @@
+package de.frosner.datagenerator.importer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalCsvFormatException;
+
+/**
+ * Parser of the lines of a chunk of a UTF-8 encoded CSV file, which is usually memory-mapped. Fields are separated by
+ * commas and may be enclosed in double quotes, a double quote inside a quoted field being escaped by another one. Lines
+ * end with a line feed, optionally preceded by a carriage return. Fields must not contain line breaks, so a file can be
+ * split into chunks at any line feed.
+ */
+final class CsvChunkParser {
+
+	private static final byte QUOTE = '"';
+	private static final byte SEPARATOR = ',';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	/**
+	 * Receives the fields of every line of a chunk.
+	 */
+	interface LineHandler {
+
+		void handleLine(List<String> fields);
+
+	}
+
+	private final ByteBuffer _buffer;
+	private final long _offset;
+	private final List<String> _fields = Lists.newArrayList();
+	private byte[] _field = new byte[64];
+	private int _fieldLength;
+
+	/**
+	 * @param buffer
+	 *            holding the chunk from its position to its limit
+	 * @param offset
+	 *            of the chunk in the file, to locate malformed lines in error messages
+	 */
+	CsvChunkParser(ByteBuffer buffer, long offset) {
+		_buffer = buffer;
+		_offset = offset;
+	}
+
+	/**
+	 * Parses all lines of the chunk, skipping empty ones.
+	 *
+	 * @param numberOfFields
+	 *            every line must have
+	 * @param handler
+	 *            receiving the fields of every line
+	 * @throws IllegalCsvFormatException
+	 *             if a line is malformed or has another number of fields
+	 */
+	void parse(int numberOfFields, LineHandler handler) {
+		while (_buffer.hasRemaining()) {
+			long lineOffset = _offset + _buffer.position();
+			if (parseLine() && !isEmptyLine()) {
+				if (_fields.size() != numberOfFields) {
+					throw new IllegalCsvFormatException("Line at byte " + lineOffset + " has " + _fields.size()
+							+ " fields instead of " + numberOfFields + ".");
+				}
+				handler.handleLine(_fields);
+			}
+		}
+	}
+
+	/**
+	 * Parses the next line.
+	 *
+	 * @return fields of the line or {@code null} if the chunk has no more lines
+	 * @throws IllegalCsvFormatException
+	 *             if the line is malformed
+	 */
+	List<String> parseNextLine() {
+		return parseLine() ? _fields : null;
+	}
+
+	private boolean isEmptyLine() {
+		return _fields.size() == 1 && _fields.get(0).isEmpty();
+	}
+
+	private boolean parseLine() {
+		if (!_buffer.hasRemaining()) {
+			return false;
+		}
+		_fields.clear();
+		boolean endOfLine = false;
+		while (!endOfLine) {
+			_fieldLength = 0;
+			if (_buffer.hasRemaining() && _buffer.get(_buffer.position()) == QUOTE) {
+				_buffer.get();
+				parseQuoted();
+			}
+			endOfLine = parseUnquoted();
+			_fields.add(new String(_field, 0, _fieldLength, Charsets.UTF_8));
+		}
+		return true;
+	}
+
+	private void parseQuoted() {
+		long start = _offset + _buffer.position() - 1;
+		while (_buffer.hasRemaining()) {
+			byte b = _buffer.get();
+			if (b == QUOTE) {
+				if (!_buffer.hasRemaining() || _buffer.get(_buffer.position()) != QUOTE) {
+					return;
+				}
+				_buffer.get();
+			} else if (b == LINE_FEED) {
+				break;
+			}
+			append(b);
+		}
+		throw new IllegalCsvFormatException("Quoted field at byte " + start + " is not terminated in its line.");
+	}
+
+	/**
+	 * Parses the rest of the current field.
+	 *
+	 * @return true if the field is the last one of its line
+	 */
+	private boolean parseUnquoted() {
+		while (_buffer.hasRemaining()) {
+			byte b = _buffer.get();
+			if (b == SEPARATOR) {
+				return false;
+			} else if (b == LINE_FEED) {
+				return true;
+			} else if (b != CARRIAGE_RETURN || !isEndOfLine()) {
+				append(b);
+			}
+		}
+		return true;
+	}
+
+	private boolean isEndOfLine() {
+		return !_buffer.hasRemaining() || _buffer.get(_buffer.position()) == LINE_FEED;
+	}
+
+	private void append(byte b) {
+		if (_fieldLength == _field.length) {
+			_field = Arrays.copyOf(_field, _field.length * 2);
+		}
+		_field[_fieldLength++] = b;
+	}
+
+}
@@ -0,0 +1,569 @@
+package de.frosner.datagenerator.importer;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.Distribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.Parameter;
+import de.frosner.datagenerator.exceptions.IllegalCsvFormatException;
+import de.frosner.datagenerator.exceptions.IllegalNonPositiveNumberArgumentException;
+import de.frosner.datagenerator.exceptions.UncheckedFileNotFoundException;
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.importer.ColumnStatistics.Type;
+import de.frosner.datagenerator.statistics.Moments;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Fits a {@linkplain FeatureDefinitionGraph} to a CSV file, so the generated data mimics the data of the file. The
+ * first line of the file holds the names of the columns, which become the names of the features. The format of the
+ * lines is described by the {@linkplain CsvChunkParser}.
+ * <p>
+ * The file is memory-mapped and split into chunks at line feeds, which are parsed by several threads in parallel. Every
+ * thread accumulates statistics of its chunks, which are merged afterwards, so files much larger than the heap can be
+ * imported. The type of every column is inferred from its values: columns of 0 and 1 get a
+ * {@linkplain BernoulliDistribution}, columns of at most {@value ColumnStatistics#MAX_CATEGORIES} distinct integers or
+ * texts a {@linkplain CategorialDistribution} over the indices of their sorted values, and all other numeric columns a
+ * {@linkplain GaussianDistribution}. Columns of many distinct texts are skipped. Empty fields are ignored.
+ * <p>
+ * Optionally, dependencies between the columns are learned in a second pass. The discrete columns are connected by the
+ * tree maximizing the mutual information of connected columns (Chow-Liu tree), leaving out weak dependencies, and every
+ * continuous column is conditioned on the discrete column explaining most of its variance.
+ */
+public final class CsvImporter {
+
+	static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+
+	private static final double MIN_MUTUAL_INFORMATION = 0.01;
+	private static final double MIN_CORRELATION_RATIO = 0.01;
+	private static final int LINE_FEED_SEARCH_BUFFER_SIZE = 8 * 1024;
+	private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+	private CsvImporter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Imported column with its statistics.
+	 */
+	private static final class Column {
+
+		private final String _name;
+		private final int _field;
+		private final ColumnStatistics _statistics;
+		private final Type _type;
+		private final Map<String, Integer> _valueIndices = Maps.newHashMap();
+		private Column _parent;
+		private FeatureDefinition _featureDefinition;
+
+		private Column(String name, int field, ColumnStatistics statistics) {
+			_name = name;
+			_field = field;
+			_statistics = statistics;
+			_type = statistics.getType();
+			if (_type == Type.BERNOULLI) {
+				_valueIndices.put("0", 0);
+				_valueIndices.put("1", 1);
+			} else if (_type == Type.CATEGORIAL) {
+				for (String category : statistics.getCategories()) {
+					_valueIndices.put(category, _valueIndices.size());
+				}
+			}
+		}
+
+		private boolean isDiscrete() {
+			return _type != Type.GAUSSIAN;
+		}
+
+		private int getCardinality() {
+			return _valueIndices.size();
+		}
+
+		/**
+		 * @return probability of every value index
+		 */
+		private List<Double> getProbabilities() {
+			List<Double> probabilities = Lists.newArrayListWithCapacity(getCardinality());
+			for (int i = 0; i < getCardinality(); i++) {
+				probabilities.add(0.0);
+			}
+			for (Map.Entry<String, Integer> entry : _valueIndices.entrySet()) {
+				probabilities.set(entry.getValue(), (double) _statistics.getCount(entry.getKey())
+						/ _statistics.getNumberOfValues());
+			}
+			return probabilities;
+		}
+
+	}
+
+	/**
+	 * Statistics of the lines of one or more chunks.
+	 */
+	private abstract static class LineAccumulator implements CsvChunkParser.LineHandler {
+
+		abstract LineAccumulator createEmpty();
+
+		abstract void merge(LineAccumulator other);
+
+	}
+
+	private static final class ColumnAccumulator extends LineAccumulator {
+
+		private final ColumnStatistics[] _statistics;
+
+		private ColumnAccumulator(int numberOfFields) {
+			_statistics = new ColumnStatistics[numberOfFields];
+			for (int i = 0; i < numberOfFields; i++) {
+				_statistics[i] = new ColumnStatistics();
+			}
+		}
+
+		@Override
+		public void handleLine(List<String> fields) {
+			for (int i = 0; i < _statistics.length; i++) {
+				_statistics[i].add(fields.get(i));
+			}
+		}
+
+		@Override
+		LineAccumulator createEmpty() {
+			return new ColumnAccumulator(_statistics.length);
+		}
+
+		@Override
+		void merge(LineAccumulator other) {
+			for (int i = 0; i < _statistics.length; i++) {
+				_statistics[i].merge(((ColumnAccumulator) other)._statistics[i]);
+			}
+		}
+
+	}
+
+	private static final class DependencyAccumulator extends LineAccumulator {
+
+		private final List<Column> _columns;
+		private final DependencyStatistics _statistics;
+		private final int[] _discreteValues;
+		private final double[] _continuousValues;
+
+		private DependencyAccumulator(List<Column> columns) {
+			_columns = columns;
+			int[] cardinalities = new int[columns.size()];
+			for (int i = 0; i < cardinalities.length; i++) {
+				cardinalities[i] = columns.get(i).isDiscrete() ? columns.get(i).getCardinality() : 0;
+			}
+			_statistics = new DependencyStatistics(cardinalities);
+			_discreteValues = new int[columns.size()];
+			_continuousValues = new double[columns.size()];
+		}
+
+		@Override
+		public void handleLine(List<String> fields) {
+			for (int i = 0; i < _discreteValues.length; i++) {
+				Column column = _columns.get(i);
+				String field = fields.get(column._field);
+				if (column.isDiscrete()) {
+					Integer index = column._valueIndices.get(field);
+					_discreteValues[i] = (index == null) ? -1 : index;
+				} else {
+					_continuousValues[i] = field.isEmpty() ? Double.NaN : Double.parseDouble(field);
+				}
+			}
+			_statistics.add(_discreteValues, _continuousValues);
+		}
+
+		@Override
+		LineAccumulator createEmpty() {
+			return new DependencyAccumulator(_columns);
+		}
+
+		@Override
+		void merge(LineAccumulator other) {
+			_statistics.merge(((DependencyAccumulator) other)._statistics);
+		}
+
+	}
+
+	/**
+	 * Imports a CSV file without instance IDs, using one thread per processor and not learning dependencies.
+	 *
+	 * @param file
+	 *            to import
+	 * @return graph of independent features fitted to the columns
+	 * @throws IllegalCsvFormatException
+	 *             if the file is malformed or has no column to import
+	 * @throws UncheckedFileNotFoundException
+	 *             if the file does not exist
+	 * @throws UncheckedIOException
+	 *             if reading fails
+	 */
+	public static FeatureDefinitionGraph importCsv(@Nonnull File file) {
+		return importCsv(file, ExportInstanceIds.NO, false, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Imports a CSV file.
+	 *
+	 * @param file
+	 *            to import
+	 * @param instanceIds
+	 *            whether the first column holds instance IDs, which are not imported
+	 * @param learnDependencies
+	 *            whether to condition features on each other
+	 * @param numberOfThreads
+	 *            parsing the file in parallel
+	 * @return graph of the features fitted to the columns
+	 * @throws IllegalCsvFormatException
+	 *             if the file is malformed or has no column to import
+	 * @throws UncheckedFileNotFoundException
+	 *             if the file does not exist
+	 * @throws UncheckedIOException
+	 *             if reading fails or the current thread is interrupted
+	 */
+	public static FeatureDefinitionGraph importCsv(@Nonnull File file, @Nonnull ExportInstanceIds instanceIds,
+			boolean learnDependencies, int numberOfThreads) {
+		return importCsv(file, instanceIds, learnDependencies, numberOfThreads, DEFAULT_CHUNK_SIZE);
+	}
+
+	@VisibleForTesting
+	static FeatureDefinitionGraph importCsv(File file, ExportInstanceIds instanceIds, boolean learnDependencies,
+			int numberOfThreads, long chunkSize) {
+		Check.notNull(file, "file");
+		Check.notNull(instanceIds, "instanceIds");
+		if (numberOfThreads <= 0) {
+			throw new IllegalNonPositiveNumberArgumentException(numberOfThreads);
+		}
+		RandomAccessFile randomAccessFile;
+		try {
+			randomAccessFile = new RandomAccessFile(file, "r");
+		} catch (FileNotFoundException e) {
+			throw new UncheckedFileNotFoundException(e);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactoryBuilder()
+				.setNameFormat("csv-import-%d").setDaemon(true).build());
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long size = channel.size();
+			MappedByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size,
+					Integer.MAX_VALUE));
+			skipByteOrderMark(headerBuffer);
+			List<String> header = new CsvChunkParser(headerBuffer, 0).parseNextLine();
+			if (header == null) {
+				throw new IllegalCsvFormatException("File has no header.");
+			}
+			List<String> names = Lists.newArrayList(header);
+			List<Long> chunkStarts = splitIntoChunks(channel, headerBuffer.position(), size, chunkSize);
+
+			ColumnAccumulator columnAccumulator = new ColumnAccumulator(names.size());
+			accumulate(channel, chunkStarts, names.size(), columnAccumulator, executor);
+			List<Column> columns = Lists.newArrayList();
+			for (int field = instanceIds.toBoolean() ? 1 : 0; field < names.size(); field++) {
+				Column column = new Column(names.get(field), field, columnAccumulator._statistics[field]);
+				if (column._type != Type.UNSUPPORTED) {
+					columns.add(column);
+				}
+			}
+			if (columns.isEmpty()) {
+				throw new IllegalCsvFormatException("File has no column to import.");
+			}
+
+			DependencyStatistics dependencies = null;
+			if (learnDependencies && columns.size() > 1) {
+				DependencyAccumulator dependencyAccumulator = new DependencyAccumulator(columns);
+				accumulate(channel, chunkStarts, names.size(), dependencyAccumulator, executor);
+				dependencies = dependencyAccumulator._statistics;
+				learnDependencies(columns, dependencies);
+			}
+			return createGraph(columns, dependencies);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+			Closeables.closeQuietly(randomAccessFile);
+		}
+	}
+
+	private static void skipByteOrderMark(ByteBuffer buffer) {
+		if (buffer.remaining() >= BYTE_ORDER_MARK.length) {
+			for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+				if (buffer.get(i) != BYTE_ORDER_MARK[i]) {
+					return;
+				}
+			}
+			buffer.position(BYTE_ORDER_MARK.length);
+		}
+	}
+
+	/**
+	 * Splits the file after the header into chunks of about the specified size, each ending after a line feed.
+	 *
+	 * @return start of every chunk followed by the end of the file
+	 */
+	private static List<Long> splitIntoChunks(FileChannel channel, long start, long size, long chunkSize)
+			throws IOException {
+		List<Long> chunkStarts = Lists.newArrayList(start);
+		long chunkStart = start;
+		ByteBuffer buffer = ByteBuffer.allocate(LINE_FEED_SEARCH_BUFFER_SIZE);
+		while (size - chunkStart > chunkSize) {
+			long position = chunkStart + chunkSize - 1;
+			long nextChunkStart = size;
+			while (position < size && nextChunkStart == size) {
+				buffer.clear();
+				int length = channel.read(buffer, position);
+				for (int i = 0; i < length; i++) {
+					if (buffer.get(i) == '\n') {
+						nextChunkStart = position + i + 1;
+						break;
+					}
+				}
+				position += Math.max(length, 0);
+			}
+			if (nextChunkStart == size) {
+				break;
+			}
+			chunkStarts.add(nextChunkStart);
+			chunkStart = nextChunkStart;
+		}
+		chunkStarts.add(size);
+		return chunkStarts;
+	}
+
+	/**
+	 * Parses all chunks in parallel, accumulating the lines of every chunk into an empty copy of the accumulator and
+	 * merging the copies into the accumulator.
+	 */
+	private static void accumulate(final FileChannel channel, List<Long> chunkStarts, final int numberOfFields,
+			LineAccumulator accumulator, ExecutorService executor) throws IOException {
+		List<Future<LineAccumulator>> chunks = Lists.newArrayList();
+		for (int i = 0; i < chunkStarts.size() - 1; i++) {
+			final long start = chunkStarts.get(i);
+			final long end = chunkStarts.get(i + 1);
+			final LineAccumulator chunkAccumulator = accumulator.createEmpty();
+			chunks.add(executor.submit(new Callable<LineAccumulator>() {
+				@Override
+				public LineAccumulator call() throws IOException {
+					MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+					new CsvChunkParser(buffer, start).parse(numberOfFields, chunkAccumulator);
+					return chunkAccumulator;
+				}
+			}));
+		}
+		try {
+			for (Future<LineAccumulator> chunk : chunks) {
+				accumulator.merge(chunk.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Import has been interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw (RuntimeException) e.getCause();
+		}
+	}
+
+	/**
+	 * Sets the parents of the columns. Discrete columns are connected by a maximum spanning forest of their mutual
+	 * information, grown from the first column of every tree by Prim's algorithm, so every column is the child of the
+	 * column it has been reached from. Continuous columns get the discrete parent with the highest correlation ratio.
+	 */
+	private static void learnDependencies(List<Column> columns, DependencyStatistics statistics) {
+		int numberOfColumns = columns.size();
+		boolean[] isReached = new boolean[numberOfColumns];
+		for (int root = 0; root < numberOfColumns; root++) {
+			if (!columns.get(root).isDiscrete() || isReached[root]) {
+				continue;
+			}
+			isReached[root] = true;
+			List<Integer> tree = Lists.newArrayList(root);
+			while (true) {
+				int bestParent = -1;
+				int bestChild = -1;
+				double bestMutualInformation = MIN_MUTUAL_INFORMATION;
+				for (int parent : tree) {
+					for (int child = 0; child < numberOfColumns; child++) {
+						if (columns.get(child).isDiscrete() && !isReached[child]) {
+							double mutualInformation = statistics.getMutualInformation(parent, child);
+							if (mutualInformation >= bestMutualInformation) {
+								bestParent = parent;
+								bestChild = child;
+								bestMutualInformation = mutualInformation;
+							}
+						}
+					}
+				}
+				if (bestChild < 0) {
+					break;
+				}
+				isReached[bestChild] = true;
+				tree.add(bestChild);
+				columns.get(bestChild)._parent = columns.get(bestParent);
+			}
+		}
+
+		for (int child = 0; child < numberOfColumns; child++) {
+			if (columns.get(child).isDiscrete()) {
+				continue;
+			}
+			double bestCorrelationRatio = MIN_CORRELATION_RATIO;
+			for (int parent = 0; parent < numberOfColumns; parent++) {
+				if (columns.get(parent).isDiscrete()) {
+					double correlationRatio = statistics.getCorrelationRatio(parent, child);
+					if (correlationRatio >= bestCorrelationRatio) {
+						columns.get(child)._parent = columns.get(parent);
+						bestCorrelationRatio = correlationRatio;
+					}
+				}
+			}
+		}
+	}
+
+	private static FeatureDefinitionGraph createGraph(List<Column> columns, DependencyStatistics dependencies) {
+		List<FeatureDefinition> featureDefinitions = Lists.newArrayListWithCapacity(columns.size());
+		for (Column column : columns) {
+			featureDefinitions.add(createFeatureDefinition(column, columns, dependencies));
+		}
+		return FeatureDefinitionGraph.createFromList(featureDefinitions);
+	}
+
+	/**
+	 * Creates the feature of the column after the one of its parent.
+	 */
+	private static FeatureDefinition createFeatureDefinition(Column column, List<Column> columns,
+			DependencyStatistics dependencies) {
+		if (column._featureDefinition == null) {
+			Column parent = column._parent;
+			if (parent != null) {
+				createFeatureDefinition(parent, columns, dependencies);
+			}
+			Distribution distribution;
+			if (column._type == Type.GAUSSIAN) {
+				distribution = (parent == null) ? createGaussianDistribution(column._statistics.getMoments())
+						: createGaussianDistribution(column, dependencies.getConditionalMoments(columns.indexOf(parent),
+								columns.indexOf(column)));
+			} else {
+				List<List<Double>> rows = (parent == null) ? null : createConditionalProbabilities(column, dependencies
+						.getJointCounts(columns.indexOf(parent), columns.indexOf(column)));
+				distribution = (column._type == Type.BERNOULLI) ? createBernoulliDistribution(column, rows)
+						: createCategorialDistribution(column, rows);
+			}
+			column._featureDefinition = new FeatureDefinition(column._name, distribution);
+		}
+		return column._featureDefinition;
+	}
+
+	private static Distribution createBernoulliDistribution(Column column, List<List<Double>> rows) {
+		if (rows == null) {
+			return new BernoulliDistribution(new FixedParameter<Double>(column.getProbabilities().get(1)));
+		}
+		List<Double> p = Lists.newArrayListWithCapacity(rows.size());
+		for (List<Double> row : rows) {
+			p.add(row.get(1));
+		}
+		return new BernoulliDistribution(createTable(column._parent, p));
+	}
+
+	private static Distribution createCategorialDistribution(Column column, List<List<Double>> rows) {
+		if (rows == null) {
+			return new CategorialDistribution(new FixedParameter<List<Double>>(column.getProbabilities()));
+		}
+		return new CategorialDistribution(createTable(column._parent, rows));
+	}
+
+	private static <T> Parameter<T> createTable(Column parent, List<T> rows) {
+		return new ConditionalTableParameter<T>(Lists.newArrayList(parent._featureDefinition),
+				new int[] { parent.getCardinality() }, rows);
+	}
+
+	/**
+	 * Estimates the probabilities of the values of the column for every value of its parent. Parent values never seen
+	 * together with a value of the column get the probabilities of the column.
+	 */
+	private static List<List<Double>> createConditionalProbabilities(Column column, long[][] jointCounts) {
+		List<List<Double>> rows = Lists.newArrayListWithCapacity(jointCounts.length);
+		for (long[] counts : jointCounts) {
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			if (total == 0) {
+				rows.add(column.getProbabilities());
+				continue;
+			}
+			List<Double> row = Lists.newArrayListWithCapacity(counts.length);
+			for (long count : counts) {
+				row.add((double) count / total);
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static Distribution createGaussianDistribution(Moments moments) {
+		return new GaussianDistribution(new FixedParameter<Double>(moments.getMean()), new FixedParameter<Double>(
+				getSigma(moments)));
+	}
+
+	/**
+	 * Creates a Gaussian distribution whose mean and sigma depend on the value of the parent. Parent values with too
+	 * few values of the column get the mean and sigma of the column.
+	 */
+	private static Distribution createGaussianDistribution(Column column, Moments[] conditionalMoments) {
+		Moments moments = column._statistics.getMoments();
+		Map<DiscreteFeatureValue, Double> means = Maps.newHashMap();
+		Map<DiscreteFeatureValue, Double> sigmas = Maps.newHashMap();
+		for (int value = 0; value < conditionalMoments.length; value++) {
+			Moments valueMoments = conditionalMoments[value];
+			means.put(new DiscreteFeatureValue(value), (valueMoments.getCount() > 0) ? valueMoments.getMean()
+					: moments.getMean());
+			sigmas.put(new DiscreteFeatureValue(value), (valueMoments.getCount() > 1) ? getSigma(valueMoments)
+					: getSigma(moments));
+		}
+		FeatureDefinition parent = column._parent._featureDefinition;
+		return new GaussianDistribution(new DiscreteVariableParameter<Double>(means, parent),
+				new DiscreteVariableParameter<Double>(sigmas, parent));
+	}
+
+	/**
+	 * Returns the standard deviation of the values or the smallest positive double if they are all equal.
+	 */
+	private static double getSigma(Moments moments) {
+		double sigma = Math.sqrt(moments.getVariance());
+		return (sigma > 0) ? sigma : Double.MIN_VALUE;
+	}
+
+}
@@ -0,0 +1,164 @@
+package de.frosner.datagenerator.importer;
+
+import de.frosner.datagenerator.statistics.Moments;
+
+/**
+ * Pairwise statistics of CSV columns whose types are already known, accumulated to learn dependencies between them.
+ * For every pair of discrete columns, the joint counts of their values are accumulated. For every discrete column and
+ * every continuous one, the moments of the continuous values are accumulated per value of the discrete column. Pairs
+ * with a missing value are ignored. Every parsing thread accumulates its own statistics, which are merged afterwards.
+ */
+final class DependencyStatistics {
+
+	private final int[] _cardinalities;
+	private final long[][][] _jointCounts;
+	private final Moments[][][] _conditionalMoments;
+
+	/**
+	 * @param cardinalities
+	 *            number of values of every discrete column and 0 for every continuous one
+	 */
+	DependencyStatistics(int[] cardinalities) {
+		int numberOfColumns = cardinalities.length;
+		_cardinalities = cardinalities;
+		_jointCounts = new long[numberOfColumns][numberOfColumns][];
+		_conditionalMoments = new Moments[numberOfColumns][numberOfColumns][];
+		for (int i = 0; i < numberOfColumns; i++) {
+			if (cardinalities[i] == 0) {
+				continue;
+			}
+			for (int j = 0; j < numberOfColumns; j++) {
+				if (cardinalities[j] > 0 && i < j) {
+					_jointCounts[i][j] = new long[cardinalities[i] * cardinalities[j]];
+				} else if (cardinalities[j] == 0) {
+					_conditionalMoments[i][j] = new Moments[cardinalities[i]];
+					for (int value = 0; value < cardinalities[i]; value++) {
+						_conditionalMoments[i][j][value] = new Moments();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the values of one line.
+	 *
+	 * @param discreteValues
+	 *            index of the value of every discrete column or -1 if it is missing
+	 * @param continuousValues
+	 *            value of every continuous column or {@linkplain Double#NaN} if it is missing
+	 */
+	void add(int[] discreteValues, double[] continuousValues) {
+		for (int i = 0; i < _cardinalities.length; i++) {
+			int value = discreteValues[i];
+			if (_cardinalities[i] == 0 || value < 0) {
+				continue;
+			}
+			for (int j = 0; j < _cardinalities.length; j++) {
+				if (_jointCounts[i][j] != null && discreteValues[j] >= 0) {
+					_jointCounts[i][j][value * _cardinalities[j] + discreteValues[j]]++;
+				} else if (_conditionalMoments[i][j] != null && !Double.isNaN(continuousValues[j])) {
+					_conditionalMoments[i][j][value].add(continuousValues[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the values accumulated by the specified statistics to these ones.
+	 *
+	 * @param other
+	 *            to merge into these statistics
+	 */
+	void merge(DependencyStatistics other) {
+		for (int i = 0; i < _cardinalities.length; i++) {
+			for (int j = 0; j < _cardinalities.length; j++) {
+				if (_jointCounts[i][j] != null) {
+					for (int k = 0; k < _jointCounts[i][j].length; k++) {
+						_jointCounts[i][j][k] += other._jointCounts[i][j][k];
+					}
+				} else if (_conditionalMoments[i][j] != null) {
+					for (int value = 0; value < _cardinalities[i]; value++) {
+						_conditionalMoments[i][j][value].merge(other._conditionalMoments[i][j][value]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the joint counts of the values of two discrete columns.
+	 *
+	 * @return counts indexed by the value of the first and the value of the second column
+	 */
+	long[][] getJointCounts(int column1, int column2) {
+		boolean isSwapped = column1 > column2;
+		long[] counts = isSwapped ? _jointCounts[column2][column1] : _jointCounts[column1][column2];
+		long[][] jointCounts = new long[_cardinalities[column1]][_cardinalities[column2]];
+		for (int value1 = 0; value1 < _cardinalities[column1]; value1++) {
+			for (int value2 = 0; value2 < _cardinalities[column2]; value2++) {
+				jointCounts[value1][value2] = isSwapped ? counts[value2 * _cardinalities[column1] + value1]
+						: counts[value1 * _cardinalities[column2] + value2];
+			}
+		}
+		return jointCounts;
+	}
+
+	/**
+	 * Returns the mutual information of two discrete columns in nats, which is 0 if they are independent.
+	 */
+	double getMutualInformation(int column1, int column2) {
+		long[][] jointCounts = getJointCounts(column1, column2);
+		long[] counts1 = new long[jointCounts.length];
+		long[] counts2 = new long[jointCounts[0].length];
+		long total = 0;
+		for (int value1 = 0; value1 < counts1.length; value1++) {
+			for (int value2 = 0; value2 < counts2.length; value2++) {
+				counts1[value1] += jointCounts[value1][value2];
+				counts2[value2] += jointCounts[value1][value2];
+				total += jointCounts[value1][value2];
+			}
+		}
+		double mutualInformation = 0;
+		for (int value1 = 0; value1 < counts1.length; value1++) {
+			for (int value2 = 0; value2 < counts2.length; value2++) {
+				long count = jointCounts[value1][value2];
+				if (count > 0) {
+					mutualInformation += (double) count / total
+							* Math.log((double) count * total / counts1[value1] / counts2[value2]);
+				}
+			}
+		}
+		return mutualInformation;
+	}
+
+	/**
+	 * Returns the moments of a continuous column for every value of a discrete column.
+	 */
+	Moments[] getConditionalMoments(int discreteColumn, int continuousColumn) {
+		return _conditionalMoments[discreteColumn][continuousColumn];
+	}
+
+	/**
+	 * Returns the share of the variance of a continuous column explained by the values of a discrete column, which is 0
+	 * if the means of all groups are equal and 1 if all values of a group are equal.
+	 */
+	double getCorrelationRatio(int discreteColumn, int continuousColumn) {
+		Moments total = new Moments();
+		for (Moments moments : _conditionalMoments[discreteColumn][continuousColumn]) {
+			total.merge(moments);
+		}
+		if (!(total.getVariance() > 0)) {
+			return 0;
+		}
+		double betweenGroups = 0;
+		for (Moments moments : _conditionalMoments[discreteColumn][continuousColumn]) {
+			if (moments.getCount() > 0) {
+				double deviation = moments.getMean() - total.getMean();
+				betweenGroups += moments.getCount() * deviation * deviation;
+			}
+		}
+		return betweenGroups / (total.getVariance() * (total.getCount() - 1));
+	}
+
+}
@@ -0,0 +1,201 @@
+package de.frosner.datagenerator.importer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.Parameter;
+import de.frosner.datagenerator.exceptions.IllegalNetworkFormatException;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+
+/**
+ * Variables and conditional probability tables of a discrete Bayesian network as read by a parser. Tables are stored
+ * in one canonical order: the parent values in row major order, the last parent varying fastest, and within each row
+ * the probabilities of the values of the variable itself.
+ */
+final class NetworkDefinition {
+
+	private static final double PROBABILITY_SUM_TOLERANCE = 0.01;
+
+	private final Map<String, Variable> _variables = Maps.newLinkedHashMap();
+
+	private static final class Variable {
+
+		private final String _name;
+		private final List<String> _states;
+		private List<Variable> _parents;
+		private double[] _table;
+		private final List<Variable> _children = Lists.newArrayList();
+		private int _numberOfUnsortedParents;
+		private FeatureDefinition _featureDefinition;
+
+		private Variable(String name, List<String> states) {
+			_name = name;
+			_states = states;
+		}
+
+		private int getStateIndex(String state) {
+			int index = _states.indexOf(state);
+			if (index < 0) {
+				throw new IllegalNetworkFormatException("Variable '" + _name + "' has no state '" + state + "'.");
+			}
+			return index;
+		}
+
+	}
+
+	void addVariable(String name, List<String> states) {
+		if (states.isEmpty()) {
+			throw new IllegalNetworkFormatException("Variable '" + name + "' has no states.");
+		}
+		if (_variables.put(name, new Variable(name, Lists.newArrayList(states))) != null) {
+			throw new IllegalNetworkFormatException("Variable '" + name + "' is defined twice.");
+		}
+	}
+
+	int getNumberOfStates(String variable) {
+		return getVariable(variable)._states.size();
+	}
+
+	int getStateIndex(String variable, String state) {
+		return getVariable(variable).getStateIndex(state);
+	}
+
+	/**
+	 * Sets the conditional probability table of a variable.
+	 *
+	 * @param variable
+	 *            the table belongs to
+	 * @param parents
+	 *            of the variable
+	 * @param table
+	 *            probabilities in canonical order
+	 */
+	void setTable(String variable, List<String> parents, double[] table) {
+		Variable child = getVariable(variable);
+		if (child._table != null) {
+			throw new IllegalNetworkFormatException("Probabilities of '" + variable + "' are defined twice.");
+		}
+		List<Variable> parentVariables = Lists.newArrayListWithCapacity(parents.size());
+		int expectedSize = child._states.size();
+		for (String parent : parents) {
+			Variable parentVariable = getVariable(parent);
+			parentVariables.add(parentVariable);
+			expectedSize *= parentVariable._states.size();
+		}
+		if (table.length != expectedSize) {
+			throw new IllegalNetworkFormatException("Probabilities of '" + variable + "' need " + expectedSize
+					+ " values but got " + table.length + ".");
+		}
+		child._parents = parentVariables;
+		child._table = table;
+	}
+
+	/**
+	 * Creates the {@linkplain FeatureDefinitionGraph} of the network. Every variable becomes a feature with a
+	 * {@linkplain CategorialDistribution} whose values are the indices of the states. Variables with parents are
+	 * conditioned on them through a {@linkplain ConditionalTableParameter}.
+	 *
+	 * @return graph of the network
+	 * @throws IllegalNetworkFormatException
+	 *             if probabilities are missing or invalid or the network contains a cycle
+	 */
+	FeatureDefinitionGraph toGraph() {
+		List<FeatureDefinition> featureDefinitions = Lists.newArrayListWithCapacity(_variables.size());
+		for (Variable variable : sortTopologically()) {
+			variable._featureDefinition = new FeatureDefinition(variable._name, new CategorialDistribution(
+					createProbabilities(variable)));
+			featureDefinitions.add(variable._featureDefinition);
+		}
+		return FeatureDefinitionGraph.createFromList(featureDefinitions);
+	}
+
+	private List<Variable> sortTopologically() {
+		Deque<Variable> roots = new ArrayDeque<Variable>();
+		for (Variable variable : _variables.values()) {
+			if (variable._table == null) {
+				throw new IllegalNetworkFormatException("Probabilities of '" + variable._name + "' are missing.");
+			}
+			variable._numberOfUnsortedParents = variable._parents.size();
+			if (variable._parents.isEmpty()) {
+				roots.add(variable);
+			}
+			for (Variable parent : variable._parents) {
+				parent._children.add(variable);
+			}
+		}
+		List<Variable> sorted = Lists.newArrayListWithCapacity(_variables.size());
+		while (!roots.isEmpty()) {
+			Variable variable = roots.poll();
+			sorted.add(variable);
+			for (Variable child : variable._children) {
+				if (--child._numberOfUnsortedParents == 0) {
+					roots.add(child);
+				}
+			}
+		}
+		if (sorted.size() < _variables.size()) {
+			throw new IllegalNetworkFormatException("Network contains a cycle.");
+		}
+		return sorted;
+	}
+
+	private static Parameter<List<Double>> createProbabilities(Variable variable) {
+		int numberOfStates = variable._states.size();
+		int numberOfRows = variable._table.length / numberOfStates;
+		List<List<Double>> rows = Lists.newArrayListWithCapacity(numberOfRows);
+		for (int row = 0; row < numberOfRows; row++) {
+			rows.add(normalize(variable, variable._table, row * numberOfStates, numberOfStates));
+		}
+		if (variable._parents.isEmpty()) {
+			return new FixedParameter<List<Double>>(rows.get(0));
+		}
+		List<FeatureDefinition> parents = Lists.newArrayListWithCapacity(variable._parents.size());
+		int[] cardinalities = new int[variable._parents.size()];
+		for (int i = 0; i < cardinalities.length; i++) {
+			parents.add(variable._parents.get(i)._featureDefinition);
+			cardinalities[i] = variable._parents.get(i)._states.size();
+		}
+		return new ConditionalTableParameter<List<Double>>(parents, cardinalities, rows);
+	}
+
+	/**
+	 * Scales a row to sum up to exactly 1, as network files usually contain rounded probabilities.
+	 */
+	private static List<Double> normalize(Variable variable, double[] table, int offset, int length) {
+		double sum = 0;
+		for (int i = offset; i < offset + length; i++) {
+			if (!(table[i] >= 0)) {
+				throw new IllegalNetworkFormatException("Probabilities of '" + variable._name
+						+ "' contain the illegal value " + table[i] + ".");
+			}
+			sum += table[i];
+		}
+		if (Math.abs(sum - 1) > PROBABILITY_SUM_TOLERANCE) {
+			throw new IllegalNetworkFormatException("Probabilities of '" + variable._name + "' sum up to " + sum
+					+ " instead of 1.");
+		}
+		List<Double> row = Lists.newArrayListWithCapacity(length);
+		for (int i = offset; i < offset + length; i++) {
+			row.add(table[i] / sum);
+		}
+		return row;
+	}
+
+	private Variable getVariable(String name) {
+		Variable variable = _variables.get(name);
+		if (variable == null) {
+			throw new IllegalNetworkFormatException("Variable '" + name + "' is not defined.");
+		}
+		return variable;
+	}
+
+}
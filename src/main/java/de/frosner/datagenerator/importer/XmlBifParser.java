@@ -0,0 +1,123 @@
+package de.frosner.datagenerator.importer;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalNetworkFormatException;
+
+/**
+ * Streaming parser of the XML interchange format for Bayesian networks XMLBIF 0.3. Only discrete variables are
+ * supported. Tables list the probabilities of the variable fastest and then its parents, the last parent varying
+ * fastest, which is the canonical order of {@linkplain NetworkDefinition}.
+ */
+final class XmlBifParser {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private XmlBifParser() {
+		throw new UnsupportedOperationException();
+	}
+
+	static NetworkDefinition parse(InputStream input) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(input);
+		try {
+			NetworkDefinition network = new NetworkDefinition();
+			List<DefinitionElement> definitions = Lists.newArrayList();
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					String element = reader.getLocalName();
+					if (element.equalsIgnoreCase("VARIABLE")) {
+						parseVariable(reader, network);
+					} else if (element.equalsIgnoreCase("DEFINITION") || element.equalsIgnoreCase("PROBABILITY")) {
+						definitions.add(parseDefinition(reader));
+					}
+				}
+			}
+			// definitions may precede the variables they refer to
+			for (DefinitionElement definition : definitions) {
+				network.setTable(definition._variable, definition._parents, definition.parseTable());
+			}
+			return network;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void parseVariable(XMLStreamReader reader, NetworkDefinition network) throws XMLStreamException {
+		String type = reader.getAttributeValue(null, "TYPE");
+		if (type != null && !type.equalsIgnoreCase("nature")) {
+			throw new IllegalNetworkFormatException("Variables of type '" + type + "' are not supported.");
+		}
+		String name = null;
+		List<String> states = Lists.newArrayList();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String element = reader.getLocalName();
+			String text = reader.getElementText().trim();
+			if (element.equalsIgnoreCase("NAME")) {
+				name = text;
+			} else if (element.equalsIgnoreCase("OUTCOME") || element.equalsIgnoreCase("VALUE")) {
+				states.add(text);
+			}
+		}
+		if (name == null) {
+			throw new IllegalNetworkFormatException("Variable without name in line "
+					+ reader.getLocation().getLineNumber() + ".");
+		}
+		network.addVariable(name, states);
+	}
+
+	private static DefinitionElement parseDefinition(XMLStreamReader reader) throws XMLStreamException {
+		DefinitionElement definition = new DefinitionElement();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String element = reader.getLocalName();
+			String text = reader.getElementText().trim();
+			if (element.equalsIgnoreCase("FOR")) {
+				definition._variable = text;
+			} else if (element.equalsIgnoreCase("GIVEN")) {
+				definition._parents.add(text);
+			} else if (element.equalsIgnoreCase("TABLE")) {
+				definition._table = text;
+			}
+		}
+		if (definition._variable == null || definition._table == null) {
+			throw new IllegalNetworkFormatException("Definition without variable or table in line "
+					+ reader.getLocation().getLineNumber() + ".");
+		}
+		return definition;
+	}
+
+	private static final class DefinitionElement {
+
+		private String _variable;
+		private final List<String> _parents = Lists.newArrayList();
+		private String _table;
+
+		private double[] parseTable() {
+			if (_table.isEmpty()) {
+				return new double[0];
+			}
+			String[] tokens = WHITESPACE.split(_table);
+			double[] table = new double[tokens.length];
+			try {
+				for (int i = 0; i < tokens.length; i++) {
+					table[i] = Double.parseDouble(tokens[i]);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalNetworkFormatException("Table of '" + _variable + "' contains an illegal number.", e);
+			}
+			return table;
+		}
+
+	}
+
+}
@@ -0,0 +1,296 @@
+package de.frosner.datagenerator.server;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportFormat;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.util.RangeUtil;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Embedded HTTP server streaming generated data. Schemas are registered once as {@linkplain FeatureDefinitionGraph}s
+ * and shared by all requests, so the graphs must not be modified after registration.
+ * <p>
+ * Data is requested by <code>GET /generate?schema=&lt;id&gt;&amp;rows=&lt;n&gt;&amp;seed=&lt;seed&gt;</code>. The
+ * optional parameters <code>format</code> (<code>csv</code>, <code>jsonl</code> or <code>avro</code>, see
+ * {@linkplain ExportFormat}), <code>header</code> (only for CSV) and <code>ids</code> control the output. Rows are
+ * written to a chunked response while they are generated, so a slow client blocks its generation instead of letting
+ * the server buffer the data. Responses are deterministic for a given schema, row count and seed.
+ * <p>
+ * A response is only ended regularly once all rows have been written. If the generation fails or is interrupted by
+ * {@linkplain #stop()}, the connection is dropped instead, so clients see an incomplete chunked response.
+ */
+public final class DataGeneratorHttpServer {
+
+	public static final String GENERATE_PATH = "/generate";
+	public static final String CSV_FORMAT = "csv";
+	public static final String JSON_LINES_FORMAT = "jsonl";
+	public static final String AVRO_FORMAT = "avro";
+
+	private static final int GENERATION_RANGE = 1000;
+	private static final int STOP_DELAY_SECONDS = 1;
+
+	private final HttpServer _server;
+	private final ExecutorService _executor;
+	private final ConcurrentMap<String, FeatureDefinitionGraph> _schemas = Maps.newConcurrentMap();
+
+	/**
+	 * Creates a new {@linkplain DataGeneratorHttpServer} listening on the local host. Call {@linkplain #start()} to
+	 * accept requests.
+	 *
+	 * @param port
+	 *            to listen on, 0 to pick any free port
+	 * @param numberOfThreads
+	 *            maximum number of requests served concurrently
+	 * @throws UncheckedIOException
+	 *             if the server cannot be bound to the specified port
+	 */
+	public DataGeneratorHttpServer(int port, int numberOfThreads) {
+		Check.stateIsTrue(port >= 0, "Port must be >= 0.");
+		Check.stateIsTrue(numberOfThreads > 0, "Number of threads must be > 0.");
+		try {
+			_server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		_executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactoryBuilder()
+				.setNameFormat("http-generator-%d").setDaemon(true).build());
+		_server.setExecutor(_executor);
+		_server.createContext(GENERATE_PATH, new GenerateHandler());
+	}
+
+	/**
+	 * Registers the specified graph under the specified schema ID, replacing any graph registered before.
+	 *
+	 * @param schemaId
+	 *            used by clients to request data of this schema
+	 * @param featureDefinitionGraph
+	 *            to generate data of
+	 */
+	public void registerSchema(@Nonnull String schemaId, @Nonnull FeatureDefinitionGraph featureDefinitionGraph) {
+		Check.notEmpty(schemaId, "schemaId");
+		Check.notNull(featureDefinitionGraph, "featureDefinitionGraph");
+		Check.stateIsTrue(!featureDefinitionGraph.isEmpty(), "Feature definition graph must not be empty.");
+		_schemas.put(schemaId, featureDefinitionGraph);
+	}
+
+	public void start() {
+		_server.start();
+	}
+
+	/**
+	 * Stops accepting requests and waits a short time for running requests to finish.
+	 */
+	public void stop() {
+		_server.stop(STOP_DELAY_SECONDS);
+		_executor.shutdownNow();
+		try {
+			_executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public int getPort() {
+		return _server.getAddress().getPort();
+	}
+
+	@VisibleForTesting
+	final class GenerateHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			// an aborted response is not closed, so the server drops the connection without ending the chunked body
+			boolean close = true;
+			try {
+				if (!"GET".equals(exchange.getRequestMethod())) {
+					sendError(exchange, 405, "Only GET is supported.");
+					return;
+				}
+				Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+				FeatureDefinitionGraph graph = _schemas.get(Strings.nullToEmpty(parameters.get("schema")));
+				if (graph == null) {
+					sendError(exchange, 404, "Unknown schema.");
+					return;
+				}
+				ExportInstanceIds ids = ExportInstanceIds.when(Boolean.parseBoolean(parameters.get("ids")));
+				String formatName = parameters.containsKey("format") ? parameters.get("format") : CSV_FORMAT;
+				ExportFormat format;
+				if (CSV_FORMAT.equals(formatName)) {
+					format = ExportFormat.csv(ids, ExportFeatureNames.when(Boolean.parseBoolean(parameters
+							.get("header"))));
+				} else if (JSON_LINES_FORMAT.equals(formatName)) {
+					format = ExportFormat.jsonLines(ids);
+				} else if (AVRO_FORMAT.equals(formatName)) {
+					format = ExportFormat.avro(ids);
+				} else {
+					sendError(exchange, 400, "Unsupported format: " + formatName);
+					return;
+				}
+				long rows;
+				long seed;
+				try {
+					rows = Long.parseLong(Strings.nullToEmpty(parameters.get("rows")));
+					seed = Long.parseLong(Strings.nullToEmpty(parameters.get("seed")));
+				} catch (NumberFormatException e) {
+					sendError(exchange, 400, "Parameters rows and seed must be numbers.");
+					return;
+				}
+				if (rows <= 0) {
+					sendError(exchange, 400, "Parameter rows must be > 0.");
+					return;
+				}
+				close = false;
+				stream(exchange, graph, format, rows, seed);
+				close = true;
+			} finally {
+				if (close) {
+					exchange.close();
+				}
+			}
+		}
+
+		/**
+		 * Streams the generated rows and ends the response. If the generation is interrupted or the response cannot be
+		 * written, an exception is thrown without ending the response, so the client does not mistake the rows
+		 * received so far for the whole data set.
+		 */
+		private void stream(HttpExchange exchange, FeatureDefinitionGraph graph, ExportFormat format, long rows,
+				long seed) throws IOException {
+			exchange.getResponseHeaders().set("Content-Type", format.getContentType());
+			exchange.sendResponseHeaders(200, 0);
+			ResponseBody body = new ResponseBody(exchange.getResponseBody());
+			ExportConnection connection = format.createExportConnection(body, exchange.getRemoteAddress()
+					.toString());
+			try {
+				DataGenerator generator = new DataGenerator(rows, connection, graph, seed);
+				long offset = 0;
+				while (offset < rows) {
+					if (Thread.currentThread().isInterrupted()) {
+						throw new InterruptedIOException("Generation stopped after " + offset + " of " + rows
+								+ " rows.");
+					}
+					generator.generate(offset, GENERATION_RANGE);
+					offset = RangeUtil.endOfRange(offset, GENERATION_RANGE, rows);
+				}
+				connection.close();
+			} catch (UncheckedIOException e) {
+				if (body.hasFailed()) {
+					// the client went away, nothing left to respond to
+					throw (IOException) e.getCause();
+				}
+				throw e;
+			}
+		}
+
+	}
+
+	/**
+	 * Body of a response remembering whether writing to the client failed.
+	 */
+	private static final class ResponseBody extends FilterOutputStream {
+
+		private boolean _failed = false;
+
+		ResponseBody(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			try {
+				out.write(b);
+			} catch (IOException e) {
+				_failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			try {
+				out.write(b, off, len);
+			} catch (IOException e) {
+				_failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			try {
+				out.flush();
+			} catch (IOException e) {
+				_failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				out.close();
+			} catch (IOException e) {
+				_failed = true;
+				throw e;
+			}
+		}
+
+		boolean hasFailed() {
+			return _failed;
+		}
+
+	}
+
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] body = message.getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+		Map<String, String> parameters = Maps.newHashMap();
+		if (query == null) {
+			return parameters;
+		}
+		for (String pair : query.split("&")) {
+			int separator = pair.indexOf('=');
+			if (separator > 0) {
+				parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+						URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+			}
+		}
+		return parameters;
+	}
+
+}
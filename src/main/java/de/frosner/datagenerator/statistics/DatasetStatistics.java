@@ -0,0 +1,87 @@
+package de.frosner.datagenerator.statistics;
+
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DiscreteDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+/**
+ * {@linkplain FeatureStatistics} of all features of generated {@linkplain Instance}s. Accumulating statistics is not
+ * thread safe. Parallel generations should accumulate separate statistics and {@linkplain #merge(DatasetStatistics)}
+ * them afterwards.
+ */
+public final class DatasetStatistics {
+
+	private final List<FeatureStatistics> _features;
+
+	/**
+	 * Creates empty statistics for instances of the specified feature definitions.
+	 *
+	 * @param featureDefinitions
+	 *            of the instances
+	 */
+	public DatasetStatistics(@Nonnull FeatureDefinitionGraph featureDefinitions) {
+		Check.notNull(featureDefinitions, "featureDefinitions");
+		_features = Lists.newArrayList();
+		for (FeatureDefinition featureDefinition : featureDefinitions) {
+			_features.add(new FeatureStatistics(featureDefinition.getName(),
+					featureDefinition.getDistribution() instanceof DiscreteDistribution, ExpectedStatistics
+							.of(featureDefinition.getDistribution())));
+		}
+	}
+
+	public void add(@Nonnull Instance instance) {
+		Iterator<FeatureValue> values = instance.iterator();
+		for (FeatureStatistics feature : _features) {
+			feature.add(values.next());
+		}
+	}
+
+	/**
+	 * Adds all instances accumulated by the specified statistics of the same feature definitions to this one.
+	 *
+	 * @param other
+	 *            to merge into this one
+	 */
+	public void merge(@Nonnull DatasetStatistics other) {
+		Check.stateIsTrue(other._features.size() == _features.size(), "Statistics must have the same features.");
+		for (int i = 0; i < _features.size(); i++) {
+			_features.get(i).merge(other._features.get(i));
+		}
+	}
+
+	public FeatureStatistics getFeatureStatistics(int index) {
+		return _features.get(index);
+	}
+
+	public int getNumberOfFeatures() {
+		return _features.size();
+	}
+
+	/**
+	 * Describes the statistics of every feature in a separate line.
+	 *
+	 * @return report of the statistics
+	 */
+	public String createReport() {
+		StringBuilder report = new StringBuilder();
+		for (FeatureStatistics feature : _features) {
+			if (report.length() > 0) {
+				report.append('\n');
+			}
+			report.append(feature.describe());
+		}
+		return report.toString();
+	}
+
+}
@@ -0,0 +1,205 @@
+package de.frosner.datagenerator.statistics;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.Distribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.Parameter;
+import de.frosner.datagenerator.distributions.UniqueKeyDistribution;
+import de.frosner.datagenerator.distributions.ZipfDistribution;
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Theoretical mean, variance and, for discrete distributions, probabilities of the values sampled by a
+ * {@linkplain Distribution}.
+ */
+@Immutable
+public final class ExpectedStatistics {
+
+	/**
+	 * Number of leading terms of a generalized harmonic number that are summed up exactly.
+	 */
+	private static final int EXACT_HARMONIC_TERMS = 1000;
+
+	private final double _mean;
+	private final double _variance;
+	private final double[] _probabilities;
+	private final PowerLaw _powerLaw;
+
+	private ExpectedStatistics(double mean, double variance, double[] probabilities) {
+		_mean = mean;
+		_variance = variance;
+		_probabilities = probabilities;
+		_powerLaw = null;
+	}
+
+	private ExpectedStatistics(PowerLaw powerLaw) {
+		_mean = powerLaw.getMean();
+		_variance = powerLaw.getVariance();
+		_probabilities = null;
+		_powerLaw = powerLaw;
+	}
+
+	/**
+	 * Probabilities proportional to 1 / (k + 1)^s of the values k = 0, ..., n - 1. They are computed on demand
+	 * instead of being tabulated, since n may be as large as the key space of a {@linkplain UniqueKeyDistribution}.
+	 */
+	@Immutable
+	private static final class PowerLaw {
+
+		private final int _numberOfValues;
+		private final double _exponent;
+		private final double _normalization;
+
+		PowerLaw(int numberOfValues, double exponent) {
+			_numberOfValues = numberOfValues;
+			_exponent = exponent;
+			_normalization = generalizedHarmonicNumber(numberOfValues, exponent);
+		}
+
+		double getProbability(int value) {
+			return (value >= 0 && value < _numberOfValues) ? Math.pow(value + 1, -_exponent) / _normalization : 0;
+		}
+
+		/**
+		 * With m = k + 1, the sum of k * m^-s is H(n, s - 1) - H(n, s).
+		 */
+		double getMean() {
+			return generalizedHarmonicNumber(_numberOfValues, _exponent - 1) / _normalization - 1;
+		}
+
+		/**
+		 * With m = k + 1, the sum of k^2 * m^-s is H(n, s - 2) - 2 H(n, s - 1) + H(n, s).
+		 */
+		double getVariance() {
+			double mean = getMean();
+			double squareMean = (generalizedHarmonicNumber(_numberOfValues, _exponent - 2) - 2
+					* generalizedHarmonicNumber(_numberOfValues, _exponent - 1)) / _normalization + 1;
+			return squareMean - mean * mean;
+		}
+
+	}
+
+	/**
+	 * Returns the theoretical statistics of the specified distribution. They are only known if all parameters of the
+	 * distribution are fixed. The statistics of distributions conditioned on other features depend on the distribution
+	 * of those features and are not computed.
+	 *
+	 * @param distribution
+	 *            to get the theoretical statistics of
+	 * @return expected statistics or null if they are unknown
+	 */
+	@Nullable
+	public static ExpectedStatistics of(Distribution distribution) {
+		if (distribution instanceof GaussianDistribution) {
+			GaussianDistribution gaussian = (GaussianDistribution) distribution;
+			if (isFixed(gaussian.getMean()) && isFixed(gaussian.getSigma())) {
+				double sigma = gaussian.getSigma().getParameter();
+				return new ExpectedStatistics(gaussian.getMean().getParameter(), sigma * sigma, null);
+			}
+		} else if (distribution instanceof BernoulliDistribution) {
+			Parameter<Double> p = ((BernoulliDistribution) distribution).getP();
+			if (isFixed(p)) {
+				return ofProbabilities(new double[] { 1 - p.getParameter(), p.getParameter() });
+			}
+		} else if (distribution instanceof CategorialDistribution) {
+			Parameter<List<Double>> probabilities = ((CategorialDistribution) distribution).getProbabilities();
+			if (isFixed(probabilities)) {
+				List<Double> probabilityList = probabilities.getParameter();
+				double[] probabilityArray = new double[probabilityList.size()];
+				for (int i = 0; i < probabilityArray.length; i++) {
+					probabilityArray[i] = probabilityList.get(i);
+				}
+				return ofProbabilities(probabilityArray);
+			}
+		} else if (distribution instanceof ZipfDistribution) {
+			ZipfDistribution zipf = (ZipfDistribution) distribution;
+			if (isFixed(zipf.getNumberOfValues()) && isFixed(zipf.getExponent())) {
+				int numberOfValues = zipf.getNumberOfValues().getParameter();
+				double exponent = zipf.getExponent().getParameter();
+				if (numberOfValues > 0 && exponent > 0) {
+					return new ExpectedStatistics(new PowerLaw(numberOfValues, exponent));
+				}
+			}
+		} else if (distribution instanceof UniqueKeyDistribution) {
+			// every instance gets a different key, but each key of the key space is equally likely for any instance
+			return new ExpectedStatistics(new PowerLaw(((UniqueKeyDistribution) distribution).getKeySpaceSize(), 0));
+		}
+		return null;
+	}
+
+	private static ExpectedStatistics ofProbabilities(double[] probabilities) {
+		double mean = 0;
+		double squareMean = 0;
+		for (int value = 0; value < probabilities.length; value++) {
+			mean += value * probabilities[value];
+			squareMean += value * value * probabilities[value];
+		}
+		return new ExpectedStatistics(mean, squareMean - mean * mean, probabilities);
+	}
+
+	/**
+	 * Computes the generalized harmonic number H(n, t), the sum of m^-t for m = 1, ..., n. The first
+	 * {@value #EXACT_HARMONIC_TERMS} terms are summed up exactly, the remaining ones are approximated by the
+	 * Euler-Maclaurin formula, whose first omitted term is negligible that far out. Like the sums of powers it
+	 * generalizes, the formula is exact for t = 0, -1 and -2.
+	 *
+	 * @param n
+	 *            number of terms
+	 * @param t
+	 *            exponent
+	 * @return H(n, t)
+	 */
+	@VisibleForTesting
+	static double generalizedHarmonicNumber(int n, double t) {
+		int exactTerms = Math.min(n, EXACT_HARMONIC_TERMS);
+		double sum = 0;
+		for (int m = exactTerms; m >= 1; m--) {
+			sum += Math.pow(m, -t);
+		}
+		if (n > exactTerms) {
+			double a = exactTerms;
+			double b = n;
+			double integral = (t == 1) ? Math.log(b / a) : (Math.pow(b, 1 - t) - Math.pow(a, 1 - t)) / (1 - t);
+			sum += integral + (Math.pow(b, -t) - Math.pow(a, -t)) / 2 - t
+					* (Math.pow(b, -t - 1) - Math.pow(a, -t - 1)) / 12;
+		}
+		return sum;
+	}
+
+	private static boolean isFixed(Parameter<?> parameter) {
+		return parameter instanceof FixedParameter<?>;
+	}
+
+	public double getMean() {
+		return _mean;
+	}
+
+	public double getVariance() {
+		return _variance;
+	}
+
+	/**
+	 * Returns the probability of the specified discrete value.
+	 *
+	 * @param value
+	 *            to get the probability of
+	 * @return probability or {@linkplain Double#NaN} if the distribution is continuous
+	 */
+	public double getProbability(int value) {
+		if (_powerLaw != null) {
+			return _powerLaw.getProbability(value);
+		}
+		if (_probabilities == null) {
+			return Double.NaN;
+		}
+		return (value >= 0 && value < _probabilities.length) ? _probabilities[value] : 0;
+	}
+
+}
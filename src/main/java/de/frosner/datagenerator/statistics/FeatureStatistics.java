@@ -0,0 +1,149 @@
+package de.frosner.datagenerator.statistics;
+
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+
+/**
+ * Statistics of the values of a single feature. All features have their moments computed. Continuous features
+ * additionally have their quantiles estimated, while discrete features have their values counted, see
+ * {@linkplain FrequencyCounts}.
+ */
+public final class FeatureStatistics {
+
+	private static final double[] REPORTED_QUANTILES = { 0.01, 0.5, 0.99 };
+	private static final int MAXIMUM_REPORTED_VALUES = 32;
+
+	private final String _name;
+	private final ExpectedStatistics _expected;
+	private final Moments _moments = new Moments();
+	private final QuantileSketch _quantiles;
+	private final FrequencyCounts _frequencies;
+
+	/**
+	 * Creates empty statistics of a feature.
+	 *
+	 * @param name
+	 *            of the feature
+	 * @param isDiscrete
+	 *            whether the feature has discrete values
+	 * @param expected
+	 *            theoretical statistics to compare with, null if unknown
+	 */
+	public FeatureStatistics(String name, boolean isDiscrete, @Nullable ExpectedStatistics expected) {
+		_name = name;
+		_expected = expected;
+		_quantiles = isDiscrete ? null : new QuantileSketch();
+		_frequencies = isDiscrete ? new FrequencyCounts() : null;
+	}
+
+	public void add(FeatureValue value) {
+		if (_frequencies != null) {
+			int intValue = ((DiscreteFeatureValue) value).getIntValue();
+			_moments.add(intValue);
+			_frequencies.add(intValue);
+		} else {
+			double doubleValue = ((ContinuousFeatureValue) value).getDoubleValue();
+			_moments.add(doubleValue);
+			_quantiles.add(doubleValue);
+		}
+	}
+
+	/**
+	 * Adds all values accumulated by the specified statistics of the same feature to this one.
+	 *
+	 * @param other
+	 *            to merge into this one
+	 */
+	public void merge(FeatureStatistics other) {
+		_moments.merge(other._moments);
+		if (_frequencies != null) {
+			_frequencies.merge(other._frequencies);
+		} else {
+			_quantiles.merge(other._quantiles);
+		}
+	}
+
+	public String getName() {
+		return _name;
+	}
+
+	public boolean isDiscrete() {
+		return _frequencies != null;
+	}
+
+	public Moments getMoments() {
+		return _moments;
+	}
+
+	/**
+	 * @return quantile sketch of a continuous feature, null for discrete features
+	 */
+	@Nullable
+	public QuantileSketch getQuantiles() {
+		return _quantiles;
+	}
+
+	/**
+	 * @return value counts of a discrete feature, null for continuous features
+	 */
+	@Nullable
+	public FrequencyCounts getFrequencies() {
+		return _frequencies;
+	}
+
+	/**
+	 * Describes the statistics in a single line, comparing them with the theoretical ones if known. The probabilities
+	 * of discrete values are only listed for up to {@value #MAXIMUM_REPORTED_VALUES} distinct values, otherwise only
+	 * the number of distinct values is reported. If not all values could be counted, that number is a lower bound.
+	 *
+	 * @return description of the statistics
+	 */
+	public String describe() {
+		StringBuilder description = new StringBuilder(_name).append(": n = ").append(_moments.getCount());
+		description.append(", mean = ").append(format(_moments.getMean()));
+		if (_expected != null) {
+			description.append(" (expected ").append(format(_expected.getMean())).append(')');
+		}
+		description.append(", variance = ").append(format(_moments.getVariance()));
+		if (_expected != null) {
+			description.append(" (expected ").append(format(_expected.getVariance())).append(')');
+		}
+		description.append(", min = ").append(format(_moments.getMin()));
+		description.append(", max = ").append(format(_moments.getMax()));
+		if (_frequencies != null) {
+			int distinctValues = _frequencies.getNumberOfDistinctValues();
+			if (!_frequencies.isComplete()) {
+				description.append(", distinct > ").append(distinctValues).append(" (")
+						.append(_frequencies.getUncountedOccurrences()).append(" values not counted)");
+			} else if (distinctValues > MAXIMUM_REPORTED_VALUES) {
+				description.append(", distinct = ").append(distinctValues);
+			} else {
+				for (Map.Entry<Integer, Long> count : _frequencies.getCounts().entrySet()) {
+					description.append(", p(").append(count.getKey()).append(") = ")
+							.append(format((double) count.getValue() / _moments.getCount()));
+					if (_expected != null) {
+						description.append(" (expected ").append(format(_expected.getProbability(count.getKey())))
+								.append(')');
+					}
+				}
+			}
+		} else {
+			for (double quantile : REPORTED_QUANTILES) {
+				description.append(", q").append(Math.round(quantile * 100)).append(" = ")
+						.append(format(_quantiles.getQuantile(quantile)));
+			}
+		}
+		return description.toString();
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ENGLISH, "%.4g", value);
+	}
+
+}
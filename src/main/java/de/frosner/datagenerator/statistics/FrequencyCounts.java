@@ -0,0 +1,135 @@
+package de.frosner.datagenerator.statistics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.util.VisibleForTesting;
+
+/**
+ * Number of occurrences of integer values. Small non-negative values, which make up the domains of most discrete
+ * distributions, are counted in an array without boxing. Other values fall back to a map of bounded size, so features
+ * with a huge number of distinct values like keys do not make the memory grow with the number of instances. Once the
+ * map is full, occurrences of values not counted yet are only summed up and the counts are no longer complete.
+ */
+public final class FrequencyCounts {
+
+	private static final int MAXIMUM_DENSE_VALUE = 1 << 16;
+	private static final int DEFAULT_MAXIMUM_SPARSE_VALUES = 1 << 12;
+
+	private final int _maximumSparseValues;
+	private long[] _denseCounts = new long[16];
+	private final Map<Integer, Long> _sparseCounts = Maps.newHashMap();
+	private long _uncountedOccurrences = 0;
+
+	public FrequencyCounts() {
+		this(DEFAULT_MAXIMUM_SPARSE_VALUES);
+	}
+
+	@VisibleForTesting
+	FrequencyCounts(int maximumSparseValues) {
+		_maximumSparseValues = maximumSparseValues;
+	}
+
+	public void add(int value) {
+		add(value, 1);
+	}
+
+	/**
+	 * Adds all counts of the specified {@linkplain FrequencyCounts} to this one.
+	 *
+	 * @param other
+	 *            to merge into this one
+	 */
+	public void merge(FrequencyCounts other) {
+		for (int value = 0; value < other._denseCounts.length; value++) {
+			if (other._denseCounts[value] > 0) {
+				add(value, other._denseCounts[value]);
+			}
+		}
+		for (Map.Entry<Integer, Long> entry : other._sparseCounts.entrySet()) {
+			add(entry.getKey(), entry.getValue());
+		}
+		_uncountedOccurrences += other._uncountedOccurrences;
+	}
+
+	/**
+	 * Returns the number of occurrences of the specified value. If the counts are not complete, this is a lower bound.
+	 *
+	 * @param value
+	 *            to get the count of
+	 * @return number of occurrences
+	 */
+	public long getCount(int value) {
+		if (value >= 0 && value < _denseCounts.length) {
+			return _denseCounts[value];
+		}
+		Long count = _sparseCounts.get(value);
+		return (count == null) ? 0 : count;
+	}
+
+	/**
+	 * Returns all counted values that occurred at least once together with their counts.
+	 *
+	 * @return counts ordered by value
+	 */
+	public SortedMap<Integer, Long> getCounts() {
+		SortedMap<Integer, Long> counts = Maps.newTreeMap();
+		for (int value = 0; value < _denseCounts.length; value++) {
+			if (_denseCounts[value] > 0) {
+				counts.put(value, _denseCounts[value]);
+			}
+		}
+		counts.putAll(_sparseCounts);
+		return counts;
+	}
+
+	/**
+	 * @return number of distinct values counted, a lower bound of the actual number if the counts are not complete
+	 */
+	public int getNumberOfDistinctValues() {
+		int distinctValues = _sparseCounts.size();
+		for (long count : _denseCounts) {
+			if (count > 0) {
+				distinctValues++;
+			}
+		}
+		return distinctValues;
+	}
+
+	/**
+	 * @return whether every occurrence has been counted
+	 */
+	public boolean isComplete() {
+		return _uncountedOccurrences == 0;
+	}
+
+	/**
+	 * @return number of occurrences of values that were not counted because too many distinct values occurred
+	 */
+	public long getUncountedOccurrences() {
+		return _uncountedOccurrences;
+	}
+
+	private void add(int value, long count) {
+		if (value >= 0 && value < MAXIMUM_DENSE_VALUE) {
+			if (value >= _denseCounts.length) {
+				_denseCounts = Arrays.copyOf(_denseCounts, Math.min(MAXIMUM_DENSE_VALUE,
+						Math.max(2 * _denseCounts.length, value + 1)));
+			}
+			_denseCounts[value] += count;
+		} else {
+			Long oldCount = _sparseCounts.get(value);
+			if (oldCount != null) {
+				_sparseCounts.put(value, oldCount + count);
+			} else if (_sparseCounts.size() < _maximumSparseValues) {
+				_sparseCounts.put(value, count);
+			} else {
+				_uncountedOccurrences += count;
+			}
+		}
+	}
+
+}
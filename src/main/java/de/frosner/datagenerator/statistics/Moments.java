@@ -0,0 +1,69 @@
+package de.frosner.datagenerator.statistics;
+
+/**
+ * Running count, mean, variance, minimum and maximum of a sequence of values. Mean and variance are updated with
+ * Welford's algorithm, which is numerically stable in a single pass. Two accumulators can be merged, so values can be
+ * accumulated in parallel and combined afterwards.
+ */
+public final class Moments {
+
+	private long _count = 0;
+	private double _mean = 0;
+	private double _squaredDeviations = 0;
+	private double _min = Double.POSITIVE_INFINITY;
+	private double _max = Double.NEGATIVE_INFINITY;
+
+	public void add(double value) {
+		_count++;
+		double delta = value - _mean;
+		_mean += delta / _count;
+		_squaredDeviations += delta * (value - _mean);
+		_min = Math.min(_min, value);
+		_max = Math.max(_max, value);
+	}
+
+	/**
+	 * Adds all values accumulated by the specified {@linkplain Moments} to this one.
+	 *
+	 * @param other
+	 *            to merge into this one
+	 */
+	public void merge(Moments other) {
+		if (other._count == 0) {
+			return;
+		}
+		long count = _count + other._count;
+		double delta = other._mean - _mean;
+		_mean += delta * other._count / count;
+		_squaredDeviations += other._squaredDeviations + delta * delta * _count / count * other._count;
+		_count = count;
+		_min = Math.min(_min, other._min);
+		_max = Math.max(_max, other._max);
+	}
+
+	public long getCount() {
+		return _count;
+	}
+
+	public double getMean() {
+		return (_count > 0) ? _mean : Double.NaN;
+	}
+
+	/**
+	 * Returns the unbiased sample variance.
+	 *
+	 * @return sample variance or {@linkplain Double#NaN} if less than two values have been added
+	 */
+	public double getVariance() {
+		return (_count > 1) ? _squaredDeviations / (_count - 1) : Double.NaN;
+	}
+
+	public double getMin() {
+		return (_count > 0) ? _min : Double.NaN;
+	}
+
+	public double getMax() {
+		return (_count > 0) ? _max : Double.NaN;
+	}
+
+}
@@ -0,0 +1,150 @@
+package de.frosner.datagenerator.statistics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import net.sf.qualitycheck.Check;
+
+/**
+ * Mergeable sketch estimating quantiles of a sequence of values in bounded memory. Values are collected in levels of
+ * limited capacity. When a level is full, it is sorted and every other value is promoted to the next level, doubling
+ * its weight. The rank error is in the order of one percent for the default capacity, independent of the number of
+ * values.
+ */
+public final class QuantileSketch {
+
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final int _capacity;
+	private double[][] _levels = new double[0][];
+	private int[] _sizes = new int[0];
+	private long _count = 0;
+	private boolean _compactOddValues = false;
+
+	public QuantileSketch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@linkplain QuantileSketch} keeping at most the specified number of values per level.
+	 *
+	 * @param capacity
+	 *            of each level, higher values give more accurate quantiles
+	 */
+	public QuantileSketch(int capacity) {
+		Check.stateIsTrue(capacity >= 2, "Capacity must be >= 2.");
+		_capacity = capacity;
+	}
+
+	public void add(double value) {
+		append(0, value);
+		_count++;
+		compactFullLevels();
+	}
+
+	/**
+	 * Adds all values summarized by the specified sketch to this one.
+	 *
+	 * @param other
+	 *            to merge into this one
+	 */
+	public void merge(QuantileSketch other) {
+		for (int level = 0; level < other._levels.length; level++) {
+			for (int i = 0; i < other._sizes[level]; i++) {
+				append(level, other._levels[level][i]);
+			}
+		}
+		_count += other._count;
+		compactFullLevels();
+	}
+
+	public long getCount() {
+		return _count;
+	}
+
+	/**
+	 * Returns an estimate of the specified quantile.
+	 *
+	 * @param quantile
+	 *            between 0 and 1
+	 * @return estimated value at the quantile or {@linkplain Double#NaN} if the sketch is empty
+	 */
+	public double getQuantile(double quantile) {
+		Check.stateIsTrue(quantile >= 0 && quantile <= 1, "Quantile must be in [0, 1].");
+		int numberOfValues = 0;
+		for (int size : _sizes) {
+			numberOfValues += size;
+		}
+		if (numberOfValues == 0) {
+			return Double.NaN;
+		}
+		long[] weightedValues = new long[numberOfValues];
+		double[] values = new double[numberOfValues];
+		Integer[] order = new Integer[numberOfValues];
+		int index = 0;
+		long totalWeight = 0;
+		for (int level = 0; level < _levels.length; level++) {
+			for (int i = 0; i < _sizes[level]; i++) {
+				values[index] = _levels[level][i];
+				weightedValues[index] = 1L << level;
+				order[index] = index;
+				totalWeight += weightedValues[index];
+				index++;
+			}
+		}
+		final double[] sortKeys = values;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Double.compare(sortKeys[i1], sortKeys[i2]);
+			}
+		});
+		double targetWeight = quantile * totalWeight;
+		long cumulativeWeight = 0;
+		for (Integer i : order) {
+			cumulativeWeight += weightedValues[i];
+			if (cumulativeWeight >= targetWeight) {
+				return values[i];
+			}
+		}
+		return values[order[numberOfValues - 1]];
+	}
+
+	private void append(int level, double value) {
+		if (level == _levels.length) {
+			_levels = Arrays.copyOf(_levels, level + 1);
+			_levels[level] = new double[_capacity];
+			_sizes = Arrays.copyOf(_sizes, level + 1);
+		}
+		if (_sizes[level] == _levels[level].length) {
+			_levels[level] = Arrays.copyOf(_levels[level], 2 * _levels[level].length);
+		}
+		_levels[level][_sizes[level]++] = value;
+	}
+
+	private void compactFullLevels() {
+		for (int level = 0; level < _levels.length; level++) {
+			if (_sizes[level] >= _capacity) {
+				compact(level);
+			}
+		}
+	}
+
+	private void compact(int level) {
+		int size = _sizes[level];
+		if (size % 2 == 1) {
+			// keep one value back so the promoted values represent exactly the removed ones
+			size--;
+		}
+		double[] values = _levels[level];
+		Arrays.sort(values, 0, size);
+		// alternating between odd and even positions avoids a systematic bias towards small or large values
+		_compactOddValues = !_compactOddValues;
+		for (int i = _compactOddValues ? 1 : 0; i < size; i += 2) {
+			append(level + 1, values[i]);
+		}
+		values[0] = values[_sizes[level] - 1];
+		_sizes[level] -= size;
+	}
+
+}
@@ -0,0 +1,99 @@
+package de.frosner.datagenerator.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+
+import net.sf.qualitycheck.Check;
+
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.exceptions.UncheckedIOException;
+
+public final class PropertiesUtil {
+
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private PropertiesUtil() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Reads properties written by {@linkplain #storeAtomically(Properties, File, String)}.
+	 *
+	 * @param file
+	 *            to read from
+	 * @return properties read
+	 * @throws UncheckedIOException
+	 *             if the file cannot be read
+	 */
+	public static Properties load(@Nonnull File file) {
+		Check.notNull(file, "file");
+		Properties properties = new Properties();
+		FileInputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			properties.load(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			Closeables.closeQuietly(in);
+		}
+		return properties;
+	}
+
+	/**
+	 * Writes the properties atomically to the specified file. The properties are written to a temporary file which is
+	 * forced onto the storage device and then renamed, so an existing file is never partially overwritten.
+	 *
+	 * @param properties
+	 *            to write
+	 * @param file
+	 *            to write to
+	 * @param comments
+	 *            written as header of the file
+	 * @throws UncheckedIOException
+	 *             if the file cannot be written
+	 */
+	public static void storeAtomically(@Nonnull Properties properties, @Nonnull File file, String comments) {
+		Check.notNull(properties, "properties");
+		Check.notNull(file, "file");
+		File temporaryFile = new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(temporaryFile);
+			properties.store(out, comments);
+			out.flush();
+			out.getFD().sync();
+			out.close();
+			out = null;
+			if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+				throw new IOException("Could not rename " + temporaryFile + " to " + file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			Closeables.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Returns the value of the specified key.
+	 *
+	 * @param properties
+	 *            to get the value from
+	 * @param key
+	 *            to look up
+	 * @return value of the key
+	 * @throws net.sf.qualitycheck.exception.IllegalNullArgumentException
+	 *             if the key is missing
+	 */
+	public static String getRequiredProperty(@Nonnull Properties properties, @Nonnull String key) {
+		return Check.notNull(properties.getProperty(key), key);
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.frosner.datagenerator.util;
+
+public final class RangeUtil {
+
+	private RangeUtil() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns the exclusive end of the range of the specified length starting at the specified start, cut at the
+	 * specified limit. Unlike {@code Math.min(start + length, limit)}, the result is correct even if the sum exceeds
+	 * {@linkplain Long#MAX_VALUE}.
+	 *
+	 * @param start
+	 *            of the range, >= 0
+	 * @param length
+	 *            of the range, >= 0
+	 * @param limit
+	 *            exclusive upper bound of all ranges
+	 * @return end of the range, never smaller than the start
+	 */
+	public static long endOfRange(long start, long length, long limit) {
+		if (start >= limit) {
+			return start;
+		}
+		return (length >= limit - start) ? limit : start + length;
+	}
+
+}
@@ -0,0 +1,42 @@
+package de.frosner.datagenerator.util;
+
+public final class SeedUtil {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private SeedUtil() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Derives an independent seed for sampling the feature at the specified index of the instance with the specified
+	 * ID. Derived seeds only depend on their arguments, so any instance can be reproduced without generating the ones
+	 * before.
+	 *
+	 * @param seed
+	 *            of the whole data set
+	 * @param instanceId
+	 *            of the instance to sample
+	 * @param featureIndex
+	 *            of the feature to sample
+	 * @return derived seed
+	 */
+	public static long deriveSeed(long seed, long instanceId, int featureIndex) {
+		return mix(mix(seed + instanceId * GOLDEN_GAMMA) + featureIndex * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Scrambles the bits of the specified value using the finalizer of the SplitMix64 generator.
+	 *
+	 * @param value
+	 *            to scramble
+	 * @return scrambled value
+	 */
+	public static long mix(long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
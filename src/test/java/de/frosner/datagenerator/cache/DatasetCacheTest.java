@@ -0,0 +1,170 @@
+package de.frosner.datagenerator.cache;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportFormat;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+
+public class DatasetCacheTest {
+
+	private static final ExportFormat CSV = ExportFormat.csv(ExportInstanceIds.YES, ExportFeatureNames.YES);
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	private FeatureDefinitionGraph _graph;
+	private DatasetCache _cache;
+
+	@Before
+	public void createCache() {
+		_graph = createGraph(170);
+		_cache = new DatasetCache(new File(_folder.getRoot(), "cache"), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testGet_miss() throws IOException {
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ExportConnection connection = CSV.createExportConnection(expected, "memory");
+		new DataGenerator(100, connection, _graph, 3).generate();
+		connection.close();
+
+		File file = _cache.get(_graph, 100, 3, CSV);
+
+		assertThat(file.getName()).endsWith(".csv");
+		assertThat(Files.toByteArray(file)).isEqualTo(expected.toByteArray());
+		assertThat(_cache.getSizeInBytes()).isEqualTo(file.length());
+		assertThat(file.getParentFile().list()).containsOnly(file.getName());
+	}
+
+	@Test
+	public void testGet_hit() {
+		assertThat(_cache.getIfPresent(_graph, 100, 3, CSV)).isNull();
+		File file = _cache.get(_graph, 100, 3, CSV);
+
+		assertThat(_cache.get(createGraph(170), 100, 3, CSV)).isEqualTo(file);
+		assertThat(_cache.getIfPresent(_graph, 100, 3, CSV)).isEqualTo(file);
+	}
+
+	@Test
+	public void testGet_reopenedCache() {
+		File file = _cache.get(_graph, 100, 3, CSV);
+		DatasetCache reopened = new DatasetCache(file.getParentFile(), Long.MAX_VALUE);
+
+		assertThat(reopened.getIfPresent(_graph, 100, 3, CSV)).isEqualTo(file);
+		assertThat(reopened.getSizeInBytes()).isEqualTo(file.length());
+	}
+
+	@Test
+	public void testGet_evictsLeastRecentlyUsed() {
+		File first = _cache.get(_graph, 100, 1, CSV);
+		DatasetCache cache = new DatasetCache(first.getParentFile(), first.length() * 5 / 2);
+		File second = cache.get(_graph, 100, 2, CSV);
+		cache.get(_graph, 100, 1, CSV);
+
+		File third = cache.get(_graph, 100, 3, CSV);
+
+		assertThat(first.exists()).isTrue();
+		assertThat(second.exists()).isFalse();
+		assertThat(third.exists()).isTrue();
+		assertThat(cache.getIfPresent(_graph, 100, 2, CSV)).isNull();
+		assertThat(cache.getSizeInBytes()).isEqualTo(first.length() + third.length());
+	}
+
+	@Test
+	public void testGet_keepsDatasetLargerThanMaximumSize() {
+		DatasetCache cache = new DatasetCache(_folder.getRoot(), 1);
+		File first = cache.get(_graph, 100, 1, CSV);
+		File second = cache.get(_graph, 100, 2, CSV);
+
+		assertThat(first.exists()).isFalse();
+		assertThat(second.exists()).isTrue();
+	}
+
+	@Test
+	public void testComputeKey_stable() {
+		assertThat(DatasetCache.computeKey(_graph, 100, 3, CSV)).isEqualTo(
+				DatasetCache.computeKey(createGraph(170), 100, 3,
+						ExportFormat.csv(ExportInstanceIds.YES, ExportFeatureNames.YES)));
+		assertThat(DatasetCache.computeKey(_graph, 100, 3, CSV)).hasSize(64);
+	}
+
+	@Test
+	public void testComputeKey_differentDatasets() {
+		List<String> keys = Lists.newArrayList(DatasetCache.computeKey(_graph, 100, 3, CSV),
+				DatasetCache.computeKey(_graph, 101, 3, CSV), DatasetCache.computeKey(_graph, 100, 4, CSV),
+				DatasetCache.computeKey(createGraph(171), 100, 3, CSV),
+				DatasetCache.computeKey(_graph, 100, 3, ExportFormat.csv(ExportInstanceIds.NO,
+						ExportFeatureNames.YES)), DatasetCache.computeKey(_graph, 100, 3,
+						ExportFormat.jsonLines(ExportInstanceIds.YES)));
+
+		assertThat(keys).doesNotHaveDuplicates();
+	}
+
+	@Test
+	public void testComputeKey_differentParents() {
+		FeatureDefinition a = new FeatureDefinition("A", new BernoulliDistribution(new FixedParameter<Double>(0.5)));
+		FeatureDefinition b = new FeatureDefinition("B", new BernoulliDistribution(new FixedParameter<Double>(0.5)));
+
+		assertThat(DatasetCache.computeKey(createConditionedGraph(a, b, a), 100, 3, CSV)).isNotEqualTo(
+				DatasetCache.computeKey(createConditionedGraph(a, b, b), 100, 3, CSV));
+	}
+
+	private static FeatureDefinitionGraph createConditionedGraph(FeatureDefinition a, FeatureDefinition b,
+			FeatureDefinition parent) {
+		ConditionalTableParameter<Double> table = new ConditionalTableParameter<Double>(Lists.newArrayList(parent),
+				new int[] { 2 }, Lists.newArrayList(0.1, 0.9));
+		FeatureDefinition c = new FeatureDefinition("C", new BernoulliDistribution(table));
+
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(a);
+		graph.addFeatureDefinition(b);
+		graph.addFeatureDefinition(c);
+		graph.addFeatureDefinitionParameterDependency(parent, c, table.getParentParameters().get(0));
+		return graph;
+	}
+
+	private static FeatureDefinitionGraph createGraph(double mean) {
+		FeatureDefinition gender = new FeatureDefinition("Gender", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5))));
+		Map<DiscreteFeatureValue, Double> means = Maps.newHashMap();
+		means.put(new DiscreteFeatureValue(0), mean);
+		means.put(new DiscreteFeatureValue(1), mean + 10);
+		DiscreteVariableParameter<Double> meanParameter = new DiscreteVariableParameter<Double>(means, gender);
+		FeatureDefinition height = new FeatureDefinition("Height", new GaussianDistribution(meanParameter,
+				new FixedParameter<Double>(10.0)));
+
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(gender);
+		graph.addFeatureDefinition(height);
+		graph.addFeatureDefinitionParameterDependency(gender, height, meanParameter);
+		return graph;
+	}
+
+}
@@ -0,0 +1,263 @@
+package de.frosner.datagenerator.distributed;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.DummyDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.exceptions.DistributedGenerationException;
+import de.frosner.datagenerator.export.CsvExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+
+public class GenerationCoordinatorTest {
+
+	private static final int NUMBER_OF_INSTANCES = 2500;
+	private static final int LEASE_SIZE = 300;
+	private static final long SEED = 42;
+
+	private File _directory;
+	private File _manifestFile;
+	private GenerationCoordinator _coordinator;
+	private ExecutorService _workers;
+
+	@Before
+	public void createDirectory() {
+		_directory = new File("distributed-test");
+		_directory.mkdir();
+		_manifestFile = new File(_directory, "manifest.properties");
+		_workers = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void deleteDirectory() {
+		_workers.shutdownNow();
+		if (_coordinator != null) {
+			_coordinator.stop();
+		}
+		for (File file : _directory.listFiles()) {
+			file.delete();
+		}
+		_directory.delete();
+	}
+
+	@Test(timeout = 20000)
+	public void testGenerate_shardsConcatenateToDataset() throws Exception {
+		startCoordinator(60000);
+		List<Future<Integer>> workers = Lists.newArrayList();
+		for (int i = 0; i < 3; i++) {
+			workers.add(startWorker(createGraph()));
+		}
+		DatasetManifest manifest = _coordinator.awaitCompletion(15, TimeUnit.SECONDS);
+
+		int numberOfGeneratedRanges = 0;
+		for (Future<Integer> worker : workers) {
+			numberOfGeneratedRanges += worker.get();
+		}
+		assertThat(numberOfGeneratedRanges).isEqualTo(9);
+		assertThat(manifest.getShards()).hasSize(9);
+		assertThat(DatasetManifest.readFrom(_manifestFile)).isEqualTo(manifest);
+		assertThat(concatenateShards(manifest)).isEqualTo(generateLocally());
+	}
+
+	@Test(timeout = 20000)
+	public void testGenerate_leaseOfFailedWorkerIsReleased() throws Exception {
+		startCoordinator(60000);
+		Socket failingWorker = new Socket("localhost", _coordinator.getPort());
+		Writer out = new OutputStreamWriter(failingWorker.getOutputStream(), Charsets.UTF_8);
+		BufferedReader in = new BufferedReader(new InputStreamReader(failingWorker.getInputStream(), Charsets.UTF_8));
+		out.write("HELLO " + GenerationCheckpoint.describeSchema(createGraph()) + "\nLEASE\n");
+		out.flush();
+		assertThat(in.readLine()).isEqualTo("JOB " + SEED + " " + NUMBER_OF_INSTANCES + " " + 20000);
+		assertThat(in.readLine()).isEqualTo("RANGE 0 " + LEASE_SIZE);
+		failingWorker.close();
+
+		startWorker(createGraph()).get();
+		DatasetManifest manifest = _coordinator.awaitCompletion(15, TimeUnit.SECONDS);
+
+		assertThat(_coordinator.getNumberOfExpiredLeases()).isEqualTo(1);
+		assertThat(manifest.getShards().get(0).getStartId()).isEqualTo(0);
+		assertThat(concatenateShards(manifest)).isEqualTo(generateLocally());
+	}
+
+	@Test(timeout = 20000)
+	public void testGenerate_leaseOfSilentWorkerExpires() throws Exception {
+		startCoordinator(1000);
+		Socket silentWorker = new Socket("localhost", _coordinator.getPort());
+		try {
+			Writer out = new OutputStreamWriter(silentWorker.getOutputStream(), Charsets.UTF_8);
+			out.write("HELLO " + GenerationCheckpoint.describeSchema(createGraph()) + "\nLEASE\n");
+			out.flush();
+
+			startWorker(createGraph()).get();
+			DatasetManifest manifest = _coordinator.awaitCompletion(15, TimeUnit.SECONDS);
+
+			assertThat(_coordinator.getNumberOfExpiredLeases()).isEqualTo(1);
+			assertThat(concatenateShards(manifest)).isEqualTo(generateLocally());
+		} finally {
+			silentWorker.close();
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void testGenerate_leaseOfProgressingWorkerDoesNotExpire() throws Exception {
+		startCoordinator(600);
+		Socket slowWorker = new Socket("localhost", _coordinator.getPort());
+		try {
+			Writer out = new OutputStreamWriter(slowWorker.getOutputStream(), Charsets.UTF_8);
+			BufferedReader in = new BufferedReader(new InputStreamReader(slowWorker.getInputStream(),
+					Charsets.UTF_8));
+			out.write("HELLO " + GenerationCheckpoint.describeSchema(createGraph()) + "\nLEASE\n");
+			out.flush();
+			assertThat(in.readLine()).isEqualTo("JOB " + SEED + " " + NUMBER_OF_INSTANCES + " " + 200);
+			assertThat(in.readLine()).isEqualTo("RANGE 0 " + LEASE_SIZE);
+			for (int i = 0; i < 10; i++) {
+				Thread.sleep(200);
+				out.write("PROGRESS 0 " + LEASE_SIZE + "\n");
+				out.flush();
+			}
+
+			assertThat(_coordinator.getNumberOfExpiredLeases()).isEqualTo(0);
+		} finally {
+			slowWorker.close();
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void testGenerate_slowWorkerKeepsLeases() throws Exception {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("Slow", new DummyDistribution() {
+			@Override
+			public FeatureValue sample() {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new DiscreteFeatureValue(0);
+			}
+		}));
+		_coordinator = new GenerationCoordinator(0, graph, NUMBER_OF_INSTANCES, SEED, LEASE_SIZE, 150, _manifestFile);
+		_coordinator.start();
+
+		assertThat(startWorker(graph).get()).isEqualTo(9);
+		assertThat(_coordinator.awaitCompletion(15, TimeUnit.SECONDS)).isNotNull();
+		assertThat(_coordinator.getNumberOfExpiredLeases()).isEqualTo(0);
+	}
+
+	@Test(timeout = 20000, expected = DistributedGenerationException.class)
+	public void testRun_differentParameters() throws Throwable {
+		startCoordinator(60000);
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(20.0))));
+		graph.addFeatureDefinition(new FeatureDefinition("Smoker", new BernoulliDistribution(
+				new FixedParameter<Double>(0.2))));
+		try {
+			startWorker(graph).get();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test(timeout = 20000, expected = DistributedGenerationException.class)
+	public void testRun_differentSchema() throws Throwable {
+		startCoordinator(60000);
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("Other", new BernoulliDistribution(
+				new FixedParameter<Double>(0.5))));
+		try {
+			startWorker(graph).get();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreateManifest_gapBetweenShards() {
+		new DatasetManifest(10, 0, "", Lists.newArrayList(new DatasetManifest.Shard(0, 4, "a"),
+				new DatasetManifest.Shard(5, 10, "b")));
+	}
+
+	private void startCoordinator(int leaseTimeoutMillis) {
+		_coordinator = new GenerationCoordinator(0, createGraph(), NUMBER_OF_INSTANCES, SEED, LEASE_SIZE,
+				leaseTimeoutMillis, _manifestFile);
+		_coordinator.start();
+	}
+
+	private Future<Integer> startWorker(final FeatureDefinitionGraph graph) {
+		return _workers.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return new GenerationWorker("localhost", _coordinator.getPort(), graph, _directory,
+						ExportInstanceIds.YES, ExportFeatureNames.NO).run();
+			}
+		});
+	}
+
+	private static String concatenateShards(DatasetManifest manifest) throws IOException {
+		ByteArrayOutputStream dataset = new ByteArrayOutputStream();
+		for (DatasetManifest.Shard shard : manifest.getShards()) {
+			FileInputStream in = new FileInputStream(shard.getLocation());
+			try {
+				ByteStreams.copy(in, dataset);
+			} finally {
+				Closeables.closeQuietly(in);
+			}
+		}
+		return dataset.toString();
+	}
+
+	private static String generateLocally() {
+		ByteArrayOutputStream dataset = new ByteArrayOutputStream();
+		CsvExportConnection out = new CsvExportConnection(dataset, ExportFeatureNames.NO, ExportInstanceIds.YES);
+		new DataGenerator(NUMBER_OF_INSTANCES, out, createGraph(), SEED).generate();
+		out.close();
+		return dataset.toString();
+	}
+
+	private static FeatureDefinitionGraph createGraph() {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		graph.addFeatureDefinition(new FeatureDefinition("Smoker", new BernoulliDistribution(
+				new FixedParameter<Double>(0.2))));
+		return graph;
+	}
+
+}
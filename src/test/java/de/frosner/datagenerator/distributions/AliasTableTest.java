@@ -0,0 +1,46 @@
+package de.frosner.datagenerator.distributions;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalProbabilityArgumentException;
+
+public class AliasTableTest {
+
+	@Test
+	public void testSample() {
+		List<Double> probabilities = Lists.newArrayList(0.5, 0.1, 0.0, 0.25, 0.15);
+		AliasTable table = new AliasTable(probabilities);
+		assertThat(table.size()).isEqualTo(5);
+
+		Random random = new Random(42);
+		int[] counts = new int[probabilities.size()];
+		int numberOfSamples = 100000;
+		for (int i = 0; i < numberOfSamples; i++) {
+			counts[table.sample(random)]++;
+		}
+		for (int i = 0; i < counts.length; i++) {
+			assertThat((double) counts[i] / numberOfSamples).isEqualTo(probabilities.get(i), Delta.delta(0.01));
+		}
+		assertThat(counts[2]).isEqualTo(0);
+	}
+
+	@Test
+	public void testSample_singleValue() {
+		AliasTable table = new AliasTable(Lists.newArrayList(1d));
+		assertThat(table.sample(new Random())).isEqualTo(0);
+	}
+
+	@Test(expected = IllegalProbabilityArgumentException.class)
+	public void testCreate_illegalProbabilities() {
+		new AliasTable(Lists.newArrayList(0.5, 0.6));
+	}
+
+}
@@ -15,6 +15,7 @@ import com.google.common.collect.Lists;
 
 import de.frosner.datagenerator.exceptions.IllegalProbabilityArgumentException;
 import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
 import de.frosner.datagenerator.features.FeatureValue;
 import de.frosner.datagenerator.testutils.StatisticsTestUtil;
 
@@ -63,6 +64,13 @@ public class BernoulliDistributionTest {
 		assertThat(_distribution.getDependentParameters()).isEmpty();
 	}
 
+	@Test
+	public void testGetParameterDescription_withDependentParameter() {
+		FeatureDefinition parent = new FeatureDefinition("Parent", new DummyDistribution());
+		_distribution = new BernoulliDistribution(new ContinuousVariableParameter(parent));
+		assertThat(_distribution.getParameterDescription()).isEqualTo("p = Conditioned on Parent");
+	}
+
 	@Test(expected = IllegalNullArgumentException.class)
 	public void testCreate_nullArgument() {
 		new BernoulliDistribution(null);
@@ -0,0 +1,132 @@
+package de.frosner.datagenerator.distributions;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalInstanceOfArgumentException;
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.FeatureValueCannotBeMappedException;
+import de.frosner.datagenerator.exceptions.VariableParameterNotSetException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class ConditionalTableParameterTest {
+
+	private FeatureDefinition _parentA;
+	private FeatureDefinition _parentB;
+	private ConditionalTableParameter<Double> _table;
+
+	@Before
+	public void createTable() {
+		_parentA = new FeatureDefinition("A", new DummyDistribution());
+		_parentB = new FeatureDefinition("B", new DummyDistribution());
+		_table = new ConditionalTableParameter<Double>(Lists.newArrayList(_parentA, _parentB), new int[] { 2, 3 },
+				Lists.newArrayList(0d, 1d, 2d, 10d, 11d, 12d));
+	}
+
+	@Test
+	public void testGetParameter() {
+		for (int a = 0; a < 2; a++) {
+			for (int b = 0; b < 3; b++) {
+				_table.getParentParameters().get(1).updateParameter(new DiscreteFeatureValue(b));
+				_table.getParentParameters().get(0).updateParameter(new DiscreteFeatureValue(a));
+				assertThat(_table.getParameter()).isEqualTo(10d * a + b);
+			}
+		}
+	}
+
+	@Test
+	public void testGetValue() {
+		assertThat(_table.getValue(1, 2)).isEqualTo(12d);
+		assertThat(_table.getValue(0, 1)).isEqualTo(1d);
+	}
+
+	@Test
+	public void testGetParentParameters() {
+		assertThat(_table.getNumberOfParents()).isEqualTo(2);
+		assertThat(_table.getParentParameters().get(0).getFeatureDefinitionConditionedOn()).isEqualTo(_parentA);
+		assertThat(_table.getParentParameters().get(1).getFeatureDefinitionConditionedOn()).isEqualTo(_parentB);
+		assertThat(_table.getNumberOfRows()).isEqualTo(6);
+	}
+
+	@Test
+	public void testTransform() {
+		ConditionalTableParameter<String> transformed = _table.transform(new Function<Double, String>() {
+			@Override
+			public String apply(Double value) {
+				return "v" + value.intValue();
+			}
+		});
+		assertThat(transformed.getValue(1, 1)).isEqualTo("v11");
+		assertThat(transformed.getParentParameters()).isEqualTo(_table.getParentParameters());
+
+		_table.getParentParameters().get(0).updateParameter(new DiscreteFeatureValue(1));
+		_table.getParentParameters().get(1).updateParameter(new DiscreteFeatureValue(2));
+		assertThat(transformed.getParameter()).isEqualTo("v12");
+	}
+
+	@Test(expected = VariableParameterNotSetException.class)
+	public void testGetParameter_parentMissing() {
+		_table.getParentParameters().get(0).updateParameter(new DiscreteFeatureValue(1));
+		_table.getParameter();
+	}
+
+	@Test(expected = VariableParameterNotSetException.class)
+	public void testGetParameter_resetAfterRead() {
+		_table.getParentParameters().get(0).updateParameter(new DiscreteFeatureValue(1));
+		_table.getParentParameters().get(1).updateParameter(new DiscreteFeatureValue(1));
+		_table.getParameter();
+		_table.getParameter();
+	}
+
+	@Test(expected = FeatureValueCannotBeMappedException.class)
+	public void testUpdateParameter_valueOutOfRange() {
+		_table.getParentParameters().get(1).updateParameter(new DiscreteFeatureValue(3));
+	}
+
+	@Test(expected = IllegalInstanceOfArgumentException.class)
+	public void testUpdateParameter_featureValueNotDiscrete() {
+		_table.getParentParameters().get(0).updateParameter(new ContinuousFeatureValue(1));
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_wrongNumberOfValues() {
+		new ConditionalTableParameter<Double>(Lists.newArrayList(_parentA, _parentB), new int[] { 2, 3 },
+				Lists.newArrayList(0d, 1d));
+	}
+
+	@Test
+	public void testGenerate_multipleParents() {
+		FeatureDefinition coinA = new FeatureDefinition("CoinA", new BernoulliDistribution(new FixedParameter<Double>(
+				0.5)));
+		FeatureDefinition coinB = new FeatureDefinition("CoinB", new BernoulliDistribution(new FixedParameter<Double>(
+				0.5)));
+		ConditionalTableParameter<Double> p = new ConditionalTableParameter<Double>(Lists.newArrayList(coinA, coinB),
+				new int[] { 2, 2 }, Lists.newArrayList(0d, 0d, 0d, 1d));
+		FeatureDefinition both = new FeatureDefinition("Both", new BernoulliDistribution(p));
+		List<FeatureDefinition> features = Lists.newArrayList(both, coinA, coinB);
+
+		FeatureDefinitionGraph graph = FeatureDefinitionGraph.createFromList(features);
+		List<FeatureDefinition> order = Lists.newArrayList(graph);
+		assertThat(order.indexOf(both)).isEqualTo(2);
+		for (Instance instance : GeneratedInstances.of(graph, 200, 42)) {
+			int a = ((DiscreteFeatureValue) instance.getFeatureValue(order.indexOf(coinA))).getIntValue();
+			int b = ((DiscreteFeatureValue) instance.getFeatureValue(order.indexOf(coinB))).getIntValue();
+			int result = ((DiscreteFeatureValue) instance.getFeatureValue(2)).getIntValue();
+			assertThat(result).isEqualTo(a * b);
+		}
+	}
+
+}
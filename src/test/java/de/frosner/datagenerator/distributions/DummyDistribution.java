@@ -46,4 +46,8 @@ public class DummyDistribution implements Distribution {
 		return Collections.emptyList();
 	}
 
+	@Override
+	public void setSeed(long seed) {
+	}
+
 }
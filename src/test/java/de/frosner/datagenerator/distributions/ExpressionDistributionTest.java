@@ -0,0 +1,109 @@
+package de.frosner.datagenerator.distributions;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalExpressionException;
+import de.frosner.datagenerator.exceptions.VariableParameterNotSetException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class ExpressionDistributionTest {
+
+	private FeatureDefinition _price;
+	private FeatureDefinition _quantity;
+
+	@Before
+	public void createInputs() {
+		_price = new FeatureDefinition("price", new GaussianDistribution(new FixedParameter<Double>(10.0),
+				new FixedParameter<Double>(2.0)));
+		_quantity = new FeatureDefinition("quantity", new CategorialDistribution(new FixedParameter<List<Double>>(
+				Lists.newArrayList(0.2, 0.3, 0.5))));
+	}
+
+	@Test
+	public void testSample() {
+		ExpressionDistribution distribution = new ExpressionDistribution("price * quantity", Lists.newArrayList(
+				_price, _quantity));
+		distribution.getInputParameters().get(0).updateParameter(new ContinuousFeatureValue(2.5));
+		distribution.getInputParameters().get(1).updateParameter(new DiscreteFeatureValue(3));
+
+		assertThat(distribution.sample()).isEqualTo(new ContinuousFeatureValue(7.5));
+	}
+
+	@Test(expected = VariableParameterNotSetException.class)
+	public void testSample_inputNotSet() {
+		ExpressionDistribution distribution = new ExpressionDistribution("price * quantity", Lists.newArrayList(
+				_price, _quantity));
+		distribution.getInputParameters().get(0).updateParameter(new ContinuousFeatureValue(2.5));
+		distribution.getInputParameters().get(1).updateParameter(new DiscreteFeatureValue(3));
+		distribution.sample();
+
+		distribution.getInputParameters().get(0).updateParameter(new ContinuousFeatureValue(2.5));
+		distribution.sample();
+	}
+
+	@Test
+	public void testGenerate_derivedFeaturesOrderedAfterInputs() {
+		FeatureDefinition total = new FeatureDefinition("total", new ExpressionDistribution("price * quantity",
+				Lists.newArrayList(_price, _quantity)));
+		FeatureDefinition label = new FeatureDefinition("label", new ExpressionDistribution(
+				"sigmoid((total - 10) / 5) > uniform()", Lists.newArrayList(total)));
+		FeatureDefinitionGraph graph = FeatureDefinitionGraph.createFromList(Lists.newArrayList(label, total,
+				_price, _quantity));
+
+		List<FeatureDefinition> order = Lists.newArrayList(graph);
+		assertThat(order.indexOf(total)).isGreaterThan(order.indexOf(_price)).isGreaterThan(
+				order.indexOf(_quantity));
+		assertThat(order.indexOf(label)).isGreaterThan(order.indexOf(total));
+
+		List<Instance> instances = Lists.newArrayList(GeneratedInstances.of(graph, 1000, 7));
+		int positives = 0;
+		for (Instance instance : instances) {
+			double price = ((ContinuousFeatureValue) instance.getFeatureValue(order.indexOf(_price))).getDoubleValue();
+			int quantity = ((DiscreteFeatureValue) instance.getFeatureValue(order.indexOf(_quantity))).getIntValue();
+			assertThat(instance.getFeatureValue(order.indexOf(total))).isEqualTo(
+					new ContinuousFeatureValue(price * quantity));
+			double isPositive = ((ContinuousFeatureValue) instance.getFeatureValue(order.indexOf(label)))
+					.getDoubleValue();
+			assertThat(isPositive == 0 || isPositive == 1).isTrue();
+			positives += (int) isPositive;
+		}
+		assertThat(positives).isGreaterThan(0).isLessThan(1000);
+		assertThat(instances.equals(Lists.newArrayList(GeneratedInstances.of(graph, 1000, 7)))).isTrue();
+	}
+
+	@Test
+	public void testGetParameterDescription() {
+		ExpressionDistribution distribution = new ExpressionDistribution("price * quantity", Lists.newArrayList(
+				_price, _quantity));
+
+		assertThat(distribution.getParameterDescription()).isEqualTo("f = price * quantity");
+		assertThat(distribution.getDependentParameters()).hasSize(2);
+		assertThat(distribution.getInputParameters().get(1).getFeatureDefinitionConditionedOn()).isEqualTo(
+				_quantity);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testCreate_unknownInput() {
+		new ExpressionDistribution("price * tax", Lists.newArrayList(_price, _quantity));
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_duplicateInputNames() {
+		new ExpressionDistribution("price", Lists.newArrayList(_price, _price));
+	}
+
+}
@@ -41,4 +41,8 @@ public class ParameterizedDummyDistribution implements Distribution {
 		return Collections.emptyList();
 	}
 
+	@Override
+	public void setSeed(long seed) {
+	}
+
 }
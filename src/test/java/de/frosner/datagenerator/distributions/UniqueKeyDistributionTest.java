@@ -0,0 +1,111 @@
+package de.frosner.datagenerator.distributions;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.KeySpaceExhaustedException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class UniqueKeyDistributionTest {
+
+	@Test
+	public void testGetKey_isPermutation() {
+		for (int keySpaceSize : new int[] { 1, 2, 3, 1000, 65537 }) {
+			UniqueKeyDistribution distribution = new UniqueKeyDistribution(keySpaceSize, 42);
+			BitSet keys = new BitSet(keySpaceSize);
+			for (int id = 0; id < keySpaceSize; id++) {
+				int key = distribution.getKey(id);
+				assertThat(key).isGreaterThanOrEqualTo(0).isLessThan(keySpaceSize);
+				assertThat(keys.get(key)).isFalse();
+				keys.set(key);
+				assertThat(distribution.getInstanceId(key)).isEqualTo(id);
+			}
+		}
+	}
+
+	@Test
+	public void testGetKey_notSequential() {
+		UniqueKeyDistribution distribution = new UniqueKeyDistribution(Integer.MAX_VALUE, 7);
+		int numberOfFixedPoints = 0;
+		for (int id = 0; id < 1000; id++) {
+			if (distribution.getKey(id) == id) {
+				numberOfFixedPoints++;
+			}
+		}
+		assertThat(numberOfFixedPoints).isLessThan(5);
+		assertThat(distribution.getInstanceId(distribution.getKey(Integer.MAX_VALUE - 1))).isEqualTo(
+				Integer.MAX_VALUE - 1);
+	}
+
+	@Test
+	public void testGetKey_dependsOnKey() {
+		assertThat(new UniqueKeyDistribution(1000000, 1).getKey(5)).isNotEqualTo(
+				new UniqueKeyDistribution(1000000, 2).getKey(5));
+	}
+
+	@Test(expected = KeySpaceExhaustedException.class)
+	public void testGetKey_keySpaceExhausted() {
+		new UniqueKeyDistribution(10, 0).getKey(10);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSample_instanceIdNotSet() {
+		new UniqueKeyDistribution(10, 0).sample();
+	}
+
+	@Test
+	public void testSample_parallelRanges() throws InterruptedException {
+		final UniqueKeyDistribution distribution = new UniqueKeyDistribution(100000, 3);
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("Key", distribution));
+		final BitSet keys = new BitSet();
+		List<Thread> threads = Lists.newArrayList();
+		for (final GeneratedInstances part : GeneratedInstances.of(graph, 100000).split(4)) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (Instance instance : part) {
+						int key = ((DiscreteFeatureValue) instance.getFeatureValue(0)).getIntValue();
+						assertThat(key).isEqualTo(distribution.getKey(instance.getId()));
+						synchronized (keys) {
+							keys.set(key);
+						}
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(keys.cardinality()).isEqualTo(100000);
+	}
+
+	@Test
+	public void testGetPossibleValues() {
+		assertThat(new UniqueKeyDistribution(1000, 0).getPossibleValues()).hasSize(1000);
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		assertThat(new UniqueKeyDistribution(1000, 5)).isEqualTo(new UniqueKeyDistribution(1000, 5));
+		assertThat(new UniqueKeyDistribution(1000, 5).hashCode()).isEqualTo(
+				new UniqueKeyDistribution(1000, 5).hashCode());
+		assertThat(new UniqueKeyDistribution(1000, 5)).isNotEqualTo(new UniqueKeyDistribution(1000, 6));
+	}
+
+}
@@ -18,7 +18,7 @@ public class VariableDummyParameter extends VariableParameter<Object> {
 
 	@Override
 	public void updateParameter(FeatureValue value) {
-		_parameter = value.getValue();
+		setParameter(value.getValue());
 	}
 
 	@Override
@@ -0,0 +1,127 @@
+package de.frosner.datagenerator.distributions;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import net.sf.qualitycheck.exception.IllegalNullArgumentException;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+import de.frosner.datagenerator.exceptions.IllegalZipfParameterArgumentException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureValue;
+
+public class ZipfDistributionTest {
+
+	private ZipfDistribution _distribution;
+
+	@Test
+	public void testSample() {
+		int numberOfValues = 10;
+		double exponent = 1.2;
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(numberOfValues), new FixedParameter<Double>(
+				exponent));
+		_distribution.setSeed(43253);
+		int[] counts = new int[numberOfValues];
+		int numberOfSamples = 100000;
+		for (int i = 0; i < numberOfSamples; i++) {
+			counts[(Integer) _distribution.sample().getValue()]++;
+		}
+
+		double normalization = 0;
+		for (int k = 1; k <= numberOfValues; k++) {
+			normalization += Math.pow(k, -exponent);
+		}
+		for (int k = 1; k <= numberOfValues; k++) {
+			assertThat((double) counts[k - 1] / numberOfSamples).isEqualTo(Math.pow(k, -exponent) / normalization,
+					Delta.delta(0.01));
+		}
+	}
+
+	@Test
+	public void testSample_largeNumberOfValues() {
+		int numberOfValues = 50000000;
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(numberOfValues), new FixedParameter<Double>(
+				0.8));
+		_distribution.setSeed(1);
+		int maxValue = 0;
+		for (int i = 0; i < 100000; i++) {
+			int value = (Integer) _distribution.sample().getValue();
+			assertThat(value).isGreaterThanOrEqualTo(0).isLessThan(numberOfValues);
+			maxValue = Math.max(maxValue, value);
+		}
+		assertThat(maxValue).isGreaterThan(1000000);
+	}
+
+	@Test
+	public void testSample_reproducible() {
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(1000), new FixedParameter<Double>(1.5));
+		_distribution.setSeed(7);
+		FeatureValue first = _distribution.sample();
+		FeatureValue second = _distribution.sample();
+		_distribution.setSeed(7);
+		assertThat(_distribution.sample()).isEqualTo(first);
+		assertThat(_distribution.sample()).isEqualTo(second);
+	}
+
+	@Test
+	public void testSample_variableParameters() {
+		@SuppressWarnings("unchecked")
+		VariableParameter<Integer> numberOfValues = mock(VariableParameter.class);
+		when(numberOfValues.getParameter()).thenReturn(1);
+		_distribution = new ZipfDistribution(numberOfValues, new FixedParameter<Double>(2d));
+		assertThat(_distribution.sample()).isEqualTo(new DiscreteFeatureValue(0));
+		assertThat(_distribution.getDependentParameters()).containsOnly(numberOfValues);
+	}
+
+	@Test
+	public void testGetPossibleValues() {
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(50000000), new FixedParameter<Double>(1d));
+		Set<FeatureValue> possibleValues = _distribution.getPossibleValues();
+		assertThat(possibleValues).hasSize(50000000);
+		assertThat(possibleValues.contains(new DiscreteFeatureValue(0))).isTrue();
+		assertThat(possibleValues.contains(new DiscreteFeatureValue(49999999))).isTrue();
+		assertThat(possibleValues.contains(new DiscreteFeatureValue(50000000))).isFalse();
+		assertThat(possibleValues.iterator().next()).isEqualTo(new DiscreteFeatureValue(0));
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		Parameter<Integer> numberOfValues = new FixedParameter<Integer>(10);
+		Parameter<Double> exponent = new FixedParameter<Double>(1.2);
+		_distribution = new ZipfDistribution(numberOfValues, exponent);
+		ZipfDistribution sameDistribution = new ZipfDistribution(numberOfValues, exponent);
+
+		assertThat(_distribution).isEqualTo(sameDistribution);
+		assertThat(_distribution.hashCode()).isEqualTo(sameDistribution.hashCode());
+		assertThat(_distribution).isNotEqualTo(new ZipfDistribution(numberOfValues, new FixedParameter<Double>(1.2)));
+	}
+
+	@Test
+	public void testGetDependentParameters_withoutDependentParameter() {
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(5), new FixedParameter<Double>(1d));
+		assertThat(_distribution.getDependentParameters()).isEmpty();
+	}
+
+	@Test(expected = IllegalZipfParameterArgumentException.class)
+	public void testSample_illegalExponent() {
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(5), new FixedParameter<Double>(0d));
+		_distribution.sample();
+	}
+
+	@Test(expected = IllegalZipfParameterArgumentException.class)
+	public void testSample_illegalNumberOfValues() {
+		_distribution = new ZipfDistribution(new FixedParameter<Integer>(0), new FixedParameter<Double>(1d));
+		_distribution.sample();
+	}
+
+	@Test(expected = IllegalNullArgumentException.class)
+	public void testCreate_nullArgument() {
+		new ZipfDistribution(null, new FixedParameter<Double>(1d));
+	}
+
+}
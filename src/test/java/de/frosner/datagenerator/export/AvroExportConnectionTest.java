@@ -0,0 +1,159 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+public class AvroExportConnectionTest {
+
+	private ByteArrayOutputStream _out;
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_out = new ByteArrayOutputStream();
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Eye Color", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5)))));
+	}
+
+	@Test
+	public void testExport() {
+		AvroExportConnection connection = new AvroExportConnection(_out, ExportInstanceIds.YES);
+		connection.exportMetaData(_graph);
+		int numberOfInstances = 20000;
+		for (int i = 0; i < numberOfInstances; i++) {
+			connection.exportInstance(new Instance(i, new ContinuousFeatureValue(i / 4.0), new DiscreteFeatureValue(
+					-i)));
+		}
+		connection.close();
+
+		AvroReader reader = new AvroReader(_out.toByteArray());
+		assertThat(reader._metaData.get("avro.schema")).isEqualTo(
+				"{\"type\":\"record\",\"name\":\"Instance\",\"fields\":[{\"name\":\"ID\",\"type\":\"long\"},"
+						+ "{\"name\":\"Height\",\"type\":\"double\"},{\"name\":\"Eye_Color\",\"type\":\"int\"}]}");
+		assertThat(reader._metaData.get("avro.codec")).isEqualTo("null");
+
+		int id = 0;
+		int numberOfBlocks = 0;
+		while (reader.hasNextBlock()) {
+			long numberOfInstancesInBlock = reader.readBlockHeader();
+			for (long i = 0; i < numberOfInstancesInBlock; i++) {
+				assertThat(reader.readLong()).isEqualTo(id);
+				assertThat(reader.readDouble()).isEqualTo(id / 4.0);
+				assertThat(reader.readLong()).isEqualTo(-id);
+				id++;
+			}
+			reader.readSyncMarker();
+			numberOfBlocks++;
+		}
+		assertThat(id).isEqualTo(numberOfInstances);
+		assertThat(numberOfBlocks).isGreaterThan(1);
+	}
+
+	@Test
+	public void testExport_reproducible() {
+		AvroExportConnection connection = new AvroExportConnection(_out, ExportInstanceIds.NO);
+		connection.exportMetaData(_graph);
+		connection.exportInstance(new Instance(0, new ContinuousFeatureValue(1.0), new DiscreteFeatureValue(1)));
+		connection.close();
+		ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+		connection = new AvroExportConnection(secondOut, ExportInstanceIds.NO);
+		connection.exportMetaData(_graph);
+		connection.exportInstance(new Instance(0, new ContinuousFeatureValue(1.0), new DiscreteFeatureValue(1)));
+		connection.close();
+
+		assertThat(Arrays.equals(_out.toByteArray(), secondOut.toByteArray())).isTrue();
+	}
+
+	@Test
+	public void testToAvroName() {
+		assertThat(AvroExportConnection.toAvroName("Eye Color")).isEqualTo("Eye_Color");
+		assertThat(AvroExportConnection.toAvroName("1st")).isEqualTo("_1st");
+		assertThat(AvroExportConnection.toAvroName("")).isEqualTo("_");
+	}
+
+	private static final class AvroReader {
+
+		private final ByteBuffer _buffer;
+		private final Map<String, String> _metaData = Maps.newHashMap();
+		private final byte[] _syncMarker = new byte[16];
+
+		private AvroReader(byte[] bytes) {
+			_buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			byte[] magic = new byte[4];
+			_buffer.get(magic);
+			assertThat(magic).isEqualTo(new byte[] { 'O', 'b', 'j', 1 });
+			for (long entries = readLong(); entries != 0; entries = readLong()) {
+				for (long i = 0; i < entries; i++) {
+					_metaData.put(readString(), readString());
+				}
+			}
+			_buffer.get(_syncMarker);
+		}
+
+		private boolean hasNextBlock() {
+			return _buffer.hasRemaining();
+		}
+
+		private long readBlockHeader() {
+			long numberOfInstances = readLong();
+			long size = readLong();
+			assertThat(size).isLessThanOrEqualTo(_buffer.remaining() - 16);
+			return numberOfInstances;
+		}
+
+		private void readSyncMarker() {
+			byte[] syncMarker = new byte[16];
+			_buffer.get(syncMarker);
+			assertThat(syncMarker).isEqualTo(_syncMarker);
+		}
+
+		private long readLong() {
+			long encoded = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = _buffer.get();
+				encoded |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return (encoded >>> 1) ^ -(encoded & 1);
+		}
+
+		private double readDouble() {
+			return _buffer.getDouble();
+		}
+
+		private String readString() {
+			byte[] bytes = new byte[(int) readLong()];
+			_buffer.get(bytes);
+			return new String(bytes, Charsets.UTF_8);
+		}
+
+	}
+
+}
@@ -79,6 +79,26 @@ public class CsvExportConnectionTest {
 		_csvExportConnection.exportInstanceStrategy(_dummyInstanceWithOneFeature);
 	}
 
+	@Test
+	public void testSync() {
+		_csvExportConnection.exportInstanceStrategy(_dummyInstanceWithTwoFeatures);
+
+		assertThat(_csvExportConnection.sync()).isEqualTo(4);
+		assertThat(_out.toString()).isEqualTo("0,1\n");
+	}
+
+	@Test
+	public void testSync_withStartOffset() {
+		_csvExportConnection = new CsvExportConnection(_out, ExportFeatureNames.YES, ExportInstanceIds.NO, "", 100);
+		FeatureDefinitionGraph features = new FeatureDefinitionGraph();
+		features.addFeatureDefinition(new FeatureDefinition("usheight", new DummyDistribution()));
+		_csvExportConnection.exportMetaDataStrategy(features);
+		_csvExportConnection.exportInstanceStrategy(_dummyInstanceWithOneFeature);
+
+		assertThat(_csvExportConnection.sync()).isEqualTo(102);
+		assertThat(_out.toString()).isEqualTo("0\n");
+	}
+
 	@Test
 	public void testExportFeatureNames_oneFeature() {
 		FeatureDefinitionGraph features = new FeatureDefinitionGraph();
@@ -3,11 +3,20 @@ package de.frosner.datagenerator.export;
 import static org.fest.assertions.Assertions.assertThat;
 
 import java.io.File;
+import java.io.IOException;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import de.frosner.datagenerator.features.DummyFeatureValue;
+import de.frosner.datagenerator.generator.Instance;
+
 public class CsvFileExportConfigurationTest {
 
 	private File _exportFile;
@@ -35,4 +44,34 @@ public class CsvFileExportConfigurationTest {
 		assertThat(_exportFile).exists();
 	}
 
+	@Test
+	public void testGetCheckpointFile() {
+		CsvFileExportConfiguration configuration = new CsvFileExportConfiguration(_exportFile, ExportInstanceIds.NO,
+				ExportFeatureNames.YES);
+
+		assertThat(configuration.getCheckpointFile().getName()).isEqualTo("test.txt.checkpoint");
+	}
+
+	@Test
+	public void testResumeExportConnection() throws IOException {
+		Files.write("a\n0\n1\npartial", _exportFile, Charsets.UTF_8);
+		CsvFileExportConfiguration configuration = new CsvFileExportConfiguration(_exportFile, ExportInstanceIds.NO,
+				ExportFeatureNames.YES);
+
+		ExportConnection connection = configuration.resumeExportConnection(6);
+		connection.exportInstance(new Instance(2, new DummyFeatureValue(2)));
+		connection.close();
+
+		assertThat(Files.toString(_exportFile, Charsets.UTF_8)).isEqualTo("a\n0\n1\n2\n");
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testResumeExportConnection_offsetBeyondFileSize() throws IOException {
+		Files.write("a\n", _exportFile, Charsets.UTF_8);
+		CsvFileExportConfiguration configuration = new CsvFileExportConfiguration(_exportFile, ExportInstanceIds.NO,
+				ExportFeatureNames.YES);
+
+		configuration.resumeExportConnection(10);
+	}
+
 }
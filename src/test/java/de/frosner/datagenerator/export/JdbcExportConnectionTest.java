@@ -0,0 +1,138 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.exceptions.UncheckedSQLException;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+public class JdbcExportConnectionTest {
+
+	private static final String URL = "jdbc:h2:mem:jdbcExportConnectionTest;DB_CLOSE_DELAY=-1;MVCC=TRUE";
+
+	private Connection _connection;
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void openDatabase() throws SQLException {
+		_connection = DriverManager.getConnection(URL);
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Coin", new BernoulliDistribution(
+				new FixedParameter<Double>(0.5))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(180d), new FixedParameter<Double>(10d))));
+	}
+
+	@After
+	public void dropDatabase() throws SQLException {
+		Statement statement = _connection.createStatement();
+		statement.execute("DROP ALL OBJECTS");
+		statement.close();
+		_connection.close();
+	}
+
+	@Test
+	public void testExport() throws SQLException {
+		ExportConnection exportConnection = JdbcExportConfiguration.builder(URL, "Data")
+				.exportInstanceIds(ExportInstanceIds.YES).batchSize(2).build().createExportConnection();
+		exportConnection.exportMetaData(_graph);
+		exportConnection.exportInstance(new Instance(0, new DiscreteFeatureValue(1), new ContinuousFeatureValue(1.5)));
+		exportConnection.exportInstance(new Instance(1, new DiscreteFeatureValue(0), new ContinuousFeatureValue(-2)));
+		exportConnection.exportInstance(new Instance(2, new DiscreteFeatureValue(1), new ContinuousFeatureValue(0)));
+		exportConnection.close();
+
+		assertThat(query("SELECT \"ID\", \"Coin\", \"Height\" FROM \"Data\" ORDER BY \"ID\"")).isEqualTo(
+				Lists.newArrayList("0,1,1.5", "1,0,-2.0", "2,1,0.0"));
+	}
+
+	@Test
+	public void testExport_withoutInstanceIds() throws SQLException {
+		ExportConnection exportConnection = JdbcExportConfiguration.builder(URL, "Data").build()
+				.createExportConnection();
+		exportConnection.exportMetaData(_graph);
+		exportConnection.exportInstance(new Instance(0, new DiscreteFeatureValue(1), new ContinuousFeatureValue(1.5)));
+		exportConnection.close();
+
+		assertThat(query("SELECT * FROM \"Data\"")).isEqualTo(Lists.newArrayList("1,1.5"));
+	}
+
+	@Test
+	public void testExport_parallelConnections() throws SQLException {
+		ExportConnection exportConnection = JdbcExportConfiguration.builder(URL, "Data")
+				.exportInstanceIds(ExportInstanceIds.YES).batchSize(100).commitInterval(250).numberOfConnections(3)
+				.build().createExportConnection();
+		new DataGenerator(10050, exportConnection, _graph).generate();
+		exportConnection.close();
+
+		assertThat(query("SELECT COUNT(*), COUNT(DISTINCT \"ID\"), MIN(\"ID\"), MAX(\"ID\") FROM \"Data\""))
+				.isEqualTo(Lists.newArrayList("10050,10050,0,10049"));
+	}
+
+	@Test
+	public void testClose_twice() {
+		ExportConnection exportConnection = JdbcExportConfiguration.builder(URL, "Data").build()
+				.createExportConnection();
+		exportConnection.close();
+		exportConnection.close();
+	}
+
+	@Test(expected = UncheckedSQLException.class)
+	public void testExportMetaData_tableExists() throws SQLException {
+		Statement statement = _connection.createStatement();
+		statement.execute("CREATE TABLE \"Data\" (x INTEGER)");
+		statement.close();
+
+		ExportConnection exportConnection = JdbcExportConfiguration.builder(URL, "Data").build()
+				.createExportConnection();
+		try {
+			exportConnection.exportMetaData(_graph);
+		} finally {
+			exportConnection.close();
+		}
+	}
+
+	@Test(expected = UncheckedSQLException.class)
+	public void testCreate_invalidUrl() {
+		JdbcExportConfiguration.builder("jdbc:unknown:test", "Data").build().createExportConnection();
+	}
+
+	private List<String> query(String sql) throws SQLException {
+		List<String> rows = Lists.newArrayList();
+		Statement statement = _connection.createStatement();
+		try {
+			ResultSet resultSet = statement.executeQuery(sql);
+			int numberOfColumns = resultSet.getMetaData().getColumnCount();
+			while (resultSet.next()) {
+				StringBuilder row = new StringBuilder();
+				for (int i = 1; i <= numberOfColumns; i++) {
+					row.append((i > 1) ? "," : "").append(resultSet.getString(i));
+				}
+				rows.add(row.toString());
+			}
+		} finally {
+			statement.close();
+		}
+		return rows;
+	}
+
+}
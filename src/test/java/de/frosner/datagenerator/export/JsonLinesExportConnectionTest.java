@@ -0,0 +1,83 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+public class JsonLinesExportConnectionTest {
+
+	private ByteArrayOutputStream _out;
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_out = new ByteArrayOutputStream();
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Eye \"Color\"", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5)))));
+	}
+
+	@Test
+	public void testExport_withInstanceIds() {
+		JsonLinesExportConnection connection = new JsonLinesExportConnection(_out, ExportInstanceIds.YES);
+		connection.exportMetaData(_graph);
+		connection.exportInstance(new Instance(0, new ContinuousFeatureValue(172.5), new DiscreteFeatureValue(1)));
+		connection.exportInstance(new Instance(-5, new ContinuousFeatureValue(-1e-7), new DiscreteFeatureValue(
+				Integer.MIN_VALUE)));
+		connection.close();
+
+		assertThat(_out.toString()).isEqualTo(
+				"{\"ID\":0,\"Height\":172.5,\"Eye \\\"Color\\\"\":1}\n"
+						+ "{\"ID\":-5,\"Height\":-1.0E-7,\"Eye \\\"Color\\\"\":-2147483648}\n");
+	}
+
+	@Test
+	public void testExport_withoutInstanceIds() {
+		JsonLinesExportConnection connection = new JsonLinesExportConnection(_out, ExportInstanceIds.NO);
+		connection.exportMetaData(_graph);
+		connection.exportInstance(new Instance(0, new ContinuousFeatureValue(Double.NaN), new DiscreteFeatureValue(
+				1234567890)));
+		connection.close();
+
+		assertThat(_out.toString()).isEqualTo("{\"Height\":null,\"Eye \\\"Color\\\"\":1234567890}\n");
+	}
+
+	@Test
+	public void testExport_manyInstances() {
+		JsonLinesExportConnection connection = new JsonLinesExportConnection(_out, ExportInstanceIds.YES);
+		connection.exportMetaData(_graph);
+		for (int i = 0; i < 10000; i++) {
+			connection.exportInstance(new Instance(i, new ContinuousFeatureValue(i / 4.0), new DiscreteFeatureValue(
+					i % 2)));
+		}
+		connection.close();
+
+		String[] lines = new String(_out.toByteArray(), Charsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(10000);
+		assertThat(lines[9999]).isEqualTo("{\"ID\":9999,\"Height\":2499.75,\"Eye \\\"Color\\\"\":1}");
+	}
+
+	@Test
+	public void testQuote() {
+		assertThat(JsonLinesExportConnection.quote("a\\b\n")).isEqualTo("\"a\\\\b\\u000a\"");
+	}
+
+}
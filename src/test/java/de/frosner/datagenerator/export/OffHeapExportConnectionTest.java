@@ -0,0 +1,142 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class OffHeapExportConnectionTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Color", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.2, 0.3, 0.5)))));
+	}
+
+	@Test
+	public void testExport_randomAccess() {
+		List<Instance> instances = Lists.newArrayList(GeneratedInstances.of(_graph, 5000, 3).subRange(1000, 5000));
+		OffHeapDataset dataset = export(new OffHeapExportConnection(6), instances);
+
+		assertThat(dataset.getNumberOfInstances()).isEqualTo(4000);
+		assertThat(dataset.getFirstInstanceId()).isEqualTo(1000);
+		assertThat(dataset.getFeatureNames()).containsExactly("Height", "Color");
+		assertThat(dataset.isDiscrete(dataset.getColumn("Height"))).isFalse();
+		assertThat(dataset.isDiscrete(dataset.getColumn("Color"))).isTrue();
+		for (int i = instances.size() - 1; i >= 0; i--) {
+			Instance instance = instances.get(i);
+			assertThat(dataset.getInstance(instance.getId()).equals(instance)).isTrue();
+			assertThat(dataset.getDouble(instance.getId(), 0)).isEqualTo(
+					((ContinuousFeatureValue) instance.getFeatureValue(0)).getDoubleValue());
+			assertThat(dataset.getInt(instance.getId(), 1)).isEqualTo(
+					((DiscreteFeatureValue) instance.getFeatureValue(1)).getIntValue());
+		}
+	}
+
+	@Test
+	public void testColumnScan() {
+		List<Instance> instances = Lists.newArrayList(GeneratedInstances.of(_graph, 1000, 3));
+		OffHeapDataset dataset = export(new OffHeapExportConnection(8), instances);
+
+		List<DoubleBuffer> heights = dataset.getDoubleColumn(0);
+		List<IntBuffer> colors = dataset.getIntColumn(1);
+		assertThat(heights).hasSize(4);
+		int row = 0;
+		for (DoubleBuffer segment : heights) {
+			assertThat(segment.isReadOnly()).isTrue();
+			while (segment.hasRemaining()) {
+				assertThat(segment.get()).isEqualTo(
+						((ContinuousFeatureValue) instances.get(row++).getFeatureValue(0)).getDoubleValue());
+			}
+		}
+		assertThat(row).isEqualTo(1000);
+		row = 0;
+		for (IntBuffer segment : colors) {
+			while (segment.hasRemaining()) {
+				assertThat(segment.get()).isEqualTo(
+						((DiscreteFeatureValue) instances.get(row++).getFeatureValue(1)).getIntValue());
+			}
+		}
+		assertThat(row).isEqualTo(1000);
+	}
+
+	@Test
+	public void testSlice() {
+		List<Instance> instances = Lists.newArrayList(GeneratedInstances.of(_graph, 1000, 3));
+		OffHeapDataset slice = export(new OffHeapExportConnection(6), instances).slice(100, 900).slice(200, 330);
+
+		assertThat(slice.getNumberOfInstances()).isEqualTo(130);
+		assertThat(slice.getFirstInstanceId()).isEqualTo(200);
+		assertThat(slice.getInstance(200).equals(instances.get(200))).isTrue();
+		assertThat(slice.getInstance(329).equals(instances.get(329))).isTrue();
+		List<DoubleBuffer> heights = slice.getDoubleColumn(0);
+		assertThat(heights).hasSize(3);
+		assertThat(heights.get(0).remaining() + heights.get(1).remaining() + heights.get(2).remaining()).isEqualTo(
+				130);
+		assertThat(heights.get(0).get(0)).isEqualTo(((ContinuousFeatureValue) instances.get(200).getFeatureValue(0))
+				.getDoubleValue());
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSlice_outOfRange() {
+		export(new OffHeapExportConnection(), Lists.newArrayList(GeneratedInstances.of(_graph, 10))).slice(5, 11);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testGet_unknownInstanceId() {
+		export(new OffHeapExportConnection(), Lists.newArrayList(GeneratedInstances.of(_graph, 10))).getInstance(10);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testGet_wrongColumnType() {
+		export(new OffHeapExportConnection(), Lists.newArrayList(GeneratedInstances.of(_graph, 10))).getInt(0, 0);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testExport_nonConsecutiveIds() {
+		OffHeapExportConnection connection = new OffHeapExportConnection();
+		connection.exportMetaData(_graph);
+		connection.exportInstance(new Instance(0, new ContinuousFeatureValue(1), new DiscreteFeatureValue(1)));
+		connection.exportInstance(new Instance(2, new ContinuousFeatureValue(1), new DiscreteFeatureValue(1)));
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testGetDataset_notClosed() {
+		OffHeapExportConnection connection = new OffHeapExportConnection();
+		connection.exportMetaData(_graph);
+		connection.getDataset();
+	}
+
+	private OffHeapDataset export(OffHeapExportConnection connection, List<Instance> instances) {
+		connection.exportMetaData(_graph);
+		for (Instance instance : instances) {
+			connection.exportInstance(instance);
+		}
+		connection.close();
+		return connection.getDataset();
+	}
+
+}
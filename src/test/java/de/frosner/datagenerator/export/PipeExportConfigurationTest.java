@@ -0,0 +1,105 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.exceptions.ExportReaderClosedException;
+import de.frosner.datagenerator.features.DummyFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.Instance;
+
+public class PipeExportConfigurationTest {
+
+	private File _pipe;
+
+	@Before
+	public void createFile() {
+		_pipe = new File("test.pipe");
+	}
+
+	@After
+	public void deleteFile() {
+		_pipe.delete();
+	}
+
+	@Test
+	public void testCreateExportConnection_namedPipe() throws IOException {
+		ExportConnection connection = PipeExportConfiguration.namedPipe(_pipe, ExportInstanceIds.YES,
+				ExportFeatureNames.NO).createExportConnection();
+		connection.exportInstance(new Instance(0, new DummyFeatureValue(1)));
+		connection.close();
+
+		assertThat(connection.getExportLocation()).endsWith("test.pipe");
+		assertThat(Files.toString(_pipe, Charsets.UTF_8)).isEqualTo("0,1\n");
+	}
+
+	@Test
+	public void testStandardOutput() {
+		PipeExportConfiguration configuration = PipeExportConfiguration.standardOutput(ExportInstanceIds.NO,
+				ExportFeatureNames.YES);
+
+		assertThat(configuration.isStandardOutput()).isTrue();
+		assertThat(configuration.getBufferSize()).isEqualTo(PipeExportConfiguration.DEFAULT_BUFFER_SIZE);
+	}
+
+	@Test
+	public void testWithBufferSize() {
+		assertThat(
+				PipeExportConfiguration.namedPipe(_pipe, ExportInstanceIds.NO, ExportFeatureNames.NO)
+						.withBufferSize(42).getBufferSize()).isEqualTo(42);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testWithBufferSize_nonPositive() {
+		PipeExportConfiguration.standardOutput(ExportInstanceIds.NO, ExportFeatureNames.NO).withBufferSize(0);
+	}
+
+	@Test(expected = ExportReaderClosedException.class)
+	public void testGenerate_readerClosesFifo() throws Exception {
+		assumeTrue(new ProcessBuilder("mkfifo", _pipe.getPath()).start().waitFor() == 0);
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				try {
+					InputStream in = new FileInputStream(_pipe);
+					in.read(new byte[1024]);
+					in.close();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		reader.start();
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("A", new GaussianDistribution(
+				new FixedParameter<Double>(0d), new FixedParameter<Double>(1d))));
+
+		ExportConnection connection = PipeExportConfiguration.namedPipe(_pipe, ExportInstanceIds.NO,
+				ExportFeatureNames.NO).withBufferSize(4096).createExportConnection();
+		try {
+			new DataGenerator(Integer.MAX_VALUE, connection, graph).generate();
+		} finally {
+			connection.close();
+			reader.join();
+		}
+	}
+
+}
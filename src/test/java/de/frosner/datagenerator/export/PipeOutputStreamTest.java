@@ -0,0 +1,61 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Test;
+
+import de.frosner.datagenerator.exceptions.ExportReaderClosedException;
+
+public class PipeOutputStreamTest {
+
+	@Test
+	public void testWrite() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PipeOutputStream pipe = new PipeOutputStream(out, true, "pipe");
+		pipe.write(new byte[] { 1, 2, 3 }, 1, 2);
+		pipe.write(4);
+		pipe.close();
+
+		assertThat(out.toByteArray()).isEqualTo(new byte[] { 2, 3, 4 });
+	}
+
+	@Test
+	public void testWrite_readerClosed() throws IOException {
+		OutputStream out = mock(OutputStream.class);
+		doThrow(new IOException("Broken pipe")).when(out).write(any(byte[].class), anyInt(), anyInt());
+		PipeOutputStream pipe = new PipeOutputStream(out, true, "pipe");
+		try {
+			pipe.write(new byte[1], 0, 1);
+			fail("Expected " + ExportReaderClosedException.class.getSimpleName());
+		} catch (ExportReaderClosedException e) {
+			assertThat(e.getMessage()).contains("pipe");
+		}
+
+		pipe.write(new byte[1], 0, 1);
+		pipe.close();
+
+		verify(out, times(1)).write(any(byte[].class), anyInt(), anyInt());
+		verify(out).close();
+	}
+
+	@Test
+	public void testClose_keepsTargetOpen() throws IOException {
+		OutputStream out = mock(OutputStream.class);
+		new PipeOutputStream(out, false, "pipe").close();
+
+		verify(out).flush();
+		verify(out, times(0)).close();
+	}
+
+}
@@ -0,0 +1,119 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.DummyExportConnection;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class RoutingExportConnectionTest {
+
+	private FeatureDefinitionGraph _graph;
+	private DummyExportConnection _first;
+	private DummyExportConnection _second;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Coin", new BernoulliDistribution(
+				new FixedParameter<Double>(0.25))));
+		_first = new DummyExportConnection();
+		_second = new DummyExportConnection();
+	}
+
+	@Test
+	public void testByRatio() {
+		RoutingExportConnection connection = RoutingExportConnection.byRatio(Lists.newArrayList(0.8, 0.2, 0.0),
+				Lists.<ExportConnection> newArrayList(_first, _second, new DummyExportConnection()));
+
+		new DataGenerator(10000, connection, _graph, 42).generate();
+		connection.close();
+
+		assertThat(_first.getInstances().size()).isGreaterThan(7800).isLessThan(8200);
+		assertThat(_first.getInstances().size() + _second.getInstances().size()).isEqualTo(10000);
+		assertThat(_second.getMetaData() == _graph).isTrue();
+		for (Instance instance : _first.getInstances()) {
+			assertThat(_second.getInstances().contains(instance)).isFalse();
+		}
+	}
+
+	@Test
+	public void testByRatio_reproducible() {
+		RoutingExportConnection connection = RoutingExportConnection.byRatio(Lists.newArrayList(1.0, 1.0), Lists
+				.<ExportConnection> newArrayList(_first, _second));
+		DummyExportConnection otherFirst = new DummyExportConnection();
+		RoutingExportConnection otherConnection = RoutingExportConnection.byRatio(Lists.newArrayList(1.0, 1.0),
+				Lists.<ExportConnection> newArrayList(otherFirst, new DummyExportConnection()));
+
+		new DataGenerator(1000, connection, _graph, 42).generate();
+		connection.close();
+		new DataGenerator(1000, otherConnection, _graph, 42).generate();
+		otherConnection.close();
+
+		assertThat(_first.getInstances().equals(otherFirst.getInstances())).isTrue();
+	}
+
+	@Test
+	public void testByPredicate() {
+		RoutingExportConnection connection = RoutingExportConnection.byPredicate("Coin",
+				new Predicate<FeatureValue>() {
+					@Override
+					public boolean apply(FeatureValue value) {
+						return value.equals(BernoulliDistribution.HEADS);
+					}
+				}, _first, _second);
+
+		new DataGenerator(1000, connection, _graph, 42).generate();
+		connection.close();
+
+		List<Instance> heads = Lists.newArrayList();
+		List<Instance> tails = Lists.newArrayList();
+		for (Instance instance : GeneratedInstances.of(_graph, 1000, 42)) {
+			(instance.getFeatureValue(1).equals(BernoulliDistribution.HEADS) ? heads : tails).add(instance);
+		}
+		assertThat(_first.getInstances().equals(heads)).isTrue();
+		assertThat(_second.getInstances().equals(tails)).isTrue();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testByPredicate_unknownFeature() {
+		RoutingExportConnection connection = RoutingExportConnection.byPredicate("Age",
+				new Predicate<FeatureValue>() {
+					@Override
+					public boolean apply(FeatureValue value) {
+						return true;
+					}
+				}, _first, _second);
+		try {
+			connection.exportMetaData(_graph);
+		} finally {
+			connection.close();
+		}
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testByRatio_negativeRatio() {
+		RoutingExportConnection.byRatio(Lists.newArrayList(1.0, -0.5), Lists.<ExportConnection> newArrayList(_first,
+				_second));
+	}
+
+}
@@ -0,0 +1,94 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.exceptions.IllegalMethodCallSequenceException;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DummyExportConnection;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class StatisticsExportConnectionTest {
+
+	private FeatureDefinitionGraph _graph;
+	private DummyExportConnection _delegate;
+	private StatisticsExportConnection _connection;
+
+	@Before
+	public void createConnection() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Coin", new BernoulliDistribution(
+				new FixedParameter<Double>(0.25))));
+		_delegate = new DummyExportConnection();
+		_connection = new StatisticsExportConnection(_delegate);
+	}
+
+	@Test
+	public void testExport_forwardsToDelegate() {
+		_connection.exportMetaData(_graph);
+		for (Instance instance : GeneratedInstances.of(_graph, 10)) {
+			_connection.exportInstance(instance);
+		}
+		_connection.close();
+
+		assertThat(_delegate.getInstances()).hasSize(10);
+		assertThat(_connection.getStatistics().getFeatureStatistics(0).getMoments().getCount()).isEqualTo(10);
+		assertThat(_connection.getReport()).startsWith("Coin: n = 10").contains("(expected 0.2500)");
+	}
+
+	@Test
+	public void testExport_mergesThreads() throws Exception {
+		_connection.exportMetaData(_graph);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Void>> parts = Lists.newArrayList();
+			for (final GeneratedInstances part : GeneratedInstances.of(_graph, 4000).split(4)) {
+				parts.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (Instance instance : part) {
+							synchronized (_connection) {
+								_connection.exportInstance(instance);
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> part : parts) {
+				part.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		_connection.close();
+
+		assertThat(_connection.getStatistics().getFeatureStatistics(0).getMoments().getCount()).isEqualTo(4000);
+	}
+
+	@Test(expected = IllegalMethodCallSequenceException.class)
+	public void testGetStatistics_notClosed() {
+		_connection.exportMetaData(_graph);
+		_connection.getStatistics();
+	}
+
+	@Test
+	public void testGetExportLocation() {
+		assertThat(_connection.getExportLocation()).isEqualTo(_delegate.getExportLocation());
+	}
+
+}
@@ -0,0 +1,140 @@
+package de.frosner.datagenerator.export;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.DummyExportConnection;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class TeeExportConnectionTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Coin", new BernoulliDistribution(
+				new FixedParameter<Double>(0.25))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+	}
+
+	@Test
+	public void testExport_allInstancesToAllSinks() {
+		DummyExportConnection first = new DummyExportConnection();
+		DummyExportConnection second = new DummyExportConnection();
+		TeeExportConnection connection = new TeeExportConnection(Lists.<ExportConnection> newArrayList(first,
+				second), 7, 2);
+
+		new DataGenerator(1000, connection, _graph, 42).generate();
+		connection.close();
+
+		List<Instance> expected = Lists.newArrayList(GeneratedInstances.of(_graph, 1000, 42));
+		assertThat(first.getMetaData() == _graph).isTrue();
+		assertThat(second.getMetaData() == _graph).isTrue();
+		assertThat(first.getInstances().equals(expected)).isTrue();
+		assertThat(second.getInstances().equals(expected)).isTrue();
+	}
+
+	@Test
+	public void testExport_differentFormats() {
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		ByteArrayOutputStream jsonLines = new ByteArrayOutputStream();
+		TeeExportConnection connection = new TeeExportConnection(ExportFormat.csv(ExportInstanceIds.YES,
+				ExportFeatureNames.YES).createExportConnection(csv, "data.csv"), ExportFormat.jsonLines(
+				ExportInstanceIds.YES).createExportConnection(jsonLines, "data.jsonl"));
+
+		generate(connection);
+
+		ByteArrayOutputStream expectedCsv = new ByteArrayOutputStream();
+		generate(ExportFormat.csv(ExportInstanceIds.YES, ExportFeatureNames.YES).createExportConnection(expectedCsv,
+				"data.csv"));
+		ByteArrayOutputStream expectedJsonLines = new ByteArrayOutputStream();
+		generate(ExportFormat.jsonLines(ExportInstanceIds.YES).createExportConnection(expectedJsonLines, "data.jsonl"));
+		assertThat(csv.toByteArray()).isEqualTo(expectedCsv.toByteArray());
+		assertThat(jsonLines.toByteArray()).isEqualTo(expectedJsonLines.toByteArray());
+		assertThat(connection.getExportLocation()).isEqualTo("data.csv, data.jsonl");
+	}
+
+	@Test
+	public void testClose_failureOfSinkThrownAndAllSinksClosed() {
+		ClosingExportConnection failing = new ClosingExportConnection(true);
+		ClosingExportConnection healthy = new ClosingExportConnection(false);
+		TeeExportConnection connection = new TeeExportConnection(Lists.<ExportConnection> newArrayList(failing,
+				healthy), 1, 1);
+		connection.exportMetaData(_graph);
+
+		try {
+			for (Instance instance : GeneratedInstances.of(_graph, 100)) {
+				connection.exportInstance(instance);
+			}
+			throw new AssertionError("Failure of the sink has not been thrown");
+		} catch (IllegalStateException e) {
+			assertThat(e).hasMessage("Sink failed");
+		}
+		try {
+			connection.close();
+			throw new AssertionError("Failure of the sink has not been thrown");
+		} catch (IllegalStateException e) {
+			assertThat(e).hasMessage("Sink failed");
+		}
+		assertThat(failing.isClosed()).isTrue();
+		assertThat(healthy.isClosed()).isTrue();
+	}
+
+	private void generate(ExportConnection connection) {
+		new DataGenerator(100, connection, _graph, 42).generate();
+		connection.close();
+	}
+
+	static final class ClosingExportConnection extends ExportConnection {
+
+		private final boolean _failing;
+		private volatile boolean _closed = false;
+
+		ClosingExportConnection(boolean failing) {
+			_failing = failing;
+		}
+
+		@Override
+		protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		}
+
+		@Override
+		protected void exportInstanceStrategy(Instance instance) {
+			if (_failing) {
+				throw new IllegalStateException("Sink failed");
+			}
+		}
+
+		@Override
+		public void close() {
+			_closed = true;
+		}
+
+		@Override
+		public String getExportLocation() {
+			return ClosingExportConnection.class.getSimpleName();
+		}
+
+		boolean isClosed() {
+			return _closed;
+		}
+
+	}
+
+}
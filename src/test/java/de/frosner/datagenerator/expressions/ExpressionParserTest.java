@@ -0,0 +1,123 @@
+package de.frosner.datagenerator.expressions;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.exceptions.IllegalExpressionException;
+
+public class ExpressionParserTest {
+
+	private static final List<String> VARIABLES = Lists.newArrayList("x1", "x2", "Body height");
+	private static final double[] VALUES = { 2, -3, 180 };
+
+	@Test
+	public void testParse_arithmetic() {
+		assertThat(evaluate("1 + 2 * 3")).isEqualTo(7);
+		assertThat(evaluate("(1 + 2) * 3")).isEqualTo(9);
+		assertThat(evaluate("10 - 4 - 3")).isEqualTo(3);
+		assertThat(evaluate("2 ^ 3 ^ 2")).isEqualTo(512);
+		assertThat(evaluate("-2 ^ 2")).isEqualTo(-4);
+		assertThat(evaluate("7 % 4 / 2")).isEqualTo(1.5);
+		assertThat(evaluate("1.5e2 + .5")).isEqualTo(150.5);
+	}
+
+	@Test
+	public void testParse_variables() {
+		assertThat(evaluate("x1 * x2")).isEqualTo(-6);
+		assertThat(evaluate("`Body height` / 100")).isEqualTo(1.8);
+	}
+
+	@Test
+	public void testParse_functions() {
+		assertThat(evaluate("sigmoid(0)")).isEqualTo(0.5);
+		assertThat(evaluate("abs(x2) + sqrt(16) + exp(0) + log(1)")).isEqualTo(8);
+		assertThat(evaluate("floor(2.5) + ceil(2.5)")).isEqualTo(5);
+		assertThat(evaluate("min(x1, x2) + max(x1, x2) + pow(x1, 2)")).isEqualTo(3);
+		assertThat(evaluate("if(x1 > 0, 10, 20)")).isEqualTo(10);
+	}
+
+	@Test
+	public void testParse_logic() {
+		assertThat(evaluate("x1 > 0 && x2 > 0")).isEqualTo(0);
+		assertThat(evaluate("x1 > 0 || x2 > 0")).isEqualTo(1);
+		assertThat(evaluate("!(x1 == 2) + (x2 != 1) + (x1 <= 2) + (x1 >= 3) + (x1 < x2)")).isEqualTo(2);
+	}
+
+	@Test
+	public void testParse_random() {
+		Expression expression = ExpressionParser.parse("uniform() + gaussian()", VARIABLES);
+		Random random = new Random(3);
+		double expected = random.nextDouble() + random.nextGaussian();
+
+		assertThat(expression.evaluate(VALUES, new Random(3))).isEqualTo(expected);
+	}
+
+	@Test
+	public void testParse_shortCircuit() {
+		Random random = new Random(3);
+		ExpressionParser.parse("0 && uniform() || 1 || uniform() + if(1, 0, uniform())", VARIABLES).evaluate(VALUES,
+				random);
+
+		assertThat(random.nextDouble()).isEqualTo(new Random(3).nextDouble());
+	}
+
+	@Test
+	public void testParse_constantsFolded() {
+		assertThat(ExpressionParser.parse("2 * (3 + sqrt(4)) > 9", VARIABLES).isConstant()).isTrue();
+		assertThat(ExpressionParser.parse("2 * x1", VARIABLES).isConstant()).isFalse();
+		assertThat(ExpressionParser.parse("2 * uniform()", VARIABLES).isConstant()).isFalse();
+	}
+
+	@Test
+	public void testToSource() {
+		Expression expression = ExpressionParser.parse("sigmoid(2 * x1 - x2) > uniform() && -x1 < 1e300 * 1e300",
+				VARIABLES);
+
+		assertThat(expression.toSource(new String[] { "a", "b", "c" }, "r")).isEqualTo(
+				"(((((1.0 / (1.0 + StrictMath.exp(-(((2.0) * a) - b)))) > r.nextDouble()) ? 1.0 : 0.0) != 0 && "
+						+ "(((-a) < Double.POSITIVE_INFINITY) ? 1.0 : 0.0) != 0) ? 1.0 : 0.0)");
+		assertThat(expression.evaluate(VALUES, new Random(1))).isEqualTo(1, Delta.delta(0));
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_unknownVariable() {
+		ExpressionParser.parse("x1 + x3", VARIABLES);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_unknownFunction() {
+		ExpressionParser.parse("sin(x1)", VARIABLES);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_wrongNumberOfArguments() {
+		ExpressionParser.parse("min(x1)", VARIABLES);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_unbalancedParentheses() {
+		ExpressionParser.parse("(x1 + x2", VARIABLES);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_trailingInput() {
+		ExpressionParser.parse("x1 x2", VARIABLES);
+	}
+
+	@Test(expected = IllegalExpressionException.class)
+	public void testParse_empty() {
+		ExpressionParser.parse(" ", VARIABLES);
+	}
+
+	private static double evaluate(String expression) {
+		return ExpressionParser.parse(expression, VARIABLES).evaluate(VALUES, new Random());
+	}
+
+}
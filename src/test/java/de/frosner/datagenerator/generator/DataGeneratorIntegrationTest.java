@@ -54,6 +54,26 @@ public class DataGeneratorIntegrationTest {
 		}
 	}
 
+	@Test
+	public void testGenerate_seeded_rangesAreReproducible() {
+		FeatureDefinition featureA = new FeatureDefinition("A", new GaussianDistribution(new FixedParameter<Double>(
+				0d), new FixedParameter<Double>(1d)));
+		FeatureDefinition featureB = new FeatureDefinition("B", new BernoulliDistribution(new FixedParameter<Double>(
+				0.4)));
+		_featureDefinitions.addFeatureDefinition(featureA);
+		_featureDefinitions.addFeatureDefinition(featureB);
+
+		_dataGenerator = new DataGenerator(NUMBER_OF_INSTANCES, _exportConnection, _featureDefinitions, 42);
+		_dataGenerator.generate();
+		DummyExportConnection rangeExportConnection = new DummyExportConnection();
+		DataGenerator rangeGenerator = new DataGenerator(NUMBER_OF_INSTANCES, rangeExportConnection,
+				_featureDefinitions, 42);
+		rangeGenerator.generate(5000, 100);
+
+		assertThat(rangeExportConnection.getInstances()).isEqualTo(
+				_exportConnection.getInstances().subList(5000, 5100));
+	}
+
 	@Test
 	public void testGenerate_discreteFeatures_noDependencies() {
 		FeatureDefinition featureA = new FeatureDefinition("A", new BernoulliDistribution(new FixedParameter<Double>(
@@ -1,6 +1,7 @@
 package de.frosner.datagenerator.generator;
 
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.initMocks;
 import net.sf.qualitycheck.exception.IllegalEmptyArgumentException;
 import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
@@ -75,6 +76,17 @@ public class DataGeneratorTest {
 		}
 	}
 
+	@Test
+	public void testGenerateRange_atEndOfLongRange() {
+		_graph.addFeatureDefinition(_x);
+		_generator = new DataGenerator(Long.MAX_VALUE, _mockedOut, _graph);
+		_generator.generate(Long.MAX_VALUE - 2, 100);
+		verify(_mockedOut).exportMetaData(_graph);
+		verify(_mockedOut).exportInstance(new Instance(Long.MAX_VALUE - 2, DummyDistribution.ANY_SAMPLE));
+		verify(_mockedOut).exportInstance(new Instance(Long.MAX_VALUE - 1, DummyDistribution.ANY_SAMPLE));
+		verifyNoMoreInteractions(_mockedOut);
+	}
+
 	@Test
 	public void testGenerateInstancesWithDependencies() {
 		VariableDummyParameter dependentParameter = new VariableDummyParameter();
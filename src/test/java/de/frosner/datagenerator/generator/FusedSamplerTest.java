@@ -0,0 +1,184 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.ExpressionDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.UniqueKeyDistribution;
+import de.frosner.datagenerator.exceptions.IllegalSigmaParameterArgumentException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.features.FeatureValue;
+
+public class FusedSamplerTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_graph = createGraph(0.3);
+	}
+
+	@Test
+	public void testSample_equalToInterpretedSampling() {
+		FusedSampler sampler = FusedSamplerCompiler.compile(_graph, true, 42);
+
+		Iterator<Instance> interpreted = GeneratedInstances.of(_graph, 2000, 42).iterator();
+		for (long id = 0; id < 2000; id++) {
+			assertThat(sampler.sample(id).equals(interpreted.next())).isTrue();
+		}
+	}
+
+	@Test
+	public void testFillBatch() {
+		FusedSampler sampler = FusedSamplerCompiler.compile(_graph, true, 42);
+		FeatureValue[][] rows = new FeatureValue[10][sampler.getNumberOfFeatures()];
+
+		sampler.fillBatch(100, rows);
+
+		for (int i = 0; i < rows.length; i++) {
+			assertThat(new Instance(100 + i, rows[i]).equals(sampler.sample(100 + i))).isTrue();
+		}
+	}
+
+	@Test
+	public void testSample_unseeded() {
+		FusedSampler sampler = FusedSamplerCompiler.compile(_graph, false, 0);
+		int smoker = indexOf("Smoker");
+		int id = indexOf("Id");
+
+		Set<FeatureValue> keys = Sets.newHashSet();
+		int heads = 0;
+		for (long instanceId = 0; instanceId < 10000; instanceId++) {
+			Instance instance = sampler.sample(instanceId);
+			keys.add(instance.getFeatureValue(id));
+			heads += ((DiscreteFeatureValue) instance.getFeatureValue(smoker)).getIntValue();
+		}
+		assertThat(keys).hasSize(10000);
+		assertThat(heads).isGreaterThan(2700).isLessThan(3300);
+	}
+
+	@Test
+	public void testCompile_classCachedPerSchema() {
+		FusedSampler sampler = FusedSamplerCompiler.compile(_graph, true, 42);
+
+		assertThat(FusedSamplerCompiler.compile(createGraph(0.3), true, 7).getClass()).isSameAs(sampler.getClass());
+		assertThat(FusedSamplerCompiler.compile(createGraph(0.4), true, 42).getClass()).isNotSameAs(
+				sampler.getClass());
+		assertThat(FusedSamplerCompiler.compile(_graph, false, 42).getClass()).isNotSameAs(sampler.getClass());
+		assertThat(sampler.getClass().getClassLoader()).isNotSameAs(FusedSampler.class.getClassLoader());
+	}
+
+	@Test
+	public void testGeneratedInstances_fusedBackend() {
+		List<Instance> fused = Lists.newArrayList(GeneratedInstances.of(_graph, 100, 3, SamplerBackend.FUSED)
+				.subRange(50, 100));
+
+		assertThat(fused.equals(Lists.newArrayList(GeneratedInstances.of(_graph, 100, 3).subRange(50, 100))))
+				.isTrue();
+	}
+
+	@Test
+	public void testSample_expressionsEqualToInterpretedSampling() {
+		FeatureDefinition height = new FeatureDefinition("Height", new GaussianDistribution(new FixedParameter<Double>(
+				175.0), new FixedParameter<Double>(10.0)));
+		FeatureDefinition tall = new FeatureDefinition("Tall", new ExpressionDistribution(
+				"sigmoid((Height - 175) / 5) > uniform()", Lists.newArrayList(height)));
+		FeatureDefinition gender = new FeatureDefinition("Gender", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5))));
+		FeatureDefinition score = new FeatureDefinition("Score", new ExpressionDistribution(
+				"if(Gender, Tall * 2, Height / 100 + gaussian())", Lists.newArrayList(gender, tall, height)));
+		FeatureDefinitionGraph graph = FeatureDefinitionGraph.createFromList(Lists.newArrayList(height, tall,
+				gender, score));
+		FusedSampler sampler = FusedSamplerCompiler.compile(graph, true, 42);
+
+		Iterator<Instance> interpreted = GeneratedInstances.of(graph, 1000, 42).iterator();
+		for (long id = 0; id < 1000; id++) {
+			assertThat(sampler.sample(id).equals(interpreted.next())).isTrue();
+		}
+	}
+
+	@Test(expected = IllegalSigmaParameterArgumentException.class)
+	public void testSample_illegalVariableSigma() {
+		FeatureDefinition parent = new FeatureDefinition("Parent", new GaussianDistribution(
+				new FixedParameter<Double>(-100.0), new FixedParameter<Double>(1.0)));
+		ContinuousVariableParameter sigma = new ContinuousVariableParameter(parent);
+		FeatureDefinition child = new FeatureDefinition("Child", new GaussianDistribution(new FixedParameter<Double>(
+				0.0), sigma));
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(parent);
+		graph.addFeatureDefinition(child);
+		graph.addFeatureDefinitionParameterDependency(parent, child, sigma);
+
+		FusedSamplerCompiler.compile(graph, true, 42).sample(0);
+	}
+
+	private int indexOf(String featureName) {
+		int index = 0;
+		for (FeatureDefinition featureDefinition : _graph) {
+			if (featureDefinition.getName().equals(featureName)) {
+				return index;
+			}
+			index++;
+		}
+		throw new IllegalArgumentException(featureName);
+	}
+
+	/**
+	 * Creates a graph mixing features sampled in place, continuous parameters wired in place and distributions and
+	 * parameters called through their fields.
+	 */
+	private static FeatureDefinitionGraph createGraph(double p) {
+		FeatureDefinition gender = new FeatureDefinition("Gender", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5))));
+		Map<DiscreteFeatureValue, Double> means = Maps.newHashMap();
+		means.put(new DiscreteFeatureValue(0), 170.0);
+		means.put(new DiscreteFeatureValue(1), 180.0);
+		DiscreteVariableParameter<Double> heightMean = new DiscreteVariableParameter<Double>(means, gender);
+		FeatureDefinition height = new FeatureDefinition("Height", new GaussianDistribution(heightMean,
+				new FixedParameter<Double>(10.0)));
+		ContinuousVariableParameter weightMean = new ContinuousVariableParameter(height);
+		FeatureDefinition age = new FeatureDefinition("Age", new GaussianDistribution(new FixedParameter<Double>(40.0),
+				new FixedParameter<Double>(5.0)));
+		ContinuousVariableParameter weightSigma = new ContinuousVariableParameter(age);
+		FeatureDefinition weight = new FeatureDefinition("Weight", new GaussianDistribution(weightMean, weightSigma));
+		ContinuousVariableParameter incomeMean = new ContinuousVariableParameter(age);
+		FeatureDefinition income = new FeatureDefinition("Income", new GaussianDistribution(incomeMean,
+				new FixedParameter<Double>(3.0)));
+		FeatureDefinition smoker = new FeatureDefinition("Smoker", new BernoulliDistribution(
+				new FixedParameter<Double>(p)));
+		FeatureDefinition id = new FeatureDefinition("Id", new UniqueKeyDistribution(1 << 20, 3));
+
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(gender);
+		graph.addFeatureDefinition(height);
+		graph.addFeatureDefinition(age);
+		graph.addFeatureDefinition(smoker);
+		graph.addFeatureDefinition(id);
+		graph.addFeatureDefinition(weight);
+		graph.addFeatureDefinition(income);
+		graph.addFeatureDefinitionParameterDependency(gender, height, heightMean);
+		graph.addFeatureDefinitionParameterDependency(height, weight, weightMean);
+		graph.addFeatureDefinitionParameterDependency(age, weight, weightSigma);
+		graph.addFeatureDefinitionParameterDependency(age, income, incomeMean);
+		return graph;
+	}
+
+}
@@ -0,0 +1,140 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sf.qualitycheck.exception.IllegalEmptyArgumentException;
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class GeneratedInstancesTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		FeatureDefinition mean = new FeatureDefinition("Mean", new GaussianDistribution(new FixedParameter<Double>(0d),
+				new FixedParameter<Double>(1d)));
+		ContinuousVariableParameter meanParameter = new ContinuousVariableParameter(mean);
+		FeatureDefinition value = new FeatureDefinition("Value", new GaussianDistribution(meanParameter,
+				new FixedParameter<Double>(1d)));
+		FeatureDefinition coin = new FeatureDefinition("Coin", new BernoulliDistribution(new FixedParameter<Double>(
+				0.5)));
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(mean);
+		_graph.addFeatureDefinitionParameterDependency(mean, value, meanParameter);
+		_graph.addFeatureDefinition(coin);
+	}
+
+	@Test(expected = IllegalEmptyArgumentException.class)
+	public void testCreate_emptyGraph() {
+		GeneratedInstances.of(new FeatureDefinitionGraph(), 1);
+	}
+
+	@Test
+	public void testIterator_isLazyAndMatchesDataGenerator() {
+		DummyExportConnection exportConnection = new DummyExportConnection();
+		new DataGenerator(100, exportConnection, _graph, 5).generate();
+
+		Iterator<Instance> instances = GeneratedInstances.of(_graph, 100, 5).iterator();
+		for (Instance expected : exportConnection.getInstances()) {
+			assertThat(instances.next().equals(expected)).isTrue();
+		}
+		assertThat(instances.hasNext()).isFalse();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testIterator_exhausted() {
+		Iterator<Instance> instances = GeneratedInstances.of(_graph, 1).iterator();
+		instances.next();
+		instances.next();
+	}
+
+	@Test
+	public void testSplit() {
+		List<GeneratedInstances> parts = GeneratedInstances.of(_graph, 10, 5).split(3);
+
+		assertThat(parts).hasSize(3);
+		assertThat(parts.get(0).getStartId()).isEqualTo(0);
+		assertThat(parts.get(0).size()).isEqualTo(4);
+		assertThat(parts.get(1).getStartId()).isEqualTo(4);
+		assertThat(parts.get(2).getStartId()).isEqualTo(7);
+		assertThat(parts.get(2).getEndId()).isEqualTo(10);
+	}
+
+	@Test
+	public void testSplit_morePartsThanInstances() {
+		assertThat(GeneratedInstances.of(_graph, 2).split(5)).hasSize(2);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSubRange_outOfRange() {
+		GeneratedInstances.of(_graph, 10).subRange(5, 11);
+	}
+
+	@Test
+	public void testSubRange_beyondIntegerRange() {
+		long startId = Integer.MAX_VALUE - 1L;
+		GeneratedInstances instances = GeneratedInstances.of(_graph, Long.MAX_VALUE, 5).subRange(startId,
+				startId + 3);
+
+		assertThat(instances.size()).isEqualTo(3);
+		long expectedId = startId;
+		for (Instance instance : instances) {
+			assertThat(instance.getId()).isEqualTo(expectedId++);
+		}
+		assertThat(expectedId).isEqualTo(Integer.MAX_VALUE + 2L);
+	}
+
+	@Test
+	public void testSplit_beyondIntegerRange() {
+		List<GeneratedInstances> parts = GeneratedInstances.of(_graph, 3L * Integer.MAX_VALUE).split(2);
+
+		assertThat(parts.get(0).size() + parts.get(1).size()).isEqualTo(3L * Integer.MAX_VALUE);
+		assertThat(parts.get(1).getEndId()).isEqualTo(3L * Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testSplit_parallelIterationYieldsSameInstances() throws Exception {
+		GeneratedInstances instances = GeneratedInstances.of(_graph, 5000, 17);
+		List<Instance> expected = Lists.newArrayList(instances);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<Instance>>> parts = Lists.newArrayList();
+			for (final GeneratedInstances part : instances.split(4)) {
+				parts.add(executor.submit(new Callable<List<Instance>>() {
+					@Override
+					public List<Instance> call() {
+						return Lists.newArrayList(part);
+					}
+				}));
+			}
+			List<Instance> actual = Lists.newArrayList();
+			for (Future<List<Instance>> part : parts) {
+				actual.addAll(part.get());
+			}
+			assertThat(actual).isEqualTo(expected);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.distributions.DummyDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.Parameter;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class GenerationCheckpointTest {
+
+	private File _checkpointFile;
+
+	@Before
+	public void createFile() {
+		_checkpointFile = new File("test.checkpoint");
+	}
+
+	@After
+	public void deleteFile() {
+		_checkpointFile.delete();
+	}
+
+	@Test
+	public void testWriteAndRead() {
+		GenerationCheckpoint checkpoint = new GenerationCheckpoint(5000, 2000, 123456L, -42L, "a:Gaussian,b:Bernoulli");
+		checkpoint.writeTo(_checkpointFile);
+
+		assertThat(GenerationCheckpoint.readFrom(_checkpointFile)).isEqualTo(checkpoint);
+		assertThat(new File(_checkpointFile.getPath() + ".tmp")).doesNotExist();
+	}
+
+	@Test
+	public void testWrite_replacesExistingCheckpoint() {
+		new GenerationCheckpoint(5000, 1000, 100L, 1L, "").writeTo(_checkpointFile);
+		GenerationCheckpoint checkpoint = new GenerationCheckpoint(5000, 2000, 200L, 1L, "");
+		checkpoint.writeTo(_checkpointFile);
+
+		assertThat(GenerationCheckpoint.readFrom(_checkpointFile)).isEqualTo(checkpoint);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_nextInstanceIdBeyondNumberOfInstances() {
+		new GenerationCheckpoint(10, 11, 0, 0, "");
+	}
+
+	@Test
+	public void testDescribeSchema() {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("a", new DummyDistribution()));
+		graph.addFeatureDefinition(new FeatureDefinition("b", new DummyDistribution()));
+
+		assertThat(GenerationCheckpoint.describeSchema(graph)).startsWith("a:DummyDistribution,b:DummyDistribution#");
+	}
+
+	@Test
+	public void testDescribeSchema_differentParameters() {
+		assertThat(GenerationCheckpoint.describeSchema(createGaussianGraph(1d))).isEqualTo(
+				GenerationCheckpoint.describeSchema(createGaussianGraph(1d)));
+		assertThat(GenerationCheckpoint.describeSchema(createGaussianGraph(1d))).isNotEqualTo(
+				GenerationCheckpoint.describeSchema(createGaussianGraph(2d)));
+	}
+
+	@Test
+	public void testDescribeSchema_differentDependencies() {
+		FeatureDefinition a = new FeatureDefinition("a", new DummyDistribution());
+		FeatureDefinition b = new FeatureDefinition("b", new DummyDistribution());
+		FeatureDefinitionGraph independent = new FeatureDefinitionGraph();
+		independent.addFeatureDefinition(a);
+		independent.addFeatureDefinition(b);
+		independent.addFeatureDefinition(createDependentFeature(null));
+		FeatureDefinitionGraph dependentOnA = new FeatureDefinitionGraph();
+		dependentOnA.addFeatureDefinition(a);
+		dependentOnA.addFeatureDefinition(b);
+		dependentOnA.addFeatureDefinition(createDependentFeature(a));
+		FeatureDefinitionGraph dependentOnB = new FeatureDefinitionGraph();
+		dependentOnB.addFeatureDefinition(a);
+		dependentOnB.addFeatureDefinition(b);
+		dependentOnB.addFeatureDefinition(createDependentFeature(b));
+
+		assertThat(GenerationCheckpoint.describeSchema(dependentOnA)).isNotEqualTo(
+				GenerationCheckpoint.describeSchema(independent));
+		assertThat(GenerationCheckpoint.describeSchema(dependentOnA)).isNotEqualTo(
+				GenerationCheckpoint.describeSchema(dependentOnB));
+	}
+
+	private static FeatureDefinitionGraph createGaussianGraph(double sigma) {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition("a", new GaussianDistribution(new FixedParameter<Double>(0d),
+				new FixedParameter<Double>(sigma))));
+		return graph;
+	}
+
+	private static FeatureDefinition createDependentFeature(FeatureDefinition parent) {
+		Parameter<Double> p;
+		if (parent == null) {
+			p = new FixedParameter<Double>(0.5);
+		} else {
+			p = new ConditionalTableParameter<Double>(Lists.newArrayList(parent), new int[] { 1 },
+					Lists.newArrayList(0.5));
+		}
+		return new FeatureDefinition("c", new BernoulliDistribution(p));
+	}
+
+}
@@ -0,0 +1,222 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.export.ExportConfiguration;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class GenerationSchedulerTest {
+
+	private FeatureDefinitionGraph _graph;
+	private GenerationScheduler _scheduler;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Gaussian", new GaussianDistribution(
+				new FixedParameter<Double>(0d), new FixedParameter<Double>(1d))));
+	}
+
+	@After
+	public void shutdownScheduler() throws InterruptedException {
+		if (_scheduler != null) {
+			_scheduler.shutdown();
+			assertThat(_scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testSubmit_parallelJobsYieldSameInstancesAsDataGenerator() throws InterruptedException {
+		_scheduler = new GenerationScheduler(4, 100);
+		List<DummyExportConnection> connections = Lists.newArrayList();
+		List<GenerationJob> jobs = Lists.newArrayList();
+		for (int i = 0; i < 5; i++) {
+			DummyExportConnection connection = new DummyExportConnection();
+			connections.add(connection);
+			jobs.add(_scheduler.submit(_graph, 2500 + i, i, configurationOf(connection), new JobBudget(3, 1000)));
+		}
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(jobs.get(i).awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+			assertThat(jobs.get(i).getNumberOfExportedInstances()).isEqualTo(2500 + i);
+			assertThat(jobs.get(i).getExportLocation()).isEqualTo(DummyExportConnection.class.getSimpleName());
+			DummyExportConnection expected = new DummyExportConnection();
+			new DataGenerator(2500 + i, expected, _graph, i).generate();
+			assertThat(connections.get(i).getMetaData() == _graph).isTrue();
+			assertThat(connections.get(i).getInstances()).isEqualTo(expected.getInstances());
+		}
+		assertThat(_scheduler.getJobs()).isEqualTo(jobs);
+		_scheduler.removeDoneJobs();
+		assertThat(_scheduler.getJobs()).isEmpty();
+	}
+
+	@Test(timeout = 10000)
+	public void testSubmit_bufferBudgetSmallerThanChunk() throws InterruptedException {
+		_scheduler = new GenerationScheduler(4, 100);
+		DummyExportConnection connection = new DummyExportConnection();
+		GenerationJob job = _scheduler.submit(_graph, 1000, 1, configurationOf(connection), new JobBudget(4, 1));
+
+		assertThat(job.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+		assertThat(connection.getInstances()).hasSize(1000);
+	}
+
+	@Test(timeout = 10000)
+	public void testSubmit_laterJobIsNotHeldUpByLargeJob() throws InterruptedException {
+		_scheduler = new GenerationScheduler(1, 10);
+		GenerationJob largeJob = _scheduler.submit(_graph, 1000000, 1, configurationOf(new CountingExportConnection()),
+				JobBudget.UNLIMITED);
+		GenerationJob smallJob = _scheduler.submit(_graph, 10, 2, configurationOf(new CountingExportConnection()),
+				JobBudget.UNLIMITED);
+
+		assertThat(smallJob.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+		assertThat(largeJob.getStatus()).isEqualTo(GenerationJob.Status.RUNNING);
+		assertThat(largeJob.getNumberOfExportedInstances()).isLessThan(1000000);
+	}
+
+	@Test(timeout = 10000)
+	public void testCancel() throws InterruptedException {
+		_scheduler = new GenerationScheduler(2, 10);
+		final CountDownLatch exporting = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		CountingExportConnection connection = new CountingExportConnection() {
+			@Override
+			protected void exportInstanceStrategy(Instance instance) {
+				super.exportInstanceStrategy(instance);
+				exporting.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		GenerationJob job = _scheduler.submit(_graph, 1000, 1, configurationOf(connection), JobBudget.UNLIMITED);
+		exporting.await();
+
+		assertThat(job.cancel()).isTrue();
+		release.countDown();
+
+		assertThat(job.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.CANCELLED);
+		assertThat(job.getNumberOfExportedInstances()).isLessThan(1000);
+		assertThat(connection.isClosed()).isTrue();
+		assertThat(job.cancel()).isFalse();
+	}
+
+	@Test(timeout = 10000)
+	public void testCancel_queuedJob() throws InterruptedException {
+		_scheduler = new GenerationScheduler(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		GenerationJob blockingJob = _scheduler.submit(_graph, 1, 1, configurationOf(new CountingExportConnection() {
+			@Override
+			protected void exportInstanceStrategy(Instance instance) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}), JobBudget.UNLIMITED);
+		CountingExportConnection connection = new CountingExportConnection();
+		GenerationJob queuedJob = _scheduler.submit(_graph, 10, 1, configurationOf(connection), JobBudget.UNLIMITED);
+
+		assertThat(queuedJob.cancel()).isTrue();
+		assertThat(queuedJob.getStatus()).isEqualTo(GenerationJob.Status.CANCELLED);
+		assertThat(queuedJob.getExportLocation()).isNull();
+		release.countDown();
+		assertThat(blockingJob.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+		assertThat(connection.getNumberOfInstances()).isEqualTo(0);
+	}
+
+	@Test(timeout = 10000)
+	public void testFailure() throws InterruptedException {
+		_scheduler = new GenerationScheduler(2, 10);
+		final IllegalStateException failure = new IllegalStateException();
+		CountingExportConnection connection = new CountingExportConnection() {
+			@Override
+			protected void exportInstanceStrategy(Instance instance) {
+				super.exportInstanceStrategy(instance);
+				if (instance.getId() == 55) {
+					throw failure;
+				}
+			}
+		};
+		GenerationJob job = _scheduler.submit(_graph, 1000, 1, configurationOf(connection), JobBudget.UNLIMITED);
+
+		assertThat(job.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.FAILED);
+		assertThat(job.getFailure()).isSameAs(failure);
+		assertThat(job.getNumberOfExportedInstances()).isEqualTo(50);
+		assertThat(connection.isClosed()).isTrue();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSubmit_afterShutdown() {
+		_scheduler = new GenerationScheduler(1);
+		_scheduler.shutdown();
+		_scheduler.submit(_graph, 10, configurationOf(new CountingExportConnection()), JobBudget.UNLIMITED);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSubmit_nonPositiveNumberOfInstances() {
+		_scheduler = new GenerationScheduler(1);
+		_scheduler.submit(_graph, 0, configurationOf(new CountingExportConnection()), JobBudget.UNLIMITED);
+	}
+
+	private static ExportConfiguration configurationOf(final ExportConnection connection) {
+		return new ExportConfiguration() {
+			@Override
+			public ExportConnection createExportConnection() {
+				return connection;
+			}
+		};
+	}
+
+	private static class CountingExportConnection extends ExportConnection {
+
+		private volatile long _numberOfInstances = 0;
+		private volatile boolean _closed = false;
+
+		@Override
+		protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		}
+
+		@Override
+		protected void exportInstanceStrategy(Instance instance) {
+			_numberOfInstances++;
+		}
+
+		@Override
+		public void close() {
+			_closed = true;
+		}
+
+		@Override
+		public String getExportLocation() {
+			return CountingExportConnection.class.getSimpleName();
+		}
+
+		public long getNumberOfInstances() {
+			return _numberOfInstances;
+		}
+
+		public boolean isClosed() {
+			return _closed;
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.frosner.datagenerator.distributions.DummyDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class PacedDataGeneratorTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Feature", new DummyDistribution()));
+	}
+
+	@Test(timeout = 10000)
+	public void testGenerate_constantRate() {
+		DummyExportConnection out = new DummyExportConnection();
+		PacingReport report = new PacedDataGenerator(4000, out, _graph, RateProfile.constant(10000)).generate();
+
+		assertThat(out.getInstances()).hasSize(4000);
+		for (int i = 0; i < 4000; i++) {
+			assertThat(out.getInstances().get(i).getId()).isEqualTo(i);
+		}
+		assertThat(report.getNumberOfInstances()).isEqualTo(4000);
+		// only generating too fast is checked, as pauses of a loaded host may slow the generation down arbitrarily
+		assertThat(TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos())).isGreaterThanOrEqualTo(390);
+		assertThat(report.getAchievedRate()).isLessThan(10300);
+		assertThat(report.getLag()).isEqualTo(0);
+	}
+
+	@Test(timeout = 10000)
+	public void testGenerate_slowExportConnection() {
+		DummyExportConnection out = new DummyExportConnection() {
+			@Override
+			protected void exportInstanceStrategy(Instance instance) {
+				super.exportInstanceStrategy(instance);
+				if (instance.getId() % 10 == 0) {
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		};
+		PacingReport report = new PacedDataGenerator(1000, out, _graph, RateProfile.constant(100000)).generate();
+
+		assertThat(out.getInstances()).hasSize(1000);
+		assertThat(report.getAchievedRate()).isLessThan(20000);
+		assertThat(report.getMaxLag()).isGreaterThan(100);
+	}
+
+	@Test(timeout = 10000)
+	public void testGenerate_interrupted() {
+		DummyExportConnection out = new DummyExportConnection();
+		Thread.currentThread().interrupt();
+		PacingReport report = new PacedDataGenerator(1000, out, _graph, RateProfile.constant(10)).generate();
+
+		assertThat(Thread.interrupted()).isTrue();
+		assertThat(report.getNumberOfInstances()).isEqualTo(0);
+	}
+
+}
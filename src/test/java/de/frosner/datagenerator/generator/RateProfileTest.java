@@ -0,0 +1,62 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Test;
+
+public class RateProfileTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void testConstant() {
+		RateProfile profile = RateProfile.constant(1000);
+		assertThat(profile.getNumberOfDueInstances(0)).isEqualTo(0, delta(1e-9));
+		assertThat(profile.getNumberOfDueInstances(SECOND / 2)).isEqualTo(500, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(3600 * SECOND)).isEqualTo(3600000, delta(1e-3));
+		assertThat(profile.getRate(5 * SECOND)).isEqualTo(1000, delta(1e-9));
+	}
+
+	@Test
+	public void testRamp() {
+		RateProfile profile = RateProfile.ramp(0, 1000, 2000);
+		assertThat(profile.getRate(SECOND)).isEqualTo(500, delta(1e-9));
+		assertThat(profile.getNumberOfDueInstances(SECOND)).isEqualTo(250, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(2 * SECOND)).isEqualTo(1000, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(3 * SECOND)).isEqualTo(2000, delta(1e-6));
+		assertThat(profile.getRate(3 * SECOND)).isEqualTo(1000, delta(1e-9));
+	}
+
+	@Test
+	public void testRamp_decreasing() {
+		RateProfile profile = RateProfile.ramp(1000, 200, 1000);
+		assertThat(profile.getNumberOfDueInstances(SECOND)).isEqualTo(600, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(2 * SECOND)).isEqualTo(800, delta(1e-6));
+	}
+
+	@Test
+	public void testBurst() {
+		RateProfile profile = RateProfile.burst(100, 1000, 1000, 200);
+		assertThat(profile.getRate(SECOND / 10)).isEqualTo(1000, delta(1e-9));
+		assertThat(profile.getRate(SECOND / 2)).isEqualTo(100, delta(1e-9));
+		assertThat(profile.getNumberOfDueInstances(SECOND / 5)).isEqualTo(200, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(SECOND)).isEqualTo(280, delta(1e-6));
+		assertThat(profile.getNumberOfDueInstances(SECOND + SECOND / 10)).isEqualTo(380, delta(1e-6));
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testConstant_zeroRate() {
+		RateProfile.constant(0);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testBurst_longerThanPeriod() {
+		RateProfile.burst(100, 1000, 100, 200);
+	}
+
+}
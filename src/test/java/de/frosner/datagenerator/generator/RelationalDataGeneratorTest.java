@@ -0,0 +1,226 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.export.CsvExportConnection;
+import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class RelationalDataGeneratorTest {
+
+	private TableDefinition _customers;
+	private TableDefinition _orders;
+	private TableDefinition _lineItems;
+
+	@Before
+	public void createSchema() {
+		_customers = TableDefinition.root("customers", createGraph("Premium"), 2500);
+		_orders = TableDefinition.child("orders", createGraph("Express"), _customers, "customer_id", createFanOut());
+		_lineItems = TableDefinition.child("line_items", createGraph("Gift"), _orders, "order_id", createFanOut());
+	}
+
+	@Test
+	public void testGenerate() {
+		Map<TableDefinition, ByteArrayOutputStream> outputs = generate(42);
+
+		List<String[]> customers = parse(outputs.get(_customers));
+		List<String[]> orders = parse(outputs.get(_orders));
+		List<String[]> lineItems = parse(outputs.get(_lineItems));
+		assertThat(customers).hasSize(2500);
+		assertThat(orders.size()).isGreaterThan(2500);
+		assertThat(lineItems.size()).isGreaterThan(orders.size());
+		assertForeignKeys(orders, customers.size());
+		assertForeignKeys(lineItems, orders.size());
+	}
+
+	@Test
+	public void testGenerate_reproducible() {
+		Map<TableDefinition, ByteArrayOutputStream> first = generate(7);
+		Map<TableDefinition, ByteArrayOutputStream> second = generate(7);
+		for (TableDefinition table : Lists.newArrayList(_customers, _orders, _lineItems)) {
+			assertThat(first.get(table).toString()).isEqualTo(second.get(table).toString());
+		}
+	}
+
+	@Test
+	public void testGetFeatureDefinitionGraph_foreignKeyFirst() {
+		assertThat(Lists.newArrayList(_orders.getFeatureDefinitionGraph()).get(0).getName()).isEqualTo(
+				"customer_id");
+		assertThat(_orders.getFeatureDefinitionGraph().getNumberOfFeatures()).isEqualTo(2);
+	}
+
+	@Test(timeout = 10000, expected = IllegalStateException.class)
+	public void testGenerate_failingChild() {
+		Map<TableDefinition, ExportConnection> tables = Maps.newLinkedHashMap();
+		tables.put(_customers, new CsvExportConnection(new ByteArrayOutputStream(), ExportFeatureNames.NO,
+				ExportInstanceIds.YES));
+		tables.put(_orders, new ExportConnection() {
+			@Override
+			protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+			}
+
+			@Override
+			protected void exportInstanceStrategy(Instance instance) {
+				throw new IllegalStateException("failure");
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public String getExportLocation() {
+				return "failing";
+			}
+		});
+		new RelationalDataGenerator(tables).generate();
+	}
+
+	@Test(timeout = 10000)
+	public void testGenerate_interrupted() throws InterruptedException {
+		TableDefinition events = TableDefinition.root("events", createGraph("Flag"), Long.MAX_VALUE);
+		final CountingExportConnection out = new CountingExportConnection();
+		final RelationalDataGenerator generator = new RelationalDataGenerator(
+				ImmutableMap.<TableDefinition, ExportConnection> of(events, out));
+		final AtomicBoolean result = new AtomicBoolean(true);
+		final AtomicBoolean interrupted = new AtomicBoolean(false);
+		final AtomicLong exportedOnReturn = new AtomicLong();
+		Thread generation = new Thread() {
+			@Override
+			public void run() {
+				result.set(generator.generate());
+				exportedOnReturn.set(out.getNumberOfInstances());
+				interrupted.set(Thread.currentThread().isInterrupted());
+			}
+		};
+		generation.start();
+		while (out.getNumberOfInstances() < RelationalDataGenerator.GENERATION_RANGE) {
+			Thread.sleep(1);
+		}
+		generation.interrupt();
+		generation.join();
+		Thread.sleep(100);
+
+		assertThat(result.get()).isFalse();
+		assertThat(interrupted.get()).isTrue();
+		assertThat(out.getNumberOfInstances()).isEqualTo(exportedOnReturn.get());
+		assertThat(generator.getNumberOfGeneratedRows(events)).isEqualTo(0);
+	}
+
+	@Test
+	public void testCreate_rootWithMoreRowsThanInt() {
+		TableDefinition events = TableDefinition.root("events", createGraph("Flag"), 3L * Integer.MAX_VALUE);
+
+		assertThat(events.getNumberOfRows()).isEqualTo(3L * Integer.MAX_VALUE);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSample_foreignKeyBeyondInt() {
+		_orders.getForeignKey().setParentId(Integer.MAX_VALUE + 1L);
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_parentMissing() {
+		Map<TableDefinition, ExportConnection> tables = Maps.newHashMap();
+		tables.put(_orders, new CsvExportConnection(new ByteArrayOutputStream(), ExportFeatureNames.NO,
+				ExportInstanceIds.YES));
+		new RelationalDataGenerator(tables);
+	}
+
+	private static final class CountingExportConnection extends ExportConnection {
+
+		private final AtomicLong _numberOfInstances = new AtomicLong();
+
+		@Override
+		protected void exportMetaDataStrategy(FeatureDefinitionGraph featureDefinitions) {
+		}
+
+		@Override
+		protected void exportInstanceStrategy(Instance instance) {
+			_numberOfInstances.incrementAndGet();
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String getExportLocation() {
+			return "counting";
+		}
+
+		long getNumberOfInstances() {
+			return _numberOfInstances.get();
+		}
+
+	}
+
+	private Map<TableDefinition, ByteArrayOutputStream> generate(long seed) {
+		Map<TableDefinition, ByteArrayOutputStream> outputs = Maps.newHashMap();
+		Map<TableDefinition, ExportConnection> tables = Maps.newLinkedHashMap();
+		for (TableDefinition table : Lists.newArrayList(_lineItems, _orders, _customers)) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			outputs.put(table, output);
+			tables.put(table, new CsvExportConnection(output, ExportFeatureNames.NO, ExportInstanceIds.YES));
+		}
+		RelationalDataGenerator generator = new RelationalDataGenerator(tables, seed);
+		assertThat(generator.generate()).isTrue();
+		for (Map.Entry<TableDefinition, ExportConnection> table : tables.entrySet()) {
+			table.getValue().close();
+		}
+		assertThat(generator.getNumberOfGeneratedRows(_customers)).isEqualTo(2500);
+		return outputs;
+	}
+
+	private static void assertForeignKeys(List<String[]> rows, int numberOfParents) {
+		int previousForeignKey = 0;
+		for (int i = 0; i < rows.size(); i++) {
+			assertThat(Integer.parseInt(rows.get(i)[0])).isEqualTo(i);
+			int foreignKey = Integer.parseInt(rows.get(i)[1]);
+			assertThat(foreignKey).isGreaterThanOrEqualTo(previousForeignKey).isLessThan(numberOfParents);
+			previousForeignKey = foreignKey;
+		}
+	}
+
+	private static List<String[]> parse(ByteArrayOutputStream output) {
+		List<String[]> rows = Lists.newArrayList();
+		for (String line : output.toString().split("\n")) {
+			if (!line.isEmpty()) {
+				rows.add(line.split(","));
+			}
+		}
+		return rows;
+	}
+
+	private static FeatureDefinitionGraph createGraph(String flagName) {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(new FeatureDefinition(flagName, new BernoulliDistribution(
+				new FixedParameter<Double>(0.3))));
+		return graph;
+	}
+
+	private static CategorialDistribution createFanOut() {
+		return new CategorialDistribution(new FixedParameter<List<Double>>(Lists.newArrayList(0.1, 0.3, 0.4, 0.2)));
+	}
+
+}
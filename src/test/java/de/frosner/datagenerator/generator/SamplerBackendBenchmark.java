@@ -0,0 +1,88 @@
+package de.frosner.datagenerator.generator;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+/**
+ * Compares the throughput of the interpreted and the fused {@linkplain SamplerBackend} on a graph of mixed features.
+ * It is not run with the tests, start it with the number of instances to sample as optional argument.
+ */
+public final class SamplerBackendBenchmark {
+
+	private static final int NUMBER_OF_ROUNDS = 5;
+
+	private SamplerBackendBenchmark() {
+		throw new UnsupportedOperationException();
+	}
+
+	public static void main(String[] args) {
+		int numberOfInstances = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		FeatureDefinitionGraph graph = createGraph();
+		InstanceSampler interpreted = new InstanceSampler(graph, true, 42, SamplerBackend.INTERPRETED);
+		InstanceSampler fused = new InstanceSampler(graph, true, 42, SamplerBackend.FUSED);
+		if (!fused.isFused()) {
+			System.out.println("No Java compiler available, fused backend falls back to interpreted sampling.");
+		}
+
+		for (int round = 1; round <= NUMBER_OF_ROUNDS; round++) {
+			System.out.printf("Round %d: interpreted %,d instances/s, fused %,d instances/s%n", round,
+					measure(interpreted, numberOfInstances), measure(fused, numberOfInstances));
+		}
+	}
+
+	private static long measure(InstanceSampler sampler, int numberOfInstances) {
+		long start = System.nanoTime();
+		int checksum = 0;
+		for (long id = 0; id < numberOfInstances; id++) {
+			checksum += sampler.sample(id).getFeatureValue(0).hashCode();
+		}
+		long elapsed = Math.max(1, System.nanoTime() - start);
+		if (checksum == 42) {
+			System.out.println();
+		}
+		return numberOfInstances * 1000000000L / elapsed;
+	}
+
+	private static FeatureDefinitionGraph createGraph() {
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		FeatureDefinition gender = new FeatureDefinition("Gender", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5))));
+		Map<DiscreteFeatureValue, Double> means = Maps.newHashMap();
+		means.put(new DiscreteFeatureValue(0), 170.0);
+		means.put(new DiscreteFeatureValue(1), 180.0);
+		DiscreteVariableParameter<Double> heightMean = new DiscreteVariableParameter<Double>(means, gender);
+		FeatureDefinition height = new FeatureDefinition("Height", new GaussianDistribution(heightMean,
+				new FixedParameter<Double>(10.0)));
+		graph.addFeatureDefinition(gender);
+		graph.addFeatureDefinition(height);
+		graph.addFeatureDefinitionParameterDependency(gender, height, heightMean);
+
+		for (int i = 0; i < 4; i++) {
+			FeatureDefinition age = new FeatureDefinition("Age" + i, new GaussianDistribution(
+					new FixedParameter<Double>(40.0), new FixedParameter<Double>(5.0)));
+			ContinuousVariableParameter incomeMean = new ContinuousVariableParameter(age);
+			FeatureDefinition income = new FeatureDefinition("Income" + i, new GaussianDistribution(incomeMean,
+					new FixedParameter<Double>(3.0)));
+			FeatureDefinition smoker = new FeatureDefinition("Smoker" + i, new BernoulliDistribution(
+					new FixedParameter<Double>(0.3)));
+			graph.addFeatureDefinition(age);
+			graph.addFeatureDefinition(income);
+			graph.addFeatureDefinition(smoker);
+			graph.addFeatureDefinitionParameterDependency(age, income, incomeMean);
+		}
+		return graph;
+	}
+
+}
@@ -0,0 +1,93 @@
+package de.frosner.datagenerator.generator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.ContinuousFeatureValue;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+
+public class SortedDataGeneratorTest {
+
+	@Rule
+	public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+	private FeatureDefinitionGraph _graph;
+	private DummyExportConnection _connection;
+
+	@Before
+	public void createGraph() {
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(170.0), new FixedParameter<Double>(10.0))));
+		_graph.addFeatureDefinition(new FeatureDefinition("Group", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.2, 0.3, 0.5)))));
+		_connection = new DummyExportConnection();
+	}
+
+	@Test
+	public void testGenerate_inMemory() {
+		new SortedDataGenerator(1000, _connection, _graph, 42, "Height").generate();
+
+		assertThat(_connection.getMetaData() == _graph).isTrue();
+		assertThat(_connection.getInstances().equals(expectedInstances(1000, 0))).isTrue();
+	}
+
+	@Test
+	public void testGenerate_externalMergeOfRuns() throws Exception {
+		File directory = _temporaryFolder.newFolder();
+
+		new SortedDataGenerator(5000, _connection, _graph, 42, "Height", 64 * 1024, 4, directory).generate();
+
+		assertThat(_connection.getInstances().equals(expectedInstances(5000, 0))).isTrue();
+		assertThat(directory.list()).isEmpty();
+	}
+
+	@Test
+	public void testGenerate_severalMergePasses() throws Exception {
+		File directory = _temporaryFolder.newFolder();
+
+		new SortedDataGenerator(5000, _connection, _graph, 42, "Group", 16 * 1024, 3, directory, 4).generate();
+
+		assertThat(_connection.getInstances().equals(expectedInstances(5000, 1))).isTrue();
+		assertThat(directory.list()).isEmpty();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_unknownFeature() {
+		new SortedDataGenerator(10, _connection, _graph, 42, "Age");
+	}
+
+	private List<Instance> expectedInstances(int numberOfInstances, final int featureIndex) {
+		List<Instance> instances = Lists.newArrayList(GeneratedInstances.of(_graph, numberOfInstances, 42));
+		Collections.sort(instances, new Comparator<Instance>() {
+			@Override
+			public int compare(Instance instance1, Instance instance2) {
+				int comparison = (featureIndex == 0) ? Double.compare(((ContinuousFeatureValue) instance1
+						.getFeatureValue(0)).getDoubleValue(), ((ContinuousFeatureValue) instance2.getFeatureValue(0))
+						.getDoubleValue()) : Integer.valueOf(
+						((DiscreteFeatureValue) instance1.getFeatureValue(1)).getIntValue()).compareTo(
+						((DiscreteFeatureValue) instance2.getFeatureValue(1)).getIntValue());
+				return (comparison != 0) ? comparison : Long.valueOf(instance1.getId()).compareTo(instance2.getId());
+			}
+		});
+		return instances;
+	}
+
+}
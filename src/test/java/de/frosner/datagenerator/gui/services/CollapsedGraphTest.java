@@ -0,0 +1,69 @@
+package de.frosner.datagenerator.gui.services;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import de.frosner.datagenerator.gui.services.CollapsedGraph.LayerNode;
+
+public class CollapsedGraphTest {
+
+	private List<List<String>> _layers;
+	private Map<String, List<String>> _children;
+
+	@Before
+	public void createGraph() {
+		_layers = Lists.newArrayList();
+		_layers.add(Lists.newArrayList("a", "b"));
+		_layers.add(Lists.newArrayList("c", "d", "e"));
+		_layers.add(Lists.newArrayList("f"));
+		_children = Maps.newHashMap();
+		_children.put("a", Lists.newArrayList("c", "d"));
+		_children.put("b", Lists.newArrayList("e", "f"));
+		_children.put("c", Lists.newArrayList("f"));
+		_children.put("d", Lists.newArrayList("f"));
+	}
+
+	@Test
+	public void testCreate_allLayersCollapsed() {
+		CollapsedGraph<String> graph = new CollapsedGraph<String>(_layers, _children,
+				CollapsedGraph.NO_EXPANDED_LAYER);
+
+		LayerNode first = new LayerNode(0, 2);
+		LayerNode second = new LayerNode(1, 3);
+		LayerNode third = new LayerNode(2, 1);
+		assertThat(graph.getNodes()).containsExactly(first, second, third);
+		assertThat(graph.getChildren()).hasSize(2);
+		assertThat(graph.getChildren().get(first)).containsOnly(second, third);
+		assertThat(graph.getChildren().get(second)).containsOnly(third);
+		assertThat(first.toString()).isEqualTo("Layer 1 (2 features)");
+	}
+
+	@Test
+	public void testCreate_expandedLayer() {
+		CollapsedGraph<String> graph = new CollapsedGraph<String>(_layers, _children, 1);
+
+		LayerNode first = new LayerNode(0, 2);
+		LayerNode third = new LayerNode(2, 1);
+		assertThat(graph.getNodes()).containsExactly(first, "c", "d", "e", third);
+		assertThat(graph.getChildren().get(first)).containsOnly("c", "d", "e", third);
+		assertThat(graph.getChildren().get("c")).containsOnly(third);
+		assertThat(graph.getChildren().get("d")).containsOnly(third);
+		assertThat(graph.getChildren().get("e")).isNull();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_expandedLayerOutOfRange() {
+		new CollapsedGraph<String>(_layers, _children, 3);
+	}
+
+}
@@ -1,19 +1,43 @@
 package de.frosner.datagenerator.gui.services;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
 import de.frosner.datagenerator.distributions.DummyDistribution;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.export.CsvExportConnection;
+import de.frosner.datagenerator.export.CsvFileExportConfiguration;
 import de.frosner.datagenerator.export.ExportConfiguration;
 import de.frosner.datagenerator.export.ExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportInstanceIds;
 import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GenerationCheckpoint;
+import de.frosner.datagenerator.generator.GenerationJob;
 import de.frosner.datagenerator.generator.Instance;
+import de.frosner.datagenerator.generator.JobBudget;
 import de.frosner.datagenerator.gui.main.DummyFeatureDefinitionEntry;
 import de.frosner.datagenerator.gui.main.FeatureDefinitionEntry;
 
@@ -24,6 +48,7 @@ public class DataGeneratorServiceTest {
 	@Mock
 	private ExportConfiguration _mockedExportConfiguration;
 	private DataGeneratorService _service;
+	private File _exportFile = new File("test.csv");
 
 	private FeatureDefinitionEntry _feature1 = new DummyFeatureDefinitionEntry(new FeatureDefinition("1",
 			new DummyDistribution()));
@@ -82,4 +107,93 @@ public class DataGeneratorServiceTest {
 				new Instance(0, DummyDistribution.ANY_SAMPLE, DummyDistribution.ANY_SAMPLE));
 		verify(_mockedExportConnection).close();
 	}
+
+	@Test(timeout = 10000)
+	public void testSubmitGeneration() throws InterruptedException {
+		_service.addFeatureDefinition(_feature1);
+		_service.addFeatureDefinition(_feature2);
+
+		GenerationJob first = _service.submitGeneration(5, _mockedExportConfiguration, JobBudget.UNLIMITED);
+		_service.removeFeatureDefinition(_feature2);
+		GenerationJob second = _service.submitGeneration(3, _mockedExportConfiguration, new JobBudget(1, 1));
+
+		assertThat(first.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+		assertThat(second.awaitCompletion(5, TimeUnit.SECONDS)).isEqualTo(GenerationJob.Status.SUCCEEDED);
+		assertThat(_service.getGenerationJobs()).containsExactly(first, second);
+		verify(_mockedExportConnection).exportInstance(
+				new Instance(4, DummyDistribution.ANY_SAMPLE, DummyDistribution.ANY_SAMPLE));
+		verify(_mockedExportConnection).exportInstance(new Instance(2, DummyDistribution.ANY_SAMPLE));
+		verify(_mockedExportConnection, times(2)).close();
+	}
+
+	@Test
+	public void testImportFeatureDefinitions() {
+		FeatureDefinition parent = new FeatureDefinition("parent", new BernoulliDistribution(
+				new FixedParameter<Double>(0.5)));
+		FeatureDefinition child = new FeatureDefinition("child", new BernoulliDistribution(
+				new ConditionalTableParameter<Double>(Lists.newArrayList(parent), new int[] { 2 }, Lists
+						.newArrayList(0.1, 0.9))));
+		_service.addFeatureDefinition(_feature1);
+
+		_service.importFeatureDefinitions(FeatureDefinitionGraph.createFromList(Lists.newArrayList(parent, child)));
+
+		assertThat(_service.getFeatureDefinitions()).containsExactly(_feature1.getFeatureDefinition(), parent, child);
+	}
+
+	@Test
+	public void testResumeData() throws IOException {
+		FeatureDefinition gaussian = new FeatureDefinition("gaussian", new GaussianDistribution(
+				new FixedParameter<Double>(0d), new FixedParameter<Double>(1d)));
+		_service.addFeatureDefinition(new DummyFeatureDefinitionEntry(gaussian));
+		CsvFileExportConfiguration config = new CsvFileExportConfiguration(_exportFile, ExportInstanceIds.YES,
+				ExportFeatureNames.YES);
+
+		Thread.currentThread().interrupt();
+		_service.generateData(2500, config);
+		GenerationCheckpoint checkpoint = GenerationCheckpoint.readFrom(config.getCheckpointFile());
+		assertThat(checkpoint.getNextInstanceId()).isEqualTo(1000);
+		Files.append("1000,partially written line", _exportFile, Charsets.UTF_8);
+
+		_service.resumeData(config);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ExportConnection expectedConnection = new CsvExportConnection(expected, ExportFeatureNames.YES,
+				ExportInstanceIds.YES);
+		new DataGenerator(2500, expectedConnection, FeatureDefinitionGraph.createFromList(_service
+				.getFeatureDefinitions()), checkpoint.getSeed()).generate();
+		expectedConnection.close();
+		assertThat(Files.toString(_exportFile, Charsets.UTF_8)).isEqualTo(expected.toString());
+		assertThat(config.getCheckpointFile()).doesNotExist();
+	}
+
+	@Test
+	public void testResumeData_changedParameters() throws IOException {
+		FeatureDefinitionEntry gaussian = new DummyFeatureDefinitionEntry(new FeatureDefinition("gaussian",
+				new GaussianDistribution(new FixedParameter<Double>(0d), new FixedParameter<Double>(1d))));
+		_service.addFeatureDefinition(gaussian);
+		CsvFileExportConfiguration config = new CsvFileExportConfiguration(_exportFile, ExportInstanceIds.YES,
+				ExportFeatureNames.YES);
+		Thread.currentThread().interrupt();
+		_service.generateData(2500, config);
+		String interruptedExport = Files.toString(_exportFile, Charsets.UTF_8);
+
+		_service.replaceFeatureDefinition(gaussian, new DummyFeatureDefinitionEntry(new FeatureDefinition("gaussian",
+				new GaussianDistribution(new FixedParameter<Double>(0d), new FixedParameter<Double>(2d)))));
+		_service.resumeData(config);
+
+		assertThat(Files.toString(_exportFile, Charsets.UTF_8)).isEqualTo(interruptedExport);
+		assertThat(config.getCheckpointFile()).exists();
+	}
+
+	@After
+	public void resetService() {
+		_service.reset();
+	}
+
+	@After
+	public void deleteFiles() {
+		new File(_exportFile.getPath() + ".checkpoint").delete();
+		_exportFile.delete();
+	}
+
 }
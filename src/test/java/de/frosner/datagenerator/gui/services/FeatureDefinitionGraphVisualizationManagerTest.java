@@ -4,15 +4,21 @@ import static org.fest.assertions.Assertions.assertThat;
 import static org.fest.swing.edt.GuiActionRunner.execute;
 
 import java.awt.AWTException;
+import java.util.List;
 
 import org.fest.swing.edt.FailOnThreadViolationRepaintManager;
+import org.fest.swing.edt.GuiQuery;
 import org.fest.swing.edt.GuiTask;
+import org.jgraph.JGraph;
+import org.jgraph.graph.GraphModel;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.google.common.collect.Lists;
+
 import de.frosner.datagenerator.distributions.DummyDistribution;
 import de.frosner.datagenerator.features.FeatureDefinition;
 import de.frosner.datagenerator.gui.main.DummyFeatureDefinitionEntry;
@@ -85,4 +91,82 @@ public class FeatureDefinitionGraphVisualizationManagerTest {
 				.isTrue();
 	}
 
+	@Test
+	public void testBatchUpdate() {
+		FeatureDefinitionGraphVisualizationManager.beginBatchUpdate();
+		FeatureDefinitionGraphVisualizationManager.addVertex(_entry1);
+		FeatureDefinitionGraphVisualizationManager.addVertex(_entry2);
+		FeatureDefinitionGraphVisualizationManager.addEdge(_entry1, _entry2);
+		FeatureDefinitionGraphVisualizationManager.endBatchUpdate();
+		_testUtil.delay();
+
+		assertThat(FeatureDefinitionGraphVisualizationManager._featureGraphModel.vertexSet()).containsOnly(_entry1,
+				_entry2);
+		assertThat(FeatureDefinitionGraphVisualizationManager._featureGraphModel.containsEdge(_entry1, _entry2))
+				.isTrue();
+		assertThat(getNumberOfLayouts()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCollapsedView() {
+		FeatureDefinitionGraphVisualizationManager.beginBatchUpdate();
+		FeatureDefinitionGraphVisualizationManager.addVertex(_entry1);
+		FeatureDefinitionGraphVisualizationManager.addVertex(_entry2);
+		FeatureDefinitionGraphVisualizationManager.addEdge(_entry1, _entry2);
+		for (int i = 1; i < FeatureDefinitionGraphVisualizationManager.COLLAPSED_VIEW_THRESHOLD; i++) {
+			FeatureDefinitionEntry child = new DummyFeatureDefinitionEntry(new FeatureDefinition("child" + i,
+					new DummyDistribution()));
+			FeatureDefinitionGraphVisualizationManager.addVertex(child);
+			FeatureDefinitionGraphVisualizationManager.addEdge(_entry1, child);
+		}
+		FeatureDefinitionGraphVisualizationManager.endBatchUpdate();
+		_testUtil.delay(1000);
+
+		assertThat(FeatureDefinitionGraphVisualizationManager._featureGraphModel.vertexSet()).hasSize(
+				FeatureDefinitionGraphVisualizationManager.COLLAPSED_VIEW_THRESHOLD + 1);
+		assertThat(getShownValues()).containsOnly(new CollapsedGraph.LayerNode(0, 1),
+				new CollapsedGraph.LayerNode(1, FeatureDefinitionGraphVisualizationManager.COLLAPSED_VIEW_THRESHOLD));
+
+		execute(new GuiTask() {
+			@Override
+			public void executeInEDT() {
+				JGraph graph = FeatureDefinitionGraphVisualizationManager._featureGraph;
+				graph.setSelectionCell(graph.getModel().getRootAt(1));
+			}
+		});
+		_testUtil.delay(1000);
+
+		assertThat(getShownValues()).hasSize(FeatureDefinitionGraphVisualizationManager.COLLAPSED_VIEW_THRESHOLD + 1)
+				.contains(new CollapsedGraph.LayerNode(0, 1), _entry2);
+	}
+
+	private static int getNumberOfLayouts() {
+		return execute(new GuiQuery<Integer>() {
+			@Override
+			public Integer executeInEDT() {
+				return FeatureDefinitionGraphVisualizationManager._numberOfLayouts;
+			}
+		});
+	}
+
+	/**
+	 * Returns the features and collapsed layers shown by the managed graph, ignoring edges.
+	 */
+	private static List<Object> getShownValues() {
+		return execute(new GuiQuery<List<Object>>() {
+			@Override
+			public List<Object> executeInEDT() {
+				GraphModel model = FeatureDefinitionGraphVisualizationManager._featureGraph.getModel();
+				List<Object> values = Lists.newArrayList();
+				for (int i = 0; i < model.getRootCount(); i++) {
+					Object root = model.getRootAt(i);
+					if (!model.isEdge(root)) {
+						values.add(model.getValue(root));
+					}
+				}
+				return values;
+			}
+		});
+	}
+
 }
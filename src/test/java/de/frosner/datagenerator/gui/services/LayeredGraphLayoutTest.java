@@ -0,0 +1,139 @@
+package de.frosner.datagenerator.gui.services;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class LayeredGraphLayoutTest {
+
+	private static final Dimension SIZE = new Dimension(100, 20);
+
+	private LayeredGraphLayout<String> _layout;
+	private List<String> _vertices;
+	private Map<String, List<String>> _children;
+	private Map<String, Dimension> _sizes;
+
+	@Before
+	public void createLayout() {
+		_layout = new LayeredGraphLayout<String>(10);
+		_vertices = Lists.newArrayList();
+		_children = Maps.newHashMap();
+		_sizes = Maps.newHashMap();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testCreate_nonPositiveThreshold() {
+		new LayeredGraphLayout<String>(0);
+	}
+
+	@Test
+	public void testComputeLayout_independentVerticesShareOneLayer() {
+		addVertices("a", "b", "c");
+
+		Map<String, Point> positions = _layout.computeLayout(_vertices, _children, _sizes);
+
+		assertThat(positions).hasSize(3);
+		assertThat(positions.get("a").y).isEqualTo(positions.get("b").y).isEqualTo(positions.get("c").y);
+		assertThat(positions.get("a").x).isLessThan(positions.get("b").x);
+		assertThat(positions.get("b").x).isLessThan(positions.get("c").x);
+	}
+
+	@Test
+	public void testComputeLayout_childrenBelowParents() {
+		addVertices("a", "b", "c");
+		addEdge("a", "b");
+		addEdge("b", "c");
+		addEdge("a", "c");
+
+		Map<String, Point> positions = _layout.computeLayout(_vertices, _children, _sizes);
+
+		assertThat(positions.get("a").y).isLessThan(positions.get("b").y);
+		assertThat(positions.get("b").y).isLessThan(positions.get("c").y);
+	}
+
+	@Test
+	public void testComputeLayout_verticesDoNotOverlap() {
+		addVertices("a", "b", "c", "d", "e");
+		addEdge("a", "d");
+		addEdge("b", "e");
+		addEdge("c", "d");
+
+		Map<String, Point> positions = _layout.computeLayout(_vertices, _children, _sizes);
+
+		for (String v1 : _vertices) {
+			for (String v2 : _vertices) {
+				if (!v1.equals(v2) && positions.get(v1).y == positions.get(v2).y) {
+					assertThat(Math.abs(positions.get(v1).x - positions.get(v2).x)).isGreaterThanOrEqualTo(
+							SIZE.width);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testComputeLayout_crossingReduction() {
+		addVertices("a", "b", "x", "y");
+		addEdge("a", "y");
+		addEdge("b", "x");
+
+		Map<String, Point> positions = _layout.computeLayout(_vertices, _children, _sizes);
+
+		assertThat(positions.get("y").x).isLessThan(positions.get("x").x);
+	}
+
+	@Test
+	public void testComputeLayout_gridAboveThreshold() {
+		for (int i = 0; i < 16; i++) {
+			addVertices(Integer.toString(i));
+		}
+		assertThat(_layout.isGrid(_vertices.size())).isTrue();
+
+		Map<String, Point> positions = _layout.computeLayout(_vertices, _children, _sizes);
+
+		assertThat(positions).hasSize(16);
+		assertThat(positions.get("0").y).isEqualTo(positions.get("3").y);
+		assertThat(positions.get("0").y).isLessThan(positions.get("4").y);
+		assertThat(positions.get("0").x).isEqualTo(positions.get("4").x);
+	}
+
+	@Test
+	public void testComputeLayers() {
+		addVertices("a", "b", "c", "d");
+		addEdge("a", "c");
+		addEdge("c", "d");
+		addEdge("b", "d");
+
+		List<List<String>> layers = _layout.computeLayers(_vertices, _children);
+
+		assertThat(layers).hasSize(3);
+		assertThat(layers.get(0)).containsExactly("a", "b");
+		assertThat(layers.get(1)).containsExactly("c");
+		assertThat(layers.get(2)).containsExactly("d");
+	}
+
+	private void addVertices(String... vertices) {
+		for (String vertex : vertices) {
+			_vertices.add(vertex);
+			_sizes.put(vertex, SIZE);
+		}
+	}
+
+	private void addEdge(String from, String to) {
+		if (!_children.containsKey(from)) {
+			_children.put(from, Lists.<String> newArrayList());
+		}
+		_children.get(from).add(to);
+	}
+
+}
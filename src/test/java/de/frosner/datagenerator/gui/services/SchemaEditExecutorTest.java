@@ -0,0 +1,116 @@
+package de.frosner.datagenerator.gui.services;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.DummyDistribution;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.gui.main.DummyFeatureDefinitionEntry;
+import de.frosner.datagenerator.gui.main.FeatureDefinitionEntry;
+import de.frosner.datagenerator.gui.main.VariableColumnCountTableModel;
+
+public class SchemaEditExecutorTest {
+
+	private DataGeneratorService _service;
+	private SchemaEditExecutor _executor;
+	private VariableColumnCountTableModel _table;
+
+	private FeatureDefinitionEntry _feature1 = new DummyFeatureDefinitionEntry(new FeatureDefinition("1",
+			new DummyDistribution()));
+	private FeatureDefinitionEntry _feature2 = new DummyFeatureDefinitionEntry(new FeatureDefinition("2",
+			new DummyDistribution()));
+	private FeatureDefinitionEntry _feature3 = new DummyFeatureDefinitionEntry(new FeatureDefinition("3",
+			new DummyDistribution()));
+
+	@Before
+	public void createExecutor() {
+		_service = new DataGeneratorService();
+		_executor = new SchemaEditExecutor(_service, 50);
+		_table = new VariableColumnCountTableModel(2, 1);
+		PreviewTableManager.managePreviewTable(_table);
+	}
+
+	@After
+	public void shutdownExecutor() throws InterruptedException, InvocationTargetException {
+		_executor.shutdown();
+		// the preview is filled in the event dispatch thread, which must be done with the table before it is unset
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+		PreviewTableManager.stopManaging();
+	}
+
+	@Test(timeout = 5000)
+	public void testEditsAreAppliedInOrder() throws InterruptedException {
+		_executor.addFeatureDefinition(_feature1);
+		_executor.addFeatureDefinition(_feature2);
+		_executor.removeFeatureDefinition(_feature1);
+		_executor.replaceFeatureDefinition(_feature2, _feature3);
+		_executor.shutdown();
+
+		assertThat(_service.getFeatureDefinitions()).containsExactly(_feature3.getFeatureDefinition());
+	}
+
+	@Test(timeout = 5000)
+	public void testPreviewIsRegeneratedOncePerBurst() throws InterruptedException {
+		final List<Integer> columnCounts = Lists.newArrayList();
+		_executor.addFeatureDefinition(_feature1);
+		_executor.addFeatureDefinition(_feature2);
+		_executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				columnCounts.add(_table.getColumnCount());
+			}
+		});
+		_executor.addFeatureDefinition(_feature3);
+		_executor.shutdown();
+
+		assertThat(columnCounts).containsExactly(1);
+		assertThat(_table.getColumnCount()).isEqualTo(3);
+	}
+
+	@Test(timeout = 5000)
+	public void testFailingEditDoesNotStopExecutor() throws InterruptedException {
+		_executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				throw new IllegalStateException();
+			}
+		});
+		_executor.addFeatureDefinition(_feature1);
+		_executor.shutdown();
+
+		assertThat(_service.getFeatureDefinitions()).containsExactly(_feature1.getFeatureDefinition());
+	}
+
+	@Test(timeout = 5000)
+	public void testShutdown() throws InterruptedException {
+		_executor.addFeatureDefinition(_feature1);
+		_executor.shutdown();
+
+		assertThat(_executor.isTerminated()).isTrue();
+		assertThat(_service.getFeatureDefinitions()).containsExactly(_feature1.getFeatureDefinition());
+		_executor.shutdown();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testSubmitAfterShutdown() throws InterruptedException {
+		_executor.shutdown();
+		_executor.addFeatureDefinition(_feature1);
+	}
+
+}
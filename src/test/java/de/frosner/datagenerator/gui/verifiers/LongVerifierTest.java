@@ -0,0 +1,28 @@
+package de.frosner.datagenerator.gui.verifiers;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class LongVerifierTest {
+
+	@Test
+	public void testIsLong() {
+		assertThat(InputVerifier.isLong("").verify()).isFalse();
+		assertThat(InputVerifier.isLong("x").verify()).isFalse();
+		assertThat(InputVerifier.isLong("1.0").verify()).isFalse();
+		assertThat(InputVerifier.isLong("9223372036854775808").verify()).isFalse();
+		assertThat(InputVerifier.isLong("1").verify()).isTrue();
+		assertThat(InputVerifier.isLong("2147483648").verify()).isTrue();
+		assertThat(InputVerifier.isLong("9223372036854775807").verify()).isTrue();
+		assertThat(InputVerifier.isLong("-9223372036854775808").verify()).isTrue();
+	}
+
+	@Test
+	public void testIsPositive() {
+		assertThat(InputVerifier.isLong("3000000000").isPositive().verify()).isTrue();
+		assertThat(InputVerifier.isLong("0").isPositive().verify()).isFalse();
+		assertThat(InputVerifier.isLong("-1").isPositive().verify()).isFalse();
+	}
+
+}
@@ -0,0 +1,175 @@
+package de.frosner.datagenerator.importer;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.exceptions.IllegalNetworkFormatException;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class BayesianNetworkImporterTest {
+
+	private static final String BIF = "network \"Dog-Problem\" { // comment\n property \"x\"; }\n"
+			+ "variable \"dog-out\" { type discrete [ 2 ] { true, false }; property \"position = (1, 2)\"; }\n"
+			+ "variable bowel { type discrete [ 2 ] { true false }; }\n"
+			+ "variable family { type discrete [ 2 ] { true, false }; }\n"
+			+ "probability ( \"dog-out\" | bowel, family ) { /* rows */\n"
+			+ "  (true, true) 0.99, 0.01;\n  (false, false) 0.3, 0.7;\n  default 0.9 0.1;\n}\n"
+			+ "probability ( bowel ) { table 0.01, 0.99; }\n"
+			+ "probability ( family ) { table 0.15 0.85 ; }\n";
+
+	private static final String XML_BIF = "<?xml version=\"1.0\"?>\n<BIF VERSION=\"0.3\"><NETWORK>"
+			+ "<NAME>Dog-Problem</NAME>"
+			+ "<VARIABLE TYPE=\"nature\"><NAME>dog-out</NAME><OUTCOME>true</OUTCOME><OUTCOME>false</OUTCOME>"
+			+ "<PROPERTY>position = (1, 2)</PROPERTY></VARIABLE>"
+			+ "<DEFINITION><FOR>dog-out</FOR><GIVEN>bowel</GIVEN><GIVEN>family</GIVEN>"
+			+ "<TABLE>0.99 0.01 0.9 0.1 0.9 0.1 0.3 0.7</TABLE></DEFINITION>"
+			+ "<VARIABLE TYPE=\"nature\"><NAME>bowel</NAME><OUTCOME>true</OUTCOME><OUTCOME>false</OUTCOME></VARIABLE>"
+			+ "<VARIABLE TYPE=\"nature\"><NAME>family</NAME><OUTCOME>true</OUTCOME><OUTCOME>false</OUTCOME></VARIABLE>"
+			+ "<DEFINITION><FOR>bowel</FOR><TABLE>0.01 0.99</TABLE></DEFINITION>"
+			+ "<DEFINITION><FOR>family</FOR><TABLE> 0.15 0.85 </TABLE></DEFINITION>" + "</NETWORK></BIF>";
+
+	@Test
+	public void testImportBif() {
+		assertDogProblem(BayesianNetworkImporter.importBif(new StringReader(BIF)));
+	}
+
+	@Test
+	public void testImportBif_table() {
+		String bif = "variable a { type discrete [ 2 ] { x, y }; }\nvariable b { type discrete [ 3 ] { 1, 2, 3 }; }\n"
+				+ "probability ( a ) { table 0.5 0.5; }\n"
+				+ "probability ( b | a ) { table 0.1 0.2 0.3 0.4 0.6 0.4; }\n";
+		FeatureDefinitionGraph graph = BayesianNetworkImporter.importBif(new StringReader(bif));
+		List<FeatureDefinition> features = Lists.newArrayList(graph);
+		ConditionalTableParameter<List<Double>> table = getTable(features.get(1));
+		assertThat(table.getValue(0)).containsExactly(0.1, 0.3, 0.6);
+		assertThat(table.getValue(1)).containsExactly(0.2, 0.4, 0.4);
+	}
+
+	@Test
+	public void testImportXmlBif() {
+		assertDogProblem(BayesianNetworkImporter.importXmlBif(new ByteArrayInputStream(XML_BIF
+				.getBytes(Charsets.UTF_8))));
+	}
+
+	@Test(expected = IllegalNetworkFormatException.class)
+	public void testImportBif_cycle() {
+		String bif = "variable a { type discrete [ 2 ] { x, y }; }\nvariable b { type discrete [ 2 ] { x, y }; }\n"
+				+ "probability ( a | b ) { table 0.5 0.5 0.5 0.5; }\n"
+				+ "probability ( b | a ) { table 0.5 0.5 0.5 0.5; }\n";
+		BayesianNetworkImporter.importBif(new StringReader(bif));
+	}
+
+	@Test(expected = IllegalNetworkFormatException.class)
+	public void testImportBif_unknownState() {
+		String bif = "variable a { type discrete [ 2 ] { x, y }; }\nvariable b { type discrete [ 2 ] { x, y }; }\n"
+				+ "probability ( a ) { table 0.5 0.5; }\n"
+				+ "probability ( b | a ) { (z) 0.5 0.5; default 0.1 0.9; }\n";
+		BayesianNetworkImporter.importBif(new StringReader(bif));
+	}
+
+	@Test(expected = IllegalNetworkFormatException.class)
+	public void testImportBif_incompleteTable() {
+		String bif = "variable a { type discrete [ 2 ] { x, y }; }\nvariable b { type discrete [ 2 ] { x, y }; }\n"
+				+ "probability ( a ) { table 0.5 0.5; }\nprobability ( b | a ) { (x) 0.5 0.5; }\n";
+		BayesianNetworkImporter.importBif(new StringReader(bif));
+	}
+
+	@Test(expected = IllegalNetworkFormatException.class)
+	public void testImportBif_probabilitiesNotSummingUpToOne() {
+		BayesianNetworkImporter.importBif(new StringReader(
+				"variable a { type discrete [ 2 ] { x, y }; }\nprobability ( a ) { table 0.5 0.2; }\n"));
+	}
+
+	@Test(timeout = 10000)
+	public void testImportBif_largeNetwork() {
+		int numberOfNodes = 5000;
+		Random random = new Random(42);
+		StringBuilder bif = new StringBuilder("network large {}\n");
+		for (int i = 0; i < numberOfNodes; i++) {
+			bif.append("variable n").append(i).append(" { type discrete [ 3 ] { a, b, c }; }\n");
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			List<Integer> parents = Lists.newArrayList();
+			for (int j = 0; j < 3 && i > 0; j++) {
+				int parent = random.nextInt(i);
+				if (!parents.contains(parent)) {
+					parents.add(parent);
+				}
+			}
+			bif.append("probability ( n").append(i);
+			for (int j = 0; j < parents.size(); j++) {
+				bif.append(j == 0 ? " | n" : ", n").append(parents.get(j));
+			}
+			bif.append(" ) { table");
+			int numberOfRows = (int) Math.pow(3, parents.size());
+			for (int j = 0; j < 3 * numberOfRows; j++) {
+				bif.append(' ').append((j < numberOfRows) ? "0.2" : "0.4");
+			}
+			bif.append("; }\n");
+		}
+
+		// the fastest of several imports excludes class loading and JIT compilation from the measurement
+		FeatureDefinitionGraph graph = null;
+		long fastestImportNanos = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long start = System.nanoTime();
+			graph = BayesianNetworkImporter.importBif(new StringReader(bif.toString()));
+			fastestImportNanos = Math.min(fastestImportNanos, System.nanoTime() - start);
+		}
+		assertThat(fastestImportNanos).isLessThan(TimeUnit.SECONDS.toNanos(1));
+		assertThat(graph.getNumberOfFeatures()).isEqualTo(numberOfNodes);
+		double sum = 0;
+		int numberOfInstances = 20;
+		for (Instance instance : GeneratedInstances.of(graph, numberOfInstances, 7)) {
+			for (int i = 0; i < numberOfNodes; i++) {
+				sum += ((DiscreteFeatureValue) instance.getFeatureValue(i)).getIntValue();
+			}
+		}
+		assertThat(sum / (numberOfInstances * numberOfNodes)).isEqualTo(0.4 + 2 * 0.4, Delta.delta(0.02));
+	}
+
+	private static void assertDogProblem(FeatureDefinitionGraph graph) {
+		List<FeatureDefinition> features = Lists.newArrayList(graph);
+		assertThat(features).hasSize(3);
+		assertThat(features.get(2).getName()).isEqualTo("dog-out");
+		assertThat(features.get(2).getDependentParameters()).hasSize(2);
+
+		ConditionalTableParameter<List<Double>> table = getTable(features.get(2));
+		assertThat(table.getValue(0, 0)).containsExactly(0.99, 0.01);
+		assertThat(table.getValue(0, 1)).containsExactly(0.9, 0.1);
+		assertThat(table.getValue(1, 0)).containsExactly(0.9, 0.1);
+		assertThat(table.getValue(1, 1)).containsExactly(0.3, 0.7);
+
+		int dogOut = 0;
+		int numberOfInstances = 20000;
+		for (Instance instance : GeneratedInstances.of(graph, numberOfInstances, 1)) {
+			dogOut += 1 - ((DiscreteFeatureValue) instance.getFeatureValue(2)).getIntValue();
+		}
+		double expected = 0.01 * 0.15 * 0.99 + 0.01 * 0.85 * 0.9 + 0.99 * 0.15 * 0.9 + 0.99 * 0.85 * 0.3;
+		assertThat((double) dogOut / numberOfInstances).isEqualTo(expected, Delta.delta(0.02));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ConditionalTableParameter<List<Double>> getTable(FeatureDefinition feature) {
+		return (ConditionalTableParameter<List<Double>>) ((CategorialDistribution) feature.getDistribution())
+				.getProbabilities();
+	}
+
+}
@@ -0,0 +1,160 @@
+package de.frosner.datagenerator.importer;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+
+import org.fest.assertions.Delta;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ConditionalTableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.exceptions.IllegalCsvFormatException;
+import de.frosner.datagenerator.export.CsvExportConnection;
+import de.frosner.datagenerator.export.ExportFeatureNames;
+import de.frosner.datagenerator.export.ExportInstanceIds;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.DataGenerator;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class CsvImporterTest {
+
+	@Rule
+	public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testImportCsv_inferTypes() throws IOException {
+		StringBuilder csv = new StringBuilder("\uFEFFID,Height,\"Smoker\",Color,Comment,Empty\r\n");
+		Random random = new Random(1);
+		String[] colors = { "red", "green", "blue" };
+		for (int id = 0; id < 10000; id++) {
+			csv.append(id).append(',').append(170 + 10 * random.nextGaussian()).append(',');
+			csv.append((random.nextDouble() < 0.3) ? 1 : 0).append(',').append(colors[random.nextInt(3)]);
+			csv.append(",\"comment \"\"").append(id).append("\"\"\",\r\n");
+		}
+		File file = write(csv.toString());
+
+		FeatureDefinitionGraph graph = CsvImporter.importCsv(file, ExportInstanceIds.YES, false, 3, 4096);
+
+		List<FeatureDefinition> features = Lists.newArrayList(graph);
+		assertThat(features).hasSize(3);
+		assertThat(features.get(0).getName()).isEqualTo("Height");
+		GaussianDistribution height = (GaussianDistribution) features.get(0).getDistribution();
+		assertThat(height.getMean().getParameter()).isEqualTo(170, Delta.delta(0.5));
+		assertThat(height.getSigma().getParameter()).isEqualTo(10, Delta.delta(0.5));
+		assertThat(features.get(1).getName()).isEqualTo("Smoker");
+		BernoulliDistribution smoker = (BernoulliDistribution) features.get(1).getDistribution();
+		assertThat(smoker.getP().getParameter()).isEqualTo(0.3, Delta.delta(0.02));
+		assertThat(features.get(2).getName()).isEqualTo("Color");
+		CategorialDistribution color = (CategorialDistribution) features.get(2).getDistribution();
+		assertThat(color.getProbabilities().getParameter()).hasSize(3);
+		assertThat(color.getProbabilities().getParameter().get(0)).isEqualTo(1.0 / 3, Delta.delta(0.02));
+
+		FeatureDefinitionGraph singleChunkGraph = CsvImporter.importCsv(file, ExportInstanceIds.YES, false, 1,
+				CsvImporter.DEFAULT_CHUNK_SIZE);
+		FeatureDefinition singleChunkSmoker = Lists.newArrayList(singleChunkGraph).get(1);
+		assertThat(((BernoulliDistribution) singleChunkSmoker.getDistribution()).getP().getParameter()).isEqualTo(
+				smoker.getP().getParameter());
+	}
+
+	@Test
+	public void testImportCsv_learnDependencies() throws IOException {
+		StringBuilder csv = new StringBuilder("Group,Smoker,Height,Noise\n");
+		Random random = new Random(2);
+		for (int i = 0; i < 20000; i++) {
+			boolean isB = random.nextBoolean();
+			csv.append(isB ? "b" : "a").append(',');
+			csv.append((random.nextDouble() < (isB ? 0.8 : 0.1)) ? 1 : 0).append(',');
+			csv.append((isB ? 180 : 160) + 5 * random.nextGaussian()).append(',');
+			csv.append(random.nextGaussian()).append('\n');
+		}
+
+		FeatureDefinitionGraph graph = CsvImporter.importCsv(write(csv.toString()), ExportInstanceIds.NO, true, 4,
+				64 * 1024);
+
+		List<FeatureDefinition> features = Lists.newArrayList(graph);
+		assertThat(features.get(0).getName()).isEqualTo("Group");
+		BernoulliDistribution smoker = (BernoulliDistribution) features.get(1).getDistribution();
+		ConditionalTableParameter<Double> p = (ConditionalTableParameter<Double>) smoker.getP();
+		assertThat(p.getParentParameters().get(0).getFeatureDefinitionConditionedOn()).isSameAs(features.get(0));
+		assertThat(p.getValue(0)).isEqualTo(0.1, Delta.delta(0.02));
+		assertThat(p.getValue(1)).isEqualTo(0.8, Delta.delta(0.02));
+		GaussianDistribution height = (GaussianDistribution) features.get(2).getDistribution();
+		assertThat(height.getMean()).isInstanceOf(DiscreteVariableParameter.class);
+		assertThat(((DiscreteVariableParameter<Double>) height.getMean()).getFeatureDefinitionConditionedOn())
+				.isSameAs(features.get(0));
+		GaussianDistribution noise = (GaussianDistribution) features.get(3).getDistribution();
+		assertThat(noise.getMean()).isInstanceOf(FixedParameter.class);
+
+		double heightOfB = 0;
+		int numberOfB = 0;
+		for (Instance instance : GeneratedInstances.of(graph, 2000, 3)) {
+			if (instance.getFeatureValue(0).getValueAsString().equals("1")) {
+				heightOfB += Double.parseDouble(instance.getFeatureValue(2).getValueAsString());
+				numberOfB++;
+			}
+		}
+		assertThat(heightOfB / numberOfB).isEqualTo(180, Delta.delta(1));
+	}
+
+	@Test
+	public void testImportCsv_exportedFile() throws IOException {
+		FeatureDefinitionGraph original = CsvImporter.importCsv(write("Height,Smoker\n170.5,1\n160.25,0\n180,0\n"));
+		File file = _temporaryFolder.newFile();
+		OutputStream out = new FileOutputStream(file);
+		CsvExportConnection connection = new CsvExportConnection(out, ExportFeatureNames.YES, ExportInstanceIds.YES);
+		new DataGenerator(1000, connection, original, 42).generate();
+		connection.close();
+
+		FeatureDefinitionGraph imported = CsvImporter.importCsv(file, ExportInstanceIds.YES, true, 2);
+
+		List<FeatureDefinition> features = Lists.newArrayList(imported);
+		assertThat(features).hasSize(2);
+		assertThat(features.get(0).getDistribution()).isInstanceOf(GaussianDistribution.class);
+		assertThat(features.get(1).getDistribution()).isInstanceOf(BernoulliDistribution.class);
+	}
+
+	@Test(expected = IllegalCsvFormatException.class)
+	public void testImportCsv_wrongNumberOfFields() throws IOException {
+		CsvImporter.importCsv(write("a,b\n1,2\n3\n"));
+	}
+
+	@Test(expected = IllegalCsvFormatException.class)
+	public void testImportCsv_unterminatedQuote() throws IOException {
+		CsvImporter.importCsv(write("a,b\n1,\"2\n3,4\n"));
+	}
+
+	@Test(expected = IllegalCsvFormatException.class)
+	public void testImportCsv_empty() throws IOException {
+		CsvImporter.importCsv(write(""));
+	}
+
+	@Test(expected = IllegalCsvFormatException.class)
+	public void testImportCsv_noColumnToImport() throws IOException {
+		CsvImporter.importCsv(write("a\n\n"));
+	}
+
+	private File write(String content) throws IOException {
+		File file = _temporaryFolder.newFile();
+		Files.write(content, file, Charsets.UTF_8);
+		return file;
+	}
+
+}
@@ -0,0 +1,331 @@
+package de.frosner.datagenerator.server;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import de.frosner.datagenerator.distributions.BernoulliDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.DiscreteVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+
+public class DataGeneratorHttpServerTest {
+
+	private DataGeneratorHttpServer _server;
+
+	@Before
+	public void startServer() {
+		FeatureDefinition coin = new FeatureDefinition("Coin", new BernoulliDistribution(new FixedParameter<Double>(
+				0.5)));
+		Map<DiscreteFeatureValue, Double> means = Maps.newHashMap();
+		means.put(new DiscreteFeatureValue(0), -10d);
+		means.put(new DiscreteFeatureValue(1), 10d);
+		DiscreteVariableParameter<Double> meanParameter = new DiscreteVariableParameter<Double>(means, coin);
+		FeatureDefinition mean = new FeatureDefinition("Mean", new GaussianDistribution(meanParameter,
+				new FixedParameter<Double>(1d)));
+		ContinuousVariableParameter valueMeanParameter = new ContinuousVariableParameter(mean);
+		FeatureDefinition value = new FeatureDefinition("Value", new GaussianDistribution(valueMeanParameter,
+				new FixedParameter<Double>(1d)));
+
+		FeatureDefinitionGraph graph = new FeatureDefinitionGraph();
+		graph.addFeatureDefinition(coin);
+		graph.addFeatureDefinitionParameterDependency(coin, mean, meanParameter);
+		graph.addFeatureDefinitionParameterDependency(mean, value, valueMeanParameter);
+
+		_server = new DataGeneratorHttpServer(0, 4);
+		_server.registerSchema("test", graph);
+		_server.start();
+	}
+
+	@After
+	public void stopServer() {
+		_server.stop();
+	}
+
+	@Test
+	public void testGenerate() throws IOException {
+		HttpURLConnection connection = open("schema=test&rows=2500&seed=7&header=true&ids=true");
+
+		assertThat(connection.getResponseCode()).isEqualTo(200);
+		List<String> lines = readLines(connection);
+		assertThat(lines).hasSize(2501);
+		assertThat(lines.get(0)).isEqualTo("ID,Coin,Mean,Value");
+		assertThat(lines.get(2500)).startsWith("2499,");
+	}
+
+	@Test
+	public void testGenerate_concurrentRequestsShareSchema() throws Exception {
+		final String sequential = readBody(open("schema=test&rows=3000&seed=42"));
+
+		ExecutorService clients = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> responses = Lists.newArrayList();
+			for (int i = 0; i < 8; i++) {
+				responses.add(clients.submit(new Callable<String>() {
+					@Override
+					public String call() throws IOException {
+						return readBody(open("schema=test&rows=3000&seed=42"));
+					}
+				}));
+			}
+			for (Future<String> response : responses) {
+				assertThat(response.get()).isEqualTo(sequential);
+			}
+		} finally {
+			clients.shutdown();
+		}
+	}
+
+	@Test
+	public void testGenerate_differentSeeds() throws IOException {
+		assertThat(readBody(open("schema=test&rows=10&seed=1"))).isNotEqualTo(
+				readBody(open("schema=test&rows=10&seed=2")));
+	}
+
+	@Test
+	public void testGenerate_unknownSchema() throws IOException {
+		assertThat(open("schema=unknown&rows=10&seed=1").getResponseCode()).isEqualTo(404);
+	}
+
+	@Test
+	public void testGenerate_invalidRows() throws IOException {
+		assertThat(open("schema=test&rows=abc&seed=1").getResponseCode()).isEqualTo(400);
+		assertThat(open("schema=test&rows=0&seed=1").getResponseCode()).isEqualTo(400);
+	}
+
+	@Test
+	public void testGenerate_jsonLines() throws IOException {
+		HttpURLConnection connection = open("schema=test&rows=1500&seed=7&format=jsonl&ids=true");
+
+		assertThat(connection.getResponseCode()).isEqualTo(200);
+		assertThat(connection.getContentType()).isEqualTo("application/x-ndjson");
+		List<String> lines = readLines(connection);
+		assertThat(lines).hasSize(1500);
+		assertThat(lines.get(1499)).startsWith("{\"ID\":1499,\"Coin\":");
+	}
+
+	@Test
+	public void testGenerate_avro() throws IOException {
+		HttpURLConnection connection = open("schema=test&rows=1500&seed=7&format=avro");
+
+		assertThat(connection.getResponseCode()).isEqualTo(200);
+		assertThat(connection.getContentType()).isEqualTo("avro/binary");
+		InputStream in = connection.getInputStream();
+		try {
+			byte[] body = ByteStreams.toByteArray(in);
+			assertThat(new String(body, 0, 3, Charsets.US_ASCII)).isEqualTo("Obj");
+			assertThat(body[3]).isEqualTo((byte) 1);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testGenerate_stopAbortsResponse() throws IOException {
+		HttpURLConnection connection = open("schema=test&rows=" + Long.MAX_VALUE + "&seed=7");
+		InputStream in = connection.getInputStream();
+		try {
+			assertThat(in.read(new byte[1000])).isGreaterThan(0);
+			_server.stop();
+
+			ByteStreams.toByteArray(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testHandle_interruptedGenerationIsNotEnded() throws IOException {
+		StubExchange exchange = new StubExchange(new ByteArrayOutputStream());
+
+		Thread.currentThread().interrupt();
+		try {
+			_server.new GenerateHandler().handle(exchange);
+			fail("Interrupted generation must not end the response.");
+		} catch (InterruptedIOException e) {
+			// expected
+		} finally {
+			Thread.interrupted();
+		}
+		assertThat(exchange.isClosed()).isFalse();
+	}
+
+	@Test
+	public void testHandle_disconnectedClient() throws IOException {
+		final IOException disconnected = new IOException("Broken pipe");
+		StubExchange exchange = new StubExchange(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw disconnected;
+			}
+		});
+
+		try {
+			_server.new GenerateHandler().handle(exchange);
+			fail("Failed response must not be ended.");
+		} catch (IOException e) {
+			assertThat(e).isSameAs(disconnected);
+		}
+		assertThat(exchange.isClosed()).isFalse();
+	}
+
+	@Test
+	public void testGenerate_unsupportedFormat() throws IOException {
+		assertThat(open("schema=test&rows=10&seed=1&format=xml").getResponseCode()).isEqualTo(400);
+	}
+
+	private HttpURLConnection open(String query) throws IOException {
+		return (HttpURLConnection) new URL("http://localhost:" + _server.getPort()
+				+ DataGeneratorHttpServer.GENERATE_PATH + "?" + query).openConnection();
+	}
+
+	private static String readBody(HttpURLConnection connection) throws IOException {
+		InputStream in = connection.getInputStream();
+		try {
+			return new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static List<String> readLines(HttpURLConnection connection) throws IOException {
+		return Lists.newArrayList(Splitter.on('\n').omitEmptyStrings().split(readBody(connection)));
+	}
+
+	/**
+	 * Exchange requesting 100000 rows of the test schema and writing the response to the specified stream.
+	 */
+	private static final class StubExchange extends HttpExchange {
+
+		private final Headers _responseHeaders = new Headers();
+		private final OutputStream _responseBody;
+		private boolean _closed = false;
+
+		StubExchange(OutputStream responseBody) {
+			_responseBody = responseBody;
+		}
+
+		boolean isClosed() {
+			return _closed;
+		}
+
+		@Override
+		public Headers getRequestHeaders() {
+			return new Headers();
+		}
+
+		@Override
+		public Headers getResponseHeaders() {
+			return _responseHeaders;
+		}
+
+		@Override
+		public URI getRequestURI() {
+			return URI.create(DataGeneratorHttpServer.GENERATE_PATH + "?schema=test&rows=100000&seed=7");
+		}
+
+		@Override
+		public String getRequestMethod() {
+			return "GET";
+		}
+
+		@Override
+		public HttpContext getHttpContext() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			_closed = true;
+		}
+
+		@Override
+		public InputStream getRequestBody() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public OutputStream getResponseBody() {
+			return _responseBody;
+		}
+
+		@Override
+		public void sendResponseHeaders(int rCode, long responseLength) {
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return new InetSocketAddress("localhost", 0);
+		}
+
+		@Override
+		public int getResponseCode() {
+			return 200;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return new InetSocketAddress("localhost", 0);
+		}
+
+		@Override
+		public String getProtocol() {
+			return "HTTP/1.1";
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			return null;
+		}
+
+		@Override
+		public void setAttribute(String name, Object value) {
+		}
+
+		@Override
+		public void setStreams(InputStream i, OutputStream o) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public HttpPrincipal getPrincipal() {
+			return null;
+		}
+
+	}
+
+}
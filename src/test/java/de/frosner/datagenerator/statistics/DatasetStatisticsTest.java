@@ -0,0 +1,166 @@
+package de.frosner.datagenerator.statistics;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.fest.assertions.Delta;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.frosner.datagenerator.distributions.CategorialDistribution;
+import de.frosner.datagenerator.distributions.ContinuousVariableParameter;
+import de.frosner.datagenerator.distributions.FixedParameter;
+import de.frosner.datagenerator.distributions.GaussianDistribution;
+import de.frosner.datagenerator.distributions.UniqueKeyDistribution;
+import de.frosner.datagenerator.distributions.ZipfDistribution;
+import de.frosner.datagenerator.features.DiscreteFeatureValue;
+import de.frosner.datagenerator.features.FeatureDefinition;
+import de.frosner.datagenerator.generator.FeatureDefinitionGraph;
+import de.frosner.datagenerator.generator.GeneratedInstances;
+import de.frosner.datagenerator.generator.Instance;
+
+public class DatasetStatisticsTest {
+
+	private FeatureDefinitionGraph _graph;
+
+	@Before
+	public void createGraph() {
+		FeatureDefinition height = new FeatureDefinition("Height", new GaussianDistribution(
+				new FixedParameter<Double>(180d), new FixedParameter<Double>(10d)));
+		ContinuousVariableParameter weightMean = new ContinuousVariableParameter(height);
+		FeatureDefinition weight = new FeatureDefinition("Weight", new GaussianDistribution(weightMean,
+				new FixedParameter<Double>(5d)));
+		FeatureDefinition category = new FeatureDefinition("Category", new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.2, 0.3, 0.5))));
+		_graph = new FeatureDefinitionGraph();
+		_graph.addFeatureDefinition(height);
+		_graph.addFeatureDefinitionParameterDependency(height, weight, weightMean);
+		_graph.addFeatureDefinition(category);
+	}
+
+	@Test
+	public void testAdd() {
+		DatasetStatistics statistics = new DatasetStatistics(_graph);
+		for (Instance instance : GeneratedInstances.of(_graph, 20000, 3)) {
+			statistics.add(instance);
+		}
+
+		FeatureStatistics height = statistics.getFeatureStatistics(0);
+		assertThat(height.isDiscrete()).isFalse();
+		assertThat(height.getMoments().getMean()).isEqualTo(180, Delta.delta(0.5));
+		assertThat(height.getMoments().getVariance()).isEqualTo(100, Delta.delta(5));
+		assertThat(height.getQuantiles().getQuantile(0.5)).isEqualTo(180, Delta.delta(1));
+
+		FeatureStatistics category = statistics.getFeatureStatistics(2);
+		assertThat(category.isDiscrete()).isTrue();
+		assertThat(category.getFrequencies().getCount(2) / 20000d).isEqualTo(0.5, Delta.delta(0.02));
+		assertThat(category.getMoments().getMean()).isEqualTo(1.3, Delta.delta(0.03));
+	}
+
+	@Test
+	public void testMerge() {
+		DatasetStatistics all = new DatasetStatistics(_graph);
+		DatasetStatistics merged = new DatasetStatistics(_graph);
+		for (GeneratedInstances part : GeneratedInstances.of(_graph, 1000, 3).split(3)) {
+			DatasetStatistics partStatistics = new DatasetStatistics(_graph);
+			for (Instance instance : part) {
+				all.add(instance);
+				partStatistics.add(instance);
+			}
+			merged.merge(partStatistics);
+		}
+
+		for (int i = 0; i < all.getNumberOfFeatures(); i++) {
+			assertThat(merged.getFeatureStatistics(i).getMoments().getCount()).isEqualTo(1000);
+			assertThat(merged.getFeatureStatistics(i).getMoments().getMean()).isEqualTo(
+					all.getFeatureStatistics(i).getMoments().getMean(), Delta.delta(1e-9));
+		}
+	}
+
+	@Test
+	public void testCreateReport() {
+		DatasetStatistics statistics = new DatasetStatistics(_graph);
+		for (Instance instance : GeneratedInstances.of(_graph, 100, 3)) {
+			statistics.add(instance);
+		}
+
+		String[] lines = statistics.createReport().split("\n");
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).startsWith("Height: n = 100").contains("(expected 180.0)").contains("(expected 100.0)");
+		assertThat(lines[1]).startsWith("Weight: n = 100").excludes("expected");
+		assertThat(lines[2]).contains("p(2) = ").contains("(expected 0.5000)");
+	}
+
+	@Test
+	public void testExpectedStatistics_categorial() {
+		ExpectedStatistics expected = ExpectedStatistics.of(new CategorialDistribution(
+				new FixedParameter<List<Double>>(Lists.newArrayList(0.5, 0.5))));
+
+		assertThat(expected.getMean()).isEqualTo(0.5);
+		assertThat(expected.getVariance()).isEqualTo(0.25);
+		assertThat(expected.getProbability(1)).isEqualTo(0.5);
+		assertThat(expected.getProbability(2)).isEqualTo(0);
+	}
+
+	@Test
+	public void testExpectedStatistics_zipf() {
+		int n = 5000;
+		double exponent = 1.2;
+		ExpectedStatistics expected = ExpectedStatistics.of(new ZipfDistribution(new FixedParameter<Integer>(n),
+				new FixedParameter<Double>(exponent)));
+
+		double normalization = 0;
+		double mean = 0;
+		double squareMean = 0;
+		for (int k = n - 1; k >= 0; k--) {
+			double weight = Math.pow(k + 1, -exponent);
+			normalization += weight;
+			mean += k * weight;
+			squareMean += (double) k * k * weight;
+		}
+		mean /= normalization;
+		squareMean /= normalization;
+		assertThat(expected.getMean()).isEqualTo(mean, Delta.delta(1e-9 * mean));
+		assertThat(expected.getVariance()).isEqualTo(squareMean - mean * mean,
+				Delta.delta(1e-9 * (squareMean - mean * mean)));
+		assertThat(expected.getProbability(0)).isEqualTo(1 / normalization, Delta.delta(1e-12));
+		assertThat(expected.getProbability(n)).isEqualTo(0);
+	}
+
+	@Test
+	public void testExpectedStatistics_uniqueKey() {
+		int keySpaceSize = 1 << 30;
+		ExpectedStatistics expected = ExpectedStatistics.of(new UniqueKeyDistribution(keySpaceSize, 1));
+
+		double variance = ((double) keySpaceSize * keySpaceSize - 1) / 12;
+		assertThat(expected.getMean()).isEqualTo((keySpaceSize - 1) / 2d, Delta.delta(1e-6));
+		assertThat(expected.getVariance()).isEqualTo(variance, Delta.delta(1e-12 * variance));
+		assertThat(expected.getProbability(keySpaceSize - 1)).isEqualTo(1d / keySpaceSize, Delta.delta(1e-20));
+		assertThat(expected.getProbability(-1)).isEqualTo(0);
+	}
+
+	@Test
+	public void testGeneralizedHarmonicNumber() {
+		assertThat(ExpectedStatistics.generalizedHarmonicNumber(3, 1)).isEqualTo(1 + 1 / 2d + 1 / 3d,
+				Delta.delta(1e-12));
+		double sum = 0;
+		for (int m = 100000; m >= 1; m--) {
+			sum += 1d / m;
+		}
+		assertThat(ExpectedStatistics.generalizedHarmonicNumber(100000, 1)).isEqualTo(sum, Delta.delta(1e-12));
+	}
+
+	@Test
+	public void testCreateReport_manyDistinctValues() {
+		FeatureStatistics statistics = new FeatureStatistics("Key", true, null);
+		for (int value = 0; value < 100; value++) {
+			statistics.add(new DiscreteFeatureValue(value));
+		}
+
+		assertThat(statistics.describe()).contains("distinct = 100").excludes("p(");
+	}
+
+}
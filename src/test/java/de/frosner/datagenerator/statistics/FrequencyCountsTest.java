@@ -0,0 +1,80 @@
+package de.frosner.datagenerator.statistics;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.SortedMap;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+public class FrequencyCountsTest {
+
+	@Test
+	public void testAdd() {
+		FrequencyCounts counts = new FrequencyCounts();
+		counts.add(1);
+		counts.add(1);
+		counts.add(100);
+		counts.add(-3);
+		counts.add(1 << 20);
+
+		assertThat(counts.getCount(1)).isEqualTo(2);
+		assertThat(counts.getCount(100)).isEqualTo(1);
+		assertThat(counts.getCount(-3)).isEqualTo(1);
+		assertThat(counts.getCount(1 << 20)).isEqualTo(1);
+		assertThat(counts.getCount(0)).isEqualTo(0);
+	}
+
+	@Test
+	public void testMerge() {
+		FrequencyCounts first = new FrequencyCounts();
+		first.add(0);
+		first.add(-1);
+		FrequencyCounts second = new FrequencyCounts();
+		second.add(0);
+		second.add(-1);
+		second.add(50);
+		first.merge(second);
+
+		SortedMap<Integer, Long> expected = Maps.newTreeMap();
+		expected.put(-1, 2L);
+		expected.put(0, 2L);
+		expected.put(50, 1L);
+		assertThat(first.getCounts()).isEqualTo(expected);
+	}
+
+	@Test
+	public void testAdd_sparseValuesCapped() {
+		FrequencyCounts counts = new FrequencyCounts(2);
+		counts.add(1);
+		counts.add(-1);
+		counts.add(1 << 20);
+		assertThat(counts.isComplete()).isTrue();
+
+		counts.add(-2);
+		counts.add(-1);
+		counts.add(-2);
+
+		assertThat(counts.isComplete()).isFalse();
+		assertThat(counts.getUncountedOccurrences()).isEqualTo(2);
+		assertThat(counts.getNumberOfDistinctValues()).isEqualTo(3);
+		assertThat(counts.getCount(-1)).isEqualTo(2);
+		assertThat(counts.getCount(-2)).isEqualTo(0);
+		assertThat(counts.getCount(1)).isEqualTo(1);
+	}
+
+	@Test
+	public void testMerge_uncountedOccurrences() {
+		FrequencyCounts first = new FrequencyCounts(1);
+		first.add(-1);
+		FrequencyCounts second = new FrequencyCounts(1);
+		second.add(-2);
+		second.add(-3);
+		first.merge(second);
+
+		assertThat(first.getCounts()).hasSize(1);
+		assertThat(first.getUncountedOccurrences()).isEqualTo(2);
+	}
+
+}
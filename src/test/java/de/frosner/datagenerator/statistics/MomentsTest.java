@@ -0,0 +1,59 @@
+package de.frosner.datagenerator.statistics;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+public class MomentsTest {
+
+	private static final Delta DELTA = Delta.delta(1e-9);
+
+	@Test
+	public void testAdd() {
+		Moments moments = new Moments();
+		for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+			moments.add(value);
+		}
+
+		assertThat(moments.getCount()).isEqualTo(8);
+		assertThat(moments.getMean()).isEqualTo(5, DELTA);
+		assertThat(moments.getVariance()).isEqualTo(32d / 7, DELTA);
+		assertThat(moments.getMin()).isEqualTo(2);
+		assertThat(moments.getMax()).isEqualTo(9);
+	}
+
+	@Test
+	public void testAdd_empty() {
+		Moments moments = new Moments();
+
+		assertThat(moments.getMean()).isNaN();
+		assertThat(moments.getVariance()).isNaN();
+		assertThat(moments.getMin()).isNaN();
+	}
+
+	@Test
+	public void testMerge() {
+		Moments all = new Moments();
+		Moments first = new Moments();
+		Moments second = new Moments();
+		for (int i = 0; i < 1000; i++) {
+			double value = Math.sin(i) * i;
+			all.add(value);
+			if (i < 300) {
+				first.add(value);
+			} else {
+				second.add(value);
+			}
+		}
+		first.merge(second);
+		first.merge(new Moments());
+
+		assertThat(first.getCount()).isEqualTo(all.getCount());
+		assertThat(first.getMean()).isEqualTo(all.getMean(), DELTA);
+		assertThat(first.getVariance()).isEqualTo(all.getVariance(), Delta.delta(1e-6));
+		assertThat(first.getMin()).isEqualTo(all.getMin());
+		assertThat(first.getMax()).isEqualTo(all.getMax());
+	}
+
+}
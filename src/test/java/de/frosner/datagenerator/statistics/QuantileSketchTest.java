@@ -0,0 +1,65 @@
+package de.frosner.datagenerator.statistics;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Random;
+
+import net.sf.qualitycheck.exception.IllegalStateOfArgumentException;
+
+import org.fest.assertions.Delta;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+	@Test
+	public void testGetQuantile_exactBelowCapacity() {
+		QuantileSketch sketch = new QuantileSketch(16);
+		for (int i = 10; i >= 1; i--) {
+			sketch.add(i);
+		}
+
+		assertThat(sketch.getQuantile(0)).isEqualTo(1);
+		assertThat(sketch.getQuantile(0.5)).isEqualTo(5);
+		assertThat(sketch.getQuantile(1)).isEqualTo(10);
+	}
+
+	@Test
+	public void testGetQuantile_uniform() {
+		QuantileSketch sketch = new QuantileSketch();
+		Random random = new Random(42);
+		for (int i = 0; i < 200000; i++) {
+			sketch.add(random.nextDouble());
+		}
+
+		assertThat(sketch.getCount()).isEqualTo(200000);
+		assertThat(sketch.getQuantile(0.1)).isEqualTo(0.1, Delta.delta(0.02));
+		assertThat(sketch.getQuantile(0.5)).isEqualTo(0.5, Delta.delta(0.02));
+		assertThat(sketch.getQuantile(0.9)).isEqualTo(0.9, Delta.delta(0.02));
+	}
+
+	@Test
+	public void testMerge() {
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		for (int i = 0; i < 100000; i++) {
+			first.add(i);
+			second.add(100000 + i);
+		}
+		first.merge(second);
+
+		assertThat(first.getCount()).isEqualTo(200000);
+		assertThat(first.getQuantile(0.25)).isEqualTo(50000, Delta.delta(4000));
+		assertThat(first.getQuantile(0.75)).isEqualTo(150000, Delta.delta(4000));
+	}
+
+	@Test
+	public void testGetQuantile_empty() {
+		assertThat(new QuantileSketch().getQuantile(0.5)).isNaN();
+	}
+
+	@Test(expected = IllegalStateOfArgumentException.class)
+	public void testGetQuantile_outOfRange() {
+		new QuantileSketch().getQuantile(1.5);
+	}
+
+}
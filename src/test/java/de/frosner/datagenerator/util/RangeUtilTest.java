@@ -0,0 +1,29 @@
+package de.frosner.datagenerator.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class RangeUtilTest {
+
+	@Test
+	public void testEndOfRange() {
+		assertThat(RangeUtil.endOfRange(0, 10, 100)).isEqualTo(10);
+		assertThat(RangeUtil.endOfRange(95, 10, 100)).isEqualTo(100);
+		assertThat(RangeUtil.endOfRange(100, 10, 100)).isEqualTo(100);
+		assertThat(RangeUtil.endOfRange(5, 0, 100)).isEqualTo(5);
+	}
+
+	@Test
+	public void testEndOfRange_startBeyondLimit() {
+		assertThat(RangeUtil.endOfRange(200, 10, 100)).isEqualTo(200);
+	}
+
+	@Test
+	public void testEndOfRange_overflow() {
+		assertThat(RangeUtil.endOfRange(Long.MAX_VALUE - 5, 10, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+		assertThat(RangeUtil.endOfRange(1, Long.MAX_VALUE, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+		assertThat(RangeUtil.endOfRange(Integer.MAX_VALUE, 10, Long.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE + 10L);
+	}
+
+}
@@ -0,0 +1,30 @@
+package de.frosner.datagenerator.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class SeedUtilTest {
+
+	@Test
+	public void testDeriveSeed_deterministic() {
+		assertThat(SeedUtil.deriveSeed(42, 1000, 3)).isEqualTo(SeedUtil.deriveSeed(42, 1000, 3));
+	}
+
+	@Test
+	public void testDeriveSeed_distinct() {
+		Set<Long> seeds = Sets.newHashSet();
+		for (int instanceId = 0; instanceId < 1000; instanceId++) {
+			for (int featureIndex = 0; featureIndex < 10; featureIndex++) {
+				seeds.add(SeedUtil.deriveSeed(42, instanceId, featureIndex));
+			}
+		}
+		assertThat(seeds).hasSize(10000);
+		assertThat(SeedUtil.deriveSeed(42, 0, 0)).isNotEqualTo(SeedUtil.deriveSeed(43, 0, 0));
+	}
+
+}